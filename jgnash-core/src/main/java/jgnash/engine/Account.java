@@ -54,7 +54,6 @@ import javax.persistence.OrderBy;
 import javax.persistence.PostLoad;
 import javax.persistence.Transient;
 
-import jgnash.time.DateUtils;
 import jgnash.util.NotNull;
 import jgnash.util.Nullable;
 
@@ -160,6 +159,23 @@ public class Account extends StoredObject implements Comparable<Account> {
     @Transient
     private transient List<Transaction> cachedSortedTransactionList;
 
+    /**
+     * Running balance index for the cached list of sorted transactions.  This is not persisted
+     */
+    @Transient
+    private transient RunningBalanceIndex runningBalanceIndex;
+
+    /**
+     * Date bucketed balance index for this account and its children.  This is not persisted
+     */
+    @Transient
+    private transient TreeBalanceIndex treeBalanceIndex;
+
+    /**
+     * Index of investment transaction prices, {@code null} until used.  This is not persisted
+     */
+    @Transient
+    private transient volatile SecurityPriceIndex securityPriceIndex;
 
     /**
      * Cached list of sorted accounts this is not persisted.  This prevents concurrency issues when using a JPA backend
@@ -167,6 +183,12 @@ public class Account extends StoredObject implements Comparable<Account> {
     @Transient
     private transient List<Account> cachedSortedChildren;
 
+    /**
+     * Transactions a data store has not loaded yet, {@code null} once they are held by {@code transactions}.
+     */
+    @Transient
+    private transient volatile DeferredTransactions deferredTransactions;
+
     /**
      * Balance of the account.
      *
@@ -230,6 +252,9 @@ public class Account extends StoredObject implements Comparable<Account> {
         securitiesLock = new ReentrantReadWriteLock(true);
         attributesLock = new ReentrantReadWriteLock(true);
 
+        runningBalanceIndex = new RunningBalanceIndex(this);
+        treeBalanceIndex = new TreeBalanceIndex(this);
+
         // CopyOnWrite is used as an alternative to defensive copies
         cachedSortedChildren = new ArrayList<>();
     }
@@ -271,6 +296,33 @@ public class Account extends StoredObject implements Comparable<Account> {
         reconciledBalance = null;
     }
 
+    /**
+     * Adds a transaction amount to the tree balance index of this account and each of its ancestors.
+     *
+     * @param date   date of the transaction
+     * @param amount amount of the transaction, negated for a removal
+     */
+    private void updateTreeBalances(final LocalDate date, final BigDecimal amount) {
+        if (!memberOf(AccountGroup.INVEST)) {   // market value is not indexed
+
+            // the parent is read without the child lock to keep a consistent lock order with tree balance readers
+            for (Account account = this; account != null; account = account.parentAccount) {
+                account.treeBalanceIndex.add(getCurrencyNode(), date, amount);
+            }
+        }
+    }
+
+    /**
+     * Discards the tree balance index of this account and each of its ancestors.
+     */
+    private void clearTreeBalances() {
+        for (Account account = this; account != null; account = account.parentAccount) {
+            if (account.treeBalanceIndex != null) {
+                account.treeBalanceIndex.clear();
+            }
+        }
+    }
+
     /**
      * Adds account transaction in chronological order.
      *
@@ -293,14 +345,24 @@ public class Account extends StoredObject implements Comparable<Account> {
 
                 transactions.add(tran);
 
+                final List<Transaction> sortedList = getCachedSortedTransactionList();
+
                 /* The cached list may already contain the transaction if it has not been initialized yet */
-                if (!getCachedSortedTransactionList().contains(tran)) {
-                    getCachedSortedTransactionList().add(tran);
-                    Collections.sort(getCachedSortedTransactionList());
+                int index = Collections.binarySearch(sortedList, tran);
+
+                if (index < 0) {
+                    index = -index - 1;
+                    sortedList.add(index, tran);
                 }
 
+                runningBalanceIndex.invalidate(index, sortedList.size());
+
                 clearCachedBalances();
 
+                securityPriceIndex = null;
+
+                updateTreeBalances(tran.getLocalDate(), tran.getAmount(this));
+
                 result = true;
             } else {
                 logger.log(Level.SEVERE, "Account: {0}({1}){2}Already have transaction ID: {3}", new Object[]{getName(),
@@ -313,6 +375,79 @@ public class Account extends StoredObject implements Comparable<Account> {
         }
     }
 
+    /**
+     * Adds a list of transactions in chronological order.  The supplied transactions are merged into the sorted list
+     * of transactions in a single pass.
+     *
+     * @param sortedTransactions the {@code Transactions} to be added, must be sorted in their natural order
+     * @return the number of transactions that were added. Transactions already attached to this account are skipped
+     */
+    int addTransactions(final List<Transaction> sortedTransactions) {
+        if (placeHolder) {
+            logger.severe("Tried to add transactions to a place holder account");
+            return 0;
+        }
+
+        transactionLock.writeLock().lock();
+
+        try {
+            // force initialization of the sorted list before the transactions are added
+            final List<Transaction> sortedList = getCachedSortedTransactionList();
+
+            final List<Transaction> addedList = new ArrayList<>(sortedTransactions.size());
+
+            for (final Transaction tran : sortedTransactions) {
+                if (transactions.add(tran)) {
+                    addedList.add(tran);
+                } else {
+                    logger.log(Level.SEVERE, "Account: {0}({1}){2}Already have transaction ID: {3}",
+                            new Object[]{getName(), hashCode(), System.lineSeparator(), tran.hashCode()});
+                }
+            }
+
+            if (!addedList.isEmpty()) {
+                int firstIndex = Collections.binarySearch(sortedList, addedList.get(0));
+
+                if (firstIndex < 0) {
+                    firstIndex = -firstIndex - 1;
+                }
+
+                final List<Transaction> mergedList = new ArrayList<>(sortedList.size() + addedList.size());
+                mergedList.addAll(sortedList.subList(0, firstIndex));
+
+                int i = firstIndex;
+                int j = 0;
+
+                while (i < sortedList.size() && j < addedList.size()) {
+                    if (sortedList.get(i).compareTo(addedList.get(j)) <= 0) {
+                        mergedList.add(sortedList.get(i++));
+                    } else {
+                        mergedList.add(addedList.get(j++));
+                    }
+                }
+
+                mergedList.addAll(sortedList.subList(i, sortedList.size()));
+                mergedList.addAll(addedList.subList(j, addedList.size()));
+
+                cachedSortedTransactionList = mergedList;
+
+                runningBalanceIndex.invalidate(firstIndex, mergedList.size());
+
+                clearCachedBalances();
+
+                securityPriceIndex = null;
+
+                for (final Transaction tran : addedList) {
+                    updateTreeBalances(tran.getLocalDate(), tran.getAmount(this));
+                }
+            }
+
+            return addedList.size();
+        } finally {
+            transactionLock.writeLock().unlock();
+        }
+    }
+
     /**
      * Removes the specified transaction from this account.
      *
@@ -327,10 +462,19 @@ public class Account extends StoredObject implements Comparable<Account> {
             boolean result = false;
 
             if (contains(tran)) {
+                final int index = indexOf(tran);
+
                 transactions.remove(tran);
-                getCachedSortedTransactionList().remove(tran);
+                getCachedSortedTransactionList().remove(index);
+
+                runningBalanceIndex.invalidate(index, getCachedSortedTransactionList().size());
+
                 clearCachedBalances();
 
+                securityPriceIndex = null;
+
+                updateTreeBalances(tran.getLocalDate(), tran.getAmount(this).negate());
+
                 result = true;
             } else {
                 Logger.getLogger(Account.class.toString()).log(Level.SEVERE, "Account: {0}({1}){2}Did not contain transaction ID: {3}", new Object[]{getName(), getUuid(), System.lineSeparator(), tran.getUuid()});
@@ -353,6 +497,8 @@ public class Account extends StoredObject implements Comparable<Account> {
         transactionLock.readLock().lock();
 
         try {
+            loadDeferredTransactions();
+
             return transactions.contains(tran);
         } finally {
             transactionLock.readLock().unlock();
@@ -391,6 +537,28 @@ public class Account extends StoredObject implements Comparable<Account> {
         }
     }
 
+    /**
+     * Returns an index of the investment transaction prices of this account.
+     *
+     * @return index of the sorted transactions
+     */
+    SecurityPriceIndex getSecurityPriceIndex() {
+        transactionLock.readLock().lock();
+
+        try {
+            SecurityPriceIndex index = securityPriceIndex;
+
+            if (index == null) {    // concurrent readers may build the same index
+                index = new SecurityPriceIndex(getCachedSortedTransactionList());
+                securityPriceIndex = index;
+            }
+
+            return index;
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
     /**
      * Returns the transaction at the specified index.
      *
@@ -403,6 +571,16 @@ public class Account extends StoredObject implements Comparable<Account> {
         transactionLock.readLock().lock();
 
         try {
+            final DeferredTransactions deferred = deferredTransactions;
+
+            if (deferred != null) {
+                final Transaction transaction = deferred.get(index);
+
+                if (transaction != null) {
+                    return transaction;
+                }
+            }
+
             return getCachedSortedTransactionList().get(index);
         } finally {
             transactionLock.readLock().unlock();
@@ -418,6 +596,12 @@ public class Account extends StoredObject implements Comparable<Account> {
         transactionLock.readLock().lock();
 
         try {
+            final DeferredTransactions deferred = deferredTransactions;
+
+            if (deferred != null) {
+                return deferred.size();
+            }
+
             return transactions.size();
         } finally {
             transactionLock.readLock().unlock();
@@ -437,6 +621,8 @@ public class Account extends StoredObject implements Comparable<Account> {
         try {
             int number = 0;
 
+            loadDeferredTransactions();
+
             for (final Transaction tran : transactions) {
                 if (numberPattern.matcher(tran.getNumber()).matches()) {
                     try {
@@ -476,6 +662,8 @@ public class Account extends StoredObject implements Comparable<Account> {
 
                     cachedSortedChildren.add(child);
                     Collections.sort(cachedSortedChildren);
+
+                    clearTreeBalances();
                 }
             }
 
@@ -501,6 +689,8 @@ public class Account extends StoredObject implements Comparable<Account> {
                 result = true;
 
                 cachedSortedChildren.remove(child);
+
+                clearTreeBalances();
             }
             return result;
         } finally {
@@ -547,7 +737,16 @@ public class Account extends StoredObject implements Comparable<Account> {
         transactionLock.readLock().lock();
 
         try {
-            return getCachedSortedTransactionList().indexOf(tran);
+            final List<Transaction> sortedList = getCachedSortedTransactionList();
+
+            // the cached list is sorted by the natural order of transactions, use a binary search
+            final int index = Collections.binarySearch(sortedList, tran);
+
+            if (index >= 0 && sortedList.get(index).equals(tran)) {
+                return index;
+            }
+
+            return sortedList.indexOf(tran);
         } finally {
             transactionLock.readLock().unlock();
         }
@@ -733,6 +932,60 @@ public class Account extends StoredObject implements Comparable<Account> {
         return amount.multiply(getCurrencyNode().getExchangeRate(node));
     }
 
+    /**
+     * Returns the running balance up to and inclusive of the specified index using the natural transaction sort
+     * order.  The sum of transaction amounts is served from a prefix sum index that is only recalculated from the
+     * first changed transaction.
+     *
+     * @param index the index of the transaction
+     * @return the sum of transaction amounts
+     * @see AccountProxy#getBalanceAt(int)
+     */
+    BigDecimal getRunningBalanceAt(final int index) {
+        transactionLock.readLock().lock();
+
+        try {
+            return runningBalanceIndex.getBalanceAt(getCachedSortedTransactionList(), index);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the sum of all transaction amounts using the running balance index.
+     *
+     * @return the sum of transaction amounts
+     * @see AccountProxy#getBalance()
+     */
+    BigDecimal getRunningBalance() {
+        transactionLock.readLock().lock();
+
+        try {
+            return runningBalanceIndex.getBalance(getCachedSortedTransactionList());
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the sum of transaction amounts inclusive of the start and end dates using the running balance index.
+     * The transaction range is located with a binary search.
+     *
+     * @param start The inclusive start date
+     * @param end   The inclusive end date
+     * @return the sum of transaction amounts
+     * @see AccountProxy#getBalance(LocalDate, LocalDate)
+     */
+    BigDecimal getRunningBalance(final LocalDate start, final LocalDate end) {
+        transactionLock.readLock().lock();
+
+        try {
+            return runningBalanceIndex.getBalance(getCachedSortedTransactionList(), start, end);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
     /**
      * Returns the date of the first unreconciled transaction.
      *
@@ -809,13 +1062,7 @@ public class Account extends StoredObject implements Comparable<Account> {
         childLock.readLock().lock();
 
         try {
-            BigDecimal balance = getBalance(endDate, node);
-
-            for (final Account child : cachedSortedChildren) {
-                balance = balance.add(child.getTreeBalance(endDate, node));
-            }
-
-            return balance;
+            return treeBalanceIndex.getBalance(null, endDate, node);
         } finally {
             transactionLock.readLock().unlock();
             childLock.readLock().unlock();
@@ -953,12 +1200,7 @@ public class Account extends StoredObject implements Comparable<Account> {
         childLock.readLock().lock();
 
         try {
-            BigDecimal balance = getBalance(start, end);
-
-            for (final Account child : cachedSortedChildren) {
-                balance = balance.add(child.getTreeBalance(start, end, getCurrencyNode()));
-            }
-            return balance;
+            return treeBalanceIndex.getBalance(start, end, getCurrencyNode());
         } finally {
             transactionLock.readLock().unlock();
             childLock.readLock().unlock();
@@ -1002,12 +1244,7 @@ public class Account extends StoredObject implements Comparable<Account> {
         childLock.readLock().lock();
 
         try {
-            BigDecimal returnValue = getBalance(start, end, node);
-
-            for (final Account child : cachedSortedChildren) {
-                returnValue = returnValue.add(child.getTreeBalance(start, end, node));
-            }
-            return returnValue;
+            return treeBalanceIndex.getBalance(start, end, node);
         } finally {
             transactionLock.readLock().unlock();
             childLock.readLock().unlock();
@@ -1060,9 +1297,12 @@ public class Account extends StoredObject implements Comparable<Account> {
         transactionLock.readLock().lock();
 
         try {
-            return transactions.parallelStream().filter(transaction
-                    -> DateUtils.after(transaction.getLocalDate(), startDate)
-                    && DateUtils.before(transaction.getLocalDate(), endDate)).sorted().collect(Collectors.toList());
+            final List<Transaction> sortedList = getCachedSortedTransactionList();
+
+            final int first = RunningBalanceIndex.lowerBound(sortedList, startDate);
+            final int last = RunningBalanceIndex.upperBound(sortedList, endDate);
+
+            return first < last ? new ArrayList<>(sortedList.subList(first, last)) : new ArrayList<>();
         } finally {
             transactionLock.readLock().unlock();
         }
@@ -1093,6 +1333,7 @@ public class Account extends StoredObject implements Comparable<Account> {
             currencyNode = node;
 
             clearCachedBalances();  // cached balances will need to be recalculated
+            clearTreeBalances();
         }
     }
 
@@ -1161,6 +1402,8 @@ public class Account extends StoredObject implements Comparable<Account> {
         accountType = type;
 
         proxy = null; // proxy will need to change
+
+        clearTreeBalances();    // investment accounts are not indexed
     }
 
     /**
@@ -1349,6 +1592,8 @@ public class Account extends StoredObject implements Comparable<Account> {
         securitiesLock.readLock().lock();
 
         try {
+            loadDeferredTransactions();
+
             return transactions.parallelStream().filter(t -> t instanceof InvestmentTransaction).map(t ->
                     ((InvestmentTransaction) t).getSecurityNode()).collect(Collectors.toCollection(TreeSet::new));
         } finally {
@@ -1495,6 +1740,7 @@ public class Account extends StoredObject implements Comparable<Account> {
      * @see #getSortedTransactionList
      */
     private List<Transaction> getCachedSortedTransactionList() {
+        loadDeferredTransactions();
 
         // Lazy initialization
         if (cachedSortedTransactionList == null) {
@@ -1505,6 +1751,30 @@ public class Account extends StoredObject implements Comparable<Account> {
         return cachedSortedTransactionList;
     }
 
+    /**
+     * Loads the transactions deferred by the data store.  This must be called before the transaction set is used
+     * while holding the transaction lock.
+     */
+    private void loadDeferredTransactions() {
+        if (deferredTransactions != null) {
+
+            // readers may hold the read lock concurrently, only one may load
+            synchronized (transactions) {
+                final DeferredTransactions deferred = deferredTransactions;
+
+                if (deferred != null) {
+                    transactions.addAll(deferred.load());
+
+                    cachedSortedTransactionList = null;
+                    runningBalanceIndex.clear();
+
+                    deferredTransactions = null;
+                    deferred.release();
+                }
+            }
+        }
+    }
+
     /**
      * Required by XStream for proper initialization.
      *
@@ -1522,6 +1792,15 @@ public class Account extends StoredObject implements Comparable<Account> {
         securitiesLock = new ReentrantReadWriteLock(true);
         attributesLock = new ReentrantReadWriteLock(true);
 
+        // a refresh may have changed the transactions, force the sorted list and running balances to be rebuilt
+        cachedSortedTransactionList = null;
+        runningBalanceIndex = new RunningBalanceIndex(this);
+        treeBalanceIndex = new TreeBalanceIndex(this);
+
+        if (parentAccount != null) {
+            parentAccount.clearTreeBalances();
+        }
+
         cachedSortedChildren = new ArrayList<>(children);
         Collections.sort(cachedSortedChildren); // JPA will be naturally sorted, but XML files will not
     }
@@ -22,8 +22,6 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 
-import jgnash.time.DateUtils;
-
 /**
  * Proxy class to locate account balance behaviors. Depending on account type, summation of transaction types are
  * handled differently.
@@ -48,13 +46,7 @@ class AccountProxy {
         l.lock();
 
         try {
-            BigDecimal balance = BigDecimal.ZERO;
-
-            for (Transaction transaction : account.getSortedTransactionList()) {
-                balance = balance.add(transaction.getAmount(account));
-            }
-
-            return balance;
+            return account.getRunningBalance();
         } finally {
             l.unlock();
         }
@@ -71,14 +63,7 @@ class AccountProxy {
         l.lock();
 
         try {
-            BigDecimal balance = BigDecimal.ZERO;
-
-            List<Transaction> transactions = account.getSortedTransactionList();
-
-            for (int i = 0; i <= index; i++) {
-                balance = balance.add(transactions.get(i).getAmount(account));
-            }
-            return balance;
+            return account.getRunningBalanceAt(index);
         } finally {
             l.unlock();
         }
@@ -96,17 +81,7 @@ class AccountProxy {
         l.lock();
 
         try {
-            BigDecimal balance = BigDecimal.ZERO;
-
-            for (final Transaction t : account.getSortedTransactionList()) {
-                final LocalDate d = t.getLocalDate();
-
-                if (DateUtils.after(d, start) && DateUtils.before(d, end)) {
-                    balance = balance.add(t.getAmount(account));
-                }
-            }
-
-            return balance;
+            return account.getRunningBalance(start, end);
         } finally {
             l.unlock();
         }
@@ -125,7 +100,7 @@ class AccountProxy {
         try {
             BigDecimal balance = BigDecimal.ZERO;
 
-            if (!account.transactions.isEmpty()) {
+            if (account.getTransactionCount() > 0) {
                 balance = getBalance(account.getSortedTransactionList().get(0).getLocalDate(), date);
             }
 
@@ -194,14 +169,12 @@ class AccountProxy {
 
             BigDecimal balance = BigDecimal.ZERO;
 
-            for (int i = 0; i < transactions.size(); i++) {
-                if (transactions.get(i).getLocalDate().equals(date)) {
-                    if (i > 0) {
-                        balance = getBalanceAt(i - 1);
-                    }
-                    break;
-                }
+            final int index = RunningBalanceIndex.lowerBound(transactions, date);
+
+            if (index > 0 && index < transactions.size() && transactions.get(index).getLocalDate().equals(date)) {
+                balance = getBalanceAt(index - 1);
             }
+
             return balance;
         } finally {
             l.unlock();
@@ -18,6 +18,7 @@
 package jgnash.engine;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.logging.Logger;
 
 import javax.persistence.Entity;
@@ -30,7 +31,7 @@ import javax.persistence.Entity;
 @Entity
 public class CurrencyNode extends CommodityNode {
 
-    private transient ExchangeRateDAO exchangeRateDAO;
+    private transient volatile ExchangeRateDAO exchangeRateDAO;
 
     public CurrencyNode() {
     }
@@ -40,7 +41,7 @@ public class CurrencyNode extends CommodityNode {
      *
      * @return the exchangeRateStore
      */
-    synchronized private ExchangeRateDAO getExchangeRateDAO() {
+    private ExchangeRateDAO getExchangeRateDAO() {
         return exchangeRateDAO;
     }
 
@@ -49,7 +50,7 @@ public class CurrencyNode extends CommodityNode {
      *
      * @param exchangeRateStore the exchangeRateStore to set
      */
-    synchronized void setExchangeRateDAO(final ExchangeRateDAO exchangeRateStore) {
+    void setExchangeRateDAO(final ExchangeRateDAO exchangeRateStore) {
         this.exchangeRateDAO = exchangeRateStore;
     }
 
@@ -59,7 +60,7 @@ public class CurrencyNode extends CommodityNode {
      * @param exchangeCurrency currency to convert to
      * @return exchange rate
      */
-    synchronized public BigDecimal getExchangeRate(final CurrencyNode exchangeCurrency) {
+    public BigDecimal getExchangeRate(final CurrencyNode exchangeCurrency) {
 
         if (exchangeCurrency == null) {
             Logger.getLogger(CurrencyNode.class.getName()).severe("exchangeCurrency was null");
@@ -70,12 +71,38 @@ public class CurrencyNode extends CommodityNode {
             return BigDecimal.ONE;
         }
 
-        BigDecimal rate = getExchangeRateDAO().getExchangeRateNode(this, exchangeCurrency).getRate();
+        final ExchangeRate exchangeRate = getExchangeRateDAO().getExchangeRateNode(this, exchangeCurrency);
 
-        if (getSymbol().compareToIgnoreCase(exchangeCurrency.getSymbol()) < 0) {
-            rate = BigDecimal.ONE.divide(rate, MathConstants.mathContext);
+        return isInverse(exchangeCurrency) ? exchangeRate.getInverseRate() : exchangeRate.getRate();
+    }
+
+    /**
+     * Returns the exchange rate closest to a date without exceeding it given a currency to convert to.  The oldest
+     * known rate is used if the date precedes the exchange rate history.
+     *
+     * @param exchangeCurrency currency to convert to
+     * @param localDate        date of the exchange
+     * @return exchange rate
+     */
+    public BigDecimal getExchangeRate(final CurrencyNode exchangeCurrency, final LocalDate localDate) {
+
+        if (exchangeCurrency == null) {
+            Logger.getLogger(CurrencyNode.class.getName()).severe("exchangeCurrency was null");
+            return BigDecimal.ONE;
+        }
+
+        if (exchangeCurrency.equals(this)) {
+            return BigDecimal.ONE;
         }
 
-        return rate;
+        return getExchangeRateDAO().getExchangeRateNode(this, exchangeCurrency)
+                .getClosestRate(localDate, isInverse(exchangeCurrency));
+    }
+
+    /**
+     * Exchange rates are stored in one direction between a pair of currencies.
+     */
+    private boolean isInverse(final CurrencyNode exchangeCurrency) {
+        return getSymbol().compareToIgnoreCase(exchangeCurrency.getSymbol()) < 0;
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.util.Collection;
+
+/**
+ * Handle to the transactions of an {@code Account} that a {@code DataStore} has not loaded yet.
+ * <p>
+ * The account loads the transactions the first time they are used and then releases the handle.
+ *
+ * @author Craig Cavanaugh
+ */
+public interface DeferredTransactions {
+
+    /**
+     * Returns the number of transactions without loading them.
+     *
+     * @return the number of transactions
+     */
+    int size();
+
+    /**
+     * Returns a transaction of the sorted list without loading the others.  A transaction must be returned as the
+     * same instance when the account is loaded.
+     *
+     * @param index index of the transaction in the sorted list
+     * @return the transaction at the index or {@code null} if the data store cannot tell which transaction is at
+     * the index without loading all of them
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    default Transaction get(final int index) {
+        return null;
+    }
+
+    /**
+     * Loads the transactions.  A transaction shared with another account must be returned as the same instance
+     * when the other account is loaded.
+     *
+     * @return the transactions of the account
+     */
+    Collection<Transaction> load();
+
+    /**
+     * Called once the loaded transactions have been added to the account and the handle is no longer used.
+     */
+    default void release() {
+    }
+}
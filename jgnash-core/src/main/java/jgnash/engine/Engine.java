@@ -27,8 +27,10 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -54,6 +56,7 @@ import jgnash.engine.attachment.AttachmentManager;
 import jgnash.engine.budget.Budget;
 import jgnash.engine.budget.BudgetGoal;
 import jgnash.engine.concurrent.LockManager;
+import jgnash.engine.concurrent.StripedLock;
 import jgnash.engine.dao.AccountDAO;
 import jgnash.engine.dao.BudgetDAO;
 import jgnash.engine.dao.CommodityDAO;
@@ -99,9 +102,13 @@ public class Engine {
 
     public static final float CURRENT_VERSION = CURRENT_MAJOR_VERSION + (CURRENT_MINOR_VERSION / 100f);
 
-    // Lock name
+    // Lock names
     private static final String BIG_LOCK = "bigLock";
 
+    private static final String ACCOUNT_LOCK = "accountLock";
+
+    private static final String TRASH_LOCK = "trashLock";
+
     private static final Logger logger = Logger.getLogger(Engine.class.getName());
 
     private static final long MAXIMUM_TRASH_AGE = 2L * 60L * 1000L; // 2 minutes
@@ -127,10 +134,22 @@ public class Engine {
     private final ResourceBundle rb = ResourceUtils.getBundle();
 
     /**
-     * Primary lock for any operation that alters or reads data
+     * Primary lock for any operation that alters or reads data.  Structural changes to the account tree and
+     * commodities hold the write lock.  Changes scoped to a set of accounts hold the read lock and the
+     * {@code accountLock} stripes of the accounts so they only exclude each other when an account is shared.
      */
     private final ReentrantReadWriteLock dataLock;
 
+    /**
+     * Striped lock for changes scoped to a set of accounts, always acquired after the {@code dataLock}.
+     */
+    private final StripedLock accountLock;
+
+    /**
+     * Lock for the trash, always acquired last.
+     */
+    private final ReentrantReadWriteLock trashLock;
+
     private final AtomicInteger backGroundCounter = new AtomicInteger();
     /**
      * Named identifier for this engine instance.
@@ -181,6 +200,8 @@ public class Engine {
 
         // Generate lock
         dataLock = lockManager.getLock(BIG_LOCK);
+        accountLock = new StripedLock(lockManager, ACCOUNT_LOCK, StripedLock.DEFAULT_STRIPES);
+        trashLock = lockManager.getLock(TRASH_LOCK);
 
         messageBus = MessageBus.getInstance(name);
 
@@ -238,6 +259,22 @@ public class Engine {
      */
     public static BigDecimal getMarketPrice(final Collection<Transaction> transactions, final SecurityNode node,
                                             final CurrencyNode baseCurrency, final LocalDate localDate) {
+        return getMarketPrice(new SecurityPriceIndex(transactions), node, baseCurrency, localDate);
+    }
+
+    /**
+     * Returns the most current known market price for a requested date using an index of investment transaction
+     * prices.
+     *
+     * @param priceIndex   index of the transactions utilizing the requested investment
+     * @param node         {@code SecurityNode} we want a price for
+     * @param baseCurrency {@code CurrencyNode} reporting currency
+     * @param localDate    {@code LocalDate} we want a market price for
+     * @return The best market price or a value of 0 if no history or transactions exist
+     * @see #getMarketPrice(Collection, SecurityNode, CurrencyNode, LocalDate)
+     */
+    static BigDecimal getMarketPrice(final SecurityPriceIndex priceIndex, final SecurityNode node,
+                                     final CurrencyNode baseCurrency, final LocalDate localDate) {
 
         // Search for the exact history node record
         Optional<SecurityHistoryNode> optional = node.getHistoryNode(localDate);
@@ -258,22 +295,11 @@ public class Engine {
             priceDate = optional.get().getLocalDate();
         }
 
-        // Compare against transactions
-        for (final Transaction t : transactions) {
-            if (t instanceof InvestmentTransaction && ((InvestmentTransaction) t).getSecurityNode() == node) {
-
-                // The transaction date must be closer than the history node, but not newer than the request date
-                if ((t.getLocalDate().isAfter(priceDate) && t.getLocalDate().isBefore(localDate)) || t.getLocalDate().equals(localDate)) {
-
-                    // Check for a dividend, etc that may have returned a price of zero
-                    final BigDecimal p = ((InvestmentTransaction) t).getPrice();
+        // The transaction date must be closer than the history node, but not newer than the request date
+        final BigDecimal transactionPrice = priceIndex.getPrice(node, localDate, priceDate);
 
-                    if (p != null && p.compareTo(BigDecimal.ZERO) > 0) {
-                        price = p;
-                        priceDate = t.getLocalDate();
-                    }
-                }
-            }
+        if (transactionPrice != null) {
+            price = transactionPrice;
         }
 
         // Get the current exchange rate for the security node
@@ -566,7 +592,7 @@ public class Engine {
     private boolean moveObjectToTrash(final Object object) {
         boolean result = false;
 
-        dataLock.writeLock().lock();
+        trashLock.writeLock().lock();
 
         try {
             if (object instanceof StoredObject) {
@@ -579,7 +605,7 @@ public class Engine {
         } catch (final Exception ex) {
             logger.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
         } finally {
-            dataLock.writeLock().unlock();
+            trashLock.writeLock().unlock();
         }
 
         return result;
@@ -596,6 +622,7 @@ public class Engine {
         }
 
         dataLock.writeLock().lock();
+        trashLock.writeLock().lock();
 
         try {
             logger.info("Checking for trash");
@@ -614,6 +641,7 @@ public class Engine {
             trash.stream().filter(o -> ChronoUnit.MILLIS.between(o.getDate(), LocalDateTime.now()) >= MAXIMUM_TRASH_AGE)
                     .forEach(o -> getTrashDAO().remove(o));
         } finally {
+            trashLock.writeLock().unlock();
             dataLock.writeLock().unlock();
 
             if (backGroundCounter.decrementAndGet() == 0) {
@@ -965,6 +993,91 @@ public class Engine {
         }
     }
 
+    /**
+     * Adds a collection of SecurityHistoryNodes to a SecurityNode as a single update.  A SecurityHistoryNode that
+     * matches the existing history is skipped and an existing SecurityHistoryNode of the same date with different
+     * values is replaced.  If the collection contains more than one SecurityHistoryNode for a date, the last is used.
+     * <p>
+     * A single message is posted for the whole collection.
+     *
+     * @param node         SecurityNode to add to
+     * @param historyNodes SecurityHistoryNodes to add
+     * @return <tt>true</tt> if successful
+     */
+    public boolean addSecurityHistory(@NotNull final SecurityNode node,
+                                      @NotNull final Collection<SecurityHistoryNode> historyNodes) {
+        dataLock.writeLock().lock();
+
+        try {
+            final Map<LocalDate, SecurityHistoryNode> nodeMap = new HashMap<>();
+
+            for (final SecurityHistoryNode hNode : historyNodes) {
+                nodeMap.put(hNode.getLocalDate(), hNode);
+            }
+
+            final List<SecurityHistoryNode> addedNodes = new ArrayList<>();
+
+            boolean status = true;
+
+            for (final SecurityHistoryNode hNode : nodeMap.values()) {
+                final Optional<SecurityHistoryNode> optional = node.getHistoryNode(hNode.getLocalDate());
+
+                if (optional.isPresent()) {
+                    if (isSameHistory(optional.get(), hNode)) {
+                        continue;
+                    }
+
+                    // Remove old history of the same date
+                    if (node.removeHistoryNode(hNode.getLocalDate())) {
+                        moveObjectToTrash(optional.get());
+                    } else {
+                        logSevere(ResourceUtils.getString("Message.Error.HistRemoval", hNode.getLocalDate(),
+                                node.getSymbol()));
+                        status = false;
+                        continue;
+                    }
+                }
+
+                addedNodes.add(hNode);
+            }
+
+            if (addedNodes.isEmpty()) {
+                return status;  // nothing has changed
+            }
+
+            if (node.addHistoryNodes(addedNodes)) {
+                status = getCommodityDAO().addSecurityHistory(node, addedNodes) && status;
+            } else {
+                status = false;
+            }
+
+            Message message;
+
+            if (status) {
+                clearCachedAccountBalance(node);
+                message = new Message(MessageChannel.COMMODITY, ChannelEvent.SECURITY_HISTORY_ADD, this);
+            } else {
+                message = new Message(MessageChannel.COMMODITY, ChannelEvent.SECURITY_HISTORY_ADD_FAILED, this);
+            }
+
+            message.setObject(MessageProperty.COMMODITY, node);
+            messageBus.fireEvent(message);
+
+            return status;
+        } finally {
+            dataLock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isSameHistory(final SecurityHistoryNode node, final SecurityHistoryNode other) {
+        return node.getVolume() == other.getVolume() && isSameValue(node.getPrice(), other.getPrice())
+                && isSameValue(node.getHigh(), other.getHigh()) && isSameValue(node.getLow(), other.getLow());
+    }
+
+    private static boolean isSameValue(final BigDecimal value, final BigDecimal other) {
+        return value == null ? other == null : other != null && value.compareTo(other) == 0;
+    }
+
     /**
      * Add a SecurityHistoryNode node to a SecurityNode.  If the SecurityNode already contains
      * an equivalent SecurityHistoryNode, the old SecurityHistoryNode is removed first.
@@ -1497,6 +1610,102 @@ public class Engine {
         }
     }
 
+    /**
+     * Adds a collection of exchange rates as a single update.  Rates are expressed as the value of the base currency
+     * in the exchange currency.  A rate that matches the existing history is skipped and an existing rate of the same
+     * date with a different value is replaced.  If the collection contains more than one rate for a date, the last
+     * is used.
+     * <p>
+     * A single message is posted for the whole collection.
+     *
+     * @param baseCurrency     base currency
+     * @param exchangeCurrency exchange currency
+     * @param history          exchange rates to add
+     * @return {@code true} if successful
+     */
+    public boolean setExchangeRates(final CurrencyNode baseCurrency, final CurrencyNode exchangeCurrency,
+                                    final Collection<ExchangeRateHistoryNode> history) {
+        for (final ExchangeRateHistoryNode historyNode : history) {
+            if (historyNode.getRate().compareTo(BigDecimal.ZERO) < 1) {
+                throw new EngineException("Rate must be greater than zero");
+            }
+        }
+
+        if (baseCurrency.equals(exchangeCurrency)) {
+            return false;
+        }
+
+        // find the correct ExchangeRate and create if needed
+        ExchangeRate exchangeRate = getExchangeRate(baseCurrency, exchangeCurrency);
+
+        if (exchangeRate == null) {
+            exchangeRate = new ExchangeRate(buildExchangeRateId(baseCurrency, exchangeCurrency));
+            getCommodityDAO().addExchangeRate(exchangeRate);
+        }
+
+        dataLock.writeLock().lock();
+
+        try {
+            final boolean inverse = baseCurrency.getSymbol().compareToIgnoreCase(exchangeCurrency.getSymbol()) <= 0;
+
+            final Map<LocalDate, ExchangeRateHistoryNode> nodeMap = new HashMap<>();
+
+            for (final ExchangeRateHistoryNode historyNode : history) {
+                if (inverse) {
+                    nodeMap.put(historyNode.getLocalDate(), new ExchangeRateHistoryNode(historyNode.getLocalDate(),
+                            BigDecimal.ONE.divide(historyNode.getRate(), MathConstants.mathContext)));
+                } else {
+                    nodeMap.put(historyNode.getLocalDate(), historyNode);
+                }
+            }
+
+            final List<ExchangeRateHistoryNode> addedNodes = new ArrayList<>();
+
+            for (final ExchangeRateHistoryNode historyNode : nodeMap.values()) {
+                final ExchangeRateHistoryNode oldNode = exchangeRate.getHistory(historyNode.getLocalDate());
+
+                if (oldNode != null) {
+                    if (oldNode.getRate().compareTo(historyNode.getRate()) == 0) {
+                        continue;
+                    }
+
+                    // Remove old history of the same date
+                    if (exchangeRate.removeHistoryNode(oldNode)) {
+                        moveObjectToTrash(oldNode);
+                    }
+                }
+
+                addedNodes.add(historyNode);
+            }
+
+            if (addedNodes.isEmpty()) {
+                return true;    // nothing has changed
+            }
+
+            boolean result = false;
+
+            if (exchangeRate.addHistoryNodes(addedNodes)) {
+                result = getCommodityDAO().addExchangeRateHistory(exchangeRate);
+            }
+
+            final Message message;
+
+            if (result) {
+                message = new Message(MessageChannel.COMMODITY, ChannelEvent.EXCHANGE_RATE_ADD, this);
+            } else {
+                message = new Message(MessageChannel.COMMODITY, ChannelEvent.EXCHANGE_RATE_ADD_FAILED, this);
+            }
+
+            message.setObject(MessageProperty.EXCHANGE_RATE, exchangeRate);
+
+            messageBus.fireEvent(message);
+
+            return result;
+        } finally {
+            dataLock.writeLock().unlock();
+        }
+    }
+
     public void removeExchangeRateHistory(final ExchangeRate exchangeRate, final ExchangeRateHistoryNode history) {
 
         dataLock.writeLock().lock();
@@ -1964,7 +2173,7 @@ public class Engine {
      */
     public void setAccountNumber(final Account account, final String number) {
 
-        dataLock.writeLock().lock();
+        final boolean[] locked = lockAccounts(Collections.singleton(account));
 
         try {
             account.setAccountNumber(number);
@@ -1976,7 +2185,7 @@ public class Engine {
 
             logInfo(rb.getString(MESSAGE_ACCOUNT_MODIFY));
         } finally {
-            dataLock.writeLock().unlock();
+            unlockAccounts(locked);
         }
     }
 
@@ -1999,7 +2208,7 @@ public class Engine {
             return;
         }
 
-        dataLock.writeLock().lock();
+        final boolean[] locked = lockAccounts(Collections.singleton(account));
 
         try {
             account.setAttribute(key, value);
@@ -2011,7 +2220,7 @@ public class Engine {
 
             logInfo(rb.getString(MESSAGE_ACCOUNT_MODIFY));
         } finally {
-            dataLock.writeLock().unlock();
+            unlockAccounts(locked);
         }
     }
 
@@ -2131,7 +2340,7 @@ public class Engine {
      */
     public void toggleAccountVisibility(final Account account) {
 
-        dataLock.writeLock().lock();
+        final boolean[] locked = lockAccounts(Collections.singleton(account));
 
         try {
             Message message;
@@ -2148,7 +2357,7 @@ public class Engine {
                 messageBus.fireEvent(message);
             }
         } finally {
-            dataLock.writeLock().unlock();
+            unlockAccounts(locked);
         }
     }
 
@@ -2494,53 +2703,208 @@ public class Engine {
         return eDAO.getObjectByUuid(StoredObject.class, object.getUuid()) != null;
     }
 
+    /**
+     * Acquires the locks for a change scoped to a set of accounts.  The data lock is held for reading, so structural
+     * changes are excluded while changes to unrelated accounts may proceed concurrently.
+     * <p>
+     * A thread holding the account locks must not request the data write lock, it would never be granted.
+     *
+     * @param accounts accounts that will be changed
+     * @return the locked account stripes, must be passed to {@link #unlockAccounts(boolean[])}
+     */
+    private boolean[] lockAccounts(final Collection<Account> accounts) {
+        final List<UUID> uuids = accounts.stream().map(Account::getUuid).collect(Collectors.toList());
+
+        dataLock.readLock().lock();
+
+        return accountLock.lock(uuids);
+    }
+
+    private void unlockAccounts(final boolean[] locked) {
+        if (locked == null) {
+            dataLock.writeLock().unlock();
+            return;
+        }
+
+        accountLock.unlock(locked);
+        dataLock.readLock().unlock();
+    }
+
+    /**
+     * Acquires the locks for adding transactions.  A multi-currency transaction may set a default exchange rate,
+     * which needs the data write lock, so the write lock is held instead of the account locks.  The rate is then
+     * set in the same critical section the transaction is added in.
+     *
+     * @param transactions transactions that will be added
+     * @param accounts     accounts of the transactions
+     * @return the locked account stripes or {@code null} if the data write lock is held, must be passed to
+     * {@link #unlockAccounts(boolean[])}
+     */
+    private boolean[] lockTransactions(final Collection<Transaction> transactions,
+                                       final Collection<Account> accounts) {
+        for (final Transaction transaction : transactions) {
+            if (transaction.getTransactionEntries().stream().anyMatch(TransactionEntry::isMultiCurrency)) {
+                dataLock.writeLock().lock();
+                return null;
+            }
+        }
+
+        return lockAccounts(accounts);
+    }
+
     public boolean addTransaction(final Transaction transaction) {
+        final boolean result;
 
-        dataLock.writeLock().lock();
+        final boolean[] locked = lockTransactions(Collections.singleton(transaction), transaction.getAccounts());
 
         try {
-            boolean result = isTransactionValid(transaction);
+            result = addTransactionToAccounts(transaction);
 
+            /* If successful, extract and enter a default exchange rate for the transaction date if a rate has not been set */
             if (result) {
-                /* Add the transaction to each account */
-                transaction.getAccounts().stream()
-                        .filter(account -> !account.addTransaction(transaction))
-                        .forEach(account -> logSevere("Failed to add the Transaction"));
-                result = getTransactionDAO().addTransaction(transaction);
-
-                logInfo(rb.getString("Message.TransactionAdd"));
-
-                /* If successful, extract and enter a default exchange rate for the transaction date if a rate has not been set */
-                if (result) {
-                    // no rate for the date has been set
-                    transaction.getTransactionEntries().stream()
-                            .filter(TransactionEntry::isMultiCurrency)
-                            .forEach(entry -> {
-                                final ExchangeRate rate = getExchangeRate(entry.getDebitAccount().getCurrencyNode(),
-                                        entry.getCreditAccount().getCurrencyNode());
-
-                                if (rate.getRate(transaction.getLocalDate()).equals(BigDecimal.ZERO)) { // no rate for the date has been set
-                                    final BigDecimal exchangeRate = entry.getDebitAmount().abs()
-                                            .divide(entry.getCreditAmount().abs(), MathConstants.mathContext);
-
-                                    setExchangeRate(entry.getCreditAccount().getCurrencyNode(), entry.getDebitAccount()
-                                            .getCurrencyNode(), exchangeRate, transaction.getLocalDate());
-                                }
-                            });
+                addDefaultExchangeRates(transaction);
+            }
+        } finally {
+            unlockAccounts(locked);
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds a transaction to its accounts and the DAO.  The caller must hold the locks for the accounts.
+     *
+     * @param transaction {@code Transaction} to add
+     * @return {@code true} if successful
+     */
+    private boolean addTransactionToAccounts(final Transaction transaction) {
+        boolean result = isTransactionValid(transaction);
+
+        if (result) {
+            /* Add the transaction to each account */
+            transaction.getAccounts().stream()
+                    .filter(account -> !account.addTransaction(transaction))
+                    .forEach(account -> logSevere("Failed to add the Transaction"));
+            result = getTransactionDAO().addTransaction(transaction);
+
+            logInfo(rb.getString("Message.TransactionAdd"));
+        }
+
+        postTransactionAdd(transaction, result);
+
+        return result;
+    }
+
+    /**
+     * Adds a collection of transactions as a single operation.  The account locks are held once, the transactions
+     * are sorted once and merged into each account, and the changes are committed to the DAO as a single operation.
+     * <p>
+     * If any of the transactions are not valid, none of them will be added.  A single
+     * {@code ChannelEvent.TRANSACTION_BULK_ADD} message is posted for each impacted account instead of a message per
+     * transaction.
+     *
+     * @param transactions {@code Transactions} to add
+     * @return {@code true} if all transactions were added successfully
+     */
+    public boolean addTransactions(@NotNull final Collection<Transaction> transactions) {
+        Objects.requireNonNull(transactions);
+
+        final List<Transaction> sortedTransactions = new ArrayList<>(transactions);
+
+        final Set<Account> accounts = new HashSet<>();
+
+        for (final Transaction transaction : sortedTransactions) {
+            accounts.addAll(transaction.getAccounts());
+        }
+
+        final boolean result;
+
+        final boolean[] locked = lockTransactions(sortedTransactions, accounts);
+
+        try {
+            final Set<UUID> uuids = new HashSet<>();
+
+            for (final Transaction transaction : sortedTransactions) {
+                if (!isTransactionValid(transaction) || !uuids.add(transaction.getUuid())) {
+                    logger.log(Level.WARNING, "Invalid Transaction in the collection, no transactions were added");
+                    return false;
                 }
             }
 
-            postTransactionAdd(transaction, result);
+            if (sortedTransactions.isEmpty()) {
+                return true;
+            }
 
-            return result;
+            Collections.sort(sortedTransactions);
+
+            // group the transactions by account, the sorted order is preserved
+            final Map<Account, List<Transaction>> accountMap = new HashMap<>();
+
+            for (final Transaction transaction : sortedTransactions) {
+                for (final Account account : transaction.getAccounts()) {
+                    accountMap.computeIfAbsent(account, k -> new ArrayList<>()).add(transaction);
+                }
+            }
+
+            /* Add the transactions to each account */
+            accountMap.forEach((account, list) -> {
+                if (account.addTransactions(list) != list.size()) {
+                    logSevere("Failed to add the Transaction");
+                }
+            });
+
+            result = getTransactionDAO().addTransactions(sortedTransactions);
+
+            logInfo(rb.getString("Message.TransactionAdd"));
+
+            if (result) {
+                for (final Account account : accountMap.keySet()) {
+                    final Message message = new Message(MessageChannel.TRANSACTION, ChannelEvent.TRANSACTION_BULK_ADD,
+                            this);
+                    message.setObject(MessageProperty.ACCOUNT, account);
+
+                    messageBus.fireEvent(message);
+                }
+
+                sortedTransactions.forEach(this::addDefaultExchangeRates);
+            } else {
+                logSevere("Failed to add the Transactions");
+            }
         } finally {
-            dataLock.writeLock().unlock();
+            unlockAccounts(locked);
         }
+
+        return result;
+    }
+
+    /**
+     * Extracts and enters a default exchange rate for the transaction date if a rate has not been set.
+     * <p>
+     * Setting a rate requires the data write lock, which the caller must already hold if the transaction has a
+     * multi-currency entry.  See {@link #lockTransactions(Collection, Collection)}.
+     *
+     * @param transaction {@code Transaction} to extract exchange rates from
+     */
+    private void addDefaultExchangeRates(final Transaction transaction) {
+        transaction.getTransactionEntries().stream()
+                .filter(TransactionEntry::isMultiCurrency)
+                .forEach(entry -> {
+                    final ExchangeRate rate = getExchangeRate(entry.getDebitAccount().getCurrencyNode(),
+                            entry.getCreditAccount().getCurrencyNode());
+
+                    if (rate.getRate(transaction.getLocalDate()).equals(BigDecimal.ZERO)) { // no rate for the date has been set
+                        final BigDecimal exchangeRate = entry.getDebitAmount().abs()
+                                .divide(entry.getCreditAmount().abs(), MathConstants.mathContext);
+
+                        setExchangeRate(entry.getCreditAccount().getCurrencyNode(), entry.getDebitAccount()
+                                .getCurrencyNode(), exchangeRate, transaction.getLocalDate());
+                    }
+                });
     }
 
     public boolean removeTransaction(final Transaction transaction) {
 
-        dataLock.writeLock().lock();
+        final boolean[] locked = lockAccounts(transaction.getAccounts());
 
         try {
             for (final Account account : transaction.getAccounts()) {
@@ -2568,7 +2932,7 @@ public class Engine {
 
             return result;
         } finally {
-            dataLock.writeLock().unlock();
+            unlockAccounts(locked);
         }
     }
 
@@ -2580,20 +2944,21 @@ public class Engine {
      * @param state       new reconciled state
      */
     public void setTransactionReconciled(final Transaction transaction, final Account account, final ReconciledState state) {
-        dataLock.writeLock().lock(); // hold a write lock to ensure nothing slips in between the remove and add
+        // hold the locks to ensure nothing slips in between the remove and add
+        final boolean[] locked = lockTransactions(Collections.singleton(transaction), transaction.getAccounts());
 
         try {
             final Transaction newTransaction = (Transaction) transaction.clone();
 
             ReconcileManager.reconcileTransaction(account, newTransaction, state);
 
-            if (removeTransaction(transaction)) {
-                addTransaction(newTransaction);
+            if (removeTransaction(transaction) && addTransactionToAccounts(newTransaction)) {
+                addDefaultExchangeRates(newTransaction);
             }
         } catch (final CloneNotSupportedException e) {
             logger.log(Level.SEVERE, "Failed to reconcile the Transaction", e);
         } finally {
-            dataLock.writeLock().unlock();
+            unlockAccounts(locked);
         }
     }
 
@@ -2647,6 +3012,19 @@ public class Engine {
         return getTransactionDAO().getTransactionByUuid(uuid);
     }
 
+    /**
+     * Returns a window of the transactions of an account in date order.  Registers and reports that only display
+     * part of an account can use this to avoid loading every transaction of the account.
+     *
+     * @param account account to read from
+     * @param first   index of the first transaction
+     * @param count   maximum number of transactions to return
+     * @return List of transactions that may not be altered
+     */
+    public List<Transaction> getTransactions(final Account account, final int first, final int count) {
+        return getTransactionDAO().getTransactions(account, first, count);
+    }
+
     private void postTransactionAdd(final Transaction transaction, final boolean result) {
 
         for (Account a : transaction.getAccounts()) {
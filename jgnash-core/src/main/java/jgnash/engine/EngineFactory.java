@@ -26,6 +26,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
+import java.util.stream.Collectors;
 
 import jgnash.engine.jpa.JpaNetworkServer;
 import jgnash.engine.jpa.SqlUtils;
@@ -43,6 +45,7 @@ import jgnash.engine.message.Message;
 import jgnash.engine.message.MessageBus;
 import jgnash.engine.message.MessageChannel;
 import jgnash.engine.xstream.BinaryXStreamDataStore;
+import jgnash.engine.xstream.ColumnarDataStore;
 import jgnash.engine.xstream.XMLDataStore;
 import jgnash.resource.util.OS;
 import jgnash.resource.util.ResourceUtils;
@@ -84,6 +87,11 @@ public class EngineFactory {
      */
     private static final String DEFAULT_DIR = "jGnash";
 
+    /**
+     * Separates the name of a compressed full backup from the increment number.
+     */
+    private static final String INCREMENT_SUFFIX = ".increment.";
+
     private static final Logger logger = Logger.getLogger(EngineFactory.class.getName());
 
     private static final Map<String, Engine> engineMap = new HashMap<>();
@@ -142,30 +150,100 @@ public class EngineFactory {
         exportCompressedXML(oldDataStore.getFileName(), oldEngine.getStoredObjects());
     }
 
-    public static void exportCompressedXML(final String fileName, final Collection<StoredObject> objects) {
+    /**
+     * Exports a compressed full backup.
+     *
+     * @param fileName name of the database file being backed up
+     * @param objects  objects to export
+     * @return the compressed file, {@code null} if the backup failed
+     */
+    @Nullable
+    public static Path exportCompressedXML(final String fileName, final Collection<StoredObject> objects) {
         final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmm");
 
-        final DataStore xmlDataStore = new XMLDataStore();
+        final String baseName = FileUtils.stripFileExtension(fileName) + "-" + dateTimeFormatter.format(LocalDateTime.now());
+
+        final Path zipFile = Paths.get(baseName + ".zip");
+
+        final String entryName = Paths.get(baseName + DataStoreType.XML.getDataStore().getFileExt()).getFileName()
+                .toString();
 
-        Path xmlFile = Paths.get(FileUtils.stripFileExtension(fileName) + "-" + dateTimeFormatter.format(LocalDateTime.now())
-                + xmlDataStore.getFileExt());
+        // increments of a replaced backup must not be applied to the new one
+        deleteIncrementalXML(zipFile);
 
-        // push the intermediary file to the temporary directory
-        xmlFile = Paths.get(System.getProperty("java.io.tmpdir") + xmlFile.getFileSystem().getSeparator()
-                + xmlFile.getFileName().toString());
+        // the XML is compressed as it is written, an intermediary file is not needed
+        if (!XMLDataStore.saveAsCompressed(zipFile, entryName, objects)) {
+            logger.log(Level.WARNING, "Was not able to write the compressed file: {0}", zipFile);
+            return null;
+        }
 
-        xmlDataStore.saveAs(xmlFile, objects);
+        return zipFile;
+    }
 
-        Path zipFile = Paths.get(FileUtils.stripFileExtension(fileName) + "-" + dateTimeFormatter.format(LocalDateTime.now())
-                + ".zip");
+    /**
+     * Exports the objects changed since a compressed full backup as an increment of that backup.
+     *
+     * @param backup  the compressed full backup
+     * @param number  increment number, starting at one
+     * @param changed objects that have been added or changed since the full backup
+     * @param removed UUIDs of objects that have been removed since the full backup
+     * @return {@code true} if the increment was written
+     */
+    public static boolean exportIncrementalXML(final Path backup, final int number,
+                                               final Collection<StoredObject> changed, final Collection<UUID> removed) {
+        final Path increment = Paths.get(FileUtils.stripFileExtension(backup.toString()) + INCREMENT_SUFFIX + number);
 
-        FileUtils.compressFile(xmlFile, zipFile);
+        final boolean result = XMLDataStore.saveIncrement(increment, changed, removed);
 
-        try {
-            Files.delete(xmlFile);
-        } catch (final IOException e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-            logger.log(Level.WARNING, "Was not able to delete the temporary file: {0}", xmlFile);
+        if (result) {
+            logger.log(Level.INFO, "Wrote {0} with {1} changed and {2} removed objects",
+                    new Object[]{increment, changed.size(), removed.size()});
+        } else {
+            logger.log(Level.WARNING, "Was not able to write the increment: {0}", increment);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the increments of a compressed full backup in the order they must be applied.
+     *
+     * @param backup the compressed full backup
+     * @return list of increments, empty if there are none
+     */
+    public static List<Path> getIncrementalXML(final Path backup) {
+        final Path parent = backup.toAbsolutePath().getParent();
+        final String prefix = Paths.get(FileUtils.stripFileExtension(backup.toString())).getFileName() + INCREMENT_SUFFIX;
+
+        final List<Path> increments = FileUtils.getDirectoryListing(parent, ".*\\d+").stream()
+                .filter(path -> path.getFileName().toString().startsWith(prefix))
+                .filter(path -> path.getFileName().toString().substring(prefix.length()).matches("\\d+"))
+                .collect(Collectors.toList());
+
+        increments.sort(Comparator.comparingLong(path ->
+                Long.parseLong(path.getFileName().toString().substring(prefix.length()))));
+
+        return increments;
+    }
+
+    /**
+     * Restores a compressed full backup and all of its increments to an XML file.
+     *
+     * @param backup      the compressed full backup
+     * @param destination XML file to write
+     * @return {@code true} if the backup was restored
+     */
+    public static boolean restoreCompressedXML(final Path backup, final Path destination) {
+        return XMLDataStore.restoreBackup(backup, getIncrementalXML(backup), destination);
+    }
+
+    private static void deleteIncrementalXML(final Path backup) {
+        for (final Path increment : getIncrementalXML(backup)) {
+            try {
+                Files.delete(increment);
+            } catch (final IOException e) {
+                logger.log(Level.WARNING, "Unable to delete the file: {0}", increment);
+            }
         }
     }
 
@@ -184,6 +262,8 @@ public class EngineFactory {
 
         if (fileList.size() > limit) {
             for (int i = 0; i < fileList.size() - limit; i++) {
+                deleteIncrementalXML(fileList.get(i));
+
                 try {
                     Files.delete(fileList.get(i));
                 } catch (final Exception e) {
@@ -361,6 +441,8 @@ public class EngineFactory {
                 return DataStoreType.XML;
             case BinaryXStream:
                 return DataStoreType.BINARY_XSTREAM;
+            case Columnar:
+                return DataStoreType.COLUMNAR;
             case h2:
                 return DataStoreType.H2_DATABASE;
             case h2mv:
@@ -390,6 +472,9 @@ public class EngineFactory {
             case BinaryXStream:
                 version = BinaryXStreamDataStore.getFileVersion(file);
                 break;
+            case Columnar:
+                version = ColumnarDataStore.getFileVersion(file);
+                break;
             case h2:
             case h2mv:
             case hsql:
@@ -20,7 +20,8 @@ package jgnash.engine;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -38,6 +39,9 @@ import javax.persistence.PostLoad;
 
 /**
  * Exchange rate object.
+ * <p>
+ * The history is indexed by a sorted snapshot of epoch days and rates that is rebuilt when the history changes, so
+ * rates are found by date with a binary search.  Inverse rates are cached with the snapshot.
  *
  * @author Craig Cavanaugh
  */
@@ -50,9 +54,9 @@ public class ExchangeRate extends StoredObject {
     private final Set<ExchangeRateHistoryNode> historyNodes = new HashSet<>();
 
     /**
-     * Cache the last exchange rate.
+     * Sorted snapshot of the history, {@code null} until used.
      */
-    transient private BigDecimal lastRate;
+    private transient volatile History sortedHistory;
 
     /**
      * Identifier for the ExchangeRate object.
@@ -90,30 +94,12 @@ public class ExchangeRate extends StoredObject {
 
     public boolean contains(final LocalDate localDate) {
 
-        lock.readLock().lock();
-
-        boolean result = false;
-
-        try {
-            for (final ExchangeRateHistoryNode node : historyNodes) {
-                if (localDate.compareTo(node.getLocalDate()) == 0) {
-                    result = true;
-                    break;
-                }
-            }
-        } finally {
-            lock.readLock().unlock();
-        }
-
-        return result;
+        return getSortedHistory().indexOf(localDate.toEpochDay()) >= 0;
     }
 
     public List<ExchangeRateHistoryNode> getHistory() {
         // return a defensive copy
-        List<ExchangeRateHistoryNode> nodes = new ArrayList<>(historyNodes);
-        Collections.sort(nodes);
-
-        return nodes;
+        return new ArrayList<>(Arrays.asList(getSortedHistory().nodes));
     }
 
     boolean addHistoryNode(final ExchangeRateHistoryNode node) {
@@ -124,7 +110,7 @@ public class ExchangeRate extends StoredObject {
         try {
             historyNodes.add(node);
 
-            lastRate = null; // force an update
+            sortedHistory = null; // force an update
 
             result = true;
         } catch (final Exception ex) {
@@ -136,23 +122,25 @@ public class ExchangeRate extends StoredObject {
         return result;
     }
 
-    ExchangeRateHistoryNode getHistory(final LocalDate localDate) {
-        ExchangeRateHistoryNode node = null;
-
-        lock.readLock().lock();
+    boolean addHistoryNodes(final Collection<ExchangeRateHistoryNode> nodes) {
+        lock.writeLock().lock();
 
         try {
-            for (final ExchangeRateHistoryNode historyNode : historyNodes) {
-                if (localDate.compareTo(historyNode.getLocalDate()) == 0) {
-                    node = historyNode;
-                    break;
-                }
-            }
+            final boolean result = historyNodes.addAll(nodes);
+
+            sortedHistory = null; // force an update
+
+            return result;
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
+    }
 
-        return node;
+    ExchangeRateHistoryNode getHistory(final LocalDate localDate) {
+        final History history = getSortedHistory();
+        final int index = history.indexOf(localDate.toEpochDay());
+
+        return index >= 0 ? history.nodes[index] : null;
     }
 
     boolean removeHistoryNode(final ExchangeRateHistoryNode hNode) {
@@ -163,7 +151,7 @@ public class ExchangeRate extends StoredObject {
             final boolean result = historyNodes.remove(hNode);
 
             if (result) {
-                lastRate = null; // force an update
+                sortedHistory = null; // force an update
             }
 
             return result;
@@ -177,24 +165,40 @@ public class ExchangeRate extends StoredObject {
     }
 
     public BigDecimal getRate() {
-        lock.readLock().lock();
+        final History history = getSortedHistory();
 
-        try {
-            if (lastRate == null) {
-                if (!historyNodes.isEmpty()) {
+        return history.nodes.length > 0 ? history.nodes[history.nodes.length - 1].getRate() : BigDecimal.ONE;
+    }
 
-                    List<ExchangeRateHistoryNode> nodes = getHistory();
+    /**
+     * Returns the inverse of the latest exchange rate.
+     *
+     * @return {@code 1 / getRate()}
+     */
+    BigDecimal getInverseRate() {
+        final History history = getSortedHistory();
 
-                    lastRate = nodes.get(nodes.size() - 1).getRate();
-                } else {
-                    lastRate = BigDecimal.ONE;
-                }
-            }
-        } finally {
-            lock.readLock().unlock();
+        return history.nodes.length > 0 ? history.getInverseRate(history.nodes.length - 1) : BigDecimal.ONE;
+    }
+
+    /**
+     * Returns the exchange rate closest to a given {@code LocalDate} without exceeding it.  The oldest rate is
+     * returned if the date precedes the history.
+     *
+     * @param localDate {@code LocalDate} for exchange
+     * @param inverse   {@code true} to return the inverse of the rate
+     * @return the exchange rate, {@code BigDecimal.ONE} if the history is empty
+     */
+    BigDecimal getClosestRate(final LocalDate localDate, final boolean inverse) {
+        final History history = getSortedHistory();
+
+        if (history.nodes.length == 0) {
+            return BigDecimal.ONE;
         }
 
-        return lastRate;
+        final int index = Math.max(0, history.upperBound(localDate.toEpochDay()) - 1);
+
+        return inverse ? history.getInverseRate(index) : history.nodes[index].getRate();
     }
 
     /**
@@ -206,22 +210,28 @@ public class ExchangeRate extends StoredObject {
      * @return the exchange rate if known, otherwise {@code BigDecimal.ZERO}
      */
     BigDecimal getRate(final LocalDate localDate) {
-        lock.readLock().lock();
+        final History history = getSortedHistory();
+        final int index = history.indexOf(localDate.toEpochDay());
+
+        return index >= 0 ? history.nodes[index].getRate() : BigDecimal.ZERO;
+    }
 
-        BigDecimal rate = BigDecimal.ZERO;
+    private History getSortedHistory() {
+        History history = sortedHistory;
 
-        try {
-            for (ExchangeRateHistoryNode historyNode : historyNodes) {
-                if (localDate.equals(historyNode.getLocalDate())) {
-                    rate = historyNode.getRate();
-                    break;
-                }
+        if (history == null) {
+            lock.readLock().lock();
+
+            try {
+                // concurrent readers may build the same snapshot, the write lock excludes changes
+                history = new History(historyNodes);
+                sortedHistory = history;
+            } finally {
+                lock.readLock().unlock();
             }
-        } finally {
-            lock.readLock().unlock();
         }
 
-        return rate;
+        return history;
     }
 
     @Override
@@ -247,5 +257,62 @@ public class ExchangeRate extends StoredObject {
     @PostLoad
     private void postLoad() {
         lock = new ReentrantReadWriteLock(true);
+
+        sortedHistory = null;   // history may have been refreshed
+    }
+
+    /**
+     * Immutable sorted snapshot of the history.
+     */
+    private static final class History {
+
+        final long[] days;
+
+        final ExchangeRateHistoryNode[] nodes;
+
+        /**
+         * Inverse rates, computed when first requested.
+         */
+        private final BigDecimal[] inverseRates;
+
+        History(final Set<ExchangeRateHistoryNode> historyNodes) {
+            nodes = historyNodes.toArray(new ExchangeRateHistoryNode[0]);
+            Arrays.sort(nodes);
+
+            days = new long[nodes.length];
+
+            for (int i = 0; i < nodes.length; i++) {
+                days[i] = nodes[i].getLocalDate().toEpochDay();
+            }
+
+            inverseRates = new BigDecimal[nodes.length];
+        }
+
+        /**
+         * Returns the index of the epoch day or a negative value if not found.
+         */
+        int indexOf(final long epochDay) {
+            return Arrays.binarySearch(days, epochDay);
+        }
+
+        /**
+         * Returns the index of the first day after the epoch day.
+         */
+        int upperBound(final long epochDay) {
+            final int index = Arrays.binarySearch(days, epochDay);
+
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        BigDecimal getInverseRate(final int index) {
+            BigDecimal inverseRate = inverseRates[index];
+
+            if (inverseRate == null) {  // BigDecimal is immutable, a racing reader computes the same value
+                inverseRate = BigDecimal.ONE.divide(nodes[index].getRate(), MathConstants.mathContext);
+                inverseRates[index] = inverseRate;
+            }
+
+            return inverseRate;
+        }
     }
 }
@@ -64,7 +64,7 @@ public class ExchangeRateHistoryNode implements Comparable<ExchangeRateHistoryNo
      * @param localDate date for this history node.  The date will be trimmed
      * @param rate      exchange rate for the given date
      */
-    ExchangeRateHistoryNode(final LocalDate localDate, final BigDecimal rate) {
+    public ExchangeRateHistoryNode(final LocalDate localDate, final BigDecimal rate) {
         Objects.requireNonNull(date);
         Objects.requireNonNull(rate);
 
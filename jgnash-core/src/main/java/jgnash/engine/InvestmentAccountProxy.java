@@ -100,7 +100,7 @@ class InvestmentAccountProxy extends AccountProxy {
         l.lock();
 
         try {
-            return !account.transactions.isEmpty()
+            return account.getTransactionCount() > 0
                     ? getCashBalance(account.getSortedTransactionList().get(0).getLocalDate(), end) : BigDecimal.ZERO;
         } finally {
             l.unlock();
@@ -120,7 +120,7 @@ class InvestmentAccountProxy extends AccountProxy {
         account.getTransactionLock().readLock().lock();
 
         try {
-            return Engine.getMarketPrice(account.getSortedTransactionList(), node, account.getCurrencyNode(), date);
+            return Engine.getMarketPrice(account.getSecurityPriceIndex(), node, account.getCurrencyNode(), date);
         } finally {
             account.getTransactionLock().readLock().unlock();
         }
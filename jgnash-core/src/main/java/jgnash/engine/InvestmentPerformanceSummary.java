@@ -45,6 +45,8 @@ public class InvestmentPerformanceSummary {
     
     private List<Transaction> transactions;
 
+    private SecurityPriceIndex priceIndex;
+
     private CurrencyNode baseCurrency;
 
     public InvestmentPerformanceSummary(final Account account, final boolean recursive) {
@@ -79,6 +81,8 @@ public class InvestmentPerformanceSummary {
 
         Collections.sort(transactions);
 
+        priceIndex = new SecurityPriceIndex(transactions);
+
         runCalculations(recursive);
     }
 
@@ -374,7 +378,7 @@ public class InvestmentPerformanceSummary {
     }
 
     private BigDecimal getMarketPrice(final SecurityNode node, final LocalDate date) {
-        return Engine.getMarketPrice(transactions, node, baseCurrency, date);
+        return Engine.getMarketPrice(priceIndex, node, baseCurrency, date);
     }
 
     @Override
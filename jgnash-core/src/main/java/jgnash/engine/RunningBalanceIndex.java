@@ -0,0 +1,190 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prefix sum index of running balances for an {@code Account}.
+ * <p>
+ * The index mirrors the account's sorted transaction list.  Element {@code i} holds the sum of
+ * {@code Transaction.getAmount(account)} for transactions {@code 0..i}.  Entries are computed lazily and only
+ * the entries at and after the first changed index are discarded when the transaction list is modified.
+ * <p>
+ * The owning {@code Account} is responsible for calling {@link #invalidate(int, int)} while holding its
+ * transaction write lock.
+ *
+ * @author Craig Cavanaugh
+ */
+final class RunningBalanceIndex {
+
+    private static final BigDecimal[] EMPTY = new BigDecimal[0];
+
+    private final Account account;
+
+    private BigDecimal[] balances = EMPTY;
+
+    /**
+     * The number of leading entries in {@code balances} that are known to be correct.
+     */
+    private int validCount = 0;
+
+    RunningBalanceIndex(final Account account) {
+        this.account = account;
+    }
+
+    /**
+     * Discards running balances at and after the specified index.
+     *
+     * @param fromIndex first index of the transaction list that has changed
+     * @param size      the new size of the transaction list
+     */
+    synchronized void invalidate(final int fromIndex, final int size) {
+        validCount = Math.max(0, Math.min(validCount, Math.min(fromIndex, size)));
+
+        if (balances.length < size) {
+            balances = Arrays.copyOf(balances, Math.max(size, balances.length + (balances.length >> 1)));
+        }
+    }
+
+    /**
+     * Discards all running balances.
+     */
+    synchronized void clear() {
+        validCount = 0;
+    }
+
+    /**
+     * Returns the running balance up to and inclusive of the specified index.
+     *
+     * @param transactions the sorted transaction list of the account
+     * @param index        index of the transaction
+     * @return the running balance
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    synchronized BigDecimal getBalanceAt(final List<Transaction> transactions, final int index) {
+        if (index < 0 || index >= transactions.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + transactions.size());
+        }
+
+        if (balances.length < transactions.size()) {
+            balances = Arrays.copyOf(balances, transactions.size());
+        }
+
+        if (index >= validCount) {
+            BigDecimal balance = validCount > 0 ? balances[validCount - 1] : BigDecimal.ZERO;
+
+            for (int i = validCount; i <= index; i++) {
+                balance = balance.add(transactions.get(i).getAmount(account));
+                balances[i] = balance;
+            }
+
+            validCount = index + 1;
+        }
+
+        return balances[index];
+    }
+
+    /**
+     * Returns the balance of all transactions in the list.
+     *
+     * @param transactions the sorted transaction list of the account
+     * @return the balance
+     */
+    BigDecimal getBalance(final List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        return getBalanceAt(transactions, transactions.size() - 1);
+    }
+
+    /**
+     * Returns the balance of the transactions inclusive of the start and end dates.
+     *
+     * @param transactions the sorted transaction list of the account
+     * @param start        the inclusive start date
+     * @param end          the inclusive end date
+     * @return the balance
+     */
+    BigDecimal getBalance(final List<Transaction> transactions, final LocalDate start, final LocalDate end) {
+        final int first = lowerBound(transactions, start);
+        final int last = upperBound(transactions, end) - 1;
+
+        if (first > last) {
+            return BigDecimal.ZERO;
+        }
+
+        if (first == 0) {
+            return getBalanceAt(transactions, last);
+        }
+
+        return getBalanceAt(transactions, last).subtract(getBalanceAt(transactions, first - 1));
+    }
+
+    /**
+     * Returns the index of the first transaction with a date equal to or after the supplied date.
+     *
+     * @param transactions the sorted transaction list
+     * @param date         the date to search for
+     * @return index of the first transaction, or the size of the list if all transactions occur before the date
+     */
+    static int lowerBound(final List<Transaction> transactions, final LocalDate date) {
+        int low = 0;
+        int high = transactions.size();
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (transactions.get(mid).getLocalDate().isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns the index of the first transaction with a date after the supplied date.
+     *
+     * @param transactions the sorted transaction list
+     * @param date         the date to search for
+     * @return index of the first transaction, or the size of the list if no transactions occur after the date
+     */
+    static int upperBound(final List<Transaction> transactions, final LocalDate date) {
+        int low = 0;
+        int high = transactions.size();
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (transactions.get(mid).getLocalDate().isAfter(date)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+}
@@ -20,6 +20,7 @@ package jgnash.engine;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -77,6 +78,11 @@ public class SecurityNode extends CommodityNode {
 
     private transient List<SecurityHistoryNode> sortedHistoryNodeCache = new ArrayList<>();
 
+    /**
+     * Epoch days of {@code sortedHistoryNodeCache} for binary searches by date.
+     */
+    private transient long[] sortedHistoryDays = new long[0];
+
     public SecurityNode() {
         lock = new ReentrantReadWriteLock(true);
     }
@@ -166,8 +172,18 @@ public class SecurityNode extends CommodityNode {
         lock.writeLock().lock();
 
         try {
-            sortedHistoryNodeCache.add(node);
-            Collections.sort(sortedHistoryNodeCache);
+            final long epochDay = node.getLocalDate().toEpochDay();
+            final int index = upperBound(epochDay);
+
+            sortedHistoryNodeCache.add(index, node);
+
+            final long[] days = new long[sortedHistoryDays.length + 1];
+
+            System.arraycopy(sortedHistoryDays, 0, days, 0, index);
+            System.arraycopy(sortedHistoryDays, index, days, index + 1, sortedHistoryDays.length - index);
+            days[index] = epochDay;
+
+            sortedHistoryDays = days;
 
             return historyNodes.add(node);
         } finally {
@@ -175,6 +191,27 @@ public class SecurityNode extends CommodityNode {
         }
     }
 
+    /**
+     * Adds a collection of history nodes.  The dates must not already be present.
+     *
+     * @param nodes history nodes to add
+     * @return {@code true} if the history changed
+     */
+    boolean addHistoryNodes(final Collection<SecurityHistoryNode> nodes) {
+        lock.writeLock().lock();
+
+        try {
+            sortedHistoryNodeCache.addAll(nodes);
+            Collections.sort(sortedHistoryNodeCache);
+
+            updateHistoryDays();
+
+            return historyNodes.addAll(nodes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     boolean removeHistoryNode(final LocalDate date) {
         lock.writeLock().lock();
 
@@ -183,6 +220,7 @@ public class SecurityNode extends CommodityNode {
 
             if (result) {
                 sortedHistoryNodeCache.removeIf(node -> node.getLocalDate().compareTo(date) == 0);
+                updateHistoryDays();
             }
 
             return result;
@@ -389,19 +427,14 @@ public class SecurityNode extends CommodityNode {
         lock.readLock().lock();
 
         try {
-            SecurityHistoryNode hNode = null;
-
-            // Work backwards through the list as the newest date is requested the most
-            for (int i = sortedHistoryNodeCache.size() - 1; i >= 0; i--) {
-                final SecurityHistoryNode node = sortedHistoryNodeCache.get(i);
+            final long epochDay = date.toEpochDay();
+            final int index = upperBound(epochDay) - 1;
 
-                if (date.compareTo(node.getLocalDate()) == 0) {
-                    hNode = node;
-                    break;
-                }
+            if (index >= 0 && sortedHistoryDays[index] == epochDay) {
+                return Optional.of(sortedHistoryNodeCache.get(index));
             }
 
-            return Optional.ofNullable(hNode);
+            return Optional.empty();
         } finally {
             lock.readLock().unlock();
         }
@@ -419,22 +452,45 @@ public class SecurityNode extends CommodityNode {
         lock.readLock().lock();
 
         try {
-            SecurityHistoryNode hNode = null;
+            final int index = upperBound(epochDay) - 1;
 
-            // Work backwards through the list as the newest date is requested the most
-            for (int i = sortedHistoryNodeCache.size() - 1; i >= 0; i--) {
-                final SecurityHistoryNode node = sortedHistoryNodeCache.get(i);
+            return index >= 0 ? Optional.of(sortedHistoryNodeCache.get(index)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
 
-                if (node.getLocalDate().toEpochDay() <= epochDay) {
-                    hNode = node;
-                    break;
-                }
+    /**
+     * Returns the index of the first history node after the epoch day.  The lock must be held.
+     *
+     * @param epochDay epoch day to search for
+     * @return index of the first history node after the epoch day
+     */
+    private int upperBound(final long epochDay) {
+        int low = 0;
+        int high = sortedHistoryDays.length;
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (sortedHistoryDays[mid] <= epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
+        }
 
-            return Optional.ofNullable(hNode);
-        } finally {
-            lock.readLock().unlock();
+        return low;
+    }
+
+    private void updateHistoryDays() {
+        final long[] days = new long[sortedHistoryNodeCache.size()];
+
+        for (int i = 0; i < days.length; i++) {
+            days[i] = sortedHistoryNodeCache.get(i).getLocalDate().toEpochDay();
         }
+
+        sortedHistoryDays = days;
     }
 
     private BigDecimal getMarketPrice(final LocalDate date) {
@@ -499,5 +555,7 @@ public class SecurityNode extends CommodityNode {
         // load the cache list
         sortedHistoryNodeCache = new ArrayList<>(historyNodes);
         Collections.sort(sortedHistoryNodeCache);   // JPA will be naturally sorted, but XML files will not
+
+        updateHistoryDays();
     }
 }
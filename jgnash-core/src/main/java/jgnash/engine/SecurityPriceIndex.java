@@ -0,0 +1,183 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import jgnash.util.Nullable;
+
+/**
+ * Index of the prices of investment transactions by security and date.
+ * <p>
+ * Each security has its priced transaction days in a sorted primitive array so the closest price to a date is a
+ * binary search rather than a scan of every transaction.  Transactions without a positive price, such as dividends,
+ * are not indexed.
+ * <p>
+ * The index is a snapshot of the transactions it was built from.
+ *
+ * @author Craig Cavanaugh
+ */
+final class SecurityPriceIndex {
+
+    private final Map<SecurityNode, Prices> prices = new HashMap<>();
+
+    /**
+     * Creates an index.
+     *
+     * @param transactions transactions to index, transactions that are not investment transactions are ignored
+     */
+    SecurityPriceIndex(final Collection<Transaction> transactions) {
+        for (final Transaction transaction : transactions) {
+            if (transaction instanceof InvestmentTransaction) {
+                final BigDecimal price = ((InvestmentTransaction) transaction).getPrice();
+
+                if (price != null && price.compareTo(BigDecimal.ZERO) > 0) {
+                    prices.computeIfAbsent(((InvestmentTransaction) transaction).getSecurityNode(), k -> new Prices())
+                            .add(transaction.getLocalDate().toEpochDay(), price);
+                }
+            }
+        }
+
+        prices.values().forEach(Prices::sort);
+    }
+
+    /**
+     * Returns the transaction price closest to a date without exceeding it.  A price on the date is always returned,
+     * an earlier price only if it is newer than the supplied date.  Of several prices on the same date, the last
+     * transaction on the requested date is used, otherwise the first transaction on the day.
+     *
+     * @param node  security to search for
+     * @param date  date to search for
+     * @param after an earlier price must be newer than this date
+     * @return the price or {@code null} if not found
+     */
+    @Nullable
+    BigDecimal getPrice(final SecurityNode node, final LocalDate date, final LocalDate after) {
+        final Prices securityPrices = prices.get(node);
+
+        if (securityPrices != null) {
+            final long epochDay = date.toEpochDay();
+            final int index = securityPrices.lowerBound(epochDay + 1) - 1;
+
+            if (index >= 0) {
+                if (securityPrices.days[index] == epochDay) {
+                    return securityPrices.lastPrices[index];
+                }
+
+                if (securityPrices.days[index] > after.toEpochDay()) {
+                    return securityPrices.firstPrices[index];
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Transaction prices of a single security.
+     */
+    private static final class Prices {
+
+        private long[] days = new long[8];
+
+        private BigDecimal[] firstPrices = new BigDecimal[8];
+
+        private BigDecimal[] lastPrices;
+
+        private int size;
+
+        void add(final long day, final BigDecimal price) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                firstPrices = Arrays.copyOf(firstPrices, size * 2);
+            }
+
+            days[size] = day;
+            firstPrices[size] = price;
+            size++;
+        }
+
+        /**
+         * Sorts the prices by day and merges prices on the same day.  The order of prices on a day is preserved.
+         */
+        void sort() {
+            boolean sorted = true;
+
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = days[i - 1] <= days[i];
+            }
+
+            if (!sorted) {  // stable sort of the positions by day
+                final Integer[] order = new Integer[size];
+
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+
+                Arrays.sort(order, (a, b) -> Long.compare(days[a], days[b]));
+
+                final long[] sortedDays = new long[size];
+                final BigDecimal[] sortedPrices = new BigDecimal[size];
+
+                for (int i = 0; i < size; i++) {
+                    sortedDays[i] = days[order[i]];
+                    sortedPrices[i] = firstPrices[order[i]];
+                }
+
+                days = sortedDays;
+                firstPrices = sortedPrices;
+            }
+
+            final long[] mergedDays = new long[size];
+            final BigDecimal[] mergedFirst = new BigDecimal[size];
+            final BigDecimal[] mergedLast = new BigDecimal[size];
+
+            int count = 0;
+
+            for (int i = 0; i < size; i++) {
+                if (count > 0 && mergedDays[count - 1] == days[i]) {
+                    mergedLast[count - 1] = firstPrices[i];
+                } else {
+                    mergedDays[count] = days[i];
+                    mergedFirst[count] = firstPrices[i];
+                    mergedLast[count] = firstPrices[i];
+                    count++;
+                }
+            }
+
+            days = Arrays.copyOf(mergedDays, count);
+            firstPrices = Arrays.copyOf(mergedFirst, count);
+            lastPrices = Arrays.copyOf(mergedLast, count);
+            size = count;
+        }
+
+        /**
+         * Returns the index of the first day equal to or after the supplied day.
+         */
+        int lowerBound(final long day) {
+            final int index = Arrays.binarySearch(days, 0, size, day);    // days are unique once sorted
+
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
@@ -24,8 +24,10 @@ import javax.persistence.Basic;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
+import javax.persistence.Table;
 import javax.persistence.Version;
 
 import static jgnash.util.LogUtil.logSevere;
@@ -37,6 +39,7 @@ import static jgnash.util.LogUtil.logSevere;
  */
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+@Table(indexes = {@Index(name = "STOREDOBJECT_REMOVED_IDX", columnList = "markedForRemoval")})
 public abstract class StoredObject implements Cloneable, Serializable {
 
     /**
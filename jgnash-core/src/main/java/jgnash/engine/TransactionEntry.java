@@ -27,8 +27,10 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
 import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.Collection;
@@ -48,6 +50,8 @@ import java.util.Objects;
  * @author Craig Cavanaugh
  */
 @Entity
+@Table(indexes = {@Index(name = "TRANSACTIONENTRY_DEBIT_IDX", columnList = "debitAccount_uuid"),
+        @Index(name = "TRANSACTIONENTRY_CREDIT_IDX", columnList = "creditAccount_uuid")})
 @SequenceGenerator(name = "sequence", allocationSize = 10)
 public class TransactionEntry implements Comparable<TransactionEntry>, Cloneable, Serializable {
 
@@ -0,0 +1,296 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import jgnash.util.Nullable;
+
+/**
+ * Date bucketed balance index for an {@code Account} and all of its descendants.
+ * <p>
+ * Transaction amounts of the account tree are summed into daily buckets, one set of buckets per currency, with a
+ * lazily computed prefix sum over the buckets.  The balance of the tree over any date range is then two binary
+ * searches per currency instead of a walk of every account in the tree.  Investment accounts are valued at the
+ * market price and are not a sum of transaction amounts, so they are kept aside and asked for their balance directly.
+ * <p>
+ * The index is built on first use.  The owning {@code Account} reports transaction changes to the index of itself
+ * and each of its ancestors through {@link #add(CurrencyNode, LocalDate, BigDecimal)} and discards the indexes with
+ * {@link #clear()} when the shape of the tree changes.
+ *
+ * @author Craig Cavanaugh
+ */
+final class TreeBalanceIndex {
+
+    private final Account account;
+
+    /**
+     * Daily balances by currency, {@code null} until the index is built.
+     */
+    private Map<CurrencyNode, DailyBalances> balances;
+
+    /**
+     * Investment accounts within the tree.
+     */
+    private List<Account> marketValueAccounts;
+
+    /**
+     * Incremented for every change so a build that raced with a change is not kept.
+     */
+    private long version;
+
+    TreeBalanceIndex(final Account account) {
+        this.account = account;
+    }
+
+    /**
+     * Adds a transaction amount of an account within the tree.
+     *
+     * @param node   currency of the account
+     * @param date   date of the transaction
+     * @param amount amount to add, negated when a transaction is removed
+     */
+    synchronized void add(final CurrencyNode node, final LocalDate date, final BigDecimal amount) {
+        version++;
+
+        if (balances != null) {
+            balances.computeIfAbsent(node, k -> new DailyBalances()).add(date.toEpochDay(), amount);
+        }
+    }
+
+    /**
+     * Discards the index.  It will be rebuilt when next used.
+     */
+    synchronized void clear() {
+        version++;
+
+        balances = null;
+        marketValueAccounts = null;
+    }
+
+    /**
+     * Returns the balance of the account tree inclusive of the start and end dates.
+     *
+     * @param start inclusive start date, {@code null} to include every transaction up to the end date
+     * @param end   inclusive end date
+     * @param node  the currency to convert the balance to
+     * @return the balance of the account tree
+     */
+    BigDecimal getBalance(@Nullable final LocalDate start, final LocalDate end, final CurrencyNode node) {
+        final long startDay = start != null ? start.toEpochDay() : Long.MIN_VALUE;
+        final long endDay = end.toEpochDay();
+
+        final Map<CurrencyNode, BigDecimal> amounts = new HashMap<>();
+        final List<Account> market;
+
+        final long buildVersion;
+
+        synchronized (this) {
+            buildVersion = version;
+
+            if (balances != null) {
+                sum(balances, startDay, endDay, amounts);
+                market = marketValueAccounts;
+            } else {
+                market = null;
+            }
+        }
+
+        if (market == null) {   // build outside of the monitor, the accounts of the tree must be locked
+            final Map<CurrencyNode, DailyBalances> builtBalances = new HashMap<>();
+            final List<Account> builtMarket = new ArrayList<>();
+
+            collect(account, builtBalances, builtMarket);
+
+            synchronized (this) {
+                if (version == buildVersion) {
+                    balances = builtBalances;
+                    marketValueAccounts = builtMarket;
+                }
+
+                sum(builtBalances, startDay, endDay, amounts);
+            }
+
+            return convert(amounts, builtMarket, start, end, node);
+        }
+
+        return convert(amounts, market, start, end, node);
+    }
+
+    private static void sum(final Map<CurrencyNode, DailyBalances> balances, final long startDay, final long endDay,
+                            final Map<CurrencyNode, BigDecimal> amounts) {
+        for (final Map.Entry<CurrencyNode, DailyBalances> entry : balances.entrySet()) {
+            amounts.put(entry.getKey(), entry.getValue().getBalance(startDay, endDay));
+        }
+    }
+
+    private static BigDecimal convert(final Map<CurrencyNode, BigDecimal> amounts, final List<Account> market,
+                                      @Nullable final LocalDate start, final LocalDate end, final CurrencyNode node) {
+        BigDecimal balance = BigDecimal.ZERO;
+
+        for (final Map.Entry<CurrencyNode, BigDecimal> entry : amounts.entrySet()) {
+            if (node.equals(entry.getKey())) {
+                balance = balance.add(entry.getValue());
+            } else if (entry.getValue().signum() != 0) {
+                balance = balance.add(entry.getValue().multiply(entry.getKey().getExchangeRate(node)));
+            }
+        }
+
+        for (final Account marketAccount : market) {
+            if (start != null) {
+                balance = balance.add(marketAccount.getBalance(start, end, node));
+            } else {
+                balance = balance.add(marketAccount.getBalance(end, node));
+            }
+        }
+
+        return balance;
+    }
+
+    private static void collect(final Account account, final Map<CurrencyNode, DailyBalances> balances,
+                                final List<Account> market) {
+        if (account.memberOf(AccountGroup.INVEST)) {
+            market.add(account);
+        } else {
+            final Lock lock = account.getTransactionLock().readLock();
+            lock.lock();
+
+            try {
+                final List<Transaction> transactions = account.getSortedTransactionList();
+
+                if (!transactions.isEmpty()) {
+                    final DailyBalances dailyBalances
+                            = balances.computeIfAbsent(account.getCurrencyNode(), k -> new DailyBalances());
+
+                    for (final Transaction transaction : transactions) {
+                        dailyBalances.add(transaction.getLocalDate().toEpochDay(), transaction.getAmount(account));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        for (final Account child : account.getChildren()) {
+            collect(child, balances, market);
+        }
+    }
+
+    /**
+     * Sums of transaction amounts by day for a single currency.
+     */
+    private static final class DailyBalances {
+
+        private long[] days = new long[16];
+
+        private BigDecimal[] amounts = new BigDecimal[16];
+
+        /**
+         * Prefix sums of {@code amounts}.
+         */
+        private BigDecimal[] sums = new BigDecimal[16];
+
+        private int size;
+
+        /**
+         * The number of leading entries in {@code sums} that are known to be correct.
+         */
+        private int validCount;
+
+        void add(final long day, final BigDecimal amount) {
+
+            // transactions are usually appended in date order
+            int index = size > 0 && days[size - 1] == day ? size - 1 : Arrays.binarySearch(days, 0, size, day);
+
+            if (index >= 0) {
+                amounts[index] = amounts[index].add(amount);
+            } else {
+                index = -index - 1;
+
+                if (size == days.length) {
+                    final int capacity = size + (size >> 1);
+
+                    days = Arrays.copyOf(days, capacity);
+                    amounts = Arrays.copyOf(amounts, capacity);
+                    sums = Arrays.copyOf(sums, capacity);
+                }
+
+                System.arraycopy(days, index, days, index + 1, size - index);
+                System.arraycopy(amounts, index, amounts, index + 1, size - index);
+
+                days[index] = day;
+                amounts[index] = amount;
+                size++;
+            }
+
+            validCount = Math.min(validCount, index);
+        }
+
+        /**
+         * Returns the balance of the days inclusive of the start and end days.
+         */
+        BigDecimal getBalance(final long startDay, final long endDay) {
+            final int first = lowerBound(startDay);
+            final int last = lowerBound(endDay == Long.MAX_VALUE ? endDay : endDay + 1) - 1;
+
+            if (first > last) {
+                return BigDecimal.ZERO;
+            }
+
+            if (first == 0) {
+                return getSum(last);
+            }
+
+            return getSum(last).subtract(getSum(first - 1));
+        }
+
+        /**
+         * Returns the sum of the days up to and inclusive of the index.
+         */
+        private BigDecimal getSum(final int index) {
+            if (index >= validCount) {
+                BigDecimal sum = validCount > 0 ? sums[validCount - 1] : BigDecimal.ZERO;
+
+                for (int i = validCount; i <= index; i++) {
+                    sum = sum.add(amounts[i]);
+                    sums[i] = sum;
+                }
+
+                validCount = index + 1;
+            }
+
+            return sums[index];
+        }
+
+        /**
+         * Returns the index of the first day equal to or after the supplied day.
+         */
+        private int lowerBound(final long day) {
+            final int index = Arrays.binarySearch(days, 0, size, day);
+
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
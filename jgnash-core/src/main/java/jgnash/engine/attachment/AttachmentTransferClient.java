@@ -24,14 +24,8 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.Delimiters;
-import io.netty.handler.codec.base64.Base64Decoder;
-import io.netty.handler.codec.base64.Base64Encoder;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.Future;
@@ -41,8 +35,6 @@ import java.util.logging.Logger;
 import jgnash.net.ConnectionFactory;
 import jgnash.util.EncryptionManager;
 
-import static jgnash.engine.attachment.NettyTransferHandler.*;
-
 /**
  * Client for sending and receiving files.
  *
@@ -59,8 +51,6 @@ class AttachmentTransferClient {
 
     private NettyTransferHandler transferHandler;
 
-    private EncryptionManager encryptionManager = null;
-
     AttachmentTransferClient(final Path tempPath) {
         tempDirectory = tempPath;
     }
@@ -76,6 +66,8 @@ class AttachmentTransferClient {
     boolean connectToServer(final String host, final int port, final char[] password) {
         boolean result = false;
 
+        EncryptionManager encryptionManager = null;
+
         // If a password has been specified, create an EncryptionManager
         if (password != null && password.length > 0) {
             encryptionManager = new EncryptionManager(password);
@@ -108,25 +100,31 @@ class AttachmentTransferClient {
         return result;
     }
 
-    private String encrypt(final String message) {
-        if (encryptionManager != null) {
-            return encryptionManager.encrypt(message);
-        }
-        return message;
+    /**
+     * Requests a file from the server.
+     *
+     * @param file file to request
+     * @return the future path of the received file
+     */
+    Future<Path> requestFile(final Path file) {
+        return transferHandler.requestFile(channel, file.getFileName().toString());
     }
 
-    void requestFile(final Path file) {
-        try {
-            channel.writeAndFlush(encrypt(FILE_REQUEST + file) + EOL_DELIMITER).sync();
-        } catch (final InterruptedException e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-            Thread.currentThread().interrupt();
-        }
+    /**
+     * Returns the number of bytes received for a requested file.
+     *
+     * @param file requested file
+     * @return the number of bytes received, -1 if the file is not being received
+     */
+    long getReceivedLength(final Path file) {
+        return transferHandler.getReceivedLength(file.getFileName().toString());
     }
 
     void deleteFile(final String attachment) {
         try {
-            channel.writeAndFlush(encrypt(DELETE + Paths.get(attachment).getFileName()) + EOL_DELIMITER).sync();
+            transferHandler.deleteFile(channel, Paths.get(attachment).getFileName().toString()).sync();
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
         } catch (final InterruptedException e) {
             logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
             Thread.currentThread().interrupt();
@@ -135,7 +133,7 @@ class AttachmentTransferClient {
 
     Future<Void> sendFile(final Path file) {
         if (transferHandler != null) {
-            return transferHandler.sendFile(channel, file.toString());
+            return transferHandler.sendFile(channel, file);
         }
 
         return null;
@@ -167,14 +165,7 @@ class AttachmentTransferClient {
         public void initChannel(final SocketChannel ch) {
 
             ch.pipeline().addLast(
-                    new DelimiterBasedFrameDecoder(((TRANSFER_BUFFER_SIZE + 2) / 3) * 4 + PATH_MAX,
-                            true, Delimiters.lineDelimiter()),
-
-                    new StringEncoder(CharsetUtil.UTF_8),
-                    new StringDecoder(CharsetUtil.UTF_8),
-
-                    new Base64Encoder(),
-                    new Base64Decoder(),
+                    NettyTransferHandler.newFrameDecoder(),
 
                     transferHandler);
         }
@@ -28,13 +28,6 @@ import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.Delimiters;
-import io.netty.handler.codec.base64.Base64Decoder;
-import io.netty.handler.codec.base64.Base64Encoder;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
 import java.nio.file.Path;
@@ -43,9 +36,6 @@ import java.util.logging.Logger;
 
 import jgnash.util.EncryptionManager;
 
-import static jgnash.engine.attachment.NettyTransferHandler.PATH_MAX;
-import static jgnash.engine.attachment.NettyTransferHandler.TRANSFER_BUFFER_SIZE;
-
 /**
  * File server for attachments.
  *
@@ -90,14 +80,7 @@ public class AttachmentTransferServer {
                         public void initChannel(final SocketChannel ch) {
 
                             ch.pipeline().addLast(
-                                    new DelimiterBasedFrameDecoder(((TRANSFER_BUFFER_SIZE + 2) / 3) * 4 + PATH_MAX,
-                                            true, Delimiters.lineDelimiter()),
-
-                                    new StringEncoder(CharsetUtil.UTF_8),
-                                    new StringDecoder(CharsetUtil.UTF_8),
-
-                                    new Base64Encoder(),
-                                    new Base64Decoder(),
+                                    NettyTransferHandler.newFrameDecoder(),
 
                                     new ServerTransferHandler());
                         }
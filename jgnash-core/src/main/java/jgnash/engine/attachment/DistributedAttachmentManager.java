@@ -26,14 +26,14 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.EnumSet;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -110,9 +110,13 @@ public class DistributedAttachmentManager implements AttachmentManager {
 
         if (future != null) {   // if null, path was not valid
             try {
-                future.get();  // wait for the transfer to complete
-            } catch (final InterruptedException | ExecutionException e) {
+                future.get();  // wait for the transfer to be verified by the server
+            } catch (final InterruptedException e) {
                 Logger.getLogger(DistributedAttachmentManager.class.getName()).log(Level.SEVERE, e.getLocalizedMessage(), e);
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                Logger.getLogger(DistributedAttachmentManager.class.getName()).log(Level.SEVERE, e.getLocalizedMessage(), e);
+                return false;   // do not remove a file that did not arrive
             }
 
             // Copy or move the file
@@ -142,18 +146,37 @@ public class DistributedAttachmentManager implements AttachmentManager {
             Path path = Paths.get(tempAttachmentPath + FileUtils.SEPARATOR + Paths.get(attachment).getFileName());
 
             if (Files.notExists(path)) {
-                fileClient.requestFile(Paths.get(attachment));  // Request the file and place in a a temp location
+                // Request the file and place in a a temp location
+                final Future<Path> future = fileClient.requestFile(Paths.get(attachment));
 
-                final LocalDateTime start = LocalDateTime.now();
+                long received = -1;
 
-                while (Duration.between(start, LocalDateTime.now()).toMillis() < TRANSFER_TIMEOUT) {
-                    if (Files.exists(path)) {
+                while (true) {
+                    try {
+                        path = future.get(TRANSFER_TIMEOUT, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (final TimeoutException e) {
+
+                        // keep waiting while a large file is still making progress
+                        final long length = fileClient.getReceivedLength(Paths.get(attachment));
+
+                        if (length <= received) {
+                            future.cancel(false);
+                            path = null;
+                            break;
+                        }
+
+                        received = length;
+                    } catch (final ExecutionException e) {
+                        Logger.getLogger(DistributedAttachmentManager.class.getName()).log(Level.WARNING,
+                                e.getLocalizedMessage(), e);
+                        path = null;
                         break;
                     }
                 }
             }
 
-            if (Files.notExists(path)) {
+            if (path != null && Files.notExists(path)) {
                 path = null;
             }
 
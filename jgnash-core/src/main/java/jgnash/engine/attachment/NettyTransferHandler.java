@@ -18,59 +18,98 @@
 package jgnash.engine.attachment;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.Base64;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
 
 import jgnash.engine.AttachmentUtils;
 import jgnash.util.EncryptionManager;
-import jgnash.util.FileUtils;
 import jgnash.util.Nullable;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 
 /**
  * Handles the details of bi-directional transfer of files between a client and server.
+ * <p>
+ * Files are sent as length prefixed binary frames.  Without encryption the file chunks are written with a
+ * {@code FileRegion} so the file content is sent without being copied into the heap.  With encryption each chunk is
+ * encrypted on its own.  The receiver writes to a partial file and replies to the start of a transfer with the length
+ * and checksum of any partial file left by an interrupted transfer, so the sender can resume from where it stopped.
+ * The completed file is verified against the checksum of the sent file before it replaces the destination.
  *
  * @author Craig Cavanaugh
  */
 @ChannelHandler.Sharable
-class NettyTransferHandler extends SimpleChannelInboundHandler<String> {
+class NettyTransferHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
-    static final String FILE_REQUEST = "<FILE_REQUEST>";
+    static final int LENGTH_FIELD_LENGTH = 4;
 
-    static final String DELETE = "<DELETE>";
+    static final int TRANSFER_CHUNK_SIZE = 64 * 1024;
 
-    static final String EOL_DELIMITER = "\r\n";
+    static final int PATH_MAX = 4096;
+
+    /**
+     * Largest frame, a chunk with its header plus room for encryption padding.
+     */
+    static final int MAX_FRAME_LENGTH = TRANSFER_CHUNK_SIZE + PATH_MAX * 4 + 256;
+
+    private static final byte FILE_REQUEST = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final byte FILE_STARTS = 3;
+
+    private static final byte FILE_RESUME = 4;
 
-    private static final String FILE_STARTS = "<FILE_STARTS>";
+    private static final byte FILE_CHUNK = 5;
 
-    private static final String FILE_ENDS = "<FILE_ENDS>";
+    private static final byte FILE_ENDS = 6;
 
-    private static final String FILE_CHUNK = "<FILE_CHUNK>";
+    private static final byte FILE_ACK = 7;
 
-    private static final String ERROR = "<ERROR>";
+    private static final byte ERROR = 8;
+
+    private static final String PARTIAL_FILE_SUFFIX = ".part";
 
     private static final Logger logger = Logger.getLogger(NettyTransferHandler.class.getName());
 
-    static final int TRANSFER_BUFFER_SIZE = 1024; // too large can break netty... bug?
+    /**
+     * Files being sent by file name.
+     */
+    private final Map<String, OutgoingFile> outgoingFiles = new ConcurrentHashMap<>();
 
-    static final int PATH_MAX = 4096;
+    /**
+     * Files being received by file name.
+     */
+    private final Map<String, IncomingFile> incomingFiles = new ConcurrentHashMap<>();
 
-    private final Map<String, Attachment> fileMap = new ConcurrentHashMap<>();
+    /**
+     * Files that have been requested by file name.
+     */
+    private final Map<String, CompletableFuture<Path>> requestedFiles = new ConcurrentHashMap<>();
 
     private final Path attachmentPath;
 
@@ -89,32 +128,72 @@ class NettyTransferHandler extends SimpleChannelInboundHandler<String> {
         this.encryptionManager = encryptionManager;
     }
 
+    /**
+     * Creates the frame decoder that must precede the handler in the pipeline.
+     *
+     * @return a new frame decoder
+     */
+    static LengthFieldBasedFrameDecoder newFrameDecoder() {
+        return new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, LENGTH_FIELD_LENGTH, 0, LENGTH_FIELD_LENGTH);
+    }
+
     @Override
-    public void channelRead0(final ChannelHandlerContext ctx, final String msg) {
+    public void channelRead0(final ChannelHandlerContext ctx, final ByteBuf msg) throws IOException {
+        final byte type = msg.readByte();
 
-        final String plainMessage;
+        final ByteBuf body;
 
         if (encryptionManager != null) {
-            plainMessage = encryptionManager.decrypt(msg);
+            final byte[] plain = encryptionManager.decrypt(ByteBufUtil.getBytes(msg));
+
+            if (plain == null) {
+                logger.severe("Unable to decrypt the file transfer message");
+                return;
+            }
+
+            body = Unpooled.wrappedBuffer(plain);
         } else {
-            plainMessage = msg;
+            body = msg.retain();
         }
 
-        if (plainMessage.startsWith(FILE_REQUEST)) {
-            sendFile(ctx, attachmentPath + FileUtils.SEPARATOR + plainMessage.substring(FILE_REQUEST.length()));
-        } else if (plainMessage.startsWith(FILE_STARTS)) {
-            openOutputStream(plainMessage.substring(FILE_STARTS.length()));
-        } else if (plainMessage.startsWith(FILE_CHUNK)) {
-            writeOutputStream(plainMessage.substring(FILE_CHUNK.length()));
-        } else if (plainMessage.startsWith(FILE_ENDS)) {
-            closeOutputStream(plainMessage.substring(FILE_ENDS.length()));
-        } else if (plainMessage.startsWith(DELETE)) {
-            deleteFile(plainMessage.substring(FILE_ENDS.length()));
+        try {
+            final String fileName = readFileName(body);
+
+            switch (type) {
+                case FILE_REQUEST:
+                    sendRequestedFile(ctx.channel(), fileName);
+                    break;
+                case DELETE:
+                    deleteFile(fileName);
+                    break;
+                case FILE_STARTS:
+                    openIncomingFile(ctx.channel(), fileName, body.readLong(), body.readLong());
+                    break;
+                case FILE_RESUME:
+                    resumeOutgoingFile(ctx.channel(), fileName, body.readLong(), body.readLong());
+                    break;
+                case FILE_CHUNK:
+                    writeIncomingFile(fileName, body.readLong(), body);
+                    break;
+                case FILE_ENDS:
+                    closeIncomingFile(ctx.channel(), fileName);
+                    break;
+                case FILE_ACK:
+                    closeOutgoingFile(fileName, body.readBoolean());
+                    break;
+                case ERROR:
+                    receiveError(fileName, readString(body));
+                    break;
+                default:
+                    logger.log(Level.SEVERE, "Unknown file transfer message: {0}", type);
+            }
+        } finally {
+            body.release();
         }
     }
 
     private void deleteFile(final String fileName) {
-        Path path = Paths.get(attachmentPath + FileUtils.SEPARATOR + fileName);
+        Path path = attachmentPath.resolve(fileName);
 
         if (Files.exists(path)) {
             try {
@@ -127,13 +206,23 @@ class NettyTransferHandler extends SimpleChannelInboundHandler<String> {
 
     @Override
     public void channelInactive(final ChannelHandlerContext ctx) {
-        for (Attachment object : fileMap.values()) {
-            try {
-                object.outputStream.close();
-            } catch (IOException e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-            }
+
+        // partial files are kept so the transfer can resume
+        for (final IncomingFile incomingFile : incomingFiles.values()) {
+            incomingFile.close();
+        }
+        incomingFiles.clear();
+
+        for (final OutgoingFile outgoingFile : outgoingFiles.values()) {
+            outgoingFile.close();
+            outgoingFile.future.completeExceptionally(new ClosedChannelException());
         }
+        outgoingFiles.clear();
+
+        for (final CompletableFuture<Path> future : requestedFiles.values()) {
+            future.completeExceptionally(new ClosedChannelException());
+        }
+        requestedFiles.clear();
 
         ctx.fireChannelInactive();    // forward to the next handler in the pipeline
     }
@@ -145,130 +234,488 @@ class NettyTransferHandler extends SimpleChannelInboundHandler<String> {
         ctx.close();
     }
 
-    private String encrypt(final String message) {
-        if (encryptionManager != null) {
-            return encryptionManager.encrypt(message);
+    /**
+     * Sends a file across the channel.
+     *
+     * @param channel  Channel to send file through
+     * @param path the file to send
+     * @return the future of the asynchronous send, completed when the receiver has verified the file. A null value is
+     * returned if path is not a file.
+     */
+    @Nullable
+    Future<Void> sendFile(final Channel channel, final Path path) {
+        if (!Files.isRegularFile(path)) {
+            logger.log(Level.WARNING, "Not a file: {0}", path);
+            return null;
+        }
+
+        final String fileName = path.getFileName().toString();
+
+        try {
+            final long size = Files.size(path);
+            final OutgoingFile outgoingFile = new OutgoingFile(path, size);
+
+            final OutgoingFile replaced = outgoingFiles.put(fileName, outgoingFile);
+
+            if (replaced != null) {
+                replaced.close();
+                replaced.future.cancel(false);
+            }
+
+            final ByteBuf body = channel.alloc().buffer();
+            writeString(body, fileName);
+            body.writeLong(size);
+            body.writeLong(checksum(path, size));
+
+            channel.writeAndFlush(frame(channel, FILE_STARTS, body));
+
+            return outgoingFile.future;
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            outgoingFiles.remove(fileName);
+            return null;
         }
-        return message;
     }
 
     /**
-     * Sends a file across the channel. The Fu
-     * @param channel  Channel to send file through
+     * Requests a file from the remote side.
+     *
+     * @param channel  Channel to request the file through
      * @param fileName the file name
-     * @return the future of the potentially asynchronous send is returned. A null value is returned if fileName is a path.
+     * @return the future path of the received file
      */
-    Future<Void> sendFile(final Channel channel, final String fileName) {
-        Future<Void> future = null;
+    Future<Path> requestFile(final Channel channel, final String fileName) {
+        final CompletableFuture<Path> future = requestedFiles.compute(fileName,
+                (k, v) -> v == null || v.isDone() ? new CompletableFuture<>() : v);
 
-        Path path = Paths.get(fileName);
+        try {
+            final ByteBuf body = channel.alloc().buffer();
+            writeString(body, fileName);
 
-        if (Files.exists(path)) {
+            channel.writeAndFlush(frame(channel, FILE_REQUEST, body));
+        } catch (final IOException e) {
+            requestedFiles.remove(fileName);
+            future.completeExceptionally(e);
+        }
 
-            if (Files.isDirectory(path)) {
-                channel.writeAndFlush(encrypt(ERROR + "Not a file: " + path) + EOL_DELIMITER);
-                return null;
+        return future;
+    }
+
+    /**
+     * Requests deletion of a file on the remote side.
+     *
+     * @param channel  Channel to send the request through
+     * @param fileName the file name
+     * @return the future of the write
+     * @throws IOException if the request could not be encrypted
+     */
+    ChannelFuture deleteFile(final Channel channel, final String fileName) throws IOException {
+        final ByteBuf body = channel.alloc().buffer();
+        writeString(body, fileName);
+
+        return channel.writeAndFlush(frame(channel, DELETE, body));
+    }
+
+    /**
+     * Returns the number of bytes received for a file.
+     *
+     * @param fileName the file name
+     * @return the number of bytes received, -1 if the file is not being received
+     */
+    long getReceivedLength(final String fileName) {
+        final IncomingFile incomingFile = incomingFiles.get(fileName);
+
+        return incomingFile != null ? incomingFile.received : -1;
+    }
+
+    private void sendRequestedFile(final Channel channel, final String fileName) throws IOException {
+        final Path path = attachmentPath.resolve(fileName);
+
+        if (!Files.isRegularFile(path)) {
+            logger.log(Level.WARNING, "File not found: {0}", path);
+
+            final ByteBuf body = channel.alloc().buffer();
+            writeString(body, fileName);
+            writeString(body, "File not found: " + fileName);
+
+            channel.writeAndFlush(frame(channel, ERROR, body));
+        } else {
+            sendFile(channel, path);
+        }
+    }
+
+    private void openIncomingFile(final Channel channel, final String fileName, final long size, final long checksum)
+            throws IOException {
+
+        // Lazy creation of the attachment path if needed
+        if (!AttachmentUtils.createAttachmentDirectory(attachmentPath)) {
+            logger.severe("Unable to find or create the attachment directory");
+            return;
+        }
+
+        final Path partialPath = attachmentPath.resolve(fileName + PARTIAL_FILE_SUFFIX);
+
+        long offset = Files.exists(partialPath) ? Files.size(partialPath) : 0;
+
+        if (offset > size) {
+            offset = 0;
+        }
+
+        final long partialChecksum = checksum(partialPath, offset);
+
+        final IncomingFile replaced = incomingFiles.put(fileName, new IncomingFile(attachmentPath.resolve(fileName),
+                partialPath, size, checksum, offset));
+
+        if (replaced != null) {
+            replaced.close();
+        }
+
+        final ByteBuf body = channel.alloc().buffer();
+        writeString(body, fileName);
+        body.writeLong(offset);
+        body.writeLong(partialChecksum);
+
+        channel.writeAndFlush(frame(channel, FILE_RESUME, body));
+    }
+
+    private void writeIncomingFile(final String fileName, final long position, final ByteBuf data) throws IOException {
+        final IncomingFile incomingFile = incomingFiles.get(fileName);
+
+        if (incomingFile != null) {
+
+            // a chunk must lie within the announced size, otherwise the file is rejected when it ends
+            if (position < 0 || position >= incomingFile.size
+                    || data.readableBytes() > incomingFile.size - position) {
+                logger.log(Level.SEVERE, "Invalid file chunk: {0} at {1} of {2} bytes",
+                        new Object[]{fileName, position, data.readableBytes()});
+                incomingFile.rejected = true;
+                return;
             }
 
-            try (final InputStream inputStream = Files.newInputStream(path)) {
-                channel.writeAndFlush(encrypt(FILE_STARTS + path.getFileName() + ":" + Files.size(path)) + EOL_DELIMITER);
+            long offset = position;
 
-                byte[] bytes = new byte[TRANSFER_BUFFER_SIZE];  // leave room for base 64 expansion
+            while (data.isReadable()) {
+                offset += data.readBytes(incomingFile.fileChannel, offset, data.readableBytes());
+            }
 
-                int bytesRead;
+            incomingFile.received = offset;
+        }
+    }
 
-                while ((bytesRead = inputStream.read(bytes)) != -1) {
-                    if (bytesRead > 0) {
-                        channel.write(encrypt(FILE_CHUNK + path.getFileName() + ':' +
-                                Base64.getEncoder().encodeToString(Arrays.copyOfRange(bytes, 0, bytesRead)))
-                                + EOL_DELIMITER);
-                    }
-                }
-                future = channel.writeAndFlush(encrypt(FILE_ENDS + path.getFileName()) + EOL_DELIMITER).sync();
+    private void closeIncomingFile(final Channel channel, final String fileName) throws IOException {
+        final IncomingFile incomingFile = incomingFiles.remove(fileName);
 
-            } catch (IOException | InterruptedException e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-                Thread.currentThread().interrupt();
+        if (incomingFile == null) {
+            return;
+        }
+
+        boolean valid = false;
+
+        try {
+            incomingFile.fileChannel.truncate(incomingFile.size);
+            incomingFile.close();
+
+            if (!incomingFile.rejected && incomingFile.received == incomingFile.size
+                    && Files.size(incomingFile.partialPath) == incomingFile.size
+                    && checksum(incomingFile.partialPath, incomingFile.size) == incomingFile.checksum) {
+                Files.move(incomingFile.partialPath, incomingFile.path, StandardCopyOption.REPLACE_EXISTING);
+                valid = true;
+            } else {
+                logger.log(Level.SEVERE, "Invalid file transfer: {0}", fileName);
+                Files.delete(incomingFile.partialPath);
             }
-        } else {
-            try {
-                future = channel.writeAndFlush(encrypt(ERROR + "File not found: " + path) + EOL_DELIMITER).sync();
-            } catch (final InterruptedException e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-                Thread.currentThread().interrupt();
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        final CompletableFuture<Path> future = requestedFiles.remove(fileName);
+
+        if (future != null) {
+            if (valid) {
+                future.complete(incomingFile.path);
+            } else {
+                future.completeExceptionally(new IOException("Invalid file transfer: " + fileName));
             }
-            logger.log(Level.WARNING, "File not found: {0}", path);
         }
 
-        return future;
-    }
+        final ByteBuf body = channel.alloc().buffer();
+        writeString(body, fileName);
+        body.writeBoolean(valid);
 
-    private void sendFile(final ChannelHandlerContext ctx, final String msg) {
-        sendFile(ctx.channel(), msg);
+        channel.writeAndFlush(frame(channel, FILE_ACK, body));
     }
 
-    private void closeOutputStream(final String msg) {
-        Attachment attachment = fileMap.get(msg);
+    private void resumeOutgoingFile(final Channel channel, final String fileName, final long offset,
+                                    final long partialChecksum) throws IOException {
+        final OutgoingFile outgoingFile = outgoingFiles.get(fileName);
 
+        if (outgoingFile != null) {
+
+            // resume only if the partial file matches the start of the file being sent
+            if (offset > 0 && offset <= outgoingFile.size
+                    && checksum(outgoingFile.path, offset) == partialChecksum) {
+                outgoingFile.position = offset;
+                logger.log(Level.INFO, "Resuming transfer of {0} at {1}", new Object[]{fileName, offset});
+            }
+
+            sendChunks(channel, fileName, outgoingFile);
+        }
+    }
+
+    /**
+     * Writes chunks until the channel is no longer writable and continues when the last write completes, so a large
+     * file is never buffered in memory.
+     */
+    private void sendChunks(final Channel channel, final String fileName, final OutgoingFile outgoingFile) {
         try {
-            attachment.outputStream.close();
-            fileMap.remove(msg);
+            while (outgoingFile.position < outgoingFile.size) {
+                final int count = (int) Math.min(TRANSFER_CHUNK_SIZE, outgoingFile.size - outgoingFile.position);
+
+                final ChannelFuture future = writeChunk(channel, fileName, outgoingFile, count);
+
+                outgoingFile.position += count;
+
+                if (!channel.isWritable()) {
+                    future.addListener(f -> {
+                        if (f.isSuccess()) {
+                            sendChunks(channel, fileName, outgoingFile);
+                        }
+                    });
+
+                    channel.flush();
+                    return;
+                }
+            }
+
+            final ByteBuf body = channel.alloc().buffer();
+            writeString(body, fileName);
+
+            channel.writeAndFlush(frame(channel, FILE_ENDS, body));
         } catch (final IOException e) {
             logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+
+            outgoingFiles.remove(fileName, outgoingFile);
+            outgoingFile.close();
+            outgoingFile.future.completeExceptionally(e);
         }
+    }
+
+    private ChannelFuture writeChunk(final Channel channel, final String fileName, final OutgoingFile outgoingFile,
+                                     final int count) throws IOException {
+        final ByteBuf header = channel.alloc().buffer();
+        writeString(header, fileName);
+        header.writeLong(outgoingFile.position);
 
-        if (attachment.path.toFile().length() != attachment.fileSize) {
-            logger.severe("Invalid file length");
+        if (encryptionManager == null) {  // zero copy
+            final ByteBuf prefix = channel.alloc().buffer(LENGTH_FIELD_LENGTH + 1);
+            prefix.writeInt(1 + header.readableBytes() + count);
+            prefix.writeByte(FILE_CHUNK);
+
+            channel.write(Unpooled.wrappedBuffer(prefix, header));
+
+            return channel.write(new DefaultFileRegion(outgoingFile.path.toFile(), outgoingFile.position, count));
         }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(count);
+        final FileChannel fileChannel = outgoingFile.getFileChannel();
+
+        while (buffer.hasRemaining()) {
+            if (fileChannel.read(buffer, outgoingFile.position + buffer.position()) < 0) {
+                header.release();
+                throw new IOException("Unexpected end of file: " + outgoingFile.path);
+            }
+        }
+
+        buffer.flip();
+        header.writeBytes(buffer);
+
+        return channel.write(frame(channel, FILE_CHUNK, header));
     }
 
-    private void writeOutputStream(final String msg) {
-        String[] msgParts = msg.split(":");
+    private void closeOutgoingFile(final String fileName, final boolean valid) {
+        final OutgoingFile outgoingFile = outgoingFiles.remove(fileName);
 
-        Attachment attachment = fileMap.get(msgParts[0]);
+        if (outgoingFile != null) {
+            outgoingFile.close();
 
-        if (attachment != null) {
-            try {
-                attachment.outputStream.write(Base64.getDecoder().decode(msgParts[1]));
-            } catch (final IOException e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            if (valid) {
+                outgoingFile.future.complete(null);
+            } else {
+                outgoingFile.future.completeExceptionally(new IOException("Invalid file transfer: " + fileName));
             }
         }
     }
 
-    private void openOutputStream(final String msg) {
-        String[] msgParts = msg.split(":");
+    private void receiveError(final String fileName, final String message) {
+        logger.warning(message);
 
-        final String fileName = msgParts[0];
-        final long fileLength = Long.parseLong(msgParts[1]);
+        final CompletableFuture<Path> future = requestedFiles.remove(fileName);
 
-        final Path filePath = Paths.get(attachmentPath + FileUtils.SEPARATOR + fileName);
+        if (future != null) {
+            future.completeExceptionally(new IOException(message));
+        }
+    }
 
-        // Lazy creation of the attachment path if needed
-        if (!AttachmentUtils.createAttachmentDirectory(attachmentPath)) {
-            logger.severe("Unable to find or create the attachment directory");
-            return;
+    /**
+     * Builds a frame, encrypting the body if needed.  The body is released.
+     */
+    private ByteBuf frame(final Channel channel, final byte type, final ByteBuf body) throws IOException {
+        ByteBuf payload = body;
+
+        if (encryptionManager != null) {
+            final byte[] encrypted = encryptionManager.encrypt(ByteBufUtil.getBytes(body));
+            body.release();
+
+            if (encrypted == null) {
+                throw new IOException("Unable to encrypt the file transfer message");
+            }
+
+            payload = Unpooled.wrappedBuffer(encrypted);
         }
 
-        try {
-            fileMap.put(fileName, new Attachment(filePath, fileLength));
-        } catch (IOException e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        final ByteBuf prefix = channel.alloc().buffer(LENGTH_FIELD_LENGTH + 1);
+        prefix.writeInt(1 + payload.readableBytes());
+        prefix.writeByte(type);
+
+        return Unpooled.wrappedBuffer(prefix, payload);
+    }
+
+    private static void writeString(final ByteBuf buf, final String string) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+        buf.writeShort(bytes.length);
+        buf.writeBytes(bytes);
+    }
+
+    private static String readString(final ByteBuf buf) {
+        return buf.readCharSequence(buf.readUnsignedShort(), StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Reads a file name and strips any path so a remote peer can not reach outside of the attachment directory.
+     */
+    private static String readFileName(final ByteBuf buf) throws IOException {
+        final Path fileName = Paths.get(readString(buf)).getFileName();
+
+        if (fileName == null) {
+            throw new IOException("Invalid file name");
+        }
+
+        return fileName.toString();
+    }
+
+    /**
+     * Returns the CRC-32 checksum of the start of a file.
+     *
+     * @param path   file
+     * @param length number of bytes at the start of the file to include
+     * @return the checksum
+     * @throws IOException if the file can not be read
+     */
+    private static long checksum(final Path path, final long length) throws IOException {
+        final CRC32 crc = new CRC32();
+
+        if (length > 0) {
+            try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final ByteBuffer buffer = ByteBuffer.allocate(TRANSFER_CHUNK_SIZE);
+
+                long remaining = length;
+
+                while (remaining > 0) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), remaining));
+
+                    final int read = fileChannel.read(buffer);
+
+                    if (read < 0) {
+                        break;
+                    }
+
+                    buffer.flip();
+                    crc.update(buffer);
+                    remaining -= read;
+                }
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    private static class OutgoingFile {
+        final Path path;
+
+        final long size;
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        long position;
+
+        /**
+         * Only opened when chunks must be read to be encrypted.
+         */
+        private FileChannel fileChannel;
+
+        private OutgoingFile(final Path path, final long size) {
+            this.path = path;
+            this.size = size;
+        }
+
+        FileChannel getFileChannel() throws IOException {
+            if (fileChannel == null) {
+                fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+            }
+            return fileChannel;
+        }
+
+        void close() {
+            try {
+                if (fileChannel != null) {
+                    fileChannel.close();
+                }
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
         }
     }
 
-    private static class Attachment {
+    private static class IncomingFile {
         final Path path;
 
-        final OutputStream outputStream;
+        final Path partialPath;
+
+        final FileChannel fileChannel;
+
+        final long size;
+
+        final long checksum;
 
-        final long fileSize;
+        /**
+         * End of the last chunk written.
+         */
+        volatile long received;
 
-        private Attachment(final Path path, long fileSize) throws IOException {
+        /**
+         * Set if a chunk outside of the file was received.
+         */
+        volatile boolean rejected;
+
+        private IncomingFile(final Path path, final Path partialPath, final long size, final long checksum,
+                             final long offset) throws IOException {
             this.path = path;
-            outputStream = Files.newOutputStream(path);
+            this.partialPath = partialPath;
+            this.size = size;
+            this.checksum = checksum;
+            this.received = offset;
+
+            fileChannel = FileChannel.open(partialPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
 
-            this.fileSize = fileSize;
+        void close() {
+            try {
+                fileChannel.close();
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
         }
     }
 }
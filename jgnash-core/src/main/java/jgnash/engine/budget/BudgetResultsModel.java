@@ -19,7 +19,8 @@ package jgnash.engine.budget;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,8 +28,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import jgnash.engine.Account;
@@ -50,11 +56,17 @@ import jgnash.engine.message.MessageProxy;
 
 /**
  * Model for budget results.
+ * <p>
+ * Results are cached in concurrent maps so cached results can be read without waiting on the cache lock.  The lock
+ * is held while results are built on demand or adjusted, and briefly when results built in parallel by
+ * {@link #loadResults()} are stored.
  *
  * @author Craig Cavanaugh
  */
 public class BudgetResultsModel implements MessageListener {
 
+    private static final Logger logger = Logger.getLogger(BudgetResultsModel.class.getName());
+
     private Set<Account> accounts = new HashSet<>();
 
     private final Budget budget;
@@ -77,6 +89,17 @@ public class BudgetResultsModel implements MessageListener {
 
     private final Map<BudgetPeriodDescriptor, Map<AccountGroup, BudgetPeriodResults>> descriptorAccountGroupResultsCache;
 
+    /**
+     * Account balances by period.  Every cached result is built from these balances, so when a balance changes the
+     * difference can be applied to the cached results instead of recomputing them.
+     */
+    private final Map<BudgetPeriodDescriptor, Map<Account, BigDecimal>> descriptorAccountBalanceCache;
+
+    /**
+     * Incremented when balances may have changed or results are discarded.  Guarded by {@code cacheLock}.
+     */
+    private long cacheVersion;
+
     private final boolean useRunningTotals;
 
     /**
@@ -90,10 +113,11 @@ public class BudgetResultsModel implements MessageListener {
         this.baseCurrency = baseCurrency;
         this.useRunningTotals = useRunningTotals;
 
-        accountResultsCache = new HashMap<>();
-        accountGroupResultsCache = new EnumMap<>(AccountGroup.class);
-        descriptorAccountResultsCache = new HashMap<>();
-        descriptorAccountGroupResultsCache = new HashMap<>();
+        accountResultsCache = new ConcurrentHashMap<>();
+        accountGroupResultsCache = new ConcurrentHashMap<>();
+        descriptorAccountResultsCache = new ConcurrentHashMap<>();
+        descriptorAccountGroupResultsCache = new ConcurrentHashMap<>();
+        descriptorAccountBalanceCache = new HashMap<>();
 
         loadAccounts();
         loadAccountGroups();
@@ -324,10 +348,13 @@ public class BudgetResultsModel implements MessageListener {
         cacheLock.lock();
 
         try {
+            cacheVersion++;
+
             accountResultsCache.clear();
             accountGroupResultsCache.clear();
             descriptorAccountResultsCache.clear();
             descriptorAccountGroupResultsCache.clear();
+            descriptorAccountBalanceCache.clear();
         } finally {
             cacheLock.unlock();
         }
@@ -341,13 +368,26 @@ public class BudgetResultsModel implements MessageListener {
      * @return cached or newly created BudgetPeriodResults
      */
     public BudgetPeriodResults getResults(final BudgetPeriodDescriptor descriptor, final Account account) {
+        final BudgetPeriodResults cachedResults = getCached(descriptorAccountResultsCache, descriptor, account);
+
+        if (cachedResults != null) {
+            return cachedResults;
+        }
+
         cacheLock.lock();
 
         try {
             final Map<Account, BudgetPeriodResults> resultsMap
-                    = descriptorAccountResultsCache.computeIfAbsent(descriptor, k -> new HashMap<>());
+                    = descriptorAccountResultsCache.computeIfAbsent(descriptor, k -> new ConcurrentHashMap<>());
+
+            BudgetPeriodResults results = resultsMap.get(account);
+
+            if (results == null) {
+                results = buildAccountResults(descriptor, account, true);
+                resultsMap.put(account, results);
+            }
 
-            return resultsMap.computeIfAbsent(account, k -> buildAccountResults(descriptor, account, true));
+            return results;
         } finally {
             cacheLock.unlock();
         }
@@ -362,13 +402,26 @@ public class BudgetResultsModel implements MessageListener {
      * @return summary results
      */
     public BudgetPeriodResults getResults(final BudgetPeriodDescriptor descriptor, final AccountGroup group) {
+        final BudgetPeriodResults cachedResults = getCached(descriptorAccountGroupResultsCache, descriptor, group);
+
+        if (cachedResults != null) {
+            return cachedResults;
+        }
+
         cacheLock.lock();
 
         try {
             final Map<AccountGroup, BudgetPeriodResults> resultsMap = descriptorAccountGroupResultsCache
-                    .computeIfAbsent(descriptor, k -> new EnumMap<>(AccountGroup.class));
+                    .computeIfAbsent(descriptor, k -> new ConcurrentHashMap<>());
+
+            BudgetPeriodResults results = resultsMap.get(group);
 
-            return resultsMap.computeIfAbsent(group, k -> buildResults(descriptor, group));
+            if (results == null) {
+                results = buildResults(descriptor, group);
+                resultsMap.put(group, results);
+            }
+
+            return results;
         } finally {
             cacheLock.unlock();
         }
@@ -381,10 +434,23 @@ public class BudgetResultsModel implements MessageListener {
      * @return summary results
      */
     public BudgetPeriodResults getResults(final Account account) {
+        final BudgetPeriodResults cachedResults = accountResultsCache.get(account);
+
+        if (cachedResults != null) {
+            return cachedResults;
+        }
+
         cacheLock.lock();
 
         try {
-            return accountResultsCache.computeIfAbsent(account, k -> buildResults(account));
+            BudgetPeriodResults results = accountResultsCache.get(account);
+
+            if (results == null) {
+                results = buildResults(account);
+                accountResultsCache.put(account, results);
+            }
+
+            return results;
         } finally {
             cacheLock.unlock();
         }
@@ -397,15 +463,307 @@ public class BudgetResultsModel implements MessageListener {
      * @return summary results
      */
     public BudgetPeriodResults getResults(final AccountGroup accountGroup) {
+        final BudgetPeriodResults cachedResults = accountGroupResultsCache.get(accountGroup);
+
+        if (cachedResults != null) {
+            return cachedResults;
+        }
+
+        cacheLock.lock();
+
+        try {
+            BudgetPeriodResults results = accountGroupResultsCache.get(accountGroup);
+
+            if (results == null) {
+                results = buildResults(accountGroup);
+                accountGroupResultsCache.put(accountGroup, results);
+            }
+
+            return results;
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private static <K> BudgetPeriodResults getCached(final Map<BudgetPeriodDescriptor, Map<K, BudgetPeriodResults>> cache,
+                                                     final BudgetPeriodDescriptor descriptor, final K key) {
+        final Map<K, BudgetPeriodResults> resultsMap = cache.get(descriptor);
+
+        return resultsMap != null ? resultsMap.get(key) : null;
+    }
+
+    /**
+     * Computes the results of every account and period in parallel and caches them.  The periods are computed
+     * concurrently and each account tree is computed bottom-up with child accounts computed concurrently.  Cached
+     * results may be read while the results are computed.  If the cached balances change before the results can be
+     * stored, the results are discarded and built on demand instead.
+     */
+    public void loadResults() {
+        final Set<Account> includedAccounts = getAccounts();
+
+        final Map<BudgetPeriodDescriptor, Map<Account, BigDecimal>> cachedBalances = new HashMap<>();
+        final long version;
+
+        cacheLock.lock();
+
+        try {
+            version = cacheVersion;
+
+            descriptorAccountBalanceCache.forEach((descriptor, balances)
+                    -> cachedBalances.put(descriptor, new HashMap<>(balances)));
+        } finally {
+            cacheLock.unlock();
+        }
+
+        // the top level accounts of the budget, the included accounts are all within their trees
+        final List<Account> topLevelAccounts = includedAccounts.stream()
+                .filter(account -> !includedAccounts.contains(account.getParent())).collect(Collectors.toList());
+
+        final List<PeriodTask> periodTasks = new ArrayList<>();
+
+        for (final BudgetPeriodDescriptor descriptor : descriptorList) {
+            periodTasks.add(new PeriodTask(descriptor, topLevelAccounts, includedAccounts,
+                    cachedBalances.getOrDefault(descriptor, Collections.emptyMap())));
+        }
+
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(periodTasks);
+            }
+        });
+
+        // combine the periods, running totals depend on the prior period
+        final Map<BudgetPeriodDescriptor, Map<Account, BudgetPeriodResults>> results = new HashMap<>();
+
+        Map<Account, BudgetPeriodResults> priorResults = Collections.emptyMap();
+
+        for (final PeriodTask periodTask : periodTasks) {
+            final Map<Account, BudgetPeriodResults> periodResults = new HashMap<>();
+
+            for (final Map.Entry<Account, BudgetPeriodResults> entry : periodTask.sums.entrySet()) {
+                final BudgetPeriodResults prior = useRunningTotals ? priorResults.get(entry.getKey()) : null;
+
+                periodResults.put(entry.getKey(), rescale(entry.getKey(), entry.getValue(), prior));
+            }
+
+            results.put(periodTask.descriptor, periodResults);
+            priorResults = periodResults;
+        }
+
         cacheLock.lock();
 
         try {
-            return accountGroupResultsCache.computeIfAbsent(accountGroup, k -> buildResults(accountGroup));
+            // a balance changed while the results were computed
+            if (version != cacheVersion || !isConsistent(periodTasks)) {
+                logger.fine("Budget results changed while loading, results will be built on demand");
+                return;
+            }
+
+            for (final PeriodTask periodTask : periodTasks) {
+                descriptorAccountBalanceCache.computeIfAbsent(periodTask.descriptor, k -> new HashMap<>())
+                        .putAll(periodTask.balances);
+
+                final Map<Account, BudgetPeriodResults> resultsMap = descriptorAccountResultsCache
+                        .computeIfAbsent(periodTask.descriptor, k -> new ConcurrentHashMap<>());
+
+                results.get(periodTask.descriptor).forEach(resultsMap::putIfAbsent);
+            }
         } finally {
             cacheLock.unlock();
         }
+
+        // summaries are built from the cached results
+        for (final AccountGroup group : getAccountGroupList()) {
+            for (final BudgetPeriodDescriptor descriptor : descriptorList) {
+                getResults(descriptor, group);
+            }
+            getResults(group);
+        }
+
+        for (final Account account : includedAccounts) {
+            getResults(account);
+        }
+    }
+
+    /**
+     * Checks the balances computed for a load against balances cached since the load started.  The cache lock
+     * must be held.
+     */
+    private boolean isConsistent(final List<PeriodTask> periodTasks) {
+        for (final PeriodTask periodTask : periodTasks) {
+            final Map<Account, BigDecimal> balances = descriptorAccountBalanceCache.get(periodTask.descriptor);
+
+            if (balances != null) {
+                for (final Map.Entry<Account, BigDecimal> entry : periodTask.balances.entrySet()) {
+                    final BigDecimal balance = balances.get(entry.getKey());
+
+                    if (balance != null && balance.compareTo(entry.getValue()) != 0) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Rescales summed results to the account currency the same way {@code buildAccountResults} does.
+     *
+     * @param account account of the results
+     * @param sums    summed results of the account and its children
+     * @param prior   running total of the prior period, may be {@code null}
+     * @return rescaled results
+     */
+    private static BudgetPeriodResults rescale(final Account account, final BudgetPeriodResults sums,
+                                               final BudgetPeriodResults prior) {
+        BigDecimal budgeted = sums.getBudgeted();
+        BigDecimal change = sums.getChange();
+        BigDecimal remaining = sums.getRemaining();
+
+        if (prior != null) {
+            budgeted = budgeted.add(prior.getBudgeted());
+            change = change.add(prior.getChange());
+            remaining = remaining.add(prior.getRemaining());
+        }
+
+        final int scale = account.getCurrencyNode().getScale();
+
+        final BudgetPeriodResults results = new BudgetPeriodResults();
+
+        results.setBudgeted(budgeted.setScale(scale, MathConstants.roundingMode));
+        results.setChange(change.setScale(scale, MathConstants.roundingMode));
+        results.setRemaining(remaining.setScale(scale, MathConstants.roundingMode));
+
+        return results;
     }
 
+    /**
+     * Computes the results of one period for the budget account trees.
+     */
+    private class PeriodTask extends RecursiveAction {
+
+        final BudgetPeriodDescriptor descriptor;
+
+        private final List<Account> topLevelAccounts;
+
+        private final Set<Account> includedAccounts;
+
+        private final Map<Account, BigDecimal> cachedBalances;
+
+        /**
+         * Balances that were not cached.
+         */
+        final Map<Account, BigDecimal> balances = new ConcurrentHashMap<>();
+
+        /**
+         * Results of the included accounts summed with the rescaled results of their children, not yet rescaled.
+         */
+        final Map<Account, BudgetPeriodResults> sums = new ConcurrentHashMap<>();
+
+        PeriodTask(final BudgetPeriodDescriptor descriptor, final List<Account> topLevelAccounts,
+                   final Set<Account> includedAccounts, final Map<Account, BigDecimal> cachedBalances) {
+            this.descriptor = descriptor;
+            this.topLevelAccounts = topLevelAccounts;
+            this.includedAccounts = includedAccounts;
+            this.cachedBalances = cachedBalances;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(topLevelAccounts.stream().map(AccountTask::new).collect(Collectors.toList()));
+        }
+
+        private BigDecimal getBalance(final Account account) {
+            final BigDecimal balance = cachedBalances.get(account);
+
+            if (balance != null) {
+                return balance;
+            }
+
+            return balances.computeIfAbsent(account,
+                    k -> account.getBalance(descriptor.getStartDate(), descriptor.getEndDate()));
+        }
+
+        /**
+         * Sums the results of an account and its children.  Mirrors {@code buildAccountResults} without the
+         * running total and the final rescale.
+         */
+        private class AccountTask extends RecursiveTask<BudgetPeriodResults> {
+
+            private final Account account;
+
+            AccountTask(final Account account) {
+                this.account = account;
+            }
+
+            @Override
+            protected BudgetPeriodResults compute() {
+                final List<AccountTask> childTasks = account.getChildren().stream().map(AccountTask::new)
+                        .collect(Collectors.toList());
+
+                invokeAll(childTasks);
+
+                BigDecimal budgeted = BigDecimal.ZERO;
+                BigDecimal change = BigDecimal.ZERO;
+                BigDecimal remaining = BigDecimal.ZERO;
+
+                if (includedAccounts.contains(account)) {
+                    budgeted = budget.getBudgetGoal(account).getGoal(descriptor.getStartPeriod(),
+                            descriptor.getEndPeriod());
+
+                    if (account.getAccountType() == AccountType.INCOME) {
+                        change = getBalance(account).negate();
+                        remaining = change.subtract(budgeted);
+                    } else {
+                        change = getBalance(account);
+                        remaining = budgeted.subtract(change);
+                    }
+                }
+
+                for (final AccountTask childTask : childTasks) {
+                    final Account child = childTask.account;
+                    final BudgetPeriodResults childResults = rescale(child, childTask.join(), null);
+
+                    final BigDecimal exchangeRate = child.getCurrencyNode().getExchangeRate(account.getCurrencyNode());
+
+                    // reverse sign if the parent account is an income account but the child is not, or vice versa
+                    final BigDecimal sign = ((account.getAccountType() == AccountType.INCOME) !=
+                            (child.getAccountType() == AccountType.INCOME)) ? BigDecimal.ONE.negate() : BigDecimal.ONE;
+
+                    change = change.add(childResults.getChange().multiply(exchangeRate).multiply(sign));
+                    budgeted = budgeted.add(childResults.getBudgeted().multiply(exchangeRate).multiply(sign));
+                    remaining = remaining.add(childResults.getRemaining().multiply(exchangeRate));
+                }
+
+                final BudgetPeriodResults results = new BudgetPeriodResults();
+
+                results.setBudgeted(budgeted);
+                results.setChange(change);
+                results.setRemaining(remaining);
+
+                if (includedAccounts.contains(account)) {
+                    sums.put(account, results);
+                }
+
+                return results;
+            }
+        }
+    }
+
+
+    /**
+     * Returns the balance of an account for a period.  The cache lock must be held.
+     *
+     * @param descriptor BudgetPeriodDescriptor descriptor
+     * @param account    Account
+     * @return cached or newly calculated balance
+     */
+    private BigDecimal getBalance(final BudgetPeriodDescriptor descriptor, final Account account) {
+        return descriptorAccountBalanceCache.computeIfAbsent(descriptor, k -> new HashMap<>())
+                .computeIfAbsent(account, k -> account.getBalance(descriptor.getStartDate(), descriptor.getEndDate()));
+    }
 
     private BudgetPeriodResults buildAccountResults(final BudgetPeriodDescriptor descriptor, final Account account,
                                                     final boolean includeBaseAccountResults) {
@@ -422,10 +780,10 @@ public class BudgetResultsModel implements MessageListener {
 
                 // calculate the change and remaining amount for the budget
                 if (account.getAccountType() == AccountType.INCOME) {
-                    results.setChange(account.getBalance(descriptor.getStartDate(), descriptor.getEndDate()).negate());
+                    results.setChange(getBalance(descriptor, account).negate());
                     results.setRemaining(results.getChange().subtract(results.getBudgeted()));
                 } else {
-                    results.setChange(account.getBalance(descriptor.getStartDate(), descriptor.getEndDate()));
+                    results.setChange(getBalance(descriptor, account));
                     results.setRemaining(results.getBudgeted().subtract(results.getChange()));
                 }
 
@@ -602,6 +960,8 @@ public class BudgetResultsModel implements MessageListener {
             cacheLock.lock();
 
             try {
+                cacheVersion++;
+
                 // clear cached results
                 // could be mixed group tree
                 account.getAncestors().stream().filter(accounts::contains).forEach(ancestor -> {
@@ -620,6 +980,138 @@ public class BudgetResultsModel implements MessageListener {
         }
     }
 
+    /**
+     * Updates the cached balances of an account and applies any change to the cached results.  Only balances used
+     * by a cached result are updated, and an unchanged balance is ignored, so repeated or late messages are harmless.
+     *
+     * @param account     Account that has changed
+     * @param descriptors periods that may have changed
+     */
+    private void updateBalances(final Account account, final Collection<BudgetPeriodDescriptor> descriptors) {
+        accountLock.readLock().lock();
+
+        try {
+            cacheLock.lock();
+
+            try {
+                // balances computed by a concurrent load may predate the change
+                cacheVersion++;
+
+                for (final BudgetPeriodDescriptor descriptor : descriptors) {
+                    final Map<Account, BigDecimal> balances = descriptorAccountBalanceCache.get(descriptor);
+
+                    if (balances != null && balances.containsKey(account)) {
+                        final BigDecimal balance
+                                = account.getBalance(descriptor.getStartDate(), descriptor.getEndDate());
+
+                        final BigDecimal delta = balance.subtract(balances.put(account, balance));
+
+                        if (delta.signum() != 0) {
+                            applyDelta(descriptor, account, delta);
+                        }
+                    }
+                }
+            } finally {
+                cacheLock.unlock();
+            }
+        } finally {
+            accountLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a change in the balance of an account to the cached results of the account and its ancestors,
+     * mirroring the roll up performed by {@code buildAccountResults}.  A result that cannot be adjusted without a
+     * rounding difference, because of an exchange rate or the scale of the change, is removed instead.
+     *
+     * @param descriptor period of the change
+     * @param account    Account with the changed balance
+     * @param delta      change in the balance of the account
+     */
+    private void applyDelta(final BudgetPeriodDescriptor descriptor, final Account account, final BigDecimal delta) {
+        final int index = descriptorList.indexOf(descriptor);
+
+        // running totals carry the change into every following period
+        final List<BudgetPeriodDescriptor> descriptors = useRunningTotals
+                ? descriptorList.subList(index, descriptorList.size()) : Collections.singletonList(descriptor);
+
+        BigDecimal change = account.getAccountType() == AccountType.INCOME ? delta.negate() : delta;
+        BigDecimal remaining = delta.negate();
+
+        boolean exact = true;
+
+        Account child = null;
+
+        for (Account ancestor = account; ancestor != null; ancestor = ancestor.getParent()) {
+            if (child != null) {
+                exact = exact && child.getCurrencyNode().equals(ancestor.getCurrencyNode());  // no exchange rate
+
+                // reverse sign if the parent account is an income account but the child is not, or vice versa
+                if ((ancestor.getAccountType() == AccountType.INCOME)
+                        != (child.getAccountType() == AccountType.INCOME)) {
+                    change = change.negate();
+                }
+            }
+
+            final CurrencyNode node = ancestor.getCurrencyNode();
+
+            exact = exact && isExact(change, node) && isExact(remaining, node);
+
+            for (final BudgetPeriodDescriptor periodDescriptor : descriptors) {
+                applyDelta(descriptorAccountResultsCache.get(periodDescriptor), ancestor, change, remaining, exact);
+            }
+
+            applyDelta(accountResultsCache, ancestor, change, remaining, exact);
+
+            // top level accounts are summed by account group
+            if (accounts.contains(ancestor) && !accounts.contains(ancestor.getParent())) {
+                final AccountGroup group = ancestor.getAccountType().getAccountGroup();
+
+                final boolean groupExact = exact && baseCurrency.equals(ancestor.getCurrencyNode())
+                        && isExact(change, baseCurrency) && isExact(remaining, baseCurrency);
+
+                for (final BudgetPeriodDescriptor periodDescriptor : descriptors) {
+                    applyDelta(descriptorAccountGroupResultsCache.get(periodDescriptor), group, change, remaining,
+                            groupExact);
+                }
+
+                applyDelta(accountGroupResultsCache, group, change, remaining, groupExact);
+            }
+
+            child = ancestor;
+        }
+    }
+
+    private static <K> void applyDelta(final Map<K, BudgetPeriodResults> resultsMap, final K key,
+                                       final BigDecimal change, final BigDecimal remaining, final boolean exact) {
+        if (resultsMap != null) {
+            final BudgetPeriodResults results = resultsMap.get(key);
+
+            if (results != null) {
+                if (exact) {
+
+                    // replace rather than modify, the prior instance may be in use
+                    final BudgetPeriodResults adjusted = new BudgetPeriodResults();
+
+                    adjusted.setBudgeted(results.getBudgeted());
+                    adjusted.setChange(results.getChange().add(change));
+                    adjusted.setRemaining(results.getRemaining().add(remaining));
+
+                    resultsMap.put(key, adjusted);
+                } else {
+                    resultsMap.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines if an amount can be added to results of the currency without rounding.
+     */
+    private static boolean isExact(final BigDecimal amount, final CurrencyNode node) {
+        return amount.stripTrailingZeros().scale() <= node.getScale();
+    }
+
     private void processAccountEvent(final Message message) {
         Account account = message.getObject(MessageProperty.ACCOUNT);
 
@@ -667,16 +1159,16 @@ public class BudgetResultsModel implements MessageListener {
     private void processTransactionEvent(final Message message) {
         final Transaction transaction = message.getObject(MessageProperty.TRANSACTION);
 
-        descriptorList.stream().filter(descriptor -> descriptor.isBetween(transaction.getLocalDate()))
-                .forEach(descriptor -> {
-                    final Set<Account> accountSet = new HashSet<>();
+        // only the periods that include the transaction date are affected
+        final List<BudgetPeriodDescriptor> descriptors = descriptorList.stream()
+                .filter(descriptor -> descriptor.isBetween(transaction.getLocalDate()))
+                .collect(Collectors.toList());
 
-                    for (Account account : transaction.getAccounts()) {
-                        accountSet.addAll(account.getAncestors());
-                    }
-
-                    accountSet.forEach(this::clearCached);
-                });
+        if (!descriptors.isEmpty()) {
+            for (final Account account : transaction.getAccounts()) {
+                updateBalances(account, descriptors);
+            }
+        }
     }
 
     @Override
@@ -696,6 +1188,9 @@ public class BudgetResultsModel implements MessageListener {
             case TRANSACTION_REMOVE:
                 processTransactionEvent(message);
                 break;
+            case TRANSACTION_BULK_ADD:  // the transactions are not known, check every period of the account
+                updateBalances(message.getObject(MessageProperty.ACCOUNT), descriptorList);
+                break;
             case FILE_CLOSING:
                 unregisterListeners();
                 clearCached();
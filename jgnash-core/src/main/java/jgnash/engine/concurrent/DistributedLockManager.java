@@ -51,11 +51,16 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import jgnash.net.ConnectionFactory;
+import jgnash.util.EncodeDecode;
 import jgnash.util.EncryptionManager;
 import jgnash.util.NotNull;
 
 /**
  * Lock manager for distributed engine instances.
+ * <p>
+ * Read locks are backed by a lease the server grants to the manager rather than to a thread.  Once held, local
+ * readers reuse the lease without a round trip to the server until the server revokes it for a waiting writer.
+ * Unlock requests are not acknowledged and are pipelined ahead of the next request over the connection.
  *
  * @author Craig Cavanaugh
  */
@@ -69,12 +74,12 @@ public class DistributedLockManager implements LockManager {
 
     private final Lock latchLock = new ReentrantLock();
 
+    static final String UUID_PREFIX = "UUID:";
+
     /**
-     * lock_action, lock_id, thread_id, lock_type.
+     * Suffix of the remote thread id used for the read leases of this manager.
      */
-    private static final String PATTERN = "{0},{1},{2},{3}";
-
-    static final String UUID_PREFIX = "UUID:";
+    private static final String LEASE_SUFFIX = "-lease";
 
     private NioEventLoopGroup eventLoopGroup;
 
@@ -91,9 +96,9 @@ public class DistributedLockManager implements LockManager {
     private EncryptionManager encryptionManager = null;
 
     /**
-     * Unique id to differentiate remote threads.
+     * Unique id to differentiate remote threads, each manager in a JVM holds its own read leases.
      */
-    private static final String uuid = UUID.randomUUID().toString();
+    private final String uuid = UUID.randomUUID().toString();
 
     static {
         logger.setLevel(Level.INFO);
@@ -186,17 +191,20 @@ public class DistributedLockManager implements LockManager {
         }
     }
 
-    private void lock(final String lockId, final String type) {
-        changeLockState(lockId, type, DistributedLockServer.LOCK);
+    private String getThreadId() {
+        return uuid + '-' + Thread.currentThread().getId();
     }
 
-    private void unlock(final String lockId, final String type) {
-        changeLockState(lockId, type, DistributedLockServer.UNLOCK);
-    }
-
-    private void changeLockState(final String lockId, final String type, final String lockState) {
-        final String threadId = uuid + '-' + Thread.currentThread().getId();
-        final String lockMessage = MessageFormat.format(PATTERN, lockState, lockId, threadId, type);
+    /**
+     * Requests a lock and waits for the server to grant it.
+     *
+     * @param lockId   id of the lock
+     * @param threadId remote thread id
+     * @param type     lock type
+     */
+    private void lock(final String lockId, final String threadId, final String type) {
+        final String lockMessage = MessageFormat.format(DistributedLockServer.PATTERN, DistributedLockServer.LOCK,
+                lockId, threadId, type);
 
         final CountDownLatch responseLatch = getLatch(lockMessage);
 
@@ -227,7 +235,7 @@ public class DistributedLockManager implements LockManager {
 
                     try {
                         responseLatch.countDown();  // force a countdown to occur
-                        latchMap.remove(lockId);    // force removal
+                        latchMap.remove(lockMessage);    // force removal
                     } finally {
                         latchLock.unlock();
                     }
@@ -238,6 +246,21 @@ public class DistributedLockManager implements LockManager {
         }
     }
 
+    /**
+     * Releases a lock.  The server does not acknowledge an unlock, and because the connection is ordered the
+     * request does not need to complete before the next request is sent.
+     *
+     * @param lockId   id of the lock
+     * @param threadId remote thread id
+     * @param type     lock type
+     */
+    private void unlock(final String lockId, final String threadId, final String type) {
+        final String lockMessage = MessageFormat.format(DistributedLockServer.PATTERN, DistributedLockServer.UNLOCK,
+                lockId, threadId, type);
+
+        channel.writeAndFlush(encrypt(lockMessage) + EOL_DELIMITER);
+    }
+
     private void processMessage(final String lockMessage) {
 
         final String plainMessage;
@@ -251,8 +274,19 @@ public class DistributedLockManager implements LockManager {
         //logger.info(plainMessage);
 
         /* lock_action, lock_id, thread_id, lock_type */
-        // unlock,account,3456384756384563,read
-        // lock,account,3456384756384563,write
+        // lock,account,3456384756384563,read
+        // revoke,account,3456384756384563-lease,lease
+
+        if (plainMessage.startsWith(DistributedLockServer.REVOKE)) {
+            final String lockId = EncodeDecode.decodeStringCollection(plainMessage).toArray(new String[4])[1];
+
+            final DistributedReadWriteLock lock = lockMap.get(lockId);
+
+            if (lock != null) {
+                lock.revokeLease();
+            }
+            return;
+        }
 
         latchLock.lock();
 
@@ -313,6 +347,36 @@ public class DistributedLockManager implements LockManager {
 
         private final DistributedReadWriteLock.WriteLock writeLock;
 
+        /**
+         * Guards the lease state.
+         */
+        private final Object leaseMonitor = new Object();
+
+        /**
+         * {@code true} if the server has granted this manager a read lease.
+         */
+        private boolean leased;
+
+        /**
+         * {@code true} while a thread is requesting the lease.
+         */
+        private boolean requesting;
+
+        /**
+         * {@code true} if the server has asked for the lease back.
+         */
+        private boolean revoked;
+
+        /**
+         * Number of local read locks relying on the lease.
+         */
+        private int leaseUsers;
+
+        /**
+         * Read locks of the current thread covered by a read or write lock it already holds.
+         */
+        private final ThreadLocal<int[]> nestedReads = ThreadLocal.withInitial(() -> new int[1]);
+
         DistributedReadWriteLock(final String lockId) {
             super();
 
@@ -334,6 +398,93 @@ public class DistributedLockManager implements LockManager {
             return writeLock;
         }
 
+        /**
+         * Takes a use of the lease, requesting it from the server if it is not held.  A revoked lease is not reused,
+         * new readers wait for it to be released and request a new one so a waiting writer is not starved.
+         */
+        private void acquireLease() {
+            boolean interrupted = false;
+            boolean request = false;
+
+            synchronized (leaseMonitor) {
+                while ((leased && revoked) || (!leased && requesting)) {
+                    try {
+                        leaseMonitor.wait();
+                    } catch (final InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+
+                if (leased) {
+                    leaseUsers++;
+                } else {
+                    requesting = true;
+                    request = true;
+                }
+            }
+
+            if (request) {
+                try {
+                    DistributedLockManager.this.lock(lockId, uuid + LEASE_SUFFIX,
+                            DistributedLockServer.LOCK_TYPE_LEASE);
+                } finally {
+                    synchronized (leaseMonitor) {
+                        requesting = false;
+                        leased = true;
+                        leaseUsers++;
+                        leaseMonitor.notifyAll();
+                    }
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void releaseLeaseUse() {
+            synchronized (leaseMonitor) {
+                leaseUsers--;
+
+                if (revoked && leaseUsers == 0) {
+                    releaseLease();
+                }
+            }
+        }
+
+        /**
+         * Returns the lease to the server if no local reader is using it.
+         */
+        private void releaseIdleLease() {
+            synchronized (leaseMonitor) {
+                if (leased && leaseUsers == 0) {
+                    releaseLease();
+                }
+            }
+        }
+
+        /**
+         * Called when the server asks for the lease back.
+         */
+        void revokeLease() {
+            synchronized (leaseMonitor) {
+                if (leased && leaseUsers == 0) {
+                    releaseLease();
+                } else if (leased || requesting) {
+                    revoked = true;     // released by the last reader using it
+                }
+            }
+        }
+
+        private void releaseLease() {
+            leased = false;
+            revoked = false;
+
+            DistributedLockManager.this.unlock(lockId, uuid + LEASE_SUFFIX, DistributedLockServer.LOCK_TYPE_LEASE);
+
+            leaseMonitor.notifyAll();
+        }
+
         class ReadLock extends ReentrantReadWriteLock.ReadLock {
 
             ReadLock(final ReentrantReadWriteLock lock) {
@@ -342,13 +493,27 @@ public class DistributedLockManager implements LockManager {
 
             @Override
             public void lock() {
-                DistributedLockManager.this.lock(lockId, DistributedLockServer.LOCK_TYPE_READ);
-                super.lock();
+                super.lock();   // excludes local writers first
+
+                if (isWriteLockedByCurrentThread() || getReadHoldCount() > 1) {
+                    nestedReads.get()[0]++;
+                } else {
+                    acquireLease();
+                }
             }
 
             @Override
             public void unlock() {
-                DistributedLockManager.this.unlock(lockId, DistributedLockServer.LOCK_TYPE_READ);
+                if (getReadHoldCount() > 0) {
+                    final int[] nested = nestedReads.get();
+
+                    if (nested[0] > 0) {
+                        nested[0]--;
+                    } else {
+                        releaseLeaseUse();
+                    }
+                }
+
                 super.unlock();
             }
         }
@@ -361,13 +526,21 @@ public class DistributedLockManager implements LockManager {
 
             @Override
             public void lock() {
-                DistributedLockManager.this.lock(lockId, DistributedLockServer.LOCK_TYPE_WRITE);
-                super.lock();
+                super.lock();   // waits for local readers, so the lease is idle
+
+                // a reentrant hold has already been granted by the server
+                if (getWriteHoldCount() == 1) {
+                    releaseIdleLease(); // the lease would block the write lock
+                    DistributedLockManager.this.lock(lockId, getThreadId(), DistributedLockServer.LOCK_TYPE_WRITE);
+                }
             }
 
             @Override
             public void unlock() {
-                DistributedLockManager.this.unlock(lockId, DistributedLockServer.LOCK_TYPE_WRITE);
+                if (getWriteHoldCount() == 1) {
+                    DistributedLockManager.this.unlock(lockId, getThreadId(), DistributedLockServer.LOCK_TYPE_WRITE);
+                }
+
                 super.unlock();
             }
         }
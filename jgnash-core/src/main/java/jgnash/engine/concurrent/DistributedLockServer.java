@@ -38,9 +38,14 @@ import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
@@ -51,6 +56,13 @@ import jgnash.util.EncryptionManager;
 
 /**
  * Distributed Lock Server.
+ * <p>
+ * Requests are processed in the order received on a single thread and never block.  A lock request that can not be
+ * granted is queued and acknowledged when it is granted, so a client may pipeline an unlock with its next request.
+ * Unlock requests are not acknowledged.
+ * <p>
+ * A read lease is a read lock held for a {@code DistributedLockManager} rather than one of its threads.  The manager
+ * reuses the lease for local readers without a round trip until the server revokes it because a writer is waiting.
  *
  * @author Craig Cavanaugh
  */
@@ -58,8 +70,8 @@ public class DistributedLockServer {
 
     private static final Logger logger = Logger.getLogger(DistributedLockServer.class.getName());
 
-    // this needs to be to 2 threads to ensure order of operations and allow for unlocking without blocking
-    private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+    // lock requests never block, a single thread keeps them in order
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     private final ChannelGroup channelGroup = new DefaultChannelGroup("lock-server", GlobalEventExecutor.INSTANCE);
 
@@ -75,10 +87,22 @@ public class DistributedLockServer {
 
     static final String UNLOCK = "unlock";
 
+    /**
+     * Sent by the server to ask for a lease to be released.
+     */
+    static final String REVOKE = "revoke";
+
     static final String LOCK_TYPE_READ = "READ";
 
     static final String LOCK_TYPE_WRITE = "WRITE";
 
+    static final String LOCK_TYPE_LEASE = "LEASE";
+
+    /**
+     * lock_action, lock_id, thread_id, lock_type.
+     */
+    static final String PATTERN = "{0},{1},{2},{3}";
+
     private static final String EOL_DELIMITER = "\r\n";
 
     private EncryptionManager encryptionManager = null;
@@ -94,6 +118,12 @@ public class DistributedLockServer {
         return message;
     }
 
+    private void send(final ChannelHandlerContext ctx, final String message) {
+        if (ctx.channel().isOpen()) {
+            ctx.writeAndFlush(encrypt(message) + EOL_DELIMITER);
+        }
+    }
+
     private void processMessage(final ChannelHandlerContext ctx, final String msg) {
 
         final String message;
@@ -122,41 +152,24 @@ public class DistributedLockServer {
         final String remoteThread = strings[2];
         final String lockType = strings[3];
 
+        if (action == null || lockId == null || remoteThread == null || lockType == null) {
+            logger.log(Level.WARNING, "Invalid lock message: {0}", message);
+            return;
+        }
+
         final ReadWriteLock lock = getLock(lockId);
 
         try {
-
-            // request a lock or unlock.  This may block
             switch (action) {
                 case LOCK:
-                    switch (lockType) {
-                        case LOCK_TYPE_READ:
-                            lock.lockForRead(remoteThread);
-                            break;
-                        case LOCK_TYPE_WRITE:
-                            lock.lockForWrite(remoteThread);
-                            break;
-                        default:
-                            break;
-                    }
+                    lock.lock(new Request(ctx, message, remoteThread, lockType));
                     break;
                 case UNLOCK:
-                    switch (lockType) {
-                        case LOCK_TYPE_READ:
-                            lock.unlockRead(remoteThread);
-                            break;
-                        case LOCK_TYPE_WRITE:
-                            lock.unlockWrite(remoteThread);
-                            break;
-                        default:
-                            break;
-                    }
+                    lock.unlock(remoteThread, lockType);
+                    break;
+                default:
+                    logger.log(Level.WARNING, "Unknown lock action: {0}", action);
                     break;
-            }
-
-            // return the message as an acknowledgment lock state has changed
-            if (ctx.channel().isOpen()) {
-                ctx.writeAndFlush(encrypt(message) + EOL_DELIMITER).sync();
             }
         } catch (final Exception e) {
             logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
@@ -167,6 +180,19 @@ public class DistributedLockServer {
         return lockMap.computeIfAbsent(lockId, k -> new ReadWriteLock(lockId));
     }
 
+    /**
+     * Releases the locks, leases and queued requests of a closed connection.
+     *
+     * @param ctx context of the closed connection
+     */
+    private void removeStaleLocks(final ChannelHandlerContext ctx) {
+        final String uuid = handlerContextMap.remove(ctx);
+
+        for (final ReadWriteLock readWriteLock : lockMap.values()) {  // look at every lock
+            readWriteLock.cleanupStaleContext(ctx, uuid);
+        }
+    }
+
     public boolean startServer(final char[] password) {
         boolean result = false;
 
@@ -231,24 +257,11 @@ public class DistributedLockServer {
         public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
             logger.log(Level.INFO, "Remote connection {0} closed", ctx.channel().remoteAddress().toString());
 
-            final String uuid = handlerContextMap.get(ctx);
-
             // Search through the lock map and remove any stale locks
-            if (uuid != null) {
-                for (ReadWriteLock readWriteLock : lockMap.values()) {  // look at every lock
-
-                    // if the remoteThread starts with the uuid, request a cleanup
-                    // cleanup a stale lock
-                    readWriteLock.readingThreads.keySet().stream().filter(remoteThread ->
-                            remoteThread.startsWith(uuid)).forEach(readWriteLock::cleanupStaleThread);
-
-                    if (readWriteLock.hasWriteThread(uuid)) {
-                        readWriteLock.cleanupStaleWriteThread();
-                    }
-                }
+            if (!executorService.isShutdown()) {
+                executorService.submit(() -> removeStaleLocks(ctx));
             }
 
-            handlerContextMap.remove(ctx);
             channelGroup.remove(ctx.channel());
             super.channelInactive(ctx);
         }
@@ -286,12 +299,42 @@ public class DistributedLockServer {
         }
     }
 
+    /**
+     * A queued lock request.
+     */
+    private static class Request {
+
+        final ChannelHandlerContext ctx;
+
+        /**
+         * Original message, returned as the acknowledgment when the lock is granted.
+         */
+        final String message;
+
+        final String remoteThread;
+
+        final String lockType;
+
+        Request(final ChannelHandlerContext ctx, final String message, final String remoteThread,
+                final String lockType) {
+            this.ctx = ctx;
+            this.message = message;
+            this.remoteThread = remoteThread;
+            this.lockType = lockType;
+        }
+
+        boolean isWrite() {
+            return LOCK_TYPE_WRITE.equals(lockType);
+        }
+    }
+
     /**
      * Reentrant Read Write lock.
      * <p>
-     * A unique integer must be supplied to identify the thread instead of the current thread.
+     * A unique integer must be supplied to identify the thread instead of the current thread.  Requests that can not
+     * be granted are queued instead of blocking.  Only the server thread may access the lock.
      */
-    private static class ReadWriteLock {
+    private class ReadWriteLock {
 
         private final String id;
 
@@ -300,7 +343,19 @@ public class DistributedLockServer {
          * <p>
          * uuid-integer
          */
-        private final Map<String, Integer> readingThreads = new ConcurrentHashMap<>();
+        private final Map<String, Integer> readingThreads = new HashMap<>();
+
+        /**
+         * Read leases, the key is the lease thread and the value is the connection of the manager holding it.
+         */
+        private final Map<String, ChannelHandlerContext> leases = new HashMap<>();
+
+        /**
+         * Leases a revoke request has been sent for.
+         */
+        private final Set<String> revokedLeases = new HashSet<>();
+
+        private final Deque<Request> waitingRequests = new ArrayDeque<>();
 
         private int writeAccesses = 0;
         private int writeRequests = 0;
@@ -310,62 +365,116 @@ public class DistributedLockServer {
             this.id = id;
         }
 
-        synchronized boolean hasWriteThread(final String id) {
-            boolean result = false;
+        void lock(final Request request) {
+            if (canGrantAccess(request)) {
+                grant(request);
+            } else {
+                waitingRequests.add(request);
 
-            if (writingThread != null) {
-                result = writingThread.startsWith(id);
+                if (request.isWrite()) {
+                    writeRequests++;
+                    revokeLeases();
+                }
             }
-
-            return result;
         }
 
-        synchronized void cleanupStaleThread(final String remoteThread) {
-            if (readingThreads.containsKey(remoteThread)) {
-                unlockRead(remoteThread);
-                logger.log(Level.WARNING, "Removed a stale read lock for: {0}", id);
+        void unlock(final String remoteThread, final String lockType) {
+            switch (lockType) {
+                case LOCK_TYPE_READ:
+                    unlockRead(remoteThread);
+                    break;
+                case LOCK_TYPE_LEASE:
+                    leases.remove(remoteThread);
+                    revokedLeases.remove(remoteThread);
+                    unlockRead(remoteThread);
+                    break;
+                case LOCK_TYPE_WRITE:
+                    unlockWrite(remoteThread);
+                    break;
+                default:
+                    break;
             }
 
-            if (writingThread != null && writingThread.equals(remoteThread)) {
-                unlockWrite(remoteThread);
-                logger.log(Level.WARNING, "Removed a stale write lock for: {0}", id);
-            }
+            grantWaitingRequests();
         }
 
-        synchronized void cleanupStaleWriteThread() {
-            if (readingThreads.containsKey(writingThread)) {
-                unlockRead( writingThread);
-                logger.log(Level.WARNING, "Removed a stale read lock for: {0}", id);
-            }
+        private void grant(final Request request) {
+            if (request.isWrite()) {
+                writeAccesses++;   // bump, if greater than 1, then the lock is reentrant
+                writingThread = request.remoteThread;
+            } else {
+                readingThreads.put(request.remoteThread, (getReadHoldCount(request.remoteThread) + 1));
 
-            if (writingThread != null) {
-                unlockWrite( writingThread);
-                logger.log(Level.WARNING, "Removed a stale write lock for: {0}", id);
+                if (LOCK_TYPE_LEASE.equals(request.lockType)) {
+                    leases.put(request.remoteThread, request.ctx);
+                }
             }
+
+            // return the message as an acknowledgment the lock has been granted
+            send(request.ctx, request.message);
         }
 
-        synchronized void lockForRead(final String remoteThread) throws InterruptedException {
+        private void grantWaitingRequests() {
+            final Iterator<Request> iterator = waitingRequests.iterator();
+
+            while (iterator.hasNext()) {
+                final Request request = iterator.next();
+
+                if (canGrantAccess(request)) {
+                    iterator.remove();
 
-            while (!canGrantReadAccess(remoteThread)) {
-                wait();
+                    if (request.isWrite()) {
+                        writeRequests--;
+                    }
+
+                    grant(request);
+                }
             }
+        }
 
-            readingThreads.put(remoteThread, (getReadHoldCount(remoteThread) + 1));
+        /**
+         * Asks every manager holding a lease to release it so a waiting writer may proceed.
+         */
+        private void revokeLeases() {
+            for (final Map.Entry<String, ChannelHandlerContext> entry : leases.entrySet()) {
+                if (revokedLeases.add(entry.getKey())) {
+                    send(entry.getValue(), MessageFormat.format(PATTERN, REVOKE, id, entry.getKey(),
+                            LOCK_TYPE_LEASE));
+                }
+            }
         }
 
-        synchronized void lockForWrite(final String remoteThread) throws InterruptedException {
-            writeRequests++;
+        void cleanupStaleContext(final ChannelHandlerContext ctx, final String uuid) {
+            waitingRequests.removeIf(request -> {
+                if (request.ctx == ctx) {
+                    if (request.isWrite()) {
+                        writeRequests--;
+                    }
+                    return true;
+                }
+                return false;
+            });
 
-            while (!canGrantWriteAccess(remoteThread)) {
-                wait();
+            if (uuid != null) {
+                // if the remoteThread starts with the uuid, cleanup a stale lock
+                if (readingThreads.keySet().removeIf(remoteThread -> remoteThread.startsWith(uuid))) {
+                    logger.log(Level.WARNING, "Removed a stale read lock for: {0}", id);
+                }
+
+                leases.keySet().removeIf(remoteThread -> remoteThread.startsWith(uuid));
+                revokedLeases.removeIf(remoteThread -> remoteThread.startsWith(uuid));
+
+                if (writingThread != null && writingThread.startsWith(uuid)) {
+                    writingThread = null;
+                    writeAccesses = 0;
+                    logger.log(Level.WARNING, "Removed a stale write lock for: {0}", id);
+                }
             }
 
-            writeRequests--;
-            writeAccesses++;   // bump, if greater than 1, then the lock is reentrant
-            writingThread = remoteThread;
+            grantWaitingRequests();
         }
 
-        synchronized void unlockRead(final String remoteThread) {
+        private void unlockRead(final String remoteThread) {
 
             if (!isReadLockedByCurrentThread(remoteThread)) {
                 throw new IllegalMonitorStateException("Remote Thread: " + remoteThread + " does not hold a read lock for: " + id);
@@ -378,11 +487,9 @@ public class DistributedLockServer {
             } else {
                 readingThreads.put(remoteThread, (holdCount - 1));
             }
-
-            notifyAll();
         }
 
-        synchronized void unlockWrite(final String remoteThread) {
+        private void unlockWrite(final String remoteThread) {
 
             if (!isWriteLockedByCurrentThread(remoteThread)) {
                 throw new IllegalMonitorStateException("Remote Thread: " + remoteThread + " does not hold the write lock for: " + id);
@@ -393,11 +500,14 @@ public class DistributedLockServer {
             if (writeAccesses == 0) {
                 writingThread = null;
             }
+        }
 
-            notifyAll();
+        private boolean canGrantAccess(final Request request) {
+            return request.isWrite() ? canGrantWriteAccess(request.remoteThread)
+                    : canGrantReadAccess(request.remoteThread);
         }
 
-        private synchronized boolean canGrantReadAccess(final String remoteThread) {
+        private boolean canGrantReadAccess(final String remoteThread) {
 
             if (isWriteLockedByCurrentThread(remoteThread)) { // lock down grade is allowed
                 return true;
@@ -413,7 +523,7 @@ public class DistributedLockServer {
             return writeRequests <= 0;
         }
 
-        private synchronized boolean canGrantWriteAccess(final String remoteThread) {
+        private boolean canGrantWriteAccess(final String remoteThread) {
 
             if (!readingThreads.isEmpty()) {
                 return false;
@@ -424,7 +534,7 @@ public class DistributedLockServer {
             return isWriteLockedByCurrentThread(remoteThread); // reentrant write
         }
 
-        private synchronized int getReadHoldCount(final String remoteThread) {
+        private int getReadHoldCount(final String remoteThread) {
             final Integer accessCount = readingThreads.get(remoteThread);
 
             if (accessCount == null) {
@@ -434,11 +544,11 @@ public class DistributedLockServer {
             return accessCount;
         }
 
-        private synchronized boolean isReadLockedByCurrentThread(final String remoteThread) {
+        private boolean isReadLockedByCurrentThread(final String remoteThread) {
             return readingThreads.get(remoteThread) != null;
         }
 
-        private synchronized boolean isWriteLockedByCurrentThread(final String remoteThread) {
+        private boolean isWriteLockedByCurrentThread(final String remoteThread) {
             if (writingThread != null) {
                 return writingThread.equals(remoteThread);
             }
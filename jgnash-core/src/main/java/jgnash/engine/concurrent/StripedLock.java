@@ -0,0 +1,109 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.concurrent;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jgnash.util.NotNull;
+
+/**
+ * A fixed set of named write locks obtained from a {@link LockManager}, selected by the hash of a {@code UUID}.
+ * <p>
+ * Locks for a group of keys are always acquired in ascending stripe order so two threads locking overlapping groups
+ * cannot deadlock.  A {@code UUID} hash does not depend on the JVM, so every engine instance sharing a
+ * {@link DistributedLockManager} maps a key to the same named lock.
+ *
+ * @author Craig Cavanaugh
+ */
+public class StripedLock {
+
+    /**
+     * Default number of stripes, must be a power of two.
+     */
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantReadWriteLock[] stripes;
+
+    /**
+     * Creates the striped lock.
+     *
+     * @param lockManager lock manager that supplies the named locks
+     * @param lockId      prefix for the name of each stripe
+     * @param stripes     number of stripes, must be a power of two
+     */
+    public StripedLock(@NotNull final LockManager lockManager, @NotNull final String lockId, final int stripes) {
+        Objects.requireNonNull(lockManager);
+        Objects.requireNonNull(lockId);
+
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("The number of stripes must be a power of two");
+        }
+
+        this.stripes = new ReentrantReadWriteLock[stripes];
+
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = lockManager.getLock(lockId + '-' + i);
+        }
+    }
+
+    private int stripe(final UUID key) {
+        int hash = key.hashCode();
+
+        hash ^= (hash >>> 16);  // spread the high bits into the mask
+
+        return hash & (stripes.length - 1);
+    }
+
+    /**
+     * Acquires the write lock of every stripe the keys map to.  Each stripe is locked once and in ascending order.
+     *
+     * @param keys keys to lock
+     * @return the stripes that were locked, must be passed to {@link #unlock(boolean[])}
+     */
+    public boolean[] lock(@NotNull final Collection<UUID> keys) {
+        final boolean[] locked = new boolean[stripes.length];
+
+        for (final UUID key : keys) {
+            locked[stripe(key)] = true;
+        }
+
+        for (int i = 0; i < locked.length; i++) {
+            if (locked[i]) {
+                stripes[i].writeLock().lock();
+            }
+        }
+
+        return locked;
+    }
+
+    /**
+     * Releases the stripes acquired by {@link #lock(Collection)} in reverse order.
+     *
+     * @param locked the stripes that were locked
+     */
+    public void unlock(@NotNull final boolean[] locked) {
+        for (int i = locked.length - 1; i >= 0; i--) {
+            if (locked[i]) {
+                stripes[i].writeLock().unlock();
+            }
+        }
+    }
+}
@@ -17,9 +17,12 @@
  */
 package jgnash.engine.dao;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+import jgnash.engine.Account;
 import jgnash.engine.Transaction;
 
 /**
@@ -38,6 +41,38 @@ public interface TransactionDAO {
 
     boolean addTransaction(Transaction transaction);
 
+    /**
+     * Returns a window of the transactions of an account in date order.  A data store that loads the transactions
+     * of an account lazily may read only the window instead of every transaction of the account.  Such a window may
+     * order transactions with the same date, number and timestamp differently than the sorted transaction list.
+     *
+     * @param account account to read from
+     * @param first   index of the first transaction
+     * @param count   maximum number of transactions to return
+     * @return List of transactions, shorter than {@code count} at the end of the account
+     */
+    default List<Transaction> getTransactions(final Account account, final int first, final int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+
+        final List<Transaction> transactions = account.getSortedTransactionList();
+
+        if (first >= transactions.size()) {
+            return Collections.emptyList();
+        }
+
+        return transactions.subList(first, Math.min(transactions.size(), first + count));
+    }
+
+    /**
+     * Adds a collection of transactions as a single operation.
+     *
+     * @param transactions transactions to add
+     * @return {@code true} if successful
+     */
+    boolean addTransactions(Collection<Transaction> transactions);
+
     Transaction getTransactionByUuid(final UUID uuid);
 
     boolean removeTransaction(Transaction transaction);
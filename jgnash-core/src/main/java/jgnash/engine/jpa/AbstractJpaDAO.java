@@ -17,17 +17,31 @@
  */
 package jgnash.engine.jpa;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.NoResultException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 
 import jgnash.engine.StoredObject;
 import jgnash.engine.concurrent.PriorityThreadPoolExecutor;
@@ -55,11 +69,38 @@ abstract class AbstractJpaDAO extends AbstractDAO implements DAO {
      */
     static PriorityThreadPoolExecutor executorService = new PriorityThreadPoolExecutor(new DefaultDaemonThreadFactory());
 
+    /**
+     * Maximum number of UUIDs bound to a single query when objects are resolved.
+     */
+    private static final int RESOLVE_CHUNK_SIZE = 500;
+
+    /**
+     * Number of read workers.  The connection pool allows ten connections and the writer holds one.
+     */
+    private static final int READ_WORKERS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Read only queries run on this pool so they do not queue behind writes on {@link #executorService}.  Each
+     * worker has its own {@link EntityManager}, so a read must return values or UUIDs.  Entities read by a worker
+     * are not the instances held by the engine and are resolved with {@link #resolve(Class, List)}.
+     */
+    private static ExecutorService readExecutorService = newReadExecutorService();
+
+    /**
+     * Entity managers of the read workers by thread.
+     */
+    private static final Map<Thread, EntityManager> readEntityManagers = new ConcurrentHashMap<>();
+
     /**
      * Entity manager reference.
      */
     final EntityManager em;
 
+    /**
+     * Factory of the entity manager, used for the read worker entity managers.
+     */
+    private final EntityManagerFactory factory;
+
     /**
      * Remote connection if {@code true}.
      */
@@ -70,6 +111,11 @@ abstract class AbstractJpaDAO extends AbstractDAO implements DAO {
 
         this.isRemote = isRemote;
         em = entityManager;
+        factory = entityManager.getEntityManagerFactory();
+    }
+
+    private static ExecutorService newReadExecutorService() {
+        return Executors.newFixedThreadPool(READ_WORKERS, new DefaultDaemonThreadFactory());
     }
 
     static void shutDownExecutor() {
@@ -78,12 +124,18 @@ abstract class AbstractJpaDAO extends AbstractDAO implements DAO {
         emLock.lock();
 
         try {
+            readExecutorService.shutdown();
             executorService.shutdown();
 
+            readExecutorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
             executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
 
-            // Regenerate the executor service
+            readEntityManagers.values().forEach(EntityManager::close);
+            readEntityManagers.clear();
+
+            // Regenerate the executor services
             executorService = new PriorityThreadPoolExecutor();
+            readExecutorService = newReadExecutorService();
 
         } catch (final InterruptedException e) {
             logSevere(AbstractJpaDAO.class, e);
@@ -93,6 +145,129 @@ abstract class AbstractJpaDAO extends AbstractDAO implements DAO {
         }
     }
 
+    /**
+     * Runs a read only query on a read worker.  The old H2 page store locks whole tables for a read, so its reads
+     * run on the writer instead of stalling it past the lock timeout.
+     *
+     * @param factory factory for the read worker {@link EntityManager}
+     * @param query   the query, it must not return entities
+     * @param <T>     the type of the query result
+     * @return the {@link Future} result of the query
+     */
+    static <T> Future<T> submitRead(final EntityManagerFactory factory, final Function<EntityManager, T> query) {
+        final Object url = factory.getProperties().get(JpaConfiguration.JAVAX_PERSISTENCE_JDBC_URL);
+
+        if (url != null && url.toString().contains("MVCC=FALSE")) {
+            final Callable<T> callable = () -> {
+                final EntityManager entityManager = factory.createEntityManager();
+
+                emLock.lock();
+
+                try {
+                    return query.apply(entityManager);
+                } finally {
+                    emLock.unlock();
+                    entityManager.close();
+                }
+            };
+
+            if (emLock.isHeldByCurrentThread()) {   // already on the writer, do not wait on itself
+                try {
+                    return CompletableFuture.completedFuture(callable.call());
+                } catch (final Exception e) {
+                    final CompletableFuture<T> future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                    return future;
+                }
+            }
+
+            return executorService.submit(callable);
+        }
+
+        return readExecutorService.submit(() -> {
+            EntityManager entityManager = readEntityManagers.get(Thread.currentThread());
+
+            if (entityManager == null || !entityManager.isOpen() || entityManager.getEntityManagerFactory() != factory) {
+                if (entityManager != null && entityManager.isOpen()) {
+                    entityManager.close();
+                }
+
+                entityManager = factory.createEntityManager();
+                readEntityManagers.put(Thread.currentThread(), entityManager);
+            }
+
+            try {
+                return query.apply(entityManager);
+            } finally {
+                entityManager.clear();  // do not serve stale objects to the next read
+            }
+        });
+    }
+
+    /**
+     * Runs a read only query on a read worker.
+     *
+     * @param query the query, it must not return entities
+     * @param <T>   the type of the query result
+     * @return the {@link Future} result of the query
+     * @see #submitRead(EntityManagerFactory, Function)
+     */
+    <T> Future<T> submitRead(final Function<EntityManager, T> query) {
+        return submitRead(factory, query);
+    }
+
+    /**
+     * Returns the objects held by the engine for a list of UUIDs read by a read worker.
+     *
+     * @param tClass the class of the objects
+     * @param uuids  UUIDs of the objects
+     * @param <T>    the type of the objects
+     * @return the objects in the order of the UUIDs, objects that no longer exist are skipped
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException if the objects could not be found
+     */
+    <T extends StoredObject> List<T> resolve(final Class<T> tClass, final List<UUID> uuids)
+            throws InterruptedException, ExecutionException {
+
+        final Future<List<T>> future = executorService.submit(() -> {
+            emLock.lock();
+
+            try {
+                final Map<UUID, T> objects = new HashMap<>(uuids.size());
+
+                final CriteriaBuilder cb = em.getCriteriaBuilder();
+
+                // one query per chunk, the persistence context returns the instances it already holds
+                for (int i = 0; i < uuids.size(); i += RESOLVE_CHUNK_SIZE) {
+                    final CriteriaQuery<T> cq = cb.createQuery(tClass);
+                    final Root<T> root = cq.from(tClass);
+                    cq.select(root).where(root.get("uuid").in(uuids.subList(i,
+                            Math.min(i + RESOLVE_CHUNK_SIZE, uuids.size()))));
+
+                    for (final T object : em.createQuery(cq).getResultList()) {
+                        objects.put(object.getUuid(), object);
+                    }
+                }
+
+                final List<T> list = new ArrayList<>(uuids.size());
+
+                for (final UUID uuid : uuids) {
+                    final T object = objects.get(uuid);
+
+                    if (object != null) {
+                        list.add(object);
+                    }
+                }
+
+                return list;
+            } finally {
+                emLock.unlock();
+            }
+        });
+
+        return future.get();
+    }
+
     /**
      * Merge / Update the object in place.
      *
@@ -40,11 +40,22 @@ class JpaConfiguration {
 
     static final String JAVAX_PERSISTENCE_JDBC_URL = "javax.persistence.jdbc.url";
 
+    /**
+     * System property that enables loading of account transactions when they are first used.
+     */
+    static final String LAZY_TRANSACTIONS = "jgnash.jpa.lazy";
+
     private static final String JAVAX_PERSISTENCE_JDBC_DRIVER = "javax.persistence.jdbc.driver";
     private static final String JAVAX_PERSISTENCE_JDBC_USER = "javax.persistence.jdbc.user";
     private static final String JAVAX_PERSISTENCE_JDBC_PASSWORD = "javax.persistence.jdbc.password";
     private static final String HIBERNATE_DIALECT = "hibernate.dialect";
     private static final String HIBERNATE_HBM2DDL_AUTO = "hibernate.hbm2ddl.auto";
+    private static final String HIBERNATE_XML_FILES = "hibernate.ejb.xml_files";
+
+    /**
+     * Mapping that overrides the eager account transactions with a lazy collection.
+     */
+    private static final String LAZY_MAPPING = "META-INF/lazy-orm.xml";
 
     private static final String UNKNOWN_DATABASE_TYPE = "Unknown database type";
 
@@ -53,6 +64,13 @@ class JpaConfiguration {
 
         properties.setProperty(HIBERNATE_HBM2DDL_AUTO, "update");
 
+        // the system properties are reused, so the mapping must be removed again when lazy loading is disabled
+        if (Boolean.getBoolean(LAZY_TRANSACTIONS)) {
+            properties.setProperty(HIBERNATE_XML_FILES, LAZY_MAPPING);
+        } else {
+            properties.remove(HIBERNATE_XML_FILES);
+        }
+
         switch (database) {
             case H2_DATABASE:
             case H2MV_DATABASE:
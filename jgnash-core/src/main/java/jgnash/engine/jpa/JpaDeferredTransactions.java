@@ -0,0 +1,158 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.jpa;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import jgnash.engine.Account;
+import jgnash.engine.DeferredTransactions;
+import jgnash.engine.Transaction;
+
+/**
+ * Entity listener for lazily loaded account transactions.
+ * <p>
+ * When lazy loading is enabled, {@code lazy-orm.xml} maps {@code Account.transactions} as a lazy collection and
+ * registers this listener.  An uninitialized collection would otherwise be read by whichever thread first touches it,
+ * outside of the entity manager lock, so each loaded account is given a {@code DeferredTransactions} handle instead.
+ * The account uses the handle before it touches its transactions and the handle initializes the collection on the
+ * DAO executor with the lock held.
+ * <p>
+ * Listener classes are created by the persistence provider and must be public.
+ *
+ * @author Craig Cavanaugh
+ */
+public final class JpaDeferredTransactions {
+
+    private static final Logger logger = Logger.getLogger(JpaDeferredTransactions.class.getName());
+
+    private static final String TRANSACTIONS = "transactions";
+
+    private static final Field transactionsField;
+
+    private static final Field deferredField;
+
+    /**
+     * The DAOs share a single lock and executor, so the entity manager factory is shared in the same manner.
+     */
+    private static volatile EntityManagerFactory factory;
+
+    static {
+        try {
+            transactionsField = Account.class.getDeclaredField(TRANSACTIONS);
+            transactionsField.setAccessible(true);
+
+            deferredField = Account.class.getDeclaredField("deferredTransactions");
+            deferredField.setAccessible(true);
+        } catch (final NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static void setEntityManager(final EntityManager entityManager) {
+        factory = entityManager.getEntityManagerFactory();
+    }
+
+    /**
+     * Called by the persistence provider after an account has been loaded or refreshed.
+     *
+     * @param object the loaded {@code Account}
+     */
+    void postLoad(final Object object) {
+        final Account account = (Account) object;
+
+        if (!Persistence.getPersistenceUtil().isLoaded(account, TRANSACTIONS)) {
+            try {
+                deferredField.set(account, new AccountTransactions(account));
+            } catch (final IllegalAccessException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs a task with the entity manager lock held.
+     */
+    private static <T> T call(final Callable<T> callable) {
+        try {
+            if (AbstractJpaDAO.emLock.isHeldByCurrentThread()) {    // already on the executor
+                return callable.call();
+            }
+
+            return AbstractJpaDAO.executorService.submit(() -> {
+                AbstractJpaDAO.emLock.lock();
+
+                try {
+                    return callable.call();
+                } finally {
+                    AbstractJpaDAO.emLock.unlock();
+                }
+            }).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class AccountTransactions implements DeferredTransactions {
+
+        private final Account account;
+
+        AccountTransactions(final Account account) {
+            this.account = account;
+        }
+
+        @Override
+        public int size() {
+            try {
+                return AbstractJpaDAO.submitRead(factory, readEm -> readEm.createQuery("SELECT COUNT(t) FROM Account a"
+                        + " JOIN a.transactions t WHERE a.uuid = :uuid", Long.class)
+                        .setParameter("uuid", account.getUuid()).getSingleResult().intValue()).get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (final ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        @Override
+        public Collection<Transaction> load() {
+            return call(() -> {
+                @SuppressWarnings("unchecked")
+                final Collection<Transaction> transactions = (Collection<Transaction>) transactionsField.get(account);
+
+                // initializes the collection, the persistence context returns shared transactions as one instance
+                return new ArrayList<>(transactions);
+            });
+        }
+    }
+}
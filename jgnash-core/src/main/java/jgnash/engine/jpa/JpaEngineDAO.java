@@ -20,6 +20,7 @@ package jgnash.engine.jpa;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -64,6 +65,8 @@ class JpaEngineDAO extends AbstractJpaDAO implements EngineDAO {
 
     JpaEngineDAO(final EntityManager entityManager, final boolean isRemote) {
         super(entityManager, isRemote);
+
+        JpaDeferredTransactions.setEntityManager(entityManager);
     }
 
     @Override
@@ -137,24 +140,10 @@ class JpaEngineDAO extends AbstractJpaDAO implements EngineDAO {
         List<StoredObject> list = Collections.emptyList();
 
         try {
-            final Future<List<StoredObject>> future = executorService.submit(() -> {
-                emLock.lock();
-
-                try {
-                    final CriteriaBuilder cb = em.getCriteriaBuilder();
-                    final CriteriaQuery<StoredObject> cq = cb.createQuery(StoredObject.class);
-                    final Root<StoredObject> root = cq.from(StoredObject.class);
-                    cq.select(root);
-
-                    final TypedQuery<StoredObject> q = em.createQuery(cq);
+            final Future<List<UUID>> future = submitRead(readEm -> readEm
+                    .createQuery("SELECT o.uuid FROM StoredObject o", UUID.class).getResultList());
 
-                    return new ArrayList<>(q.getResultList());
-                } finally {
-                    emLock.unlock();
-                }
-            });
-
-            list = future.get();
+            list = resolve(StoredObject.class, future.get());
         } catch (final InterruptedException | ExecutionException e) {
             logSevere(JpaEngineDAO.class, e);
         }
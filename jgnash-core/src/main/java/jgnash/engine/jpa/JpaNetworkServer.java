@@ -25,6 +25,9 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +44,7 @@ import jgnash.engine.Engine;
 import jgnash.engine.EngineException;
 import jgnash.engine.EngineFactory;
 import jgnash.engine.StoredObject;
+import jgnash.engine.TrashObject;
 import jgnash.engine.attachment.AttachmentTransferServer;
 import jgnash.engine.attachment.DistributedAttachmentManager;
 import jgnash.engine.concurrent.DistributedLockManager;
@@ -50,6 +54,7 @@ import jgnash.engine.message.MessageBusServer;
 import jgnash.util.DefaultDaemonThreadFactory;
 import jgnash.util.FileMagic;
 import jgnash.util.FileUtils;
+import jgnash.util.Nullable;
 
 /**
  * JPA network server.
@@ -70,8 +75,25 @@ public class JpaNetworkServer {
 
     private static final int BACKUP_PERIOD = 2;
 
+    /**
+     * Number of incremental backups written before the next full backup.
+     */
+    private static final int INCREMENTS_PER_FULL_BACKUP = 11;
+
     private volatile boolean dirty = false;
 
+    /**
+     * UUIDs of the objects changed since the last full backup.
+     */
+    private final Set<UUID> changedObjects = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The last full backup, only accessed by the backup thread.
+     */
+    private Path fullBackup;
+
+    private int incrementCount;
+
     private EntityManager em;
 
     private EntityManagerFactory factory;
@@ -158,21 +180,28 @@ public class JpaNetworkServer {
                     // run commit every backup period after startup
                     backupExecutor.scheduleWithFixedDelay(() -> {
                         if (dirty) {
-                            exportXML(engine, fileName);
-                            EngineFactory.removeOldCompressedXML(fileName, engine.getRetainedBackupLimit());
                             dirty = false;
+                            backup(engine, fileName);
                         }
                     }, BACKUP_PERIOD, BACKUP_PERIOD, TimeUnit.HOURS);
 
-                    final LocalServerListener listener = event -> {
+                    final LocalServerListener listener = new LocalServerListener() {
+                        @Override
+                        public void messagePosted(final String event) {
 
-                        // look for a remote request to stop the server
-                        if (event.startsWith(STOP_SERVER_MESSAGE)) {
-                            logger.info("Remote shutdown request was received");
-                            stopServer();
+                            // look for a remote request to stop the server
+                            if (event.startsWith(STOP_SERVER_MESSAGE)) {
+                                logger.info("Remote shutdown request was received");
+                                stopServer();
+                            }
+
+                            dirty = true;
                         }
 
-                        dirty = true;
+                        @Override
+                        public void storedObjectsChanged(final Set<UUID> uuids) {
+                            changedObjects.addAll(uuids);
+                        }
                     };
 
                     messageBusServer.addLocalListener(listener);
@@ -325,9 +354,54 @@ public class JpaNetworkServer {
         return engine;
     }
 
-    private static void exportXML(final Engine engine, final String fileName) {
+    /**
+     * Writes a full backup, or an increment with the objects changed since the last full backup when one exists and
+     * the increment limit has not been reached.
+     */
+    private void backup(final Engine engine, final String fileName) {
+        if (fullBackup == null || incrementCount >= INCREMENTS_PER_FULL_BACKUP) {
+            changedObjects.clear();     // changes made while exporting will be captured by the next increment
+
+            fullBackup = exportXML(engine, fileName);
+            incrementCount = 0;
+
+            EngineFactory.removeOldCompressedXML(fileName, engine.getRetainedBackupLimit());
+        } else {
+            final List<StoredObject> changed = new ArrayList<>();
+            final List<UUID> removed = new ArrayList<>();
+
+            for (final UUID uuid : changedObjects) {
+                final StoredObject object = engine.getStoredObjectByUuid(StoredObject.class, uuid);
+
+                if (object == null) {
+                    removed.add(uuid);
+                } else if (!(object instanceof TrashObject)) {
+                    engine.refresh(object);
+
+                    if (object.isMarkedForRemoval()) {
+                        removed.add(uuid);
+                    } else {
+                        changed.add(object);
+                    }
+                }
+            }
+
+            if (EngineFactory.exportIncrementalXML(fullBackup, incrementCount + 1, changed, removed)) {
+                incrementCount++;
+            } else {
+                fullBackup = null;
+            }
+        }
+
+        if (fullBackup == null) {   // try again with a full backup at the next period
+            dirty = true;
+        }
+    }
+
+    @Nullable
+    private static Path exportXML(final Engine engine, final String fileName) {
         ArrayList<StoredObject> list = new ArrayList<>(engine.getStoredObjects());
 
-        EngineFactory.exportCompressedXML(fileName, list);
+        return EngineFactory.exportCompressedXML(fileName, list);
     }
 }
@@ -17,9 +17,14 @@
  */
 package jgnash.engine.jpa;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -27,8 +32,10 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Persistence;
 import javax.persistence.TypedQuery;
 
+import jgnash.engine.Account;
 import jgnash.engine.Transaction;
 import jgnash.engine.dao.TransactionDAO;
 
@@ -41,6 +48,17 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
 
     private static final Logger logger = Logger.getLogger(JpaTransactionDAO.class.getName());
 
+    /**
+     * Orders rows of UUID, date, number and timestamp by date, number, timestamp and then UUID.  This is the order
+     * of {@code Transaction.compareTo} except for transactions with the same date, number and timestamp, which it
+     * orders by amount first.  The amount is not a column, so a window orders those by UUID alone.
+     */
+    private static final Comparator<Object[]> KEY_COMPARATOR = Comparator
+            .comparing((Object[] row) -> (LocalDate) row[1])
+            .thenComparing(row -> row[2] != null ? (String) row[2] : "")
+            .thenComparingLong(row -> (Long) row[3])
+            .thenComparing(row -> (UUID) row[0]);
+
     JpaTransactionDAO(final EntityManager entityManager, final boolean isRemote) {
         super(entityManager, isRemote);
         logger.setLevel(Level.ALL);
@@ -54,33 +72,56 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
         List<Transaction> transactionList = Collections.emptyList();
 
         try {
-            final Future<List<Transaction>> future = executorService.submit(() -> {
+            final Future<List<UUID>> future = submitRead(readEm -> readEm
+                    .createQuery("SELECT t.uuid FROM Transaction t WHERE t.markedForRemoval = false", UUID.class)
+                    .getResultList());
+
+            transactionList = resolve(Transaction.class, future.get()); // block and return
+        } catch (final InterruptedException | ExecutionException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        return transactionList;
+    }
+
+    /*
+     * @see jgnash.engine.TransactionDAO#addTransaction(jgnash.engine.Transaction)
+     */
+    @Override
+    public synchronized boolean addTransaction(final Transaction transaction) {
+        boolean result = false;
+
+        try {
+            final Future<Boolean> future = executorService.submit(() -> {
                 emLock.lock();
 
                 try {
-                    final TypedQuery<Transaction> q = em
-                            .createQuery("SELECT t FROM Transaction t WHERE t.markedForRemoval = false",
-                                    Transaction.class);
+                    em.getTransaction().begin();
+
+                    em.persist(transaction);
+                    transaction.getAccounts().forEach(em::persist);
 
-                    return new ArrayList<>(q.getResultList());
+                    em.getTransaction().commit();
+
+                    return true;
                 } finally {
                     emLock.unlock();
                 }
             });
 
-            transactionList = future.get(); // block and return
+            result = future.get();  // block and return
         } catch (final InterruptedException | ExecutionException e) {
             logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
         }
 
-        return transactionList;
+        return result;
     }
 
     /*
-     * @see jgnash.engine.TransactionDAO#addTransaction(jgnash.engine.Transaction)
+     * @see jgnash.engine.TransactionDAO#addTransactions(java.util.Collection)
      */
     @Override
-    public synchronized boolean addTransaction(final Transaction transaction) {
+    public synchronized boolean addTransactions(final Collection<Transaction> transactions) {
         boolean result = false;
 
         try {
@@ -90,8 +131,15 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
                 try {
                     em.getTransaction().begin();
 
-                    em.persist(transaction);
-                    transaction.getAccounts().forEach(em::persist);
+                    final Set<Account> accounts = new HashSet<>();
+
+                    for (final Transaction transaction : transactions) {
+                        em.persist(transaction);
+                        accounts.addAll(transaction.getAccounts());
+                    }
+
+                    // each impacted account only needs to be persisted once
+                    accounts.forEach(em::persist);
 
                     em.getTransaction().commit();
 
@@ -109,6 +157,115 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
         return result;
     }
 
+    /*
+     * @see jgnash.engine.dao.TransactionDAO#getTransactions(jgnash.engine.Account, int, int)
+     */
+    @Override
+    public List<Transaction> getTransactions(final Account account, final int first, final int count) {
+
+        // transactions that are already held by the account are not read again
+        if (count <= 0 || Persistence.getPersistenceUtil().isLoaded(account, "transactions")) {
+            return TransactionDAO.super.getTransactions(account, first, count);
+        }
+
+        List<Transaction> transactionList = Collections.emptyList();
+
+        try {
+            final Future<List<UUID>> future = submitRead(readEm -> {
+                final Object[] firstKey = getKeyAt(readEm, account, first);
+
+                if (firstKey == null) {
+                    return Collections.<UUID>emptyList();
+                }
+
+                final Object[] lastKey = getKeyAt(readEm, account, first + count - 1);
+
+                // rows before the window, the key of a row does not depend on how ties are ordered
+                final TypedQuery<Long> countQuery = readEm.createQuery("SELECT COUNT(t) FROM Account a"
+                        + " JOIN a.transactions t WHERE a.uuid = :uuid AND " + keyPredicate("<", "f"), Long.class);
+
+                countQuery.setParameter("uuid", account.getUuid());
+                setKeyParameters(countQuery, "f", firstKey);
+
+                final int before = countQuery.getSingleResult().intValue();
+
+                // rows with keys from the first to the last row of the window, including complete groups of ties
+                String range = "SELECT t.uuid, t.date, t.number, t.timestamp FROM Account a JOIN a.transactions t"
+                        + " WHERE a.uuid = :uuid AND " + keyPredicate(">=", "f");
+
+                if (lastKey != null) {
+                    range += " AND " + keyPredicate("<=", "l");
+                }
+
+                final TypedQuery<Object[]> rangeQuery = readEm.createQuery(range, Object[].class);
+
+                rangeQuery.setParameter("uuid", account.getUuid());
+                setKeyParameters(rangeQuery, "f", firstKey);
+
+                if (lastKey != null) {
+                    setKeyParameters(rangeQuery, "l", lastKey);
+                }
+
+                final List<Object[]> rows = new ArrayList<>(rangeQuery.getResultList());
+
+                // the database does not order UUIDs the same as UUID.compareTo
+                rows.sort(KEY_COMPARATOR);
+
+                final List<UUID> uuids = new ArrayList<>(count);
+
+                for (int i = first - before; i < rows.size() && uuids.size() < count; i++) {
+                    uuids.add((UUID) rows.get(i)[0]);
+                }
+
+                return uuids;
+            });
+
+            transactionList = resolve(Transaction.class, future.get()); // block and return
+        } catch (final InterruptedException | ExecutionException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        return transactionList;
+    }
+
+    /**
+     * Returns the sort key of the transaction at an index of an account.
+     *
+     * @return date, number, timestamp and UUID of the transaction, {@code null} if the index is past the end
+     */
+    private static Object[] getKeyAt(final EntityManager readEm, final Account account, final int index) {
+        final TypedQuery<Object[]> q = readEm.createQuery("SELECT t.uuid, t.date, t.number, t.timestamp"
+                + " FROM Account a JOIN a.transactions t WHERE a.uuid = :uuid"
+                + " ORDER BY t.date, COALESCE(t.number, ''), t.timestamp", Object[].class);
+
+        q.setParameter("uuid", account.getUuid());
+        q.setFirstResult(index);
+        q.setMaxResults(1);
+
+        final List<Object[]> result = q.getResultList();
+
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * Returns a predicate comparing the date, number and timestamp of {@code t} with a key, in the order of
+     * {@code KEY_COMPARATOR}.
+     */
+    private static String keyPredicate(final String operator, final String prefix) {
+        final String strict = operator.substring(0, 1);
+        final String number = "COALESCE(t.number, '')";
+
+        return "(t.date " + strict + " :" + prefix + "Date OR (t.date = :" + prefix + "Date AND (" + number + " "
+                + strict + " :" + prefix + "Number OR (" + number + " = :" + prefix + "Number AND t.timestamp "
+                + operator + " :" + prefix + "Timestamp))))";
+    }
+
+    private static void setKeyParameters(final TypedQuery<?> query, final String prefix, final Object[] key) {
+        query.setParameter(prefix + "Date", key[1]);
+        query.setParameter(prefix + "Number", key[2] != null ? key[2] : "");
+        query.setParameter(prefix + "Timestamp", key[3]);
+    }
+
     @Override
     public Transaction getTransactionByUuid(final UUID uuid) {
         return getObjectByUuid(Transaction.class, uuid);
@@ -153,21 +310,12 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
         List<Transaction> transactionList = Collections.emptyList();
 
         try {
-            final Future<List<Transaction>> future = executorService.submit(() -> {
-                emLock.lock();
-
-                try {
-                    final TypedQuery<Transaction> q = em
-                            .createQuery("SELECT t FROM Transaction t WHERE t.markedForRemoval = false AND t.attachment is not null",
-                                    Transaction.class);
-
-                    return new ArrayList<>(q.getResultList());
-                } finally {
-                    emLock.unlock();
-                }
-            });
+            final Future<List<UUID>> future = submitRead(readEm -> readEm
+                    .createQuery("SELECT t.uuid FROM Transaction t WHERE t.markedForRemoval = false AND t.attachment is not null",
+                            UUID.class)
+                    .getResultList());
 
-            transactionList = future.get(); // block and return
+            transactionList = resolve(Transaction.class, future.get()); // block and return
         } catch (final InterruptedException | ExecutionException e) {
             logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
         }
@@ -78,6 +78,7 @@ public enum ChannelEvent {
     SECURITY_HISTORY_EVENT_REMOVE_FAILED,
     TRANSACTION_ADD,
     TRANSACTION_ADD_FAILED,
+    TRANSACTION_BULK_ADD,   // one message per impacted account, the transaction property is not set
     TRANSACTION_REMOVE,
     TRANSACTION_REMOVE_FAILED,
     FILE_CLOSING,
@@ -18,6 +18,9 @@
 
 package jgnash.engine.message;
 
+import java.util.Set;
+import java.util.UUID;
+
 /**
  * Classes must implement this interface to register and listen to message events.
  *
@@ -25,4 +28,12 @@ package jgnash.engine.message;
  */
 public interface LocalServerListener {
     void messagePosted(String event);
+
+    /**
+     * Called with the UUIDs of the {@code StoredObjects} referenced by a frame of remote messages.
+     *
+     * @param uuids UUIDs of the added, changed or removed objects
+     */
+    default void storedObjectsChanged(final Set<UUID> uuids) {
+    }
 }
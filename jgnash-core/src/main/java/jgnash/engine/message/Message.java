@@ -26,7 +26,9 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -64,7 +66,7 @@ public class Message implements Serializable, Cloneable {
         this(channel, event, source.getUuid());
     }
 
-    private Message(final MessageChannel channel, final ChannelEvent event, final String source) {
+    Message(final MessageChannel channel, final ChannelEvent event, final String source) {
         this.source = Objects.requireNonNull(source);
         this.event = Objects.requireNonNull(event);
         this.channel = Objects.requireNonNull(channel);
@@ -100,6 +102,15 @@ public class Message implements Serializable, Cloneable {
         return (T) properties.get(key);
     }
 
+    /**
+     * Returns the message properties.
+     *
+     * @return unmodifiable map of the properties
+     */
+    Map<MessageProperty, StoredObject> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
     public String getSource() {
         return source;
     }
@@ -20,18 +20,31 @@ package jgnash.engine.message;
 import java.lang.ref.WeakReference;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import jgnash.engine.DataStoreType;
+import jgnash.engine.StoredObject;
 import jgnash.util.DefaultDaemonThreadFactory;
 
 /**
@@ -45,6 +58,10 @@ import jgnash.util.DefaultDaemonThreadFactory;
  * and to ease the burden of synchronizing against multiple threads.  The iterator
  * must be used for access, but removal of weak references must be done through the
  * set, not the iterator.
+ *
+ * Listeners registered for coalesced delivery are in the same sets.  Their messages
+ * are held per channel for the listener's window and then delivered as a single batch
+ * on the same thread as all other messages.
  */
 public class MessageBus {
 
@@ -59,6 +76,33 @@ public class MessageBus {
 
     private final ExecutorService pool = Executors.newSingleThreadExecutor(new DefaultDaemonThreadFactory());
 
+    /**
+     * Hands batches of coalesced messages to the pool once their window has elapsed.
+     */
+    private final ScheduledExecutorService coalescingTimer
+            = Executors.newSingleThreadScheduledExecutor(new DefaultDaemonThreadFactory());
+
+    /**
+     * Listeners registered for coalesced delivery.  The keys are weak so the listeners are not held by the bus.
+     */
+    private final Map<MessageListener, CoalescedDelivery> coalescedListeners
+            = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Number of messages handed to listeners.
+     */
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    /**
+     * Number of messages dropped because a message with the same key was waiting for coalesced delivery.
+     */
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * Number of messages waiting to be dispatched or waiting for coalesced delivery.
+     */
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
     private MessageBusClient messageBusClient = null;
 
     private static final Map<String, MessageBus> busMap = new HashMap<>();
@@ -188,6 +232,30 @@ public class MessageBus {
         }
     }
 
+    /**
+     * Registers a listener for coalesced delivery of the messages of the specified channels.
+     * <p>
+     * Messages of a channel are held for the window and then delivered as one batch through
+     * {@link MessageListener#messagesPosted(List)}.  A message with the same event for the same account as one
+     * already waiting is dropped, even if it is for a different transaction, and only the first is delivered.
+     * Messages without an account are dropped only if their properties are also the same.  Bulk operations then
+     * cause one refresh of the listener per account and window instead of one per message.
+     *
+     * @param listener listener to register
+     * @param window   the coalescing window in milliseconds
+     * @param channels channels to receive in batches
+     */
+    public void registerCoalescingListener(final MessageListener listener, final long window,
+                                           final MessageChannel... channels) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("The window must be greater than zero");
+        }
+
+        registerListener(listener, channels);
+
+        coalescedListeners.computeIfAbsent(listener, CoalescedDelivery::new).addChannels(window, channels);
+    }
+
     private static void logStackTrace() {
         final StringBuilder trace = new StringBuilder("Stack Trace" + System.lineSeparator());
 
@@ -211,6 +279,12 @@ public class MessageBus {
                 }
             }
         }
+
+        final CoalescedDelivery delivery = coalescedListeners.get(listener);
+
+        if (delivery != null) {
+            delivery.removeChannels(channels);
+        }
     }
 
     private boolean containsListener(final MessageListener listener, final MessageChannel channel) {
@@ -229,7 +303,11 @@ public class MessageBus {
 
     public void fireEvent(final Message message) {
 
+        queueDepth.incrementAndGet();
+
         pool.execute(() -> {
+            queueDepth.decrementAndGet();
+
             // Look for and post to local listeners
             final Set<WeakReference<MessageListener>> set = map.get(message.getChannel());
 
@@ -237,7 +315,12 @@ public class MessageBus {
                 for (WeakReference<MessageListener> ref : set) {
                     MessageListener l = ref.get();
                     if (l != null) {
-                        l.messagePosted(message);
+                        final CoalescedDelivery delivery = coalescedListeners.get(l);
+
+                        if (delivery == null || !delivery.offer(message)) {
+                            l.messagePosted(message);
+                            deliveredCount.incrementAndGet();
+                        }
                     }
                 }
             }
@@ -252,4 +335,141 @@ public class MessageBus {
             }
         });
     }
+
+    /**
+     * Returns the number of messages handed to listeners.  A batch counts each of its messages.
+     *
+     * @return number of delivered messages
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    /**
+     * Returns the number of messages dropped by coalesced delivery because a message for the same account, or with
+     * the same properties, was already waiting.
+     *
+     * @return number of dropped messages
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of messages waiting to be dispatched or waiting for coalesced delivery.
+     *
+     * @return number of waiting messages
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns the key used to coalesce messages, the channel, the event and the account of the message.  The
+     * properties are used instead if the message does not have an account.
+     */
+    private static List<Object> getCoalescingKey(final Message message) {
+        final StoredObject account = message.getObject(MessageProperty.ACCOUNT);
+
+        if (account != null) {
+            return Arrays.asList(message.getChannel(), message.getEvent(), account);
+        }
+
+        return Arrays.asList(message.getChannel(), message.getEvent(), new HashMap<>(message.getProperties()));
+    }
+
+    /**
+     * Coalesced delivery state of a single listener.
+     */
+    private final class CoalescedDelivery {
+
+        /**
+         * The listener is weakly referenced, it is the key of {@code coalescedListeners}.
+         */
+        private final WeakReference<MessageListener> listener;
+
+        private final Set<MessageChannel> channels = EnumSet.noneOf(MessageChannel.class);
+
+        /**
+         * Messages waiting for delivery by channel, in the order received.
+         */
+        private final Map<MessageChannel, Map<List<Object>, Message>> pending = new EnumMap<>(MessageChannel.class);
+
+        private long window;
+
+        CoalescedDelivery(final MessageListener listener) {
+            this.listener = new WeakReference<>(listener);
+        }
+
+        synchronized void addChannels(final long window, final MessageChannel... channels) {
+            this.window = window;
+            this.channels.addAll(Arrays.asList(channels));
+        }
+
+        synchronized void removeChannels(final MessageChannel... channels) {
+            for (final MessageChannel channel : channels) {
+                this.channels.remove(channel);
+
+                final Map<List<Object>, Message> batch = pending.remove(channel);
+
+                if (batch != null) {
+                    queueDepth.addAndGet(-batch.size());
+                }
+            }
+        }
+
+        /**
+         * Adds a message to the batch of its channel.
+         *
+         * @param message message to deliver
+         * @return {@code false} if the channel is not coalesced and the message must be delivered directly
+         */
+        synchronized boolean offer(final Message message) {
+            final MessageChannel channel = message.getChannel();
+
+            if (!channels.contains(channel)) {
+                return false;
+            }
+
+            final Map<List<Object>, Message> batch = pending.computeIfAbsent(channel, k -> new LinkedHashMap<>());
+
+            if (batch.isEmpty()) {  // first message of the window, deliver the batch when the window closes
+                coalescingTimer.schedule(() -> pool.execute(() -> deliver(channel)), window, TimeUnit.MILLISECONDS);
+            }
+
+            if (batch.putIfAbsent(getCoalescingKey(message), message) == null) {
+                queueDepth.incrementAndGet();
+            } else {
+                coalescedCount.incrementAndGet();
+            }
+
+            return true;
+        }
+
+        /**
+         * Delivers the batch of a channel.  Called by the pool.
+         */
+        private void deliver(final MessageChannel channel) {
+            final List<Message> messages;
+
+            synchronized (this) {
+                final Map<List<Object>, Message> batch = pending.remove(channel);
+
+                if (batch == null || batch.isEmpty()) {
+                    return;
+                }
+
+                messages = new ArrayList<>(batch.values());
+            }
+
+            queueDepth.addAndGet(-messages.size());
+
+            final MessageListener l = listener.get();
+
+            if (l != null) {
+                l.messagesPosted(Collections.unmodifiableList(messages));
+                deliveredCount.addAndGet(messages.size());
+            }
+        }
+    }
 }
@@ -18,7 +18,11 @@
 package jgnash.engine.message;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -28,17 +32,19 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.Delimiters;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.util.ReferenceCountUtil;
 
-import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -55,10 +61,8 @@ import jgnash.engine.budget.Budget;
 import jgnash.engine.jpa.JpaNetworkServer;
 import jgnash.engine.recurring.Reminder;
 import jgnash.net.ConnectionFactory;
+import jgnash.util.DefaultDaemonThreadFactory;
 import jgnash.util.EncryptionManager;
-
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.CompactWriter;
 import jgnash.util.LogUtil;
 
 /**
@@ -73,8 +77,6 @@ class MessageBusClient {
 
     private static final Logger logger = Logger.getLogger(MessageBusClient.class.getName());
 
-    private final XStream xstream;
-
     private String dataBasePath;
 
     private DataStoreType dataBaseType;
@@ -89,6 +91,18 @@ class MessageBusClient {
 
     private final ReentrantLock channelLock = new ReentrantLock();
 
+    /**
+     * Messages and text waiting to be sent, in order.
+     */
+    private final Queue<Object> pendingRecords = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Sends the pending records.  Records queued while a frame is being written are coalesced into the next frame.
+     */
+    private final ExecutorService sendExecutor = Executors.newSingleThreadExecutor(new DefaultDaemonThreadFactory());
+
+    private final AtomicBoolean sendScheduled = new AtomicBoolean();
+
     static {
         logger.setLevel(Level.INFO);
     }
@@ -97,8 +111,6 @@ class MessageBusClient {
         this.host = host;
         this.port = port;
         this.name = name;
-
-        xstream = XStreamFactory.getInstance();
     }
 
     String getDataBasePath() {
@@ -155,10 +167,10 @@ class MessageBusClient {
         public void initChannel(final SocketChannel ch) {
             ChannelPipeline pipeline = ch.pipeline();
 
-            // Add the text line codec combination first,
-            pipeline.addLast("framer", new DelimiterBasedFrameDecoder(8192, true, Delimiters.lineDelimiter()));
-            pipeline.addLast("decoder", new StringDecoder(CharsetUtil.UTF_8));
-            pipeline.addLast("encoder", new StringEncoder(CharsetUtil.UTF_8));
+            // Add the length prefixed frame codec first,
+            pipeline.addLast("framer", new LengthFieldBasedFrameDecoder(MessageCodec.MAX_FRAME_LENGTH, 0,
+                    MessageCodec.LENGTH_FIELD_LENGTH, 0, MessageCodec.LENGTH_FIELD_LENGTH));
+            pipeline.addLast("prepender", new LengthFieldPrepender(MessageCodec.LENGTH_FIELD_LENGTH));
 
             // and then business logic.
             pipeline.addLast("handler", new MessageBusClientHandler());
@@ -173,54 +185,73 @@ class MessageBusClient {
 
         private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
-        private String decrypt(final Object object) {
-            String plainMessage;
+        @Override
+        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
 
-            if (encryptionManager != null) {
-                plainMessage = encryptionManager.decrypt(object.toString());
-            } else {
-                plainMessage = object.toString();
-            }
+            try {
+                final byte[] frame = ByteBufUtil.getBytes((ByteBuf) msg);
 
-            return plainMessage;
+                executorService.submit(() -> processFrame(frame));
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
         }
 
-        @Override
-        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+        private void processFrame(final byte[] frame) {
+            final byte[] plainFrame = encryptionManager != null ? encryptionManager.decrypt(frame) : frame;
+
+            if (plainFrame == null) {    // decryption has failed
+                logger.log(Level.SEVERE, "Unable to decrypt the remote message");
+                return;
+            }
+
+            final List<Object> records;
 
             try {
-                final String plainMessage = decrypt(msg);
-
-                logger.log(Level.FINE, "messageReceived: {0}", plainMessage);
-
-                if (plainMessage.startsWith("<Message")) {
-                    executorService.submit(() -> {
-                        final Message message = (Message) xstream.fromXML(plainMessage);
-
-                        final Engine engine = EngineFactory.getEngine(name);
-                        Objects.requireNonNull(engine);
-
-                        // ignore our own messages
-                        if (!engine.getUuid().equals(message.getSource())) {
-                            processRemoteMessage(message);
-                        }
-                    });
-                } else if (plainMessage.startsWith(MessageBusServer.PATH_PREFIX)) {
-                    dataBasePath = plainMessage.substring(MessageBusServer.PATH_PREFIX.length());
-                    logger.log(Level.FINE, "Remote data path is: {0}", dataBasePath);
-                } else if (plainMessage.startsWith(MessageBusServer.DATA_STORE_TYPE_PREFIX)) {
-                    dataBaseType = DataStoreType.valueOf(plainMessage.substring(MessageBusServer.DATA_STORE_TYPE_PREFIX.length()));
-                    logger.log(Level.FINE, "Remote dataBaseType type is: {0}", dataBaseType.name());
-                } else if (plainMessage.startsWith(EncryptionManager.DECRYPTION_ERROR_TAG)) {    // decryption has failed, shut down the engine
-                    logger.log(Level.SEVERE, "Unable to decrypt the remote message");
-                } else if (plainMessage.startsWith(JpaNetworkServer.STOP_SERVER_MESSAGE)) {
-                    logger.info("Server is shutting down");
-                    EngineFactory.closeEngine(name);
+                records = MessageCodec.decode(plainFrame, (clazz, uuid) -> {
+                    final Engine engine = EngineFactory.getEngine(name);
+                    Objects.requireNonNull(engine);
+
+                    return engine.getStoredObjectByUuid(clazz, uuid);
+                });
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, "Invalid remote message", e);
+                return;
+            }
+
+            for (final Object record : records) {
+                if (record instanceof Message) {
+                    final Message message = (Message) record;
+
+                    logger.log(Level.FINE, "messageReceived: {0}", message);
+
+                    final Engine engine = EngineFactory.getEngine(name);
+                    Objects.requireNonNull(engine);
+
+                    // ignore our own messages
+                    if (!engine.getUuid().equals(message.getSource())) {
+                        processRemoteMessage(message);
+                    }
                 } else {
-                    logger.log(Level.SEVERE, "Unknown message: {0}", plainMessage);
+                    processText(record.toString());
                 }
-            } finally {
-                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        private void processText(final String plainMessage) {
+            logger.log(Level.FINE, "messageReceived: {0}", plainMessage);
+
+            if (plainMessage.startsWith(MessageBusServer.PATH_PREFIX)) {
+                dataBasePath = plainMessage.substring(MessageBusServer.PATH_PREFIX.length());
+                logger.log(Level.FINE, "Remote data path is: {0}", dataBasePath);
+            } else if (plainMessage.startsWith(MessageBusServer.DATA_STORE_TYPE_PREFIX)) {
+                dataBaseType = DataStoreType.valueOf(plainMessage.substring(MessageBusServer.DATA_STORE_TYPE_PREFIX.length()));
+                logger.log(Level.FINE, "Remote dataBaseType type is: {0}", dataBaseType.name());
+            } else if (plainMessage.startsWith(JpaNetworkServer.STOP_SERVER_MESSAGE)) {
+                logger.info("Server is shutting down");
+                EngineFactory.closeEngine(name);
+            } else {
+                logger.log(Level.SEVERE, "Unknown message: {0}", plainMessage);
             }
         }
 
@@ -234,9 +265,13 @@ class MessageBusClient {
 
     void disconnectFromServer() {
 
+        sendExecutor.shutdown();
+
         channelLock.lock();
 
         try {
+            sendPendingRecords();
+
             if (channel != null) {  // null from a prior failed connection
                 channel.close().sync();
             }
@@ -252,36 +287,66 @@ class MessageBusClient {
         eventLoopGroup = null;
     }
 
-    synchronized void sendRemoteMessage(final Message message) {
-        CharArrayWriter writer = new CharArrayWriter();
-        xstream.marshal(message, new CompactWriter(writer));
-
-        sendRemoteMessage(writer.toString());
-
-        logger.log(Level.FINE, "sent: {0}", writer);
+    /**
+     * Queues a message to be sent to the server.  Messages queued while a prior frame is being written are sent
+     * together in a single frame with a single flush.
+     *
+     * @param message message to send
+     */
+    void sendRemoteMessage(final Message message) {
+        pendingRecords.add(message);
+
+        if (sendScheduled.compareAndSet(false, true) && !sendExecutor.isShutdown()) {
+            sendExecutor.execute(() -> {
+                sendScheduled.set(false);
+                sendPendingRecords();
+            });
+        }
     }
 
     void sendRemoteShutdownRequest() {
-        sendRemoteMessage(JpaNetworkServer.STOP_SERVER_MESSAGE);
+        pendingRecords.add(JpaNetworkServer.STOP_SERVER_MESSAGE);
+        sendPendingRecords();   // the caller expects the request to be sent on return
     }
 
-    private void sendRemoteMessage(final String message) {
+    /**
+     * Writes all pending records in frames of up to {@code MessageCodec.MAX_BATCH} records and flushes once.
+     */
+    private void sendPendingRecords() {
         channelLock.lock();
 
         try {
-            if (encryptionManager != null) {
-                channel.writeAndFlush(encryptionManager.encrypt(message) + MessageBusServer.EOL_DELIMITER).sync();
-            } else {
-                channel.writeAndFlush(message + MessageBusServer.EOL_DELIMITER).sync();
-            }
-        } catch (final InterruptedException e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-        } catch (final NullPointerException e) {
-            if (channel == null) {
-                logger.info("Channel was null");
+            ChannelFuture future = null;
+
+            while (!pendingRecords.isEmpty()) {
+                final List<Object> batch = new ArrayList<>();
+
+                Object record;
+
+                while (batch.size() < MessageCodec.MAX_BATCH && (record = pendingRecords.poll()) != null) {
+                    batch.add(record);
+                }
+
+                if (channel == null) {
+                    logger.log(Level.INFO, "Tried to send {0} messages through a null channel", batch.size());
+                    continue;
+                }
+
+                final byte[] frame = MessageCodec.encode(batch);
+                final byte[] encryptedFrame = encryptionManager != null ? encryptionManager.encrypt(frame) : frame;
+
+                if (encryptedFrame != null) {
+                    future = channel.write(Unpooled.wrappedBuffer(encryptedFrame));
+                    logger.log(Level.FINE, "sent {0} messages", batch.size());
+                }
             }
 
-            logger.log(Level.INFO, "Tried to send message: {0} through a null channel", message);
+            if (future != null) {
+                channel.flush();
+                future.sync();
+            }
+        } catch (final IOException | InterruptedException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
         } finally {
             channelLock.unlock();
         }
@@ -394,6 +459,11 @@ class MessageBusClient {
                     engine.refresh(account);
                     message.setObject(MessageProperty.ACCOUNT, engine.getAccountByUuid(account.getUuid()));
                     break;
+                case TRANSACTION_BULK_ADD:
+                    final Account bulkAccount = message.getObject(MessageProperty.ACCOUNT);
+                    engine.refresh(bulkAccount);
+                    message.setObject(MessageProperty.ACCOUNT, engine.getAccountByUuid(bulkAccount.getUuid()));
+                    break;
                 default:
                     break;
             }
@@ -18,6 +18,9 @@
 package jgnash.engine.message;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -30,16 +33,17 @@ import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.Delimiters;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
-import io.netty.util.CharsetUtil;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -63,8 +67,6 @@ public class MessageBusServer {
 
     static final String DATA_STORE_TYPE_PREFIX = "<TYPE>";
 
-    static final String EOL_DELIMITER = "\r\n";
-
     private int port;
 
     private String dataBasePath = "";
@@ -173,28 +175,23 @@ public class MessageBusServer {
     }
 
     /**
-     * Utility method to encrypt a message.
+     * Utility method to encrypt a frame.
      *
-     * @param message message to encrypt
-     * @return encrypted message
+     * @param frame frame to encrypt
+     * @return encrypted frame, {@code null} if encryption failed
      */
-    private String encrypt(final String message) {
+    private byte[] encrypt(final byte[] frame) {
         if (encryptionManager != null) {
-            return encryptionManager.encrypt(message);
+            return encryptionManager.encrypt(frame);
         }
-        return message;
+        return frame;
     }
 
-    private String decrypt(final String message) {
-        String plainMessage;
-
+    private byte[] decrypt(final byte[] frame) {
         if (encryptionManager != null) {
-            plainMessage = encryptionManager.decrypt(message);
-        } else {
-            plainMessage = message;
+            return encryptionManager.decrypt(frame);
         }
-
-        return plainMessage;
+        return frame;
     }
 
     private class MessageBusRemoteInitializer extends ChannelInitializer<SocketChannel> {
@@ -203,12 +200,10 @@ public class MessageBusServer {
         public void initChannel(final SocketChannel ch) {
             ChannelPipeline pipeline = ch.pipeline();
 
-            // Add the text line codec combination first,
-            pipeline.addLast("framer", new DelimiterBasedFrameDecoder(8192, true, Delimiters.lineDelimiter()));
-
-            // the encoder and decoder are static as these are sharable
-            pipeline.addLast("decoder", new StringDecoder(CharsetUtil.UTF_8));
-            pipeline.addLast("encoder", new StringEncoder(CharsetUtil.UTF_8));
+            // Add the length prefixed frame codec first,
+            pipeline.addLast("framer", new LengthFieldBasedFrameDecoder(MessageCodec.MAX_FRAME_LENGTH, 0,
+                    MessageCodec.LENGTH_FIELD_LENGTH, 0, MessageCodec.LENGTH_FIELD_LENGTH));
+            pipeline.addLast("prepender", new LengthFieldPrepender(MessageCodec.LENGTH_FIELD_LENGTH));
 
             // and then business logic.
             pipeline.addLast("handler", new MessageBusServerHandler());
@@ -225,8 +220,16 @@ public class MessageBusServer {
             logger.log(Level.INFO, "Remote connection from: {0}", ctx.channel().remoteAddress().toString());
 
             // Inform the client what they are talking with so they can establish a correct database url
-            ctx.writeAndFlush(encrypt(PATH_PREFIX + dataBasePath) + EOL_DELIMITER);
-            ctx.writeAndFlush(encrypt(DATA_STORE_TYPE_PREFIX + dataStoreType) + EOL_DELIMITER);
+            try {
+                final byte[] frame = encrypt(MessageCodec.encode(Arrays.asList(PATH_PREFIX + dataBasePath,
+                        DATA_STORE_TYPE_PREFIX + dataStoreType)));
+
+                if (frame != null) {
+                    ctx.writeAndFlush(Unpooled.wrappedBuffer(frame));
+                }
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
         }
 
         @Override
@@ -237,27 +240,58 @@ public class MessageBusServer {
 
         @Override
         public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
-            executorService.submit(() -> {
-                processMessage(msg.toString());
 
+            try {
+                final byte[] frame = ByteBufUtil.getBytes((ByteBuf) msg);
+
+                executorService.submit(() -> processFrame(frame));
+            } finally {
                 ReferenceCountUtil.release(msg);
-            });
+            }
         }
 
-        private void processMessage(final String message) {
-            final String plainMessage = decrypt(message);
+        private void processFrame(final byte[] frame) {
+            final byte[] plainFrame = decrypt(frame);
+
+            if (plainFrame == null) {
+                logger.warning("Unable to decrypt a remote message, it will not be broadcast");
+                return;
+            }
+
+            final List<Object> records;
+            final Set<UUID> changed = new HashSet<>();
+
+            try {
+                // properties are only resolved by the clients, the server collects the UUIDs
+                records = MessageCodec.decode(plainFrame, (clazz, uuid) -> {
+                    changed.add(uuid);
+                    return null;
+                });
+            } catch (final IOException e) {
+                logger.log(Level.WARNING, "Invalid remote message, it will not be broadcast", e);
+                return;
+            }
 
             rwl.readLock().lock();
 
             try {
-                channelGroup.writeAndFlush(encrypt(plainMessage) + EOL_DELIMITER).sync();
+                // every client shares the password, the frame is broadcast as it was received
+                channelGroup.writeAndFlush(Unpooled.wrappedBuffer(frame)).sync();
 
                 // Local listeners do not receive encrypted messages
-                for (LocalServerListener listener : listeners) {
-                    listener.messagePosted(plainMessage);
+                for (final Object record : records) {
+                    for (LocalServerListener listener : listeners) {
+                        listener.messagePosted(record.toString());
+                    }
+                }
+
+                if (!changed.isEmpty()) {
+                    for (LocalServerListener listener : listeners) {
+                        listener.storedObjectsChanged(changed);
+                    }
                 }
 
-                logger.log(Level.FINE, "Broadcast: {0}", plainMessage);
+                logger.log(Level.FINE, "Broadcast {0} messages", records.size());
             } catch (InterruptedException e) {
                 logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
             } finally {
@@ -0,0 +1,229 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import jgnash.engine.StoredObject;
+import jgnash.util.Nullable;
+
+/**
+ * Compact binary encoding for a frame of remote messages.
+ * <p>
+ * A frame holds a batch of records, each either a {@code Message} or a plain text control message such as the
+ * database path sent by the server.  Enum names, class names and message sources repeat across a batch, so they are
+ * written once to a string table at the start of the frame and records refer to them by index.  Message properties
+ * are written as the class and {@code UUID} of the {@code StoredObject} and are resolved again when decoded.
+ * <p>
+ * Frames are length prefixed on the wire, so there is no line length limit.
+ *
+ * @author Craig Cavanaugh
+ */
+final class MessageCodec {
+
+    /**
+     * Largest frame accepted from the wire.
+     */
+    static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * Length of the frame length prefix.
+     */
+    static final int LENGTH_FIELD_LENGTH = 4;
+
+    /**
+     * Largest number of records coalesced into a single frame.
+     */
+    static final int MAX_BATCH = 1024;
+
+    private static final byte VERSION = 1;
+
+    private static final byte TEXT = 0;
+
+    private static final byte MESSAGE = 1;
+
+    private MessageCodec() {
+        // utility class
+    }
+
+    /**
+     * Encodes a batch of records into a frame.
+     *
+     * @param records {@code Message} and {@code String} records
+     * @return the encoded frame
+     * @throws IOException if a record can not be encoded
+     */
+    static byte[] encode(final List<?> records) throws IOException {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+
+        final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+
+        try (final DataOutputStream out = new DataOutputStream(recordBytes)) {
+            for (final Object record : records) {
+                if (record instanceof Message) {
+                    final Message message = (Message) record;
+                    final Map<MessageProperty, StoredObject> properties = message.getProperties();
+
+                    out.writeByte(MESSAGE);
+                    out.writeInt(index(strings, message.getChannel().name()));
+                    out.writeInt(index(strings, message.getEvent().name()));
+                    out.writeInt(index(strings, message.getSource()));
+                    out.writeByte(properties.size());
+
+                    for (final Map.Entry<MessageProperty, StoredObject> entry : properties.entrySet()) {
+                        final UUID uuid = entry.getValue().getUuid();
+
+                        out.writeInt(index(strings, entry.getKey().name()));
+                        out.writeInt(index(strings, entry.getValue().getClass().getName()));
+                        out.writeLong(uuid.getMostSignificantBits());
+                        out.writeLong(uuid.getLeastSignificantBits());
+                    }
+                } else if (record instanceof String) {
+                    out.writeByte(TEXT);
+                    out.writeInt(index(strings, (String) record));
+                } else {
+                    throw new IOException("Unsupported record: " + record);
+                }
+            }
+        }
+
+        final ByteArrayOutputStream frame = new ByteArrayOutputStream(recordBytes.size() + strings.size() * 16 + 16);
+
+        try (final DataOutputStream out = new DataOutputStream(frame)) {
+            out.writeByte(VERSION);
+            out.writeInt(strings.size());
+
+            for (final String string : strings.keySet()) {
+                out.writeUTF(string);
+            }
+
+            out.writeInt(records.size());
+            recordBytes.writeTo(out);
+        }
+
+        return frame.toByteArray();
+    }
+
+    /**
+     * Decodes a frame.
+     *
+     * @param frame    encoded frame
+     * @param resolver returns the {@code StoredObject} for a class and {@code UUID}, {@code null} to skip properties
+     * @return the {@code Message} and {@code String} records in the order they were encoded
+     * @throws IOException if the frame is not valid
+     */
+    static List<Object> decode(final byte[] frame,
+                               @Nullable final BiFunction<Class<? extends StoredObject>, UUID, StoredObject> resolver)
+            throws IOException {
+
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame))) {
+            final byte version = in.readByte();
+
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported message frame version: " + version);
+            }
+
+            final String[] strings = new String[checkCount(in.readInt(), frame.length)];
+
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+
+            final int count = checkCount(in.readInt(), frame.length);
+            final List<Object> records = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                final byte type = in.readByte();
+
+                if (type == TEXT) {
+                    records.add(string(strings, in.readInt()));
+                } else if (type == MESSAGE) {
+                    final MessageChannel channel = MessageChannel.valueOf(string(strings, in.readInt()));
+                    final ChannelEvent event = ChannelEvent.valueOf(string(strings, in.readInt()));
+                    final Message message = new Message(channel, event, string(strings, in.readInt()));
+
+                    final int size = in.readUnsignedByte();
+
+                    for (int j = 0; j < size; j++) {
+                        final MessageProperty key = MessageProperty.valueOf(string(strings, in.readInt()));
+                        final Class<? extends StoredObject> clazz = resolveClass(string(strings, in.readInt()));
+                        final UUID uuid = new UUID(in.readLong(), in.readLong());
+
+                        if (resolver != null) {
+                            final StoredObject value = resolver.apply(clazz, uuid);
+
+                            if (value != null) {
+                                message.setObject(key, value);
+                            }
+                        }
+                    }
+
+                    records.add(message);
+                } else {
+                    throw new StreamCorruptedException("Unknown record type: " + type);
+                }
+            }
+
+            return records;
+        } catch (final IllegalArgumentException e) {    // unknown enum name
+            throw new StreamCorruptedException(e.getMessage());
+        }
+    }
+
+    private static int index(final Map<String, Integer> strings, final String string) {
+        return strings.computeIfAbsent(string, k -> strings.size());
+    }
+
+    private static String string(final String[] strings, final int index) throws StreamCorruptedException {
+        if (index < 0 || index >= strings.length) {
+            throw new StreamCorruptedException("Invalid string index: " + index);
+        }
+
+        return strings[index];
+    }
+
+    private static int checkCount(final int count, final int frameLength) throws StreamCorruptedException {
+
+        // every entry takes at least one byte
+        if (count < 0 || count > frameLength) {
+            throw new StreamCorruptedException("Invalid count: " + count);
+        }
+
+        return count;
+    }
+
+    private static Class<? extends StoredObject> resolveClass(final String name) throws StreamCorruptedException {
+        try {
+            // do not initialize a class named by a remote peer until it is known to be a StoredObject
+            return Class.forName(name, false, MessageCodec.class.getClassLoader()).asSubclass(StoredObject.class);
+        } catch (final ClassNotFoundException | ClassCastException e) {
+            throw new StreamCorruptedException("Invalid property class: " + name);
+        }
+    }
+}
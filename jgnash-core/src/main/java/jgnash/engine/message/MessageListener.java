@@ -17,6 +17,8 @@
  */
 package jgnash.engine.message;
 
+import java.util.List;
+
 /**
  * Classes must implement this interface to register and lister the message events.
  *
@@ -24,4 +26,15 @@ package jgnash.engine.message;
  */
 public interface MessageListener {
     void messagePosted(Message message);
+
+    /**
+     * Called with a batch of messages when the listener is registered for coalesced delivery.  The messages are of
+     * a single channel and in the order they were posted.
+     *
+     * @param messages the coalesced messages
+     * @see MessageBus#registerCoalescingListener(MessageListener, long, MessageChannel...)
+     */
+    default void messagesPosted(final List<Message> messages) {
+        messages.forEach(this::messagePosted);
+    }
 }
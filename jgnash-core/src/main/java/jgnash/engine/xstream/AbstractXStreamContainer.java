@@ -21,12 +21,22 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -60,6 +70,7 @@ import jgnash.engine.TransactionEntrySplitX;
 import jgnash.engine.budget.Budget;
 import jgnash.engine.budget.BudgetGoal;
 import jgnash.time.Period;
+import jgnash.util.DefaultDaemonThreadFactory;
 import jgnash.util.FileLocker;
 import jgnash.util.FileUtils;
 import jgnash.util.NotNull;
@@ -90,10 +101,52 @@ abstract class AbstractXStreamContainer {
     final ReadWriteLock readWriteLock = new ReentrantReadWriteLock(true);
     final Path path;
 
+    /**
+     * UUID index of the objects list.
+     */
+    private final Map<UUID, StoredObject> uuidIndex = new HashMap<>();
+
+    /**
+     * Objects list bucketed by their concrete class.
+     */
+    private final Map<Class<?>, List<StoredObject>> classIndex = new HashMap<>();
+
     private final FileLocker fileLocker = new FileLocker();
 
+    /**
+     * A snapshot that fails to write is retried this many times before giving up until the next commit.
+     */
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 3;
+
+    private final XStreamJournal journal;
+
+    /**
+     * Number of commits appended to the journal.
+     */
+    private final AtomicLong journaledCommits = new AtomicLong();
+
+    /**
+     * Number of journaled commits covered by the last snapshot written to disk.
+     */
+    private final AtomicLong flushedCommits = new AtomicLong();
+
+    /**
+     * Nanoseconds from capture until the last snapshot was on disk.
+     */
+    private volatile long lastFlushLatency;
+
+    private volatile ExecutorService writerExecutor;
+
+    /**
+     * Set once the container has been closed.  Guarded by the {@code fileLocker} monitor so the writer thread
+     * cannot swap the file or delete journal segments after the journal has been closed.
+     */
+    private boolean closed;
+
     AbstractXStreamContainer(final Path path) {
         this.path = path;
+
+        journal = new XStreamJournal(this, path);
     }
 
     /**
@@ -120,7 +173,7 @@ abstract class AbstractXStreamContainer {
     }
 
     /**
-     * Returns a list of objects that are assignable from from the specified Class.
+     * Returns a list of objects that are assignable to the specified Class.
      * <p>
      * The returned list may be modified without causing side effects
      *
@@ -234,7 +287,184 @@ abstract class AbstractXStreamContainer {
         fileLocker.release();
     }
 
-    abstract void commit();
+    /**
+     * Hands a snapshot of the container to the writer thread.
+     * <p>
+     * The writer holds the read lock only while it rotates the journal and captures a copy of the objects.  The copy
+     * is serialized, the file replaced and the journal segments before the rotation deleted after the lock has been
+     * released, so objects may be added and removed while the file is written.
+     */
+    final synchronized void commit() {
+        final long start = System.nanoTime();
+        final Runnable task = () -> writeSnapshot(start);
+        final ExecutorService executorService = writerExecutor;
+
+        if (executorService != null) {
+            try {
+                executorService.execute(task);
+                return;
+            } catch (final RejectedExecutionException e) {
+                Logger.getLogger(AbstractXStreamContainer.class.getName()).log(Level.WARNING, e.getLocalizedMessage(), e);
+            }
+        }
+
+        task.run();
+    }
+
+    private void writeSnapshot(final long start) {
+        final Logger logger = Logger.getLogger(AbstractXStreamContainer.class.getName());
+        final Path tempPath = Paths.get(path.toString() + ".tmp");
+
+        long segment = 0;
+        long commits = 0;
+        SnapshotWriter writer = null;
+
+        readWriteLock.readLock().lock();
+
+        try {
+            segment = journal.rotate();
+            commits = journaledCommits.get();
+
+            for (int i = 0; i < MAX_SNAPSHOT_ATTEMPTS && writer == null; i++) {
+                try {
+                    writer = captureSnapshot();
+                } catch (final RuntimeException e) {    // a collection changed while it was copied
+                    logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+                }
+            }
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+
+        if (writer == null) {
+            logger.severe("Could not capture the snapshot, the journal has been retained");
+            return;
+        }
+
+        boolean result = false;
+
+        for (int i = 0; i < MAX_SNAPSHOT_ATTEMPTS && !result; i++) {
+            try {
+                Files.deleteIfExists(tempPath);
+                result = writer.write(tempPath);
+            } catch (final IOException | RuntimeException e) {
+                logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            }
+        }
+
+        if (!result) {
+            logger.severe("Could not write the snapshot, the journal has been retained");
+            return;
+        }
+
+        synchronized (fileLocker) {
+            if (closed) {
+                logger.severe("The container was closed before the snapshot was written, the journal has been retained");
+                return;
+            }
+
+            releaseFileLock();
+
+            try {
+                createBackup(path);
+
+                try {
+                    Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                journal.deleteSegmentsBefore(segment);
+
+                flushedCommits.accumulateAndGet(commits, Math::max);
+                lastFlushLatency = System.nanoTime() - start;
+
+                logger.log(Level.INFO, "Snapshot written in {0} ms",
+                        Duration.ofNanos(lastFlushLatency).toMillis());
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            } finally {
+                if (!acquireFileLock()) { // lock the file on open
+                    logger.severe("Could not acquire the file lock");
+                }
+            }
+        }
+    }
+
+    /**
+     * Captures a copy of the objects to write.  The read lock is held by the caller.
+     * <p>
+     * Objects cannot be added or removed while the copy is made, but the engine changes accounts and transactions
+     * under its own locks and such a change may be only partly visible in the copy.  The change is journaled after
+     * the journal has been rotated, so it is replayed over the snapshot if the journal is needed.  A collection
+     * that changes while it is copied fails the capture and it is retried.
+     *
+     * @return writer for the copy, run after the read lock has been released
+     */
+    SnapshotWriter captureSnapshot() {
+        final List<StoredObject> copy = ObjectGraphCopier.copy(objects);
+
+        return p -> writeSnapshot(copy, p);
+    }
+
+    /**
+     * Writes a collection of objects to a file.
+     *
+     * @param objects objects to write
+     * @param path    file to write
+     * @return {@code true} if the file was written successfully
+     */
+    abstract boolean writeSnapshot(Collection<StoredObject> objects, Path path);
+
+    /**
+     * Returns the number of journaled commits that are not yet covered by a snapshot on disk.
+     *
+     * @return commit backlog
+     */
+    long getCommitBacklog() {
+        return Math.max(0, journaledCommits.get() - flushedCommits.get());
+    }
+
+    /**
+     * Returns the time from capture until the last snapshot was on disk.
+     *
+     * @return latency of the last snapshot, zero if a snapshot has not been written
+     */
+    Duration getLastFlushLatency() {
+        return Duration.ofNanos(lastFlushLatency);
+    }
+
+    /**
+     * Opens the journal for appending and starts the snapshot writer.  This must be called before the container is
+     * used by an {@code Engine}.
+     */
+    void openJournal() {
+        journal.open();
+        writerExecutor = Executors.newSingleThreadExecutor(new DefaultDaemonThreadFactory());
+    }
+
+    /**
+     * Replays the journal over the objects read from the file.
+     * <p>
+     * The write lock must be held by the caller.
+     */
+    void replayJournal() {
+        journal.replay();
+    }
+
+    /**
+     * Appends the changed objects to the journal.
+     *
+     * @param changed objects that have been added or changed
+     * @param removed objects that have been removed
+     * @return {@code false} if the journal is not open or could not be written
+     */
+    boolean journal(final Collection<? extends StoredObject> changed,
+                    final Collection<? extends StoredObject> removed) {
+        journaledCommits.incrementAndGet();
+
+        return journal.append(changed, removed);
+    }
 
     boolean set(final StoredObject object) {
 
@@ -243,8 +473,9 @@ abstract class AbstractXStreamContainer {
         readWriteLock.writeLock().lock();
 
         try {
-            if (get(object.getUuid()) == null) { // make sure the UUID is unique before adding
+            if (!uuidIndex.containsKey(object.getUuid())) { // make sure the UUID is unique before adding
                 objects.add(object);
+                addToIndex(object);
             }
             result = true;
         } catch (final Exception ex) {
@@ -260,43 +491,146 @@ abstract class AbstractXStreamContainer {
         readWriteLock.writeLock().lock();
 
         try {
-            objects.remove(object);
+            if (objects.remove(object)) {
+                uuidIndex.remove(object.getUuid());
+
+                final List<StoredObject> bucket = classIndex.get(object.getClass());
+
+                if (bucket != null) {
+                    bucket.remove(object);
+                }
+            }
         } finally {
             readWriteLock.writeLock().unlock();
         }
     }
 
     StoredObject get(final UUID uuid) {
-        StoredObject result = null;
+        StoredObject object = getIndexed(uuid);
+
+        if (object == null) {
+            loadDeferred(uuid);
+            object = getIndexed(uuid);
+        }
+
+        return object;
+    }
 
+    private StoredObject getIndexed(final UUID uuid) {
         Lock l = readWriteLock.readLock();
         l.lock();
 
         try {
-            for (StoredObject o : objects) {
-                if (o.getUuid().equals(uuid)) {
-                    result = o;
-                }
-            }
+            return uuidIndex.get(uuid);
         } finally {
             l.unlock();
         }
+    }
 
-        return result;
+    /**
+     * Loads objects that have not been read from the file yet so they are visible to a query for the supplied
+     * type.  Objects are read eagerly by default and this does nothing.
+     * <p>
+     * The container lock must not be held by the caller.
+     *
+     * @param type the type being queried
+     */
+    void loadDeferred(final Class<?> type) {
+    }
+
+    /**
+     * Loads an object that has not been read from the file yet.  Objects are read eagerly by default and this does
+     * nothing.
+     * <p>
+     * The container lock must not be held by the caller.
+     *
+     * @param uuid the UUID being looked up
+     */
+    void loadDeferred(final UUID uuid) {
     }
 
+    /**
+     * Returns {@code true} if journal segments exist for the file.
+     *
+     * @return {@code true} if the journal will be replayed
+     */
+    boolean hasJournal() {
+        return journal.hasSegments();
+    }
+
+    /**
+     * Returns a list of objects that are assignable to the specified Class.
+     * <p>
+     * The returned list may be modified without causing side effects
+     *
+     * @param <T>   the type of class to query
+     * @param clazz the Class to query for
+     * @return A list of type T containing objects of type clazz
+     */
+    @SuppressWarnings("unchecked")
     <T extends StoredObject> List<T> query(final Class<T> clazz) {
+        loadDeferred(clazz);
+
         readWriteLock.readLock().lock();
 
         try {
-            return query(objects, clazz);
+            final List<T> list = new ArrayList<>();
+
+            for (final Map.Entry<Class<?>, List<StoredObject>> entry : classIndex.entrySet()) {
+                if (clazz.isAssignableFrom(entry.getKey())) {
+                    list.addAll((List<T>) entry.getValue());
+                }
+            }
+
+            return list;
         } finally {
             readWriteLock.readLock().unlock();
         }
     }
 
+    /**
+     * Rebuilds the UUID and class indexes.  Objects are added directly to the objects list as they are created
+     * when a file is read, so the indexes must be rebuilt once the read is complete.
+     * <p>
+     * The write lock must be held by the caller.
+     */
+    void rebuildIndex() {
+        uuidIndex.clear();
+        classIndex.clear();
+
+        objects.forEach(this::addToIndex);
+    }
+
+    private void addToIndex(final StoredObject object) {
+        uuidIndex.put(object.getUuid(), object);
+        classIndex.computeIfAbsent(object.getClass(), k -> new ArrayList<>()).add(object);
+    }
+
     void close() {
-        releaseFileLock();
+        final ExecutorService executorService = writerExecutor;
+
+        if (executorService != null) {
+            writerExecutor = null;
+            executorService.shutdown();
+
+            try {
+                // wait for the pending snapshots, the journal must stay open until they are on disk
+                while (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+                    Logger.getLogger(AbstractXStreamContainer.class.getName())
+                            .warning("Waiting for the snapshot writer to finish");
+                }
+            } catch (final InterruptedException e) {
+                Logger.getLogger(AbstractXStreamContainer.class.getName()).log(Level.SEVERE, e.getLocalizedMessage(), e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (fileLocker) {
+            closed = true;
+
+            journal.close();
+            releaseFileLock();
+        }
     }
 
     String getFileName() {
@@ -314,6 +648,8 @@ abstract class AbstractXStreamContainer {
      * @see jgnash.engine.StoredObject
      */
     List<StoredObject> asList() {
+        loadDeferred(StoredObject.class);
+
         readWriteLock.readLock().lock();
 
         try {
@@ -323,6 +659,22 @@ abstract class AbstractXStreamContainer {
         }
     }
 
+    /**
+     * Writes a captured snapshot.
+     */
+    @FunctionalInterface
+    interface SnapshotWriter {
+
+        /**
+         * Writes the snapshot to a file.
+         *
+         * @param path file to write
+         * @return {@code true} if the file was written successfully
+         * @throws IOException if the file could not be written
+         */
+        boolean write(Path path) throws IOException;
+    }
+
     static class XStreamOut extends XStreamJVM9 {
 
         XStreamOut(final ReflectionProvider reflectionProvider, final HierarchicalStreamDriver hierarchicalStreamDriver) {
@@ -17,6 +17,9 @@
  */
 package jgnash.engine.xstream;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -69,8 +72,22 @@ abstract class AbstractXStreamDAO extends AbstractDAO implements DAO {
         return null;
     }
 
-    final void commit() {
-        if (commitCount.getAndIncrement() >= MAX_COMMIT_COUNT) {
+    final void commit(final StoredObject... objects) {
+        commit(Arrays.asList(objects), Collections.emptyList());
+    }
+
+    /**
+     * Appends the changed objects to the journal.  A snapshot of the full file is handed to the writer thread once
+     * enough changes have accumulated or if the journal could not be written.
+     *
+     * @param changed objects that have been added or changed
+     * @param removed objects that have been removed
+     */
+    final void commit(final Collection<? extends StoredObject> changed,
+                      final Collection<? extends StoredObject> removed) {
+        final boolean journaled = container.journal(changed, removed);
+
+        if (commitCount.getAndIncrement() >= MAX_COMMIT_COUNT || !journaled) {
             commitAndReset();
         }
     }
@@ -60,22 +60,8 @@ class BinaryContainer extends AbstractXStreamContainer {
     }
 
     @Override
-    void commit() {
-        writeBinary();
-    }
-
-    private synchronized void writeBinary() {
-        readWriteLock.readLock().lock();
-
-        try {
-            releaseFileLock();
-            writeBinary(objects, path);
-        } finally {
-            if (!acquireFileLock()) { // lock the file on open
-                Logger.getLogger(BinaryContainer.class.getName()).severe("Could not acquire the file lock");
-            }
-            readWriteLock.readLock().unlock();
-        }
+    boolean writeSnapshot(final Collection<StoredObject> objects, final Path path) {
+        return writeBinary(objects, path);
     }
 
     /**
@@ -85,8 +71,9 @@ class BinaryContainer extends AbstractXStreamContainer {
      *
      * @param objects Collection of StoredObjects to write
      * @param path    file to write
+     * @return {@code true} if the file was written successfully
      */
-    static synchronized void writeBinary(@NotNull final Collection<StoredObject> objects, @NotNull final Path path) {
+    static synchronized boolean writeBinary(@NotNull final Collection<StoredObject> objects, @NotNull final Path path) {
         final Logger logger = Logger.getLogger(BinaryContainer.class.getName());
 
         if (!Files.exists(path.getParent())) {
@@ -115,6 +102,8 @@ class BinaryContainer extends AbstractXStreamContainer {
         // sort the list
         list.sort(new StoredObjectComparator());
 
+        boolean result = false;
+
         logger.info("Writing Binary file");
 
         try (final OutputStream os = new BufferedOutputStream(Files.newOutputStream(path))) {
@@ -128,11 +117,15 @@ class BinaryContainer extends AbstractXStreamContainer {
             }
 
             os.flush(); // forcibly flush before letting go of the resources to help older windows systems write correctly
+
+            result = true;
         } catch (IOException e) {
             logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
         }
 
         logger.info("Writing Binary file complete");
+
+        return result;
     }
 
     void readBinary() {
@@ -151,6 +144,9 @@ class BinaryContainer extends AbstractXStreamContainer {
         } catch (final IOException | ClassNotFoundException e) {
             Logger.getLogger(BinaryContainer.class.getName()).log(Level.SEVERE, null, e);
         } finally {
+            rebuildIndex();
+            replayJournal();
+
             if (!acquireFileLock()) { // lock the file on open
                 Logger.getLogger(BinaryContainer.class.getName()).severe("Could not acquire the file lock");
             }
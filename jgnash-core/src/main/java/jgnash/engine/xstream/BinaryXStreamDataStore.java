@@ -20,6 +20,7 @@ package jgnash.engine.xstream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.logging.Logger;
@@ -76,6 +77,8 @@ public class BinaryXStreamDataStore implements DataStore {
             container.readBinary();
         }
 
+        container.openJournal();
+
         Engine engine = new Engine(new XStreamEngineDAO(container), new LocalLockManager(),
                 new LocalAttachmentManager(), engineName);
 
@@ -121,6 +124,28 @@ public class BinaryXStreamDataStore implements DataStore {
         return DataStoreType.BINARY_XSTREAM;
     }
 
+    /**
+     * Returns the number of committed changes that have been journaled but are not yet part of a snapshot on disk.
+     *
+     * @return commit backlog, zero if an engine is not open
+     */
+    public long getCommitBacklog() {
+        final AbstractXStreamContainer xStreamContainer = container;
+
+        return xStreamContainer != null ? xStreamContainer.getCommitBacklog() : 0;
+    }
+
+    /**
+     * Returns the time taken from capture until the last snapshot was written to disk.
+     *
+     * @return latency of the last snapshot, zero if a snapshot has not been written
+     */
+    public Duration getLastFlushLatency() {
+        final AbstractXStreamContainer xStreamContainer = container;
+
+        return xStreamContainer != null ? xStreamContainer.getLastFlushLatency() : Duration.ZERO;
+    }
+
     /**
      * XMLDataStore will throw an exception if called.
      *
@@ -147,6 +172,7 @@ public class BinaryXStreamDataStore implements DataStore {
      */
     @Override
     public void saveAs(final Path path, final Collection<StoredObject> objects) {
+        XStreamJournal.deleteSegments(path); // stale segments must not be replayed over a new file
         BinaryContainer.writeBinary(objects, path);
     }
 
@@ -0,0 +1,326 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.xstream;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jgnash.engine.Account;
+import jgnash.engine.CommodityNode;
+import jgnash.engine.Config;
+import jgnash.engine.ExchangeRate;
+import jgnash.engine.RootAccount;
+import jgnash.engine.StoredObject;
+import jgnash.engine.StoredObjectComparator;
+import jgnash.engine.Transaction;
+import jgnash.engine.budget.Budget;
+import jgnash.engine.recurring.Reminder;
+import jgnash.util.NotNull;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
+import com.thoughtworks.xstream.io.binary.BinaryStreamDriver;
+
+/**
+ * Simple object container for StoredObjects that reads and writes a compact columnar file.
+ * <p>
+ * The file starts with a header and format version followed by two sections.  The first section is the object graph
+ * without the account transaction sets, written with XStream in binary form.  The second section holds the
+ * transactions of all accounts in the columnar form written by {@code TransactionColumns}.
+ * <p>
+ * The file is memory mapped when read and only the object graph is loaded.  Transactions are decoded when an account
+ * first uses them, when looked up by UUID, or when a query needs all of them, so startup time and heap use do not grow
+ * with the number of transactions in the file.  A snapshot copies the rows of accounts that have not loaded straight
+ * from the mapping.
+ *
+ * @author Craig Cavanaugh
+ */
+class ColumnarContainer extends AbstractXStreamContainer {
+
+    /**
+     * File header, must match the header {@code FileMagic} uses to identify the file.
+     */
+    private static final byte[] HEADER = "jGnashColumnar".getBytes(StandardCharsets.UTF_8);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String TRANSACTIONS_FIELD = "transactions";
+
+    /**
+     * Transaction columns that have not been fully loaded, {@code null} once every transaction is loaded.
+     */
+    private volatile TransactionColumns.Mapped mapped;
+
+    /**
+     * {@code true} if a journal was replayed over the file that was read.
+     */
+    private boolean stale;
+
+    ColumnarContainer(final Path path) {
+        super(path);
+    }
+
+    /**
+     * Captures the rows of the accounts that have not loaded before the objects are copied.  An account stops being
+     * pending only after its transactions have been added to it, so every transaction is either held by a copied
+     * account or in the captured rows.
+     */
+    @Override
+    SnapshotWriter captureSnapshot() {
+        final TransactionColumns.Mapped columns = mapped;
+        final BitSet pendingRows = columns != null ? columns.getPendingRows() : null;
+        final List<StoredObject> copy = ObjectGraphCopier.copy(objects);
+
+        return p -> writeColumnar(copy, p, columns, pendingRows);
+    }
+
+    @Override
+    boolean writeSnapshot(final Collection<StoredObject> objects, final Path path) {
+        final TransactionColumns.Mapped columns = mapped;
+
+        return writeColumnar(objects, path, columns, columns != null ? columns.getPendingRows() : null);
+    }
+
+    /**
+     * Writes a columnar file given a collection of StoredObjects. TrashObjects and
+     * objects marked for removal are not written. If the file already exists,
+     * it will be overwritten.
+     *
+     * @param objects Collection of StoredObjects to write
+     * @param path    file to write
+     * @return {@code true} if the file was written successfully
+     */
+    static boolean writeColumnar(@NotNull final Collection<StoredObject> objects, @NotNull final Path path) {
+        return writeColumnar(objects, path, null, null);
+    }
+
+    /**
+     * Writes a columnar file given a collection of StoredObjects and the mapped columns of the file that was read.
+     * The rows of accounts that have not loaded their transactions are copied from the mapped columns.
+     *
+     * @param objects     Collection of StoredObjects to write
+     * @param path        file to write
+     * @param columns     mapped columns that have not been fully loaded, may be {@code null}
+     * @param pendingRows rows of the accounts that had not loaded, may be {@code null} if {@code columns} is
+     * @return {@code true} if the file was written successfully
+     */
+    private static synchronized boolean writeColumnar(@NotNull final Collection<StoredObject> objects,
+                                                      @NotNull final Path path,
+                                                      final TransactionColumns.Mapped columns,
+                                                      final BitSet pendingRows) {
+        final Logger logger = Logger.getLogger(ColumnarContainer.class.getName());
+
+        if (!Files.exists(path.getParent())) {
+            try {
+                Files.createDirectories(path.getParent());
+                logger.info("Created missing directories");
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+        }
+
+        createBackup(path);
+
+        List<StoredObject> list = new ArrayList<>();
+
+        list.addAll(query(objects, Budget.class));
+        list.addAll(query(objects, Config.class));
+        list.addAll(query(objects, CommodityNode.class));
+        list.addAll(query(objects, ExchangeRate.class));
+        list.addAll(query(objects, RootAccount.class));
+        list.addAll(query(objects, Reminder.class));
+
+        // remove any objects marked for removal
+        list.removeIf(StoredObject::isMarkedForRemoval);
+
+        // sort the list
+        list.sort(new StoredObjectComparator());
+
+        // only the transactions held by accounts, reminder transactions are part of the object graph
+        final List<Transaction> transactions = query(objects, Transaction.class);
+
+        // an account that has not loaded holds the decoded transactions that reference it, asking would load it
+        transactions.removeIf(t -> t.isMarkedForRemoval() || t.getAccounts().stream()
+                .noneMatch(a -> columns != null && columns.isPending(a) || a.contains(t)));
+
+        boolean result = false;
+
+        logger.info("Writing Columnar file");
+
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(HEADER);
+            out.writeInt(FORMAT_VERSION);
+
+            final ByteArrayOutputStream graph = new ByteArrayOutputStream();
+
+            final XStream xstream = configureXStream(new XStreamOut(new PureJavaReflectionProvider(),
+                    new BinaryStreamDriver()));
+
+            xstream.omitField(Account.class, TRANSACTIONS_FIELD);
+
+            try (final ObjectOutputStream graphOut = xstream.createObjectOutputStream(graph)) {
+                graphOut.writeObject(list);
+            }
+
+            out.writeInt(graph.size());
+            graph.writeTo(out);
+
+            new TransactionColumns().write(out, transactions, columns, pendingRows);
+
+            out.flush(); // forcibly flush before letting go of the resources to help older windows systems write correctly
+
+            result = true;
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        logger.info("Writing Columnar file complete");
+
+        return result;
+    }
+
+    void readColumnar() {
+
+        // A file lock will be held on Windows OS when reading
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readWriteLock.writeLock().lock();
+
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to map: " + path);
+            }
+
+            // the mapping remains valid after the channel is closed
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            final byte[] header = new byte[HEADER.length];
+            buffer.get(header);
+
+            if (!Arrays.equals(header, HEADER)) {
+                throw new StreamCorruptedException("Not a columnar file");
+            }
+
+            final int version = buffer.getInt();
+
+            if (version > FORMAT_VERSION) {
+                throw new StreamCorruptedException("Unsupported columnar file version: " + version);
+            }
+
+            final byte[] graph = new byte[buffer.getInt()];
+            buffer.get(graph);
+
+            final XStream xstream = configureXStream(new XStreamJVM9(new StoredObjectReflectionProvider(objects),
+                    new BinaryStreamDriver()));
+
+            xstream.omitField(Account.class, TRANSACTIONS_FIELD);
+
+            try (final ObjectInputStream graphIn = xstream.createObjectInputStream(new ByteArrayInputStream(graph))) {
+                graphIn.readObject();
+            }
+
+            mapped = new TransactionColumns().map(buffer, objects, this::set);
+        } catch (final IOException | ClassNotFoundException | BufferUnderflowException e) {
+            Logger.getLogger(ColumnarContainer.class.getName()).log(Level.SEVERE, null, e);
+        } finally {
+            rebuildIndex();
+
+            // replay works on the transaction sets directly, every account must be loaded first
+            if (hasJournal()) {
+                stale = true;
+                loadDeferred(StoredObject.class);
+            }
+
+            replayJournal();
+
+            if (!acquireFileLock()) { // lock the file on open
+                Logger.getLogger(ColumnarContainer.class.getName()).severe("Could not acquire the file lock");
+            }
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the file on disk is current and a snapshot does not need to be written on close.
+     *
+     * @return {@code true} if nothing has changed since the file was read
+     */
+    boolean isSnapshotCurrent() {
+        return !stale && Files.exists(path) && getCommitBacklog() == 0;
+    }
+
+    /**
+     * Loads every transaction if a query needs them.  A snapshot does not, the rows of accounts that have not loaded
+     * are copied from the mapping.
+     */
+    @Override
+    void loadDeferred(final Class<?> type) {
+        final TransactionColumns.Mapped columns = mapped;
+
+        if (columns != null && (type.isAssignableFrom(Transaction.class) || Transaction.class.isAssignableFrom(type))) {
+            try {
+                columns.loadAll();
+            } catch (final UncheckedIOException e) {
+                Logger.getLogger(ColumnarContainer.class.getName()).log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+
+            if (columns.isLoaded()) {
+                mapped = null;  // release the mapping
+            }
+        }
+    }
+
+    @Override
+    void loadDeferred(final UUID uuid) {
+        final TransactionColumns.Mapped columns = mapped;
+
+        if (columns != null) {
+            try {
+                columns.find(uuid);
+            } catch (final UncheckedIOException e) {
+                Logger.getLogger(ColumnarContainer.class.getName()).log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    void close() {
+        super.close();
+        mapped = null;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.xstream;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jgnash.engine.StoredObject;
+
+import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+
+/**
+ * Deep copies an object graph so a snapshot can be serialized without holding the container lock.
+ * <p>
+ * Shared references are copied once so the copy has the same identity structure as the original, which XStream
+ * relies on to write references.  Fields are copied directly and transient fields are left as the reflection
+ * provider initialized them.  Collections and maps are recreated as the same class and filled once every object has
+ * been copied, so a copied element is only hashed or compared after its fields are set.
+ * <p>
+ * The copy does not lock the objects it reads.  A collection that is modified while it is read throws
+ * {@code ConcurrentModificationException} and the caller is expected to retry.
+ *
+ * @author Craig Cavanaugh
+ */
+final class ObjectGraphCopier {
+
+    /**
+     * Creates jGnash objects the same way they are created when a file is read.
+     */
+    private static final ReflectionProvider REFLECTION_PROVIDER = new PureJavaReflectionProvider();
+
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Original to copy.
+     */
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+    /**
+     * Originals whose copies have not been filled.
+     */
+    private final Deque<Object> unfilled = new ArrayDeque<>();
+
+    /**
+     * Copied collections and maps with their copied contents, in the order they were found.
+     */
+    private final List<Object[]> contents = new ArrayList<>();
+
+    private ObjectGraphCopier() {
+    }
+
+    /**
+     * Returns a deep copy of a list of objects.
+     *
+     * @param objects objects to copy
+     * @return copies of the objects in the same order
+     * @throws java.util.ConcurrentModificationException if a collection was modified while it was copied
+     * @throws IllegalStateException if an object cannot be copied
+     */
+    static List<StoredObject> copy(final List<StoredObject> objects) {
+        final ObjectGraphCopier copier = new ObjectGraphCopier();
+        final List<StoredObject> list = new ArrayList<>(objects.size());
+
+        for (final StoredObject object : objects) {
+            list.add((StoredObject) copier.copyOf(object));
+        }
+
+        copier.fill();
+
+        return list;
+    }
+
+    private void fill() {
+        while (!unfilled.isEmpty()) {
+            final Object original = unfilled.poll();
+            final Object copy = copies.get(original);
+
+            if (original instanceof Object[]) {
+                final Object[] array = (Object[]) original;
+
+                for (int i = 0; i < array.length; i++) {
+                    ((Object[]) copy)[i] = copyOf(array[i]);
+                }
+            } else if (original instanceof Collection) {
+                final Object[] elements = ((Collection<?>) original).toArray();
+
+                for (int i = 0; i < elements.length; i++) {
+                    elements[i] = copyOf(elements[i]);
+                }
+
+                contents.add(new Object[]{copy, elements});
+            } else if (original instanceof Map) {
+                final Object[] entries = new Object[((Map<?, ?>) original).size() * 2];
+                int i = 0;
+
+                for (final Map.Entry<?, ?> entry : ((Map<?, ?>) original).entrySet()) {
+                    entries[i++] = copyOf(entry.getKey());
+                    entries[i++] = copyOf(entry.getValue());
+                }
+
+                contents.add(new Object[]{copy, entries});
+            } else {
+                try {
+                    for (final Field field : getFields(original.getClass())) {
+                        field.set(copy, copyOf(field.get(original)));
+                    }
+                } catch (final IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        // a collection found later may be an element of one found earlier and must be filled first
+        for (int i = contents.size() - 1; i >= 0; i--) {
+            final Object[] content = contents.get(i);
+
+            if (content[0] instanceof Collection) {
+                @SuppressWarnings("unchecked")
+                final Collection<Object> collection = (Collection<Object>) content[0];
+
+                for (final Object element : (Object[]) content[1]) {
+                    collection.add(element);
+                }
+            } else {
+                @SuppressWarnings("unchecked")
+                final Map<Object, Object> map = (Map<Object, Object>) content[0];
+                final Object[] entries = (Object[]) content[1];
+
+                for (int j = 0; j < entries.length; j += 2) {
+                    map.put(entries[j], entries[j + 1]);
+                }
+            }
+        }
+    }
+
+    private Object copyOf(final Object original) {
+        if (original == null || isImmutable(original)) {
+            return original;
+        }
+
+        Object copy = copies.get(original);
+
+        if (copy == null) {
+            copy = newInstance(original);
+            copies.put(original, copy);
+
+            if (!isLeaf(original)) {
+                unfilled.add(original);
+            }
+        }
+
+        return copy;
+    }
+
+    private static boolean isImmutable(final Object object) {
+        return object instanceof String || object instanceof Enum || object instanceof UUID
+                || object instanceof Boolean || object instanceof Character || object instanceof Byte
+                || object instanceof Short || object instanceof Integer || object instanceof Long
+                || object instanceof Float || object instanceof Double
+                || object instanceof BigDecimal || object instanceof BigInteger
+                || object instanceof Class || object.getClass().getName().startsWith("java.time.");
+    }
+
+    /**
+     * Returns {@code true} if the copy made by {@code newInstance} is complete and does not need to be filled.
+     */
+    private static boolean isLeaf(final Object object) {
+        return object instanceof Date
+                || object.getClass().isArray() && object.getClass().getComponentType().isPrimitive();
+    }
+
+    /**
+     * Returns a copy of an object that is empty unless it is a leaf.
+     */
+    private static Object newInstance(final Object original) {
+        final Class<?> type = original.getClass();
+
+        if (type.isArray()) {
+            if (type.getComponentType().isPrimitive()) {
+                final int length = Array.getLength(original);
+                final Object copy = Array.newInstance(type.getComponentType(), length);
+
+                System.arraycopy(original, 0, copy, 0, length);
+
+                return copy;
+            }
+
+            return Array.newInstance(type.getComponentType(), Array.getLength(original));
+        }
+
+        if (original instanceof Date) {
+            return ((Date) original).clone();
+        }
+
+        if (original instanceof EnumSet) {
+            return ((EnumSet<?>) original).clone();  // the elements are immutable
+        }
+
+        if (original instanceof EnumMap) {
+            final EnumMap<?, ?> copy = new EnumMap<>((EnumMap<?, ?>) original);
+            copy.clear();
+
+            return copy;
+        }
+
+        if (type == TreeSet.class) {
+            return new TreeSet<>(((SortedSet<?>) original).comparator());
+        }
+
+        if (type == TreeMap.class) {
+            return new TreeMap<>(((SortedMap<?, ?>) original).comparator());
+        }
+
+        if (type.getName().startsWith("jgnash.")) {
+            return REFLECTION_PROVIDER.newInstance(type);
+        }
+
+        // any other object must be a JDK collection
+        if (!(original instanceof Collection || original instanceof Map) || !type.getName().startsWith("java.")) {
+            throw new IllegalStateException("Unable to copy " + type.getName());
+        }
+
+        try {
+            return getConstructor(type).newInstance();
+        } catch (final InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to copy " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the no argument constructor of a JDK collection.  A collection without a public one, such as an
+     * unmodifiable wrapper, cannot be copied.
+     */
+    private static Constructor<?> getConstructor(final Class<?> type) {
+        return CONSTRUCTORS.computeIfAbsent(type, t -> {
+            try {
+                final Constructor<?> constructor = t.getDeclaredConstructor();
+
+                if (!Modifier.isPublic(t.getModifiers()) || !Modifier.isPublic(constructor.getModifiers())) {
+                    throw new IllegalStateException("Unable to copy " + t.getName());
+                }
+
+                constructor.setAccessible(true);
+
+                return constructor;
+            } catch (final NoSuchMethodException e) {
+                throw new IllegalStateException("Unable to copy " + t.getName(), e);
+            }
+        });
+    }
+
+    /**
+     * Returns the instance fields of a class and its super classes that are not transient.
+     */
+    private static Field[] getFields(final Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            final List<Field> fields = new ArrayList<>();
+
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (final Field field : c.getDeclaredFields()) {
+                    final int modifiers = field.getModifiers();
+
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+
+            return fields.toArray(new Field[0]);
+        });
+    }
+}
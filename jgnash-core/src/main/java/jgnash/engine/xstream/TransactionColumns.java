@@ -0,0 +1,1259 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.xstream;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import jgnash.engine.AbstractInvestmentTransactionEntry;
+import jgnash.engine.Account;
+import jgnash.engine.DeferredTransactions;
+import jgnash.engine.StoredObject;
+import jgnash.engine.Transaction;
+import jgnash.engine.TransactionEntry;
+import jgnash.util.NotNull;
+
+import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+
+/**
+ * Columnar encoding of the transactions held by accounts.
+ * <p>
+ * Transactions and their entries are written as fixed width columns instead of an object graph so a single row can
+ * be decoded directly from a memory mapped file.  Strings, class names and enum constants are replaced by indexes
+ * into a string dictionary, and accounts and securities by indexes into a UUID table.  Dates are written as epoch
+ * days and decimals as an unscaled value and scale.  The rows of each account and a UUID ordered row index follow
+ * the columns.
+ * <p>
+ * When read, accounts are given a {@code DeferredTransactions} handle to their rows and a transaction is only
+ * decoded when an account holding it is first used, when it is read by index from the account, or when it is looked
+ * up by UUID.  The rows of accounts that have not loaded are copied by a snapshot without being decoded.
+ * <p>
+ * Fields are read and written directly so the encoding is lossless, including values the getters would normalize.
+ *
+ * @author Craig Cavanaugh
+ */
+final class TransactionColumns {
+
+    /**
+     * Dictionary and reference index used for {@code null}.
+     */
+    private static final int NULL_INDEX = 0;
+
+    /**
+     * Scale marker for a {@code null} decimal.
+     */
+    private static final int NULL_SCALE = Integer.MIN_VALUE;
+
+    /**
+     * Scale marker for a decimal that does not fit the column and is written to the string dictionary instead.
+     */
+    private static final int WIDE_SCALE = Integer.MAX_VALUE;
+
+    /**
+     * Investment row of an entry that is not an investment entry.
+     */
+    private static final int NO_ROW = -1;
+
+    private final ReflectionProvider reflectionProvider = new PureJavaReflectionProvider();
+
+    private final Field uuidField;
+    private final Field transactionsField;
+    private final Field deferredField;
+
+    private final Field dateField;
+    private final Field timestampField;
+    private final Field numberField;
+    private final Field payeeField;
+    private final Field fitidField;
+    private final Field attachmentField;
+    private final Field transactionMemoField;
+    private final Field entriesField;
+
+    private final Field tagField;
+    private final Field debitAccountField;
+    private final Field creditAccountField;
+    private final Field creditAmountField;
+    private final Field debitAmountField;
+    private final Field creditReconciledField;
+    private final Field debitReconciledField;
+    private final Field entryMemoField;
+    private final Field customTagsField;
+
+    private final Field securityNodeField;
+    private final Field priceField;
+    private final Field quantityField;
+
+    TransactionColumns() {
+        uuidField = getField(StoredObject.class, "uuid");
+        transactionsField = getField(Account.class, "transactions");
+        deferredField = getField(Account.class, "deferredTransactions");
+
+        dateField = getField(Transaction.class, "date");
+        timestampField = getField(Transaction.class, "timestamp");
+        numberField = getField(Transaction.class, "number");
+        payeeField = getField(Transaction.class, "payee");
+        fitidField = getField(Transaction.class, "fitid");
+        attachmentField = getField(Transaction.class, "attachment");
+        transactionMemoField = getField(Transaction.class, "memo");
+        entriesField = getField(Transaction.class, "transactionEntries");
+
+        tagField = getField(TransactionEntry.class, "transactionTag");
+        debitAccountField = getField(TransactionEntry.class, "debitAccount");
+        creditAccountField = getField(TransactionEntry.class, "creditAccount");
+        creditAmountField = getField(TransactionEntry.class, "creditAmount");
+        debitAmountField = getField(TransactionEntry.class, "debitAmount");
+        creditReconciledField = getField(TransactionEntry.class, "creditReconciled");
+        debitReconciledField = getField(TransactionEntry.class, "debitReconciled");
+        entryMemoField = getField(TransactionEntry.class, "memo");
+        customTagsField = getField(TransactionEntry.class, "customTags");
+
+        securityNodeField = getField(AbstractInvestmentTransactionEntry.class, "securityNode");
+        priceField = getField(AbstractInvestmentTransactionEntry.class, "price");
+        quantityField = getField(AbstractInvestmentTransactionEntry.class, "quantity");
+    }
+
+    private Field getField(final Class<?> definedIn, final String name) {
+        final Field field = reflectionProvider.getField(definedIn, name);
+        field.setAccessible(true);
+
+        return field;
+    }
+
+    /**
+     * Writes the transactions as columns.
+     *
+     * @param out          output to write to
+     * @param transactions transactions to write
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final DataOutput out, final Collection<Transaction> transactions) throws IOException {
+        write(out, transactions, null, null);
+    }
+
+    /**
+     * Writes the transactions as columns along with the rows of accounts that have not loaded from mapped columns.
+     * <p>
+     * The rows of those accounts are copied from the mapping without being decoded, unless a decoded instance is
+     * also being written.  Rows are written in {@code Transaction} order so the rows of each account are sorted.
+     *
+     * @param out          output to write to
+     * @param transactions decoded transactions to write
+     * @param mapped       columns to copy the rows of unloaded accounts from, may be {@code null}
+     * @param pendingRows  rows of the accounts that had not loaded when the snapshot was captured, may be
+     *                     {@code null} if {@code mapped} is
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final DataOutput out, final Collection<Transaction> transactions, final Mapped mapped,
+               final BitSet pendingRows) throws IOException {
+        final Dictionary<String> strings = new Dictionary<>();
+        final Dictionary<UUID> references = new Dictionary<>();
+
+        try {
+            final List<Row> rows = new ArrayList<>(transactions.size());
+            final Set<UUID> decoded = new HashSet<>();
+
+            for (final Transaction transaction : transactions) {
+                final Row row = new Row(transaction, NO_ROW, (UUID) uuidField.get(transaction),
+                        ((LocalDate) dateField.get(transaction)).toEpochDay(), (String) numberField.get(transaction),
+                        timestampField.getLong(transaction));
+
+                if (decoded.add(row.uuid)) {
+                    rows.add(row);
+                }
+            }
+
+            if (mapped != null) {
+                for (int r = pendingRows.nextSetBit(0); r >= 0; r = pendingRows.nextSetBit(r + 1)) {
+                    final UUID uuid = new UUID(mapped.getLong(mapped.uuidMostColumn, r),
+                            mapped.getLong(mapped.uuidLeastColumn, r));
+
+                    if (!decoded.contains(uuid)) {
+                        rows.add(new Row(null, r, uuid, mapped.getLong(mapped.epochDayColumn, r),
+                                mapped.string(mapped.getInt(mapped.numberColumn, r)),
+                                mapped.getLong(mapped.timestampColumn, r)));
+                    }
+                }
+            }
+
+            rows.sort(null);
+
+            final int count = rows.size();
+
+            final UUID[] uuids = new UUID[count];
+            final int[] types = new int[count];
+            final long[] epochDays = new long[count];
+            final long[] timestamps = new long[count];
+            final int[] numbers = new int[count];
+            final int[] payees = new int[count];
+            final int[] fitids = new int[count];
+            final int[] attachments = new int[count];
+            final int[] memos = new int[count];
+            final int[] firstEntries = new int[count];
+            final int[] entryCounts = new int[count];
+
+            // a TransactionEntry, or the entry index of a mapped row
+            final List<Object> entries = new ArrayList<>(count * 2);
+
+            // rows of each account by reference index, in the order the transactions are written
+            final Map<Integer, List<Integer>> accountRows = new LinkedHashMap<>();
+
+            for (int i = 0; i < count; i++) {
+                final Row row = rows.get(i);
+
+                uuids[i] = row.uuid;
+                epochDays[i] = row.epochDay;
+                timestamps[i] = row.timestamp;
+                numbers[i] = strings.add(row.number);
+                firstEntries[i] = entries.size();
+
+                final Set<UUID> accounts = new HashSet<>();
+
+                if (row.transaction != null) {
+                    final Transaction transaction = row.transaction;
+
+                    types[i] = strings.add(transaction.getClass().getName());
+                    payees[i] = strings.add((String) payeeField.get(transaction));
+                    fitids[i] = strings.add((String) fitidField.get(transaction));
+                    attachments[i] = strings.add((String) attachmentField.get(transaction));
+                    memos[i] = strings.add((String) transactionMemoField.get(transaction));
+
+                    @SuppressWarnings("unchecked")
+                    final Collection<TransactionEntry> transactionEntries
+                            = (Collection<TransactionEntry>) entriesField.get(transaction);
+
+                    entryCounts[i] = transactionEntries.size();
+                    entries.addAll(transactionEntries);
+
+                    for (final Account account : transaction.getAccounts()) {
+                        accounts.add(getUuid(account));
+                    }
+                } else {
+                    final int r = row.row;
+
+                    types[i] = strings.add(mapped.string(mapped.getInt(mapped.typeColumn, r)));
+                    payees[i] = strings.add(mapped.string(mapped.getInt(mapped.payeeColumn, r)));
+                    fitids[i] = strings.add(mapped.string(mapped.getInt(mapped.fitidColumn, r)));
+                    attachments[i] = strings.add(mapped.string(mapped.getInt(mapped.attachmentColumn, r)));
+                    memos[i] = strings.add(mapped.string(mapped.getInt(mapped.memoColumn, r)));
+
+                    final int first = mapped.getFirstEntry(r);
+                    final int size = mapped.getInt(mapped.entryCountColumn, r);
+
+                    entryCounts[i] = size;
+
+                    for (int entry = first; entry < first + size; entry++) {
+                        entries.add(entry);
+                        accounts.add(mapped.getReference(mapped.debitAccountColumn, entry));
+                        accounts.add(mapped.getReference(mapped.creditAccountColumn, entry));
+                    }
+
+                    accounts.remove(null);
+                }
+
+                for (final UUID account : accounts) {
+                    accountRows.computeIfAbsent(references.add(account), k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            final Integer[] uuidOrder = new Integer[count];
+
+            for (int i = 0; i < count; i++) {
+                uuidOrder[i] = i;
+            }
+
+            Arrays.sort(uuidOrder, Comparator.comparing(i -> uuids[i]));
+
+            final int entryCount = entries.size();
+
+            final int[] entryTypes = new int[entryCount];
+            final int[] tags = new int[entryCount];
+            final int[] debitAccounts = new int[entryCount];
+            final int[] creditAccounts = new int[entryCount];
+            final DecimalColumn creditAmounts = new DecimalColumn(entryCount);
+            final DecimalColumn debitAmounts = new DecimalColumn(entryCount);
+            final int[] creditReconciled = new int[entryCount];
+            final int[] debitReconciled = new int[entryCount];
+            final int[] entryMemos = new int[entryCount];
+            final int[] customTags = new int[entryCount];
+            final int[] investmentRows = new int[entryCount];
+
+            // an AbstractInvestmentTransactionEntry, or the investment row of a mapped entry
+            final List<Object> investmentEntries = new ArrayList<>();
+
+            for (int i = 0; i < entryCount; i++) {
+                final Object value = entries.get(i);
+
+                if (value instanceof TransactionEntry) {
+                    final TransactionEntry entry = (TransactionEntry) value;
+
+                    entryTypes[i] = strings.add(entry.getClass().getName());
+                    tags[i] = strings.add(name((Enum<?>) tagField.get(entry)));
+                    debitAccounts[i] = references.add(getUuid(debitAccountField.get(entry)));
+                    creditAccounts[i] = references.add(getUuid(creditAccountField.get(entry)));
+                    creditAmounts.set(i, (BigDecimal) creditAmountField.get(entry), strings);
+                    debitAmounts.set(i, (BigDecimal) debitAmountField.get(entry), strings);
+                    creditReconciled[i] = strings.add(name((Enum<?>) creditReconciledField.get(entry)));
+                    debitReconciled[i] = strings.add(name((Enum<?>) debitReconciledField.get(entry)));
+                    entryMemos[i] = strings.add((String) entryMemoField.get(entry));
+                    customTags[i] = strings.add((String) customTagsField.get(entry));
+
+                    if (entry instanceof AbstractInvestmentTransactionEntry) {
+                        investmentRows[i] = investmentEntries.size();
+                        investmentEntries.add(entry);
+                    } else {
+                        investmentRows[i] = NO_ROW;
+                    }
+                } else {
+                    final int entry = (Integer) value;
+
+                    entryTypes[i] = strings.add(mapped.string(mapped.getInt(mapped.entryTypeColumn, entry)));
+                    tags[i] = strings.add(mapped.string(mapped.getInt(mapped.tagColumn, entry)));
+                    debitAccounts[i] = references.add(mapped.getReference(mapped.debitAccountColumn, entry));
+                    creditAccounts[i] = references.add(mapped.getReference(mapped.creditAccountColumn, entry));
+                    creditAmounts.set(i, mapped.decimal(mapped.creditScaleColumn, mapped.creditUnscaledColumn,
+                            entry), strings);
+                    debitAmounts.set(i, mapped.decimal(mapped.debitScaleColumn, mapped.debitUnscaledColumn,
+                            entry), strings);
+                    creditReconciled[i] = strings.add(mapped.string(mapped.getInt(mapped.creditReconciledColumn,
+                            entry)));
+                    debitReconciled[i] = strings.add(mapped.string(mapped.getInt(mapped.debitReconciledColumn,
+                            entry)));
+                    entryMemos[i] = strings.add(mapped.string(mapped.getInt(mapped.entryMemoColumn, entry)));
+                    customTags[i] = strings.add(mapped.string(mapped.getInt(mapped.customTagsColumn, entry)));
+
+                    final int investmentRow = mapped.getInvestmentRow(entry);
+
+                    if (investmentRow != NO_ROW) {
+                        investmentRows[i] = investmentEntries.size();
+                        investmentEntries.add(investmentRow);
+                    } else {
+                        investmentRows[i] = NO_ROW;
+                    }
+                }
+            }
+
+            final int investmentCount = investmentEntries.size();
+
+            final int[] securities = new int[investmentCount];
+            final DecimalColumn prices = new DecimalColumn(investmentCount);
+            final DecimalColumn quantities = new DecimalColumn(investmentCount);
+
+            for (int i = 0; i < investmentCount; i++) {
+                final Object value = investmentEntries.get(i);
+
+                if (value instanceof AbstractInvestmentTransactionEntry) {
+                    final AbstractInvestmentTransactionEntry entry = (AbstractInvestmentTransactionEntry) value;
+
+                    securities[i] = references.add(getUuid(securityNodeField.get(entry)));
+                    prices.set(i, (BigDecimal) priceField.get(entry), strings);
+                    quantities.set(i, (BigDecimal) quantityField.get(entry), strings);
+                } else {
+                    final int row = (Integer) value;
+
+                    securities[i] = references.add(mapped.getReference(mapped.securityColumn, row));
+                    prices.set(i, mapped.decimal(mapped.priceScaleColumn, mapped.priceUnscaledColumn, row), strings);
+                    quantities.set(i, mapped.decimal(mapped.quantityScaleColumn, mapped.quantityUnscaledColumn, row),
+                            strings);
+                }
+            }
+
+            // dictionaries are complete and must precede the columns that index them
+            writeStrings(out, strings.values);
+
+            out.writeInt(references.values.size());
+
+            for (final UUID uuid : references.values) {
+                out.writeLong(uuid.getMostSignificantBits());
+            }
+
+            for (final UUID uuid : references.values) {
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+
+            out.writeInt(count);
+
+            for (final UUID uuid : uuids) {
+                out.writeLong(uuid.getMostSignificantBits());
+            }
+
+            for (final UUID uuid : uuids) {
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+
+            writeColumn(out, types);
+            writeColumn(out, epochDays);
+            writeColumn(out, timestamps);
+            writeColumn(out, numbers);
+            writeColumn(out, payees);
+            writeColumn(out, fitids);
+            writeColumn(out, attachments);
+            writeColumn(out, memos);
+            writeColumn(out, firstEntries);
+            writeColumn(out, entryCounts);
+
+            for (final Integer row : uuidOrder) {
+                out.writeInt(row);
+            }
+
+            out.writeInt(entryCount);
+
+            writeColumn(out, entryTypes);
+            writeColumn(out, tags);
+            writeColumn(out, debitAccounts);
+            writeColumn(out, creditAccounts);
+            creditAmounts.write(out);
+            debitAmounts.write(out);
+            writeColumn(out, creditReconciled);
+            writeColumn(out, debitReconciled);
+            writeColumn(out, entryMemos);
+            writeColumn(out, customTags);
+            writeColumn(out, investmentRows);
+
+            out.writeInt(investmentCount);
+
+            writeColumn(out, securities);
+            prices.write(out);
+            quantities.write(out);
+
+            out.writeInt(accountRows.size());
+
+            for (final Map.Entry<Integer, List<Integer>> entry : accountRows.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().size());
+
+                for (final Integer row : entry.getValue()) {
+                    out.writeInt(row);
+                }
+            }
+        } catch (final IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Maps the transaction columns and attaches a {@code DeferredTransactions} handle to each account.
+     * <p>
+     * Accounts and securities referenced by the transactions must already be in the supplied list.
+     *
+     * @param buffer  buffer positioned at the start of the columns
+     * @param objects objects already read
+     * @param sink    receives each transaction as it is decoded
+     * @return the mapped columns
+     * @throws IOException if the columns are inconsistent
+     */
+    Mapped map(final ByteBuffer buffer, final List<StoredObject> objects, final Consumer<StoredObject> sink)
+            throws IOException {
+        return new Mapped(buffer, objects, sink);
+    }
+
+    private UUID getUuid(final Object object) throws IllegalAccessException {
+        return object != null ? (UUID) uuidField.get(object) : null;
+    }
+
+    private static String name(final Enum<?> constant) {
+        return constant != null ? constant.name() : null;
+    }
+
+    private static void writeStrings(final DataOutput out, final List<String> values) throws IOException {
+        final List<byte[]> encoded = new ArrayList<>(values.size());
+
+        for (final String value : values) {
+            encoded.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        out.writeInt(values.size());
+
+        // end offset of each string, the first string starts at zero
+        int offset = 0;
+        out.writeInt(offset);
+
+        for (final byte[] bytes : encoded) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+
+        for (final byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+    }
+
+    private static void writeColumn(final DataOutput out, final int[] column) throws IOException {
+        for (final int value : column) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeColumn(final DataOutput out, final long[] column) throws IOException {
+        for (final long value : column) {
+            out.writeLong(value);
+        }
+    }
+
+    private static StreamCorruptedException corrupt(final String message) {
+        return new StreamCorruptedException(message);
+    }
+
+    /**
+     * Transaction columns read from a buffer.  Rows are decoded on demand and each transaction is decoded only once.
+     */
+    final class Mapped {
+
+        private final ByteBuffer buffer;
+
+        private final Consumer<StoredObject> sink;
+
+        /**
+         * Read position while the column offsets are determined.
+         */
+        private int position;
+
+        private final int stringCount;
+        private final int stringOffsets;
+        private final int stringData;
+        private final int stringDataLength;
+
+        private final StoredObject[] referenced;
+
+        private final int count;
+        private final int uuidMostColumn;
+        private final int uuidLeastColumn;
+        private final int typeColumn;
+        private final int epochDayColumn;
+        private final int timestampColumn;
+        private final int numberColumn;
+        private final int payeeColumn;
+        private final int fitidColumn;
+        private final int attachmentColumn;
+        private final int memoColumn;
+        private final int firstEntryColumn;
+        private final int entryCountColumn;
+        private final int uuidOrderColumn;
+
+        private final int entryCount;
+        private final int entryTypeColumn;
+        private final int tagColumn;
+        private final int debitAccountColumn;
+        private final int creditAccountColumn;
+        private final int creditScaleColumn;
+        private final int creditUnscaledColumn;
+        private final int debitScaleColumn;
+        private final int debitUnscaledColumn;
+        private final int creditReconciledColumn;
+        private final int debitReconciledColumn;
+        private final int entryMemoColumn;
+        private final int customTagsColumn;
+        private final int investmentRowColumn;
+
+        private final int investmentCount;
+        private final int securityColumn;
+        private final int priceScaleColumn;
+        private final int priceUnscaledColumn;
+        private final int quantityScaleColumn;
+        private final int quantityUnscaledColumn;
+
+        private final Transaction[] transactions;
+
+        private final String[] strings;
+
+        private final Class<?>[] classes;
+
+        private final Map<String, Enum<?>> constants = new HashMap<>();
+
+        /**
+         * Accounts that have not loaded their transactions yet.  An account is removed once its rows have been
+         * decoded, and may be read without the monitor by a snapshot.
+         */
+        private final Map<Account, AccountRows> pending = new ConcurrentHashMap<>();
+
+        private Mapped(final ByteBuffer buffer, final List<StoredObject> objects, final Consumer<StoredObject> sink)
+                throws IOException {
+            this.buffer = buffer;
+            this.sink = sink;
+
+            position = buffer.position();
+
+            stringCount = readCount();
+            stringOffsets = column(stringCount + 1, Integer.BYTES);
+            stringDataLength = buffer.getInt(stringOffsets + stringCount * Integer.BYTES);
+            stringData = column(stringDataLength, 1);
+
+            strings = new String[stringCount + 1];
+            classes = new Class<?>[stringCount + 1];
+
+            final int referenceCount = readCount();
+            final int referenceMostColumn = column(referenceCount, Long.BYTES);
+            final int referenceLeastColumn = column(referenceCount, Long.BYTES);
+
+            count = readCount();
+            uuidMostColumn = column(count, Long.BYTES);
+            uuidLeastColumn = column(count, Long.BYTES);
+            typeColumn = column(count, Integer.BYTES);
+            epochDayColumn = column(count, Long.BYTES);
+            timestampColumn = column(count, Long.BYTES);
+            numberColumn = column(count, Integer.BYTES);
+            payeeColumn = column(count, Integer.BYTES);
+            fitidColumn = column(count, Integer.BYTES);
+            attachmentColumn = column(count, Integer.BYTES);
+            memoColumn = column(count, Integer.BYTES);
+            firstEntryColumn = column(count, Integer.BYTES);
+            entryCountColumn = column(count, Integer.BYTES);
+            uuidOrderColumn = column(count, Integer.BYTES);
+
+            entryCount = readCount();
+            entryTypeColumn = column(entryCount, Integer.BYTES);
+            tagColumn = column(entryCount, Integer.BYTES);
+            debitAccountColumn = column(entryCount, Integer.BYTES);
+            creditAccountColumn = column(entryCount, Integer.BYTES);
+            creditScaleColumn = column(entryCount, Integer.BYTES);
+            creditUnscaledColumn = column(entryCount, Long.BYTES);
+            debitScaleColumn = column(entryCount, Integer.BYTES);
+            debitUnscaledColumn = column(entryCount, Long.BYTES);
+            creditReconciledColumn = column(entryCount, Integer.BYTES);
+            debitReconciledColumn = column(entryCount, Integer.BYTES);
+            entryMemoColumn = column(entryCount, Integer.BYTES);
+            customTagsColumn = column(entryCount, Integer.BYTES);
+            investmentRowColumn = column(entryCount, Integer.BYTES);
+
+            investmentCount = readCount();
+            securityColumn = column(investmentCount, Integer.BYTES);
+            priceScaleColumn = column(investmentCount, Integer.BYTES);
+            priceUnscaledColumn = column(investmentCount, Long.BYTES);
+            quantityScaleColumn = column(investmentCount, Integer.BYTES);
+            quantityUnscaledColumn = column(investmentCount, Long.BYTES);
+
+            transactions = new Transaction[count];
+
+            // resolve the referenced accounts and securities, the object graph is small
+            final Map<UUID, StoredObject> index = new HashMap<>();
+
+            for (final StoredObject object : objects) {
+                index.put(object.getUuid(), object);
+            }
+
+            referenced = new StoredObject[referenceCount + 1];
+
+            for (int i = 0; i < referenceCount; i++) {
+                final UUID uuid = new UUID(buffer.getLong(referenceMostColumn + i * Long.BYTES),
+                        buffer.getLong(referenceLeastColumn + i * Long.BYTES));
+
+                referenced[i + 1] = index.get(uuid);
+
+                if (referenced[i + 1] == null) {
+                    throw corrupt("Missing referenced object: " + uuid);
+                }
+            }
+
+            try {
+                // every account holds a transaction set, the field is not part of the object graph
+                for (final StoredObject object : objects) {
+                    if (object instanceof Account && transactionsField.get(object) == null) {
+                        transactionsField.set(object, new HashSet<>());
+                    }
+                }
+
+                final int accountCount = readCount();
+
+                for (int i = 0; i < accountCount; i++) {
+                    final StoredObject account = lookup(referenced, readCount());
+                    final int rowCount = readCount();
+
+                    if (!(account instanceof Account)) {
+                        throw corrupt("Transactions assigned to a non account");
+                    }
+
+                    final AccountRows rows = new AccountRows((Account) account, column(rowCount, Integer.BYTES),
+                            rowCount);
+
+                    deferredField.set(account, rows);
+                    pending.put((Account) account, rows);
+                }
+            } catch (final IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private int readCount() throws StreamCorruptedException {
+            final int value = buffer.getInt(column(1, Integer.BYTES));
+
+            if (value < 0) {
+                throw corrupt("Invalid count: " + value);
+            }
+
+            return value;
+        }
+
+        /**
+         * Returns the offset of a column at the read position and advances past it.
+         */
+        private int column(final int rows, final int width) throws StreamCorruptedException {
+            final long end = position + (long) rows * width;
+
+            if (rows < 0 || end > buffer.limit()) {
+                throw corrupt("Column exceeds the file");
+            }
+
+            final int offset = position;
+            position = (int) end;
+
+            return offset;
+        }
+
+        /**
+         * Returns {@code true} if every account has loaded its transactions.
+         *
+         * @return {@code true} if every transaction has been decoded and attached
+         */
+        boolean isLoaded() {
+            return pending.isEmpty();
+        }
+
+        /**
+         * Returns {@code true} if an account has not loaded its transactions.
+         *
+         * @param account account to check
+         * @return {@code true} if the transactions of the account are still only held by the mapped rows
+         */
+        boolean isPending(final Account account) {
+            return pending.containsKey(account);
+        }
+
+        /**
+         * Returns the rows held by accounts that have not loaded their transactions.
+         * <p>
+         * The monitor is not taken, so a snapshot holding the container lock does not wait on an account that is
+         * loading.  An account is still pending until it has added its decoded transactions and released the
+         * handle, so a snapshot that takes the rows before copying the accounts holds every transaction.
+         *
+         * @return the pending rows
+         */
+        BitSet getPendingRows() {
+            final BitSet rows = new BitSet(count);
+
+            for (final AccountRows accountRows : pending.values()) {
+                for (int i = 0; i < accountRows.size; i++) {
+                    rows.set(getRow(accountRows.column, i));
+                }
+            }
+
+            return rows;
+        }
+
+        /**
+         * Forces every account to load its transactions.
+         * <p>
+         * The container lock must not be held by the caller unless the caller holds its write lock.
+         */
+        void loadAll() {
+            final List<Account> accounts;
+
+            synchronized (this) {
+                accounts = new ArrayList<>(pending.keySet());
+            }
+
+            // load through the account so it releases the handle
+            for (final Account account : accounts) {
+                account.getSortedTransactionList();
+            }
+        }
+
+        /**
+         * Decodes a transaction by UUID.  The transaction is not attached to its accounts until they load.
+         *
+         * @param uuid transaction UUID
+         * @return the transaction or {@code null} if not found
+         */
+        synchronized Transaction find(final UUID uuid) {
+            int low = 0;
+            int high = count - 1;
+
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final int row = getRow(uuidOrderColumn, mid);
+
+                final int compare = new UUID(buffer.getLong(uuidMostColumn + row * Long.BYTES),
+                        buffer.getLong(uuidLeastColumn + row * Long.BYTES)).compareTo(uuid);
+
+                if (compare < 0) {
+                    low = mid + 1;
+                } else if (compare > 0) {
+                    high = mid - 1;
+                } else {
+                    return decode(row);
+                }
+            }
+
+            return null;
+        }
+
+        private synchronized Transaction get(final AccountRows rows, final int index) {
+            final int row = getRow(rows.column, index);
+
+            // Transaction.compareTo orders ties by amount, which the rows are not ordered by
+            if (index > 0 && isTied(row, getRow(rows.column, index - 1))
+                    || index < rows.size - 1 && isTied(row, getRow(rows.column, index + 1))) {
+                return null;
+            }
+
+            return decode(row);
+        }
+
+        /**
+         * Returns {@code true} if two rows have the same date, number and timestamp.
+         */
+        private boolean isTied(final int row, final int other) {
+            if (getLong(epochDayColumn, row) != getLong(epochDayColumn, other)
+                    || getLong(timestampColumn, row) != getLong(timestampColumn, other)) {
+                return false;
+            }
+
+            try {
+                final String number = string(getInt(numberColumn, row));
+                final String otherNumber = string(getInt(numberColumn, other));
+
+                return (number != null ? number : "").equals(otherNumber != null ? otherNumber : "");
+            } catch (final StreamCorruptedException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private synchronized List<Transaction> load(final AccountRows rows) {
+            final List<Transaction> list = new ArrayList<>(rows.size);
+
+            for (int i = 0; i < rows.size; i++) {
+                list.add(decode(getRow(rows.column, i)));
+            }
+
+            return list;
+        }
+
+        private int getRow(final int column, final int index) {
+            final int row = buffer.getInt(column + index * Integer.BYTES);
+
+            if (row < 0 || row >= count) {
+                throw new UncheckedIOException(corrupt("Invalid row: " + row));
+            }
+
+            return row;
+        }
+
+        private Transaction decode(final int row) {
+            Transaction transaction = transactions[row];
+
+            if (transaction != null) {
+                return transaction;
+            }
+
+            try {
+                transaction = (Transaction) newInstance(resolveClass(getInt(typeColumn, row)), Transaction.class);
+
+                uuidField.set(transaction, new UUID(getLong(uuidMostColumn, row), getLong(uuidLeastColumn, row)));
+                dateField.set(transaction, LocalDate.ofEpochDay(getLong(epochDayColumn, row)));
+                timestampField.setLong(transaction, getLong(timestampColumn, row));
+                numberField.set(transaction, string(getInt(numberColumn, row)));
+                payeeField.set(transaction, string(getInt(payeeColumn, row)));
+                fitidField.set(transaction, string(getInt(fitidColumn, row)));
+                attachmentField.set(transaction, string(getInt(attachmentColumn, row)));
+                transactionMemoField.set(transaction, string(getInt(memoColumn, row)));
+
+                final int first = getFirstEntry(row);
+                final int size = getInt(entryCountColumn, row);
+
+                final Set<TransactionEntry> transactionEntries = new HashSet<>();
+
+                for (int entry = first; entry < first + size; entry++) {
+                    transactionEntries.add(decodeEntry(entry));
+                }
+
+                entriesField.set(transaction, transactionEntries);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (final IllegalAccessException | IllegalArgumentException | ClassCastException
+                    | DateTimeException e) {
+                throw new UncheckedIOException(corrupt(e.getLocalizedMessage()));
+            }
+
+            transactions[row] = transaction;
+            sink.accept(transaction);
+
+            return transaction;
+        }
+
+        private TransactionEntry decodeEntry(final int entry) throws IOException, IllegalAccessException {
+            final TransactionEntry transactionEntry = (TransactionEntry)
+                    newInstance(resolveClass(getInt(entryTypeColumn, entry)), TransactionEntry.class);
+
+            tagField.set(transactionEntry, constant(tagField, getInt(tagColumn, entry)));
+            debitAccountField.set(transactionEntry, lookup(referenced, getInt(debitAccountColumn, entry)));
+            creditAccountField.set(transactionEntry, lookup(referenced, getInt(creditAccountColumn, entry)));
+            creditAmountField.set(transactionEntry, decimal(creditScaleColumn, creditUnscaledColumn, entry));
+            debitAmountField.set(transactionEntry, decimal(debitScaleColumn, debitUnscaledColumn, entry));
+            creditReconciledField.set(transactionEntry, constant(creditReconciledField,
+                    getInt(creditReconciledColumn, entry)));
+            debitReconciledField.set(transactionEntry, constant(debitReconciledField,
+                    getInt(debitReconciledColumn, entry)));
+            entryMemoField.set(transactionEntry, string(getInt(entryMemoColumn, entry)));
+            customTagsField.set(transactionEntry, string(getInt(customTagsColumn, entry)));
+
+            if (transactionEntry instanceof AbstractInvestmentTransactionEntry) {
+                final int row = getInvestmentRow(entry);
+
+                if (row == NO_ROW) {
+                    throw corrupt("Missing investment row: " + entry);
+                }
+
+                securityNodeField.set(transactionEntry, lookup(referenced, getInt(securityColumn, row)));
+                priceField.set(transactionEntry, decimal(priceScaleColumn, priceUnscaledColumn, row));
+                quantityField.set(transactionEntry, decimal(quantityScaleColumn, quantityUnscaledColumn, row));
+            }
+
+            return transactionEntry;
+        }
+
+        /**
+         * Returns the first entry of a row after checking the entries of the row are within the entry columns.
+         */
+        private int getFirstEntry(final int row) throws StreamCorruptedException {
+            final int first = getInt(firstEntryColumn, row);
+            final int size = getInt(entryCountColumn, row);
+
+            if (first < 0 || size < 0 || (long) first + size > entryCount) {
+                throw corrupt("Invalid entries for row: " + row);
+            }
+
+            return first;
+        }
+
+        private int getInvestmentRow(final int entry) throws StreamCorruptedException {
+            final int row = getInt(investmentRowColumn, entry);
+
+            if (row != NO_ROW && (row < 0 || row >= investmentCount)) {
+                throw corrupt("Invalid investment row: " + row);
+            }
+
+            return row;
+        }
+
+        private UUID getReference(final int column, final int row) throws StreamCorruptedException {
+            final StoredObject object = lookup(referenced, getInt(column, row));
+
+            return object != null ? object.getUuid() : null;
+        }
+
+        private int getInt(final int column, final int row) {
+            return buffer.getInt(column + row * Integer.BYTES);
+        }
+
+        private long getLong(final int column, final int row) {
+            return buffer.getLong(column + row * Long.BYTES);
+        }
+
+        private BigDecimal decimal(final int scaleColumn, final int unscaledColumn, final int row)
+                throws StreamCorruptedException {
+            final int scale = getInt(scaleColumn, row);
+
+            if (scale == NULL_SCALE) {
+                return null;
+            } else if (scale == WIDE_SCALE) {
+                final long index = getLong(unscaledColumn, row);
+
+                if (index < 0 || index > stringCount) {
+                    throw corrupt("Invalid index: " + index);
+                }
+
+                return new BigDecimal(string((int) index));
+            }
+
+            return BigDecimal.valueOf(getLong(unscaledColumn, row), scale);
+        }
+
+        private String string(final int index) throws StreamCorruptedException {
+            if (index < 0 || index > stringCount) {
+                throw corrupt("Invalid index: " + index);
+            }
+
+            if (index == NULL_INDEX) {
+                return null;
+            }
+
+            String value = strings[index];
+
+            if (value == null) {
+                final int start = buffer.getInt(stringOffsets + (index - 1) * Integer.BYTES);
+                final int end = buffer.getInt(stringOffsets + index * Integer.BYTES);
+
+                if (start < 0 || end < start || end > stringDataLength) {
+                    throw corrupt("Invalid string: " + index);
+                }
+
+                final byte[] bytes = new byte[end - start];
+
+                final ByteBuffer view = buffer.duplicate();
+                view.position(stringData + start);
+                view.get(bytes);
+
+                // decoded strings are shared by every row that uses them
+                value = new String(bytes, StandardCharsets.UTF_8);
+                strings[index] = value;
+            }
+
+            return value;
+        }
+
+        private Class<?> resolveClass(final int index) throws StreamCorruptedException {
+            if (index <= NULL_INDEX || index > stringCount) {
+                throw corrupt("Invalid type index: " + index);
+            }
+
+            Class<?> type = classes[index];
+
+            if (type == null) {
+                final String name = string(index);
+
+                // restrict the types that may be instantiated from the file
+                if (!name.startsWith("jgnash.engine.")) {
+                    throw corrupt("Unexpected type: " + name);
+                }
+
+                try {
+                    type = Class.forName(name);
+                } catch (final ClassNotFoundException e) {
+                    throw corrupt("Unknown type: " + name);
+                }
+
+                classes[index] = type;
+            }
+
+            return type;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Enum<?> constant(final Field field, final int index) throws StreamCorruptedException {
+            final String name = string(index);
+
+            if (name == null) {
+                return null;
+            }
+
+            final String key = field.getName() + ':' + name;
+            Enum<?> constant = constants.get(key);
+
+            if (constant == null) {
+                try {
+                    constant = Enum.valueOf((Class<? extends Enum>) field.getType(), name);
+                } catch (final IllegalArgumentException e) {
+                    throw corrupt("Unknown constant: " + name);
+                }
+                constants.put(key, constant);
+            }
+
+            return constant;
+        }
+
+        private Object newInstance(final Class<?> type, final Class<?> expected) throws StreamCorruptedException {
+            if (!expected.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers())) {
+                throw corrupt("Unexpected type: " + type.getName());
+            }
+
+            return reflectionProvider.newInstance(type);
+        }
+
+        /**
+         * Handle to the rows of an account.
+         */
+        private final class AccountRows implements DeferredTransactions {
+
+            private final Account account;
+
+            private final int column;
+
+            private final int size;
+
+            AccountRows(final Account account, final int column, final int size) {
+                this.account = account;
+                this.column = column;
+                this.size = size;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Transaction get(final int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+
+                return Mapped.this.get(this, index);
+            }
+
+            @Override
+            public Collection<Transaction> load() {
+                return Mapped.this.load(this);
+            }
+
+            @Override
+            public void release() {
+                pending.remove(account);
+            }
+        }
+    }
+
+    /**
+     * A row to write, either a decoded transaction or a row of mapped columns, with the keys it is ordered by.
+     * Rows are ordered the same as {@code Transaction.compareTo} except that rows with the same date, number and
+     * timestamp are ordered by UUID, the amount compared by {@code Transaction.compareTo} is not a column.
+     */
+    private static final class Row implements Comparable<Row> {
+
+        private final Transaction transaction;
+
+        private final int row;
+
+        private final UUID uuid;
+
+        private final long epochDay;
+
+        private final String number;
+
+        private final long timestamp;
+
+        Row(final Transaction transaction, final int row, final UUID uuid, final long epochDay, final String number,
+            final long timestamp) {
+            this.transaction = transaction;
+            this.row = row;
+            this.uuid = uuid;
+            this.epochDay = epochDay;
+            this.number = number;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public int compareTo(@NotNull final Row other) {
+            int result = Long.compare(epochDay, other.epochDay);
+            if (result != 0) {
+                return result;
+            }
+
+            result = (number != null ? number : "").compareTo(other.number != null ? other.number : "");
+            if (result != 0) {
+                return result;
+            }
+
+            result = Long.compareUnsigned(timestamp, other.timestamp);
+            if (result != 0) {
+                return result;
+            }
+
+            return uuid.compareTo(other.uuid);
+        }
+    }
+
+    private static <T> T lookup(final T[] table, final int index) throws StreamCorruptedException {
+        if (index < 0 || index >= table.length) {
+            throw corrupt("Invalid index: " + index);
+        }
+
+        return table[index];
+    }
+
+    /**
+     * Assigns indexes to distinct values in order of first use.  Index 0 is reserved for {@code null}.
+     */
+    private static final class Dictionary<T> {
+
+        private final Map<T, Integer> indexes = new HashMap<>();
+
+        private final List<T> values = new ArrayList<>();
+
+        int add(final T value) {
+            if (value == null) {
+                return NULL_INDEX;
+            }
+
+            return indexes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size();
+            });
+        }
+    }
+
+    /**
+     * Decimal column written as a scale column followed by an unscaled value column.  Values with an unscaled
+     * value that does not fit in a long are written to the string dictionary and the unscaled column holds the index.
+     */
+    private static final class DecimalColumn {
+
+        private final int[] scales;
+
+        private final long[] unscaled;
+
+        DecimalColumn(final int size) {
+            scales = new int[size];
+            unscaled = new long[size];
+        }
+
+        void set(final int index, final BigDecimal value, final Dictionary<String> strings) {
+            if (value == null) {
+                scales[index] = NULL_SCALE;
+            } else {
+                final BigInteger unscaledValue = value.unscaledValue();
+
+                if (unscaledValue.bitLength() < Long.SIZE && value.scale() != NULL_SCALE
+                        && value.scale() != WIDE_SCALE) {
+                    scales[index] = value.scale();
+                    unscaled[index] = unscaledValue.longValue();
+                } else {
+                    scales[index] = WIDE_SCALE;
+                    unscaled[index] = strings.add(value.toString());
+                }
+            }
+        }
+
+        void write(final DataOutput out) throws IOException {
+            writeColumn(out, scales);
+            writeColumn(out, unscaled);
+        }
+    }
+}
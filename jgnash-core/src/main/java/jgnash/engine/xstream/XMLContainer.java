@@ -17,9 +17,13 @@
  */
 package jgnash.engine.xstream;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
@@ -30,6 +34,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import jgnash.engine.CommodityNode;
 import jgnash.engine.Config;
@@ -64,8 +71,9 @@ class XMLContainer extends AbstractXStreamContainer {
      *
      * @param objects Collection of StoredObjects to write
      * @param path    file to write
+     * @return {@code true} if the file was written successfully
      */
-    static synchronized void writeXML(final Collection<StoredObject> objects, final Path path) {
+    static synchronized boolean writeXML(final Collection<StoredObject> objects, final Path path) {
         Logger logger = Logger.getLogger(XMLContainer.class.getName());
 
         if (!Files.exists(path.getParent())) {
@@ -79,6 +87,84 @@ class XMLContainer extends AbstractXStreamContainer {
 
         createBackup(path);
 
+        boolean result = false;
+
+        logger.info("Writing XML file");
+
+        try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            result = writeXML(objects, writer);
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            result = false;
+        }
+
+        logger.info("Writing XML file complete");
+
+        return result;
+    }
+
+    /**
+     * Writes the XML form of a collection of StoredObjects directly into a single entry of a zip file.  The XML is
+     * compressed as it is written, so an intermediate XML file is not needed.  If the zip file already exists, it
+     * will be overwritten.
+     *
+     * @param objects   Collection of StoredObjects to write
+     * @param path      zip file to write
+     * @param entryName name of the XML entry within the zip file
+     * @return {@code true} if the file was written successfully
+     */
+    static synchronized boolean writeCompressedXML(final Collection<StoredObject> objects, final Path path,
+                                                   final String entryName) {
+        Logger logger = Logger.getLogger(XMLContainer.class.getName());
+
+        final long start = System.nanoTime();
+
+        final ZipEntry entry = new ZipEntry(entryName);
+
+        boolean result = false;
+
+        try (final ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            zipOut.setLevel(Deflater.BEST_COMPRESSION);
+            zipOut.putNextEntry(entry);
+
+            // the writer must not close the zip stream before the entry is closed
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(zipOut, StandardCharsets.UTF_8));
+
+            if (writeXML(objects, writer)) {
+                writer.flush();
+                zipOut.closeEntry();
+
+                result = true;
+            }
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        if (result) {
+            final double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+
+            logger.log(Level.INFO, String.format("Wrote %s: %d bytes of XML compressed to %d bytes in %.2f s, %.1f MB/s",
+                    path, entry.getSize(), entry.getCompressedSize(), seconds, entry.getSize() / seconds / 1_000_000));
+        } else {
+            try {
+                Files.deleteIfExists(path);
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes the XML form of a collection of StoredObjects.
+     *
+     * @param objects Collection of StoredObjects to write
+     * @param writer  Writer to write to, it is left open
+     * @return {@code true} if the objects were written successfully
+     * @throws IOException if the XML header could not be written
+     */
+    private static boolean writeXML(final Collection<StoredObject> objects, final Writer writer) throws IOException {
         List<StoredObject> list = new ArrayList<>();
 
         list.addAll(query(objects, Budget.class));
@@ -94,44 +180,33 @@ class XMLContainer extends AbstractXStreamContainer {
         // sort the list
         list.sort(new StoredObjectComparator());
 
-        logger.info("Writing XML file");
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<?fileFormat " + Engine.CURRENT_MAJOR_VERSION + "." + Engine.CURRENT_MINOR_VERSION + "?>\n");
 
-        try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
-            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-            writer.write("<?fileFormat " + Engine.CURRENT_MAJOR_VERSION + "." + Engine.CURRENT_MINOR_VERSION + "?>\n");
-
-            final XStream xstream = configureXStream(new XStreamOut(new PureJavaReflectionProvider(), new StaxDriver()));
+        final XStream xstream = configureXStream(new XStreamOut(new PureJavaReflectionProvider(), new StaxDriver()));
 
-            try (final ObjectOutputStream out = xstream.createObjectOutputStream(new PrettyPrintWriter(writer))) {
-                out.writeObject(list);
-                out.flush();     // forcibly flush before letting go of the resources to help older windows systems write correctly
-            } catch (final Exception e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        // closing the object stream writes the closing element, but must leave the writer open
+        final Writer unclosedWriter = new FilterWriter(writer) {
+            @Override
+            public void close() throws IOException {
+                flush();
             }
-        } catch (final IOException e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-        }
+        };
 
-        logger.info("Writing XML file complete");
-    }
+        try (final ObjectOutputStream out = xstream.createObjectOutputStream(new PrettyPrintWriter(unclosedWriter))) {
+            out.writeObject(list);
+            out.flush();     // forcibly flush before letting go of the resources to help older windows systems write correctly
 
-    @Override
-    void commit() {
-        writeXML();
+            return true;
+        } catch (final Exception e) {
+            Logger.getLogger(XMLContainer.class.getName()).log(Level.SEVERE, e.getLocalizedMessage(), e);
+            return false;
+        }
     }
 
-    private synchronized void writeXML() {
-        readWriteLock.readLock().lock();
-
-        try {
-            releaseFileLock();
-            writeXML(objects, path);
-        } finally {
-            if (!acquireFileLock()) { // lock the file on open
-                Logger.getLogger(XMLContainer.class.getName()).severe("Could not acquire the file lock");
-            }
-            readWriteLock.readLock().unlock();
-        }
+    @Override
+    boolean writeSnapshot(final Collection<StoredObject> objects, final Path path) {
+        return writeXML(objects, path);
     }
 
     void readXML() {
@@ -150,6 +225,9 @@ class XMLContainer extends AbstractXStreamContainer {
         } catch (final IOException | ClassNotFoundException e) {
             Logger.getLogger(XMLContainer.class.getName()).log(Level.SEVERE, null, e);
         } finally {
+            rebuildIndex();
+            replayJournal();
+
             if (!acquireFileLock()) { // lock the file on open
                 Logger.getLogger(XMLContainer.class.getName()).severe("Could not acquire the file lock");
             }
@@ -17,12 +17,19 @@
  */
 package jgnash.engine.xstream;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipInputStream;
 
 import jgnash.engine.Config;
 import jgnash.engine.DataStore;
@@ -76,6 +83,8 @@ public class XMLDataStore implements DataStore {
             container.readXML();
         }
 
+        container.openJournal();
+
         Engine engine = new Engine(new XStreamEngineDAO(container), new LocalLockManager(),
                 new LocalAttachmentManager(), engineName);
 
@@ -121,6 +130,28 @@ public class XMLDataStore implements DataStore {
         return DataStoreType.XML;
     }
 
+    /**
+     * Returns the number of committed changes that have been journaled but are not yet part of a snapshot on disk.
+     *
+     * @return commit backlog, zero if an engine is not open
+     */
+    public long getCommitBacklog() {
+        final AbstractXStreamContainer xStreamContainer = container;
+
+        return xStreamContainer != null ? xStreamContainer.getCommitBacklog() : 0;
+    }
+
+    /**
+     * Returns the time taken from capture until the last snapshot was written to disk.
+     *
+     * @return latency of the last snapshot, zero if a snapshot has not been written
+     */
+    public Duration getLastFlushLatency() {
+        final AbstractXStreamContainer xStreamContainer = container;
+
+        return xStreamContainer != null ? xStreamContainer.getLastFlushLatency() : Duration.ZERO;
+    }
+
     /**
      * XMLDataStore will throw an exception if called.
      *
@@ -145,9 +176,100 @@ public class XMLDataStore implements DataStore {
 
     @Override
     public void saveAs(final Path path, final Collection<StoredObject> objects) {
+        XStreamJournal.deleteSegments(path); // stale segments must not be replayed over a new file
         XMLContainer.writeXML(objects, path);
     }
 
+    /**
+     * Saves the objects as XML directly into a compressed zip file without writing an intermediate XML file.
+     *
+     * @param path      zip file to write
+     * @param entryName name of the XML file within the zip file
+     * @param objects   objects to save
+     * @return {@code true} if the file was written successfully
+     */
+    public static boolean saveAsCompressed(final Path path, final String entryName,
+                                           final Collection<StoredObject> objects) {
+        return XMLContainer.writeCompressedXML(objects, path, entryName);
+    }
+
+    /**
+     * Saves changed objects as an increment that can be applied over a full backup by
+     * {@link #restoreBackup(Path, List, Path)}.  References to objects that are not part of the increment are saved
+     * as UUIDs, so only the changed objects are written.
+     *
+     * @param path    increment file to write
+     * @param changed objects that have been added or changed since the full backup
+     * @param removed UUIDs of objects that have been removed since the full backup
+     * @return {@code true} if the file was written successfully
+     */
+    public static boolean saveIncrement(final Path path, final Collection<StoredObject> changed,
+                                        final Collection<UUID> removed) {
+        return XStreamJournal.writeSegment(path, changed, removed);
+    }
+
+    /**
+     * Restores a compressed full backup followed by its increments into an XML file.
+     *
+     * @param backup      compressed full backup
+     * @param increments  increments to apply in order
+     * @param destination XML file to write
+     * @return {@code true} if the file was restored successfully
+     */
+    public static boolean restoreBackup(final Path backup, final List<Path> increments, final Path destination) {
+        boolean result = false;
+
+        Path workFile = null;
+
+        try {
+            workFile = Files.createTempFile(destination.toAbsolutePath().getParent(), "restore-", FILE_EXT);
+
+            try (final ZipInputStream in = new ZipInputStream(new BufferedInputStream(Files.newInputStream(backup)))) {
+                if (in.getNextEntry() == null) {
+                    logger.log(Level.SEVERE, "Not a valid backup: {0}", backup);
+                    return false;
+                }
+
+                Files.copy(in, workFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // the increments are replayed as journal segments when the file is read
+            for (int i = 0; i < increments.size(); i++) {
+                Files.copy(increments.get(i), XStreamJournal.getSegmentPath(workFile, i + 1),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            final XMLContainer container = new XMLContainer(workFile);
+            final List<StoredObject> objects;
+
+            try {
+                container.readXML();
+                objects = container.asList();
+            } finally {
+                container.close();
+            }
+
+            XStreamJournal.deleteSegments(destination);
+            result = XMLContainer.writeXML(objects, destination);
+
+            logger.log(Level.INFO, "Restored {0} with {1} increments", new Object[]{backup, increments.size()});
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        } finally {
+            if (workFile != null) {
+                XStreamJournal.deleteSegments(workFile);
+
+                try {
+                    Files.deleteIfExists(workFile);
+                } catch (final IOException e) {
+                    logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Opens the file in readonly mode and reads the version of the file format.
      *
@@ -17,6 +17,7 @@
  */
 package jgnash.engine.xstream;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -47,25 +48,31 @@ class XStreamCommodityDAO extends AbstractXStreamDAO implements CommodityDAO {
     @Override
     public boolean addCommodity(final CommodityNode node) {
         boolean result = container.set(node);
-        commit();
+        commit(node);
         return result;
     }
 
     @Override
     public boolean addExchangeRateHistory(final ExchangeRate rate) {
-        commit();
+        commit(rate);
         return true;
     }
 
     @Override
     public boolean addSecurityHistory(final SecurityNode node, final SecurityHistoryNode historyNode) {
-        commit();
+        commit(node);
+        return true;
+    }
+
+    @Override
+    public boolean addSecurityHistory(final SecurityNode node, final Collection<SecurityHistoryNode> historyNodes) {
+        commit(node);
         return true;
     }
 
     @Override
     public boolean addSecurityHistoryEvent(final SecurityNode node, final SecurityHistoryEvent historyEvent) {
-        commit();
+        commit(node);
         return true;
     }
 
@@ -134,31 +141,31 @@ class XStreamCommodityDAO extends AbstractXStreamDAO implements CommodityDAO {
 
     @Override
     public boolean removeExchangeRateHistory(final ExchangeRate rate) {
-        commit();
+        commit(rate);
         return true;
     }
 
     @Override
     public boolean removeSecurityHistory(final SecurityNode node, final SecurityHistoryNode historyNode) {
-        commit();
+        commit(node);
         return true;
     }
 
     @Override
     public boolean removeSecurityHistoryEvent(final SecurityNode node, final SecurityHistoryEvent historyEvent) {
-        commit();
+        commit(node);
         return true;
     }
 
     @Override
     public void addExchangeRate(final ExchangeRate eRate) {
         container.set(eRate);
-        commit();
+        commit(eRate);
     }
 
     @Override
     public boolean updateCommodityNode(final CommodityNode node) {
-        commit();
+        commit(node);
         return true;
     }
 }
@@ -17,6 +17,7 @@
  */
 package jgnash.engine.xstream;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -171,6 +172,6 @@ class XStreamEngineDAO extends AbstractXStreamDAO implements EngineDAO {
 
     @Override
     public void bulkUpdate(List<? extends StoredObject> objectList) {
-        commit();
+        commit(objectList, Collections.emptyList());
     }
 }
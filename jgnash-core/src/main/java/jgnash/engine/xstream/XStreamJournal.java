@@ -0,0 +1,669 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.xstream;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import jgnash.engine.Account;
+import jgnash.engine.StoredObject;
+import jgnash.engine.Transaction;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.DataHolder;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
+import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.core.MapBackedDataHolder;
+import com.thoughtworks.xstream.core.util.SerializationMembers;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.xml.CompactWriter;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+import com.thoughtworks.xstream.mapper.Mapper;
+
+/**
+ * Append-only journal for an {@code AbstractXStreamContainer}.
+ * <p>
+ * Every commit appends a record holding only the changed objects to the current journal segment.  References from a
+ * changed object to other objects already held by the container are written as UUIDs, so a record does not drag in
+ * the object graph.  The full snapshot is only written by compaction, after which the segments it supersedes are
+ * deleted.  Segments left behind by a session that did not close cleanly are replayed over the snapshot when the
+ * file is opened again.
+ * <p>
+ * Records are framed by their length and a CRC32 checksum so a torn write at the end of a segment is ignored.
+ * Journal records are always XML regardless of the snapshot format.
+ * <p>
+ * Account transaction sets are not journaled with the account; membership is restored from the transaction records
+ * instead to keep records small for accounts with a long history.
+ *
+ * @author Craig Cavanaugh
+ */
+final class XStreamJournal {
+
+    private static final Logger logger = Logger.getLogger(XStreamJournal.class.getName());
+
+    private static final String SEGMENT_SUFFIX = ".journal.";
+
+    private static final String REFERENCE_ATTRIBUTE = "stored-ref";
+
+    private static final String UUID_ATTRIBUTE = "uuid";
+
+    private static final String DIRTY_KEY = "dirty";
+
+    private static final String TRANSACTIONS_FIELD = "transactions";
+
+    private static final String MARKED_FIELD = "markedForRemoval";
+
+    /**
+     * Record header size, length and checksum.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final AbstractXStreamContainer container;
+
+    private final Path path;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private XStream xstream;
+
+    private FileChannel channel;
+
+    /**
+     * Current segment number, zero if the journal is not open.
+     */
+    private long segment = 0;
+
+    XStreamJournal(final AbstractXStreamContainer container, final Path path) {
+        this.container = container;
+        this.path = path;
+    }
+
+    /**
+     * Deletes all journal segments for the given file.  Used when a file is replaced so stale segments are not
+     * replayed over it.
+     *
+     * @param path data file
+     */
+    static void deleteSegments(final Path path) {
+        new XStreamJournal(null, path).deleteSegmentsBefore(Long.MAX_VALUE);
+    }
+
+    /**
+     * Replays the journal segments over the objects read from the snapshot.
+     * <p>
+     * The container write lock must be held by the caller.
+     */
+    void replay() {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+
+        for (final Path segmentPath : getSegments()) {
+            int count = 0;
+
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentPath));
+
+                while (buffer.remaining() >= HEADER_SIZE) {
+                    final int length = buffer.getInt();
+                    final int checksum = buffer.getInt();
+
+                    if (length < 0 || length > buffer.remaining()) {
+                        logger.log(Level.WARNING, "Ignoring an incomplete journal record in {0}", segmentPath);
+                        break;
+                    }
+
+                    final byte[] payload = new byte[length];
+                    buffer.get(payload);
+
+                    if (checksum(payload) != checksum) {
+                        logger.log(Level.WARNING, "Ignoring a corrupt journal record in {0}", segmentPath);
+                        break;
+                    }
+
+                    apply(payload);
+                    count++;
+                }
+            } catch (final IOException | XStreamException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+
+            logger.log(Level.INFO, "Replayed {0} journal records from {1}", new Object[]{count, segmentPath});
+        }
+    }
+
+    /**
+     * Returns {@code true} if segments exist for the file.
+     *
+     * @return {@code true} if there are segments to replay
+     */
+    boolean hasSegments() {
+        return !getSegments().isEmpty();
+    }
+
+    /**
+     * Opens a new segment for appending.  If the data file does not exist, any segments left behind are discarded
+     * because there is no snapshot to replay them over.
+     */
+    void open() {
+        lock.lock();
+
+        try {
+            if (!Files.exists(path)) {
+                deleteSegmentsBefore(Long.MAX_VALUE);
+            }
+
+            final List<Path> segments = getSegments();
+
+            openSegment(segments.isEmpty() ? 1 : getSegmentNumber(segments.get(segments.size() - 1)) + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current segment and opens the next one.  A snapshot written after the rotation supersedes every
+     * segment before the returned segment number.
+     *
+     * @return the new segment number, zero if the journal is not open
+     */
+    long rotate() {
+        lock.lock();
+
+        try {
+            if (segment > 0) {
+                closeChannel();
+                openSegment(segment + 1);
+            }
+
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record to the current segment.
+     *
+     * @param changed objects that have been added or changed
+     * @param removed objects that have been removed from the container
+     * @return {@code true} if the record was written and flushed to disk
+     */
+    boolean append(final Collection<? extends StoredObject> changed, final Collection<? extends StoredObject> removed) {
+        if (segment == 0) {
+            return false;
+        }
+
+        final Set<StoredObject> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Record record = newRecord(changed, dirty);
+
+        for (final StoredObject object : removed) {
+            record.removed.add(object.getUuid().toString());
+        }
+
+        lock.lock();
+
+        try {
+            if (channel == null) {
+                return false;
+            }
+
+            write(channel, marshal(record, dirty));
+
+            channel.force(false);
+
+            return true;
+        } catch (final IOException | XStreamException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a single record of changed objects to a standalone segment file that can be replayed over a snapshot
+     * later.  Used for incremental backups of objects that are not held by a container, such as those of a JPA
+     * store.  References to objects that are not part of the record are written as UUIDs.
+     *
+     * @param path    segment file to write, it is replaced if it exists
+     * @param changed objects that have been added or changed
+     * @param removed UUIDs of objects that have been removed
+     * @return {@code true} if the segment was written
+     */
+    static boolean writeSegment(final Path path, final Collection<? extends StoredObject> changed,
+                                final Collection<UUID> removed) {
+        final XStreamJournal journal = new XStreamJournal(null, path);
+
+        final Set<StoredObject> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Record record = newRecord(changed, dirty);
+
+        for (final UUID uuid : removed) {
+            record.removed.add(uuid.toString());
+        }
+
+        try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(fileChannel, journal.marshal(record, dirty));
+
+            fileChannel.force(false);
+
+            return true;
+        } catch (final IOException | XStreamException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Deletes segments that are superseded by a snapshot.
+     *
+     * @param segmentNumber segments before this number are deleted
+     */
+    void deleteSegmentsBefore(final long segmentNumber) {
+        for (final Path segmentPath : getSegments()) {
+            if (getSegmentNumber(segmentPath) < segmentNumber) {
+                try {
+                    Files.deleteIfExists(segmentPath);
+                } catch (final IOException e) {
+                    logger.log(Level.WARNING, "Was not able to delete the journal segment: {0}", segmentPath);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the journal.  The current segment is deleted if nothing has been written to it.
+     */
+    void close() {
+        lock.lock();
+
+        try {
+            if (segment > 0) {
+                closeChannel();
+
+                final Path segmentPath = getSegmentPath(segment);
+
+                if (Files.exists(segmentPath) && Files.size(segmentPath) == 0) {
+                    Files.delete(segmentPath);
+                }
+
+                segment = 0;
+            }
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openSegment(final long segmentNumber) {
+        segment = segmentNumber;
+
+        try {
+            channel = FileChannel.open(getSegmentPath(segmentNumber), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            }
+
+            channel = null;
+        }
+    }
+
+    private Path getSegmentPath(final long segmentNumber) {
+        return getSegmentPath(path, segmentNumber);
+    }
+
+    /**
+     * Returns the path of a journal segment.
+     *
+     * @param path          data file
+     * @param segmentNumber segment number, starting at one
+     * @return path of the segment
+     */
+    static Path getSegmentPath(final Path path, final long segmentNumber) {
+        return Paths.get(path.toString() + SEGMENT_SUFFIX + segmentNumber);
+    }
+
+    private long getSegmentNumber(final Path segmentPath) {
+        final String prefix = path.getFileName().toString() + SEGMENT_SUFFIX;
+
+        try {
+            return Long.parseLong(segmentPath.getFileName().toString().substring(prefix.length()));
+        } catch (final NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the existing segments in the order they were written.
+     *
+     * @return sorted list of segments
+     */
+    private List<Path> getSegments() {
+        final List<Path> segments = new ArrayList<>();
+
+        if (path == null || path.getFileName() == null) {
+            return segments;
+        }
+
+        final Path directory = path.toAbsolutePath().getParent();
+        final String prefix = path.getFileName().toString() + SEGMENT_SUFFIX;
+
+        if (directory != null && Files.isDirectory(directory)) {
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    p -> p.getFileName().toString().startsWith(prefix))) {
+
+                for (final Path segmentPath : stream) {
+                    if (getSegmentNumber(segmentPath) > 0) {
+                        segments.add(segmentPath);
+                    }
+                }
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+        }
+
+        segments.sort(Comparator.comparingLong(this::getSegmentNumber));
+
+        return segments;
+    }
+
+    private XStream getXStream() {
+        lock.lock();
+
+        try {
+            if (xstream == null) {
+                // standalone segments are written from JPA objects and need the Hibernate collections mapped
+                xstream = AbstractXStreamContainer.configureXStream(container != null
+                        ? new XStreamJVM9(new PureJavaReflectionProvider(), new StaxDriver())
+                        : new AbstractXStreamContainer.XStreamOut(new PureJavaReflectionProvider(), new StaxDriver()));
+
+                xstream.alias("JournalRecord", Record.class);
+
+                // account membership is restored from the transaction records
+                xstream.omitField(Account.class, TRANSACTIONS_FIELD);
+
+                xstream.registerConverter(new StoredObjectConverter(xstream.getMapper(),
+                        xstream.getReflectionProvider()), XStream.PRIORITY_NORMAL);
+            }
+
+            return xstream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Record newRecord(final Collection<? extends StoredObject> changed, final Set<StoredObject> dirty) {
+        final Record record = new Record();
+
+        for (final StoredObject object : changed) {
+            if (object != null && dirty.add(object)) {
+                record.objects.add(object);
+
+                if (object.isMarkedForRemoval()) {
+                    record.marked.add(object.getUuid().toString());
+                }
+
+                if (object instanceof Transaction && !isLinked((Transaction) object)) {
+                    record.detached.add(object.getUuid().toString());
+                }
+            }
+        }
+
+        return record;
+    }
+
+    private static void write(final FileChannel fileChannel, final byte[] payload) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+    }
+
+    private byte[] marshal(final Record record, final Set<StoredObject> dirty) {
+        final DataHolder dataHolder = new MapBackedDataHolder();
+        dataHolder.put(DIRTY_KEY, dirty);
+
+        final StringWriter writer = new StringWriter();
+
+        getXStream().marshal(record, new CompactWriter(writer), dataHolder);
+
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void apply(final byte[] payload) {
+        final XStream xStream = getXStream();
+        final ReflectionProvider reflectionProvider = xStream.getReflectionProvider();
+
+        final Record record = (Record) xStream.fromXML(new String(payload, StandardCharsets.UTF_8));
+
+        for (final String uuid : record.marked) {
+            final StoredObject object = container.get(UUID.fromString(uuid));
+
+            if (object != null) {
+                reflectionProvider.writeField(object, MARKED_FIELD, Boolean.TRUE, StoredObject.class);
+            }
+        }
+
+        final Set<String> detached = new HashSet<>(record.detached);
+
+        for (final StoredObject object : record.objects) {
+            if (object instanceof Account) {
+                getTransactionSet((Account) object);    // accounts created by the journal need a transaction set
+            } else if (object instanceof Transaction) {
+                for (final Account account : ((Transaction) object).getAccounts()) {
+                    if (detached.contains(object.getUuid().toString())) {
+                        getTransactionSet(account).remove(object);
+                    } else {
+                        getTransactionSet(account).add((Transaction) object);
+                    }
+                }
+            }
+        }
+
+        for (final String uuid : record.removed) {
+            final StoredObject object = container.get(UUID.fromString(uuid));
+
+            if (object != null) {
+                container.delete(object);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Transaction> getTransactionSet(final Account account) {
+        final ReflectionProvider reflectionProvider = getXStream().getReflectionProvider();
+
+        try {
+            Set<Transaction> transactions
+                    = (Set<Transaction>) reflectionProvider.getField(Account.class, TRANSACTIONS_FIELD).get(account);
+
+            if (transactions == null) {
+                transactions = new HashSet<>();
+                reflectionProvider.writeField(account, TRANSACTIONS_FIELD, transactions, Account.class);
+            }
+
+            return transactions;
+        } catch (final IllegalAccessException e) {
+            throw new XStreamException(e);
+        }
+    }
+
+    private static boolean isLinked(final Transaction transaction) {
+        return transaction.getAccounts().stream().allMatch(account -> account.contains(transaction));
+    }
+
+    private static int checksum(final byte[] payload) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * A single journal record.
+     */
+    private static final class Record {
+
+        private final List<StoredObject> objects = new ArrayList<>();
+
+        /**
+         * UUIDs of changed objects that are marked for removal.
+         */
+        private final List<String> marked = new ArrayList<>();
+
+        /**
+         * UUIDs of changed transactions that are no longer held by their accounts.
+         */
+        private final List<String> detached = new ArrayList<>();
+
+        /**
+         * UUIDs of objects deleted from the container.
+         */
+        private final List<String> removed = new ArrayList<>();
+    }
+
+    /**
+     * Writes stored objects that are not part of the record as references and resolves them against the container
+     * when replayed.  Changed objects that already exist in the container are updated in place so references held
+     * by the rest of the object graph remain valid.
+     */
+    private final class StoredObjectConverter implements Converter {
+
+        private final Mapper mapper;
+
+        private final ReflectionProvider reflectionProvider;
+
+        private final ReflectionConverter delegate;
+
+        private final SerializationMembers serializationMembers = new SerializationMembers();
+
+        StoredObjectConverter(final Mapper mapper, final ReflectionProvider reflectionProvider) {
+            this.mapper = mapper;
+            this.reflectionProvider = reflectionProvider;
+
+            delegate = new ReflectionConverter(mapper, reflectionProvider);
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public boolean canConvert(final Class type) {
+            return type != null && StoredObject.class.isAssignableFrom(type);
+        }
+
+        @Override
+        public void marshal(final Object source, final HierarchicalStreamWriter writer,
+                            final MarshallingContext context) {
+            final StoredObject object = (StoredObject) source;
+            final Set<?> dirty = (Set<?>) context.get(DIRTY_KEY);
+
+            if (!dirty.contains(object) && (container == null || container.get(object.getUuid()) == object)) {
+                writer.addAttribute(REFERENCE_ATTRIBUTE, object.getUuid().toString());
+            } else {
+                delegate.marshal(source, writer, context);
+            }
+        }
+
+        @Override
+        public Object unmarshal(final HierarchicalStreamReader reader, final UnmarshallingContext context) {
+            final String reference = reader.getAttribute(REFERENCE_ATTRIBUTE);
+
+            if (reference != null) {
+                final StoredObject object = container.get(UUID.fromString(reference));
+
+                if (object == null) {
+                    logger.log(Level.WARNING, "Journal record references a missing object: {0}", reference);
+                }
+
+                return object;
+            }
+
+            final String uuid = reader.getAttribute(UUID_ATTRIBUTE);
+            final StoredObject existing = uuid != null ? container.get(UUID.fromString(uuid)) : null;
+
+            if (existing != null && existing.getClass() == context.getRequiredType()) {
+                clearFields(existing);
+                delegate.doUnmarshal(existing, reader, context);
+
+                return serializationMembers.callReadResolve(existing);
+            }
+
+            final Object object = delegate.unmarshal(reader, context);
+
+            if (object instanceof StoredObject) {
+                container.set((StoredObject) object);
+            }
+
+            return object;
+        }
+
+        /**
+         * Clears the serialized fields of an existing object so fields that were set to {@code null} after the
+         * snapshot was written are not left behind.
+         *
+         * @param object object to clear
+         */
+        private void clearFields(final StoredObject object) {
+            reflectionProvider.visitSerializableFields(object, (fieldName, type, definedIn, value) -> {
+                if (value != null && !type.isPrimitive() && mapper.shouldSerializeMember(definedIn, fieldName)) {
+                    reflectionProvider.writeField(object, fieldName, null, definedIn);
+                }
+            });
+        }
+    }
+}
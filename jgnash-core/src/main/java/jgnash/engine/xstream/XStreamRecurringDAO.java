@@ -42,7 +42,7 @@ class XStreamRecurringDAO extends AbstractXStreamDAO implements RecurringDAO {
     @Override
     public boolean addReminder(final Reminder reminder) {
         container.set(reminder);
-        commit();
+        commit(reminder);
         return true;
     }
 
@@ -53,7 +53,7 @@ class XStreamRecurringDAO extends AbstractXStreamDAO implements RecurringDAO {
 
     @Override
     public boolean updateReminder(final Reminder reminder) {
-        commit();
+        commit(reminder);
         return true;
     }
 }
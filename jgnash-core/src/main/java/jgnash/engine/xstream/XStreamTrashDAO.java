@@ -20,6 +20,8 @@ package jgnash.engine.xstream;
 import jgnash.engine.TrashObject;
 import jgnash.engine.dao.TrashDAO;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -44,7 +46,7 @@ class XStreamTrashDAO extends AbstractXStreamDAO implements TrashDAO {
     @Override
     public void add(final TrashObject trashObject) {
         container.set(trashObject);
-        commit();
+        commit(trashObject, trashObject.getObject());
     }
 
     @Override
@@ -52,7 +54,7 @@ class XStreamTrashDAO extends AbstractXStreamDAO implements TrashDAO {
         container.delete(trashObject.getObject());
         container.delete(trashObject);
 
-        commit();
+        commit(Collections.emptyList(), Arrays.asList(trashObject.getObject(), trashObject));
 
         logger.info("Removed TrashObject");
     }
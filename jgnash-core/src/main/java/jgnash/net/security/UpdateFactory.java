@@ -219,9 +219,7 @@ public class UpdateFactory {
 
                 final List<SecurityHistoryNode> newSecurityNodes = downloadHistory(securityNode, startDate, endDate);
 
-                for (final SecurityHistoryNode historyNode : newSecurityNodes) {
-                    engine.addSecurityHistory(securityNode, historyNode);
-                }
+                result = engine.addSecurityHistory(securityNode, newSecurityNodes);
             } catch (NullPointerException | NumberFormatException ex) {
                 logger.log(Level.SEVERE, null, ex);
                 result = false;
@@ -256,13 +254,11 @@ public class UpdateFactory {
                 final List<SecurityHistoryNode> nodes = YahooEventParser.retrieveHistoricalPrice(securityNode,
                         LocalDate.now().minusDays(1), LocalDate.now());
 
-                for (final SecurityHistoryNode node : nodes) {
-                    if (!Thread.currentThread().isInterrupted()) { // check for thread interruption
-                        result = e.addSecurityHistory(securityNode, node);
+                if (!nodes.isEmpty() && !Thread.currentThread().isInterrupted()) { // check for thread interruption
+                    result = e.addSecurityHistory(securityNode, nodes);
 
-                        if (result) {
-                            logger.info(ResourceUtils.getString("Message.UpdatedPrice", securityNode.getSymbol()));
-                        }
+                    if (result) {
+                        logger.info(ResourceUtils.getString("Message.UpdatedPrice", securityNode.getSymbol()));
                     }
                 }
             }
@@ -92,6 +92,49 @@ public class EncryptionManager {
         return null;
     }
 
+    /**
+     * Encrypts the supplied bytes.
+     *
+     * @param plain bytes to encrypt
+     * @return the encrypted bytes, {@code null} if encryption failed
+     */
+    public byte[] encrypt(final byte[] plain) {
+
+        try {
+            final Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+
+            return cipher.doFinal(plain);
+        } catch (final InvalidKeyException | NoSuchAlgorithmException | NoSuchPaddingException | BadPaddingException
+                | IllegalBlockSizeException e) {
+            LogUtil.logSevere(EncryptionManager.class, e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Decrypts the supplied bytes.
+     *
+     * @param encrypted bytes to decrypt
+     * @return the decrypted bytes, {@code null} if decryption failed
+     */
+    public byte[] decrypt(final byte[] encrypted) {
+
+        try {
+            final Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+
+            cipher.init(Cipher.DECRYPT_MODE, key);
+
+            return cipher.doFinal(encrypted);
+        } catch (final InvalidKeyException | NoSuchAlgorithmException | NoSuchPaddingException | BadPaddingException
+                | IllegalBlockSizeException e) {
+            logger.log(Level.SEVERE, "Invalid password");
+            return null;
+        }
+    }
+
     /**
      * Decrypts the supplied string.
      *
@@ -53,6 +53,8 @@ public class FileMagic {
     private static final byte[] BINARY_XSTREAM_HEADER = new byte[]{10, -127, 0, 13, 111, 98, 106, 101, 99, 116, 45,
             115, 116, 114, 101, 97, 109, 11, -127, 10};
 
+    private static final byte[] COLUMNAR_HEADER = "jGnashColumnar".getBytes(StandardCharsets.UTF_8);
+
     private static final byte[] H2_HEADER = new byte[]{0x2D, 0x2D, 0x20, 0x48, 0x32, 0x20, 0x30, 0x2E, 0x35, 0x2F,
             0x42, 0x20, 0x2D, 0x2D};
 
@@ -81,6 +83,8 @@ public class FileMagic {
             return FileType.jGnash2XML;
         } else if (isBinaryXStreamFile(path)) {
             return FileType.BinaryXStream;
+        } else if (isColumnarFile(path)) {
+            return FileType.Columnar;
         } else if (isH2File(path)) {
             return FileType.h2;
         } else if (isH2MvFile(path)) {
@@ -262,6 +266,10 @@ public class FileMagic {
         return isFile(path, BINARY_XSTREAM_HEADER);
     }
 
+    private static boolean isColumnarFile(final Path path) {
+        return isFile(path, COLUMNAR_HEADER);
+    }
+
     private static boolean isH2File(final Path path) {
         return isFile(path, H2_HEADER);
     }
@@ -358,6 +366,6 @@ public class FileMagic {
     }
 
     public enum FileType {
-        BinaryXStream, OfxV1, OfxV2, jGnash2XML, h2, h2mv, hsql, unknown
+        BinaryXStream, Columnar, OfxV1, OfxV2, jGnash2XML, h2, h2mv, hsql, unknown
     }
 }
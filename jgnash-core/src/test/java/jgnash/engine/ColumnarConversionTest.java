@@ -0,0 +1,156 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round trip conversion test between the XML and columnar file formats.
+ *
+ * @author Craig Cavanaugh
+ */
+class ColumnarConversionTest extends AbstractEngineTest {
+
+    @Override
+    protected Engine createEngine() throws IOException {
+        database = testFolder.createFile("conversion-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        return EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        final LocalDate date = LocalDate.of(2018, Month.JANUARY, 2);
+
+        assertTrue(e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(usdBankAccount, equityAccount,
+                new BigDecimal("500.00"), date, "Opening balance", "Equity", "1")));
+
+        assertTrue(e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(expenseAccount, usdBankAccount,
+                new BigDecimal("12.34"), date.plusDays(1), "Lunch", "Cafe", null)));
+
+        // unscaled value does not fit in a long
+        assertTrue(e.addTransaction(TransactionFactory.generateSingleEntryTransaction(checkingAccount,
+                new BigDecimal("123456789012345678901234.5678"), date.plusDays(2), "Large", "Payee", "")));
+
+        final List<TransactionEntry> fees = new ArrayList<>();
+
+        final TransactionEntry fee = new TransactionEntry(investAccount, expenseAccount, new BigDecimal("9.95"));
+        fee.setTransactionTag(TransactionTag.INVESTMENT_FEE);
+        fee.setMemo("Fee");
+        fees.add(fee);
+
+        assertTrue(e.addTransaction(TransactionFactory.generateBuyXTransaction(usdBankAccount, investAccount,
+                securityNode1, new BigDecimal("2.125"), new BigDecimal("100"), BigDecimal.ONE, date.plusDays(3),
+                "Buy shares", fees)));
+
+        final Map<String, List<String>> expected = describe(e);
+        final Transaction lunch = usdBankAccount.getTransactionAt(1);
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        final Path columnar = testFolder.getRoot().toPath().resolve("conversion-test.jgc");
+        final Path xml = testFolder.getRoot().toPath().resolve("conversion-test-2.xml");
+
+        EngineFactory.saveAs(database, columnar.toString(), EngineFactory.EMPTY_PASSWORD);
+
+        assertEquals(DataStoreType.COLUMNAR, EngineFactory.getDataStoreByType(columnar.toString()));
+
+        EngineFactory.saveAs(columnar.toString(), xml.toString(), EngineFactory.EMPTY_PASSWORD);
+
+        for (final Path path : new Path[]{columnar, xml}) {
+            e = EngineFactory.bootLocalEngine(path.toString(), EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+
+            assertNotNull(e);
+            e.setCreateBackups(false);
+
+            // a transaction found by UUID before its accounts are loaded must be the instance they load
+            final Transaction transaction = e.getTransactionByUuid(lunch.getUuid());
+            final Account account = e.getAccountByUuid(usdBankAccount.getUuid());
+
+            assertNotNull(transaction);
+            assertEquals(2, account.getTransactionCount());
+            assertSame(transaction, account.getTransactionAt(1));
+
+            assertEquals(expected, describe(e));
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        }
+    }
+
+    private static Map<String, List<String>> describe(final Engine engine) {
+        final Map<String, List<String>> accounts = new TreeMap<>();
+
+        for (final Account account : engine.getAccountList()) {
+            final List<String> transactions = new ArrayList<>();
+
+            for (final Transaction transaction : account.getSortedTransactionList()) {
+                final List<String> entries = new ArrayList<>();
+
+                for (final TransactionEntry entry : transaction.getTransactionEntries()) {
+                    String description = entry.getClass().getSimpleName() + ' ' + entry.getTransactionTag() + ' '
+                            + entry.getDebitAccount().getUuid() + ' ' + entry.getDebitAmount() + ' '
+                            + entry.getCreditAccount().getUuid() + ' ' + entry.getCreditAmount() + ' '
+                            + entry.getMemo();
+
+                    if (entry instanceof AbstractInvestmentTransactionEntry) {
+                        final AbstractInvestmentTransactionEntry investmentEntry
+                                = (AbstractInvestmentTransactionEntry) entry;
+
+                        description += ' ' + investmentEntry.getSecurityNode().getSymbol() + ' '
+                                + investmentEntry.getPrice() + ' ' + investmentEntry.getQuantity();
+                    }
+
+                    entries.add(description);
+                }
+
+                Collections.sort(entries);
+
+                transactions.add(transaction.getClass().getSimpleName() + ' ' + transaction.getUuid() + ' '
+                        + transaction.getLocalDate() + ' ' + transaction.getTimestamp() + ' '
+                        + transaction.getNumber() + ' ' + transaction.getPayee() + ' '
+                        + transaction.getTransactionMemo() + ' ' + entries);
+            }
+
+            accounts.put(account.getUuid() + " " + account.getName() + ' ' + account.getBalance(), transactions);
+        }
+
+        assertFalse(accounts.isEmpty());
+
+        return accounts;
+    }
+}
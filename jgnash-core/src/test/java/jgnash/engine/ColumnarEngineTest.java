@@ -0,0 +1,127 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Engine test for the columnar file format.
+ *
+ * @author Craig Cavanaugh
+ */
+public class ColumnarEngineTest extends EngineTest {
+
+    private static String tempFile;
+
+    @Override
+    public Engine createEngine() {
+        try {
+            testFile = Files.createTempFile("jgnash-", DataStoreType.COLUMNAR.getDataStore().getFileExt())
+                    .toString();
+
+            tempFile = testFile;
+
+        } catch (final IOException e1) {
+            Logger.getLogger(ColumnarEngineTest.class.getName()).log(Level.SEVERE, e1.getLocalizedMessage(), e1);
+        }
+
+        EngineFactory.deleteDatabase(testFile);
+
+        return EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.COLUMNAR);
+    }
+
+    @Test
+    void testSnapshotCopiesUnloadedAccounts() {
+        Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
+        assertNotNull(engine);
+
+        final Account unloaded = new Account(AccountType.BANK, engine.getDefaultCurrency());
+        unloaded.setName("Unloaded");
+        assertTrue(engine.addAccount(engine.getRootAccount(), unloaded));
+
+        final Account loaded = new Account(AccountType.BANK, engine.getDefaultCurrency());
+        loaded.setName("Loaded");
+        assertTrue(engine.addAccount(engine.getRootAccount(), loaded));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.addTransaction(TransactionFactory.generateSingleEntryTransaction(unloaded,
+                    new BigDecimal(i + 1), LocalDate.of(2018, 3, 5 - i), "memo", "payee", "")));
+        }
+
+        assertTrue(engine.addTransaction(TransactionFactory.generateDoubleEntryTransaction(unloaded, loaded,
+                BigDecimal.TEN, LocalDate.of(2018, 3, 10), "transfer", "payee", "")));
+
+        // identical date, number and timestamp, Transaction.compareTo orders these by amount
+        for (int i = 0; i < 2; i++) {
+            final Transaction tie = TransactionFactory.generateSingleEntryTransaction(unloaded, new BigDecimal(3 - i),
+                    LocalDate.of(2018, 3, 20), "tie", "payee", "");
+            tie.timestamp = 1000;
+
+            assertTrue(engine.addTransaction(tie));
+        }
+
+        final List<UUID> expected = unloaded.getSortedTransactionList().stream().map(Transaction::getUuid)
+                .collect(Collectors.toList());
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        engine = EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+        assertNotNull(engine);
+
+        // a single row is decoded without loading the account
+        assertEquals(expected.get(2), engine.getAccountByUuid(unloaded.getUuid()).getTransactionAt(2).getUuid());
+
+        // only the other account is loaded by the change, the snapshot written on close copies the remaining rows
+        assertTrue(engine.addTransaction(TransactionFactory.generateSingleEntryTransaction(
+                engine.getAccountByUuid(loaded.getUuid()), BigDecimal.ONE, LocalDate.of(2018, 3, 11), "memo",
+                "payee", "")));
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        engine = EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+        assertNotNull(engine);
+
+        // a row tied with its neighbour loads the account instead of guessing the order
+        assertEquals(expected.get(6), engine.getAccountByUuid(unloaded.getUuid()).getTransactionAt(6).getUuid());
+        assertEquals(expected.get(7), engine.getAccountByUuid(unloaded.getUuid()).getTransactionAt(7).getUuid());
+
+        assertEquals(expected, engine.getAccountByUuid(unloaded.getUuid()).getSortedTransactionList().stream()
+                .map(Transaction::getUuid).collect(Collectors.toList()));
+        assertEquals(2, engine.getAccountByUuid(loaded.getUuid()).getTransactionCount());
+    }
+
+    @AfterAll
+    static void cleanup() throws IOException {
+        Files.deleteIfExists(Paths.get(tempFile));
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.Objects;
 import java.util.Set;
 
@@ -87,6 +88,64 @@ class CommodityNodeTest {
         }
     }
 
+    @Test
+    void ExchangeHistoryTest() {
+        try {
+            final String database = testFolder.createFile("exchange-history-test.xml").getAbsolutePath();
+            EngineFactory.deleteDatabase(database);
+
+            Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                    DataStoreType.XML);
+
+            CurrencyNode usdNode = new CurrencyNode();
+            usdNode.setSymbol("USD");
+            usdNode.setPrefix("$");
+            usdNode.setDescription("US Dollar");
+            e.addCurrency(usdNode);
+
+            CurrencyNode cadNode = new CurrencyNode();
+            cadNode.setSymbol("CAD");
+            cadNode.setPrefix("$");
+            cadNode.setDescription("CAD Dollar");
+            e.addCurrency(cadNode);
+
+            // added out of order
+            e.setExchangeRate(usdNode, cadNode, new BigDecimal("1.300"), LocalDate.of(2018, 3, 1));
+            e.setExchangeRate(usdNode, cadNode, new BigDecimal("1.100"), LocalDate.of(2018, 1, 1));
+            e.setExchangeRate(usdNode, cadNode, new BigDecimal("1.250"), LocalDate.of(2018, 2, 1));
+
+            final ExchangeRate rate = e.getExchangeRate(usdNode, cadNode);
+
+            assertTrue(rate.contains(LocalDate.of(2018, 2, 1)));
+            assertFalse(rate.contains(LocalDate.of(2018, 2, 2)));
+            assertEquals(BigDecimal.ZERO, rate.getRate(LocalDate.of(2018, 2, 2)));
+            assertEquals(3, rate.getHistory().size());
+
+            assertEquals(new BigDecimal("1.300"), usdNode.getExchangeRate(cadNode));
+            assertEquals(new BigDecimal("1.100"), usdNode.getExchangeRate(cadNode, LocalDate.of(2017, 12, 1)));
+            assertEquals(new BigDecimal("1.100"), usdNode.getExchangeRate(cadNode, LocalDate.of(2018, 1, 31)));
+            assertEquals(new BigDecimal("1.250"), usdNode.getExchangeRate(cadNode, LocalDate.of(2018, 2, 1)));
+            assertEquals(new BigDecimal("1.300"), usdNode.getExchangeRate(cadNode, LocalDate.of(2019, 1, 1)));
+
+            assertEquals(0, new BigDecimal("0.8").compareTo(cadNode.getExchangeRate(usdNode, LocalDate.of(2018, 2, 15))));
+            assertEquals(0, BigDecimal.ONE.divide(new BigDecimal("1.300"), MathConstants.mathContext)
+                    .compareTo(cadNode.getExchangeRate(usdNode)));
+
+            // the index follows changes to the history
+            e.setExchangeRate(usdNode, cadNode, new BigDecimal("1.200"), LocalDate.of(2018, 2, 15));
+
+            assertEquals(new BigDecimal("1.200"), usdNode.getExchangeRate(cadNode, LocalDate.of(2018, 2, 20)));
+
+            e.removeExchangeRateHistory(rate, rate.getHistory(LocalDate.of(2018, 2, 15)));
+
+            assertEquals(new BigDecimal("1.250"), usdNode.getExchangeRate(cadNode, LocalDate.of(2018, 2, 20)));
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        } catch (final Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
     @Test
     void ExchangeTest2() {
         try {
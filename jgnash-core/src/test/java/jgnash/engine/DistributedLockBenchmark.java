@@ -0,0 +1,145 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import jgnash.engine.concurrent.DistributedLockManager;
+import jgnash.engine.concurrent.DistributedLockServer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the engine read throughput of several clients sharing a distributed lock server.
+ * <p>
+ * Every client read takes the engine data lock the way {@code Engine} does for a read, and one client occasionally
+ * writes so read leases are revoked and granted again.  Run with {@code -Djgnash.benchmark=true}.
+ *
+ * @author Craig Cavanaugh
+ */
+@EnabledIfSystemProperty(named = "jgnash.benchmark", matches = "true")
+class DistributedLockBenchmark {
+
+    private static final int PORT = DistributedLockTest.PORT + 10;
+
+    /**
+     * Name of the lock {@code Engine} takes for reads.
+     */
+    private static final String DATA_LOCK = "bigLock";
+
+    private static final int CLIENTS = 4;
+
+    private static final int THREADS_PER_CLIENT = 4;
+
+    private static final long DURATION_MILLIS = 10_000;
+
+    private static final long WRITE_INTERVAL_MILLIS = 100;
+
+    private static final Logger logger = Logger.getLogger(DistributedLockBenchmark.class.getName());
+
+    @Test
+    void engineReads() throws InterruptedException {
+        final DistributedLockServer server = new DistributedLockServer(PORT);
+        assertTrue(server.startServer(EngineFactory.EMPTY_PASSWORD));
+
+        final List<DistributedLockManager> managers = new ArrayList<>();
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(CLIENTS * THREADS_PER_CLIENT + 1);
+
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                final DistributedLockManager manager = new DistributedLockManager(EngineFactory.LOCALHOST, PORT);
+                assertTrue(manager.connectToServer(EngineFactory.EMPTY_PASSWORD));
+                managers.add(manager);
+            }
+
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final CountDownLatch start = new CountDownLatch(1);
+            final LongAdder reads = new LongAdder();
+            final LongAdder writes = new LongAdder();
+
+            for (final DistributedLockManager manager : managers) {
+                final ReentrantReadWriteLock dataLock = manager.getLock(DATA_LOCK);
+
+                for (int i = 0; i < THREADS_PER_CLIENT; i++) {
+                    executorService.submit(() -> {
+                        start.await();
+
+                        while (running.get()) {
+                            dataLock.readLock().lock();
+                            reads.increment();
+                            dataLock.readLock().unlock();
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            final ReentrantReadWriteLock writeLock = managers.get(0).getLock(DATA_LOCK);
+
+            executorService.submit(() -> {
+                start.await();
+
+                while (running.get()) {
+                    Thread.sleep(WRITE_INTERVAL_MILLIS);
+
+                    writeLock.writeLock().lock();
+                    writes.increment();
+                    writeLock.writeLock().unlock();
+                }
+                return null;
+            });
+
+            final long startTime = System.nanoTime();
+
+            start.countDown();
+            Thread.sleep(DURATION_MILLIS);
+            running.set(false);
+
+            executorService.shutdown();
+            assertTrue(executorService.awaitTermination(60, TimeUnit.SECONDS));
+
+            final double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+            logger.info(String.format("%d clients x %d threads: %.0f reads/s, %d writes", CLIENTS,
+                    THREADS_PER_CLIENT, reads.sum() / seconds, writes.sum()));
+
+            assertTrue(reads.sum() > 0);
+        } finally {
+            executorService.shutdownNow();
+
+            for (final DistributedLockManager manager : managers) {
+                manager.disconnectFromServer();
+            }
+
+            server.stopServer();
+        }
+    }
+}
@@ -30,12 +30,16 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -52,6 +56,8 @@ public class DistributedLockTest {
 
     DistributedLockManager manager;
 
+    char[] password = EngineFactory.EMPTY_PASSWORD;
+
     private static final Logger logger = Logger.getLogger(DistributedLockTest.class.getName());
 
     private final Random random = new Random();
@@ -293,4 +299,62 @@ public class DistributedLockTest {
 
         assertEquals(4, count);
     }
+
+    @Test
+    void leaseRevokedForWriter() throws InterruptedException {
+        final DistributedLockManager otherManager = new DistributedLockManager(EngineFactory.LOCALHOST, PORT);
+        assertTrue(otherManager.connectToServer(password));
+
+        try {
+            final ReadWriteLock lock = manager.getLock("lease");
+
+            // the lease is kept after the unlock
+            lock.readLock().lock();
+            lock.readLock().unlock();
+
+            final CountDownLatch written = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+
+            final Thread writer = new Thread(() -> {
+                final ReadWriteLock otherLock = otherManager.getLock("lease");
+
+                otherLock.writeLock().lock();
+
+                try {
+                    written.countDown();
+                    release.await();
+                } catch (final InterruptedException e) {
+                    logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+                } finally {
+                    otherLock.writeLock().unlock();
+                }
+            });
+
+            writer.start();
+
+            // the server revokes the idle lease for the waiting writer
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+
+            final AtomicBoolean read = new AtomicBoolean();
+
+            final Thread reader = new Thread(() -> {
+                lock.readLock().lock();
+                read.set(true);
+                lock.readLock().unlock();
+            });
+
+            reader.start();
+            reader.join(500);
+
+            assertFalse(read.get());
+
+            release.countDown();
+            reader.join(10000);
+            writer.join(10000);
+
+            assertTrue(read.get());
+        } finally {
+            otherManager.disconnectFromServer();
+        }
+    }
 }
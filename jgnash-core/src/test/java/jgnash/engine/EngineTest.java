@@ -29,6 +29,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import jgnash.engine.budget.Budget;
 import jgnash.engine.budget.BudgetGoal;
@@ -448,6 +452,90 @@ public abstract class EngineTest {
     }
 
 
+    @Test
+    void testAddSecurityHistoryCollection() {
+        final String SECURITY_SYMBOL = "GOOG";
+
+        SecurityNode securityNode = new SecurityNode(e.getDefaultCurrency());
+        securityNode.setSymbol(SECURITY_SYMBOL);
+        securityNode.setScale((byte) 2);
+
+        assertTrue(e.addSecurity(securityNode));
+
+        final LocalDate start = LocalDate.of(2018, 1, 1);
+
+        assertTrue(e.addSecurityHistory(securityNode, new SecurityHistoryNode(start, BigDecimal.ONE, 0,
+                BigDecimal.ONE, BigDecimal.ONE)));
+
+        final List<SecurityHistoryNode> historyNodes = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            final BigDecimal price = BigDecimal.valueOf(100 + i);
+            historyNodes.add(new SecurityHistoryNode(start.plusDays(i), price, 1000, price, price));
+        }
+
+        // a duplicate date, the last one is used
+        historyNodes.add(new SecurityHistoryNode(start.plusDays(10), BigDecimal.TEN, 1000, BigDecimal.TEN,
+                BigDecimal.TEN));
+
+        assertTrue(e.addSecurityHistory(securityNode, historyNodes));
+        assertEquals(100, securityNode.getHistoryNodes().size());
+
+        // adding the same history again does not change anything
+        assertTrue(e.addSecurityHistory(securityNode, historyNodes));
+        assertEquals(100, securityNode.getHistoryNodes().size());
+
+        // close and reopen to force check for persistence
+        closeEngine();
+
+        e = EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+
+        securityNode = e.getSecurity(SECURITY_SYMBOL);
+
+        assertNotNull(securityNode);
+        assertEquals(100, securityNode.getHistoryNodes().size());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(securityNode.getHistoryNode(start).get().getPrice()));
+        assertEquals(0, BigDecimal.TEN.compareTo(securityNode.getHistoryNode(start.plusDays(10)).get().getPrice()));
+        assertEquals(0, BigDecimal.valueOf(199).compareTo(securityNode.getClosestHistoryNode(start.plusYears(1))
+                .get().getPrice()));
+    }
+
+    @Test
+    void testSetExchangeRates() {
+        CurrencyNode usd = e.getCurrency("USD");
+        CurrencyNode cad = e.getCurrency("CAD");
+
+        final LocalDate start = LocalDate.of(2018, 1, 1);
+
+        e.setExchangeRate(usd, cad, new BigDecimal("1.5"), start);
+
+        final List<ExchangeRateHistoryNode> history = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            history.add(new ExchangeRateHistoryNode(start.plusDays(i), new BigDecimal("1.25")));
+        }
+
+        assertTrue(e.setExchangeRates(usd, cad, history));
+
+        // rates for the inverse pair are inverted
+        assertTrue(e.setExchangeRates(cad, usd, Collections.singletonList(
+                new ExchangeRateHistoryNode(start.plusDays(50), new BigDecimal("0.5")))));
+
+        // close and reopen to force check for persistence
+        closeEngine();
+
+        e = EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+
+        usd = e.getCurrency("USD");
+        cad = e.getCurrency("CAD");
+
+        final ExchangeRate rate = e.getExchangeRate(usd, cad);
+
+        assertEquals(51, rate.getHistory().size());
+        assertEquals(0, new BigDecimal("1.25").compareTo(usd.getExchangeRate(cad, start)));
+        assertEquals(0, new BigDecimal("2").compareTo(usd.getExchangeRate(cad)));
+    }
+
     @Disabled
     @Test
     void testSetDefaultCurrency() {
@@ -878,4 +966,131 @@ public abstract class EngineTest {
 
         assertEquals((size + 2), numbers2.size());
     }
+
+    @Test
+    void testTransactionWindow() {
+        final Account account = new Account(AccountType.BANK, e.getDefaultCurrency());
+        account.setName("Window");
+        assertTrue(e.addAccount(e.getRootAccount(), account));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(e.addTransaction(TransactionFactory.generateSingleEntryTransaction(account, BigDecimal.ONE,
+                    LocalDate.of(2018, 1, 10 - i), "memo", "payee", "")));
+        }
+
+        // reopen so a data store that loads lazily has to read the window
+        closeEngine();
+        e = EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+        assertNotNull(e);
+
+        final Account reopened = e.getAccountByUuid(account.getUuid());
+
+        final List<Transaction> window = e.getTransactions(reopened, 2, 3);
+
+        assertEquals(3, window.size());
+        assertEquals(LocalDate.of(2018, 1, 3), window.get(0).getLocalDate());
+        assertEquals(LocalDate.of(2018, 1, 5), window.get(2).getLocalDate());
+
+        assertEquals(10, reopened.getTransactionCount());
+        assertEquals(2, e.getTransactions(reopened, 8, 5).size());
+        assertTrue(e.getTransactions(reopened, 10, 5).isEmpty());
+
+        assertEquals(reopened.getSortedTransactionList().subList(2, 5), window);
+        assertEquals(window, e.getTransactions(reopened, 2, 3));
+    }
+
+    @Test
+    void testTransactionWindowTies() {
+        final Account account = new Account(AccountType.BANK, e.getDefaultCurrency());
+        account.setName("Ties");
+        assertTrue(e.addAccount(e.getRootAccount(), account));
+
+        // identical date, number, timestamp and amount, only the UUID orders the transactions
+        for (int i = 0; i < 7; i++) {
+            final Transaction transaction = TransactionFactory.generateSingleEntryTransaction(account,
+                    BigDecimal.TEN, LocalDate.of(2018, 2, 1), "memo", "payee", "");
+            transaction.timestamp = 1000;
+
+            assertTrue(e.addTransaction(transaction));
+        }
+
+        closeEngine();
+        e = EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+        assertNotNull(e);
+
+        final Account reopened = e.getAccountByUuid(account.getUuid());
+
+        // pages read before the account is loaded must neither skip nor repeat a transaction
+        final List<Transaction> pages = new ArrayList<>();
+
+        for (int first = 0; first < 7; first += 3) {
+            pages.addAll(e.getTransactions(reopened, first, 3));
+        }
+
+        assertEquals(reopened.getSortedTransactionList(), pages);
+    }
+
+    @Test
+    void testConcurrentTransactions() throws Exception {
+        final int threads = 4;
+        final int count = 20;
+
+        final Account shared = new Account(AccountType.BANK, e.getCurrency("CAD"));
+        shared.setName("Shared");
+        assertTrue(e.addAccount(e.getRootAccount(), shared));
+
+        final List<Account> accounts = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            final Account account = new Account(AccountType.BANK, e.getDefaultCurrency());
+            account.setName("Writer " + i);
+            assertTrue(e.addAccount(e.getRootAccount(), account));
+
+            accounts.add(account);
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        final List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (final Account account : accounts) {
+            futures.add(executorService.submit(() -> {
+                boolean result = true;
+
+                for (int i = 0; i < count; i++) {
+                    final LocalDate date = LocalDate.of(2018, 1, 1).plusDays(i);
+
+                    if (i % 2 == 0) {
+                        result &= e.addTransaction(TransactionFactory.generateSingleEntryTransaction(account,
+                                BigDecimal.ONE, date, "memo", "payee", ""));
+                    } else {    // sets a default exchange rate while other writers change their accounts
+                        result &= e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(shared,
+                                account, new BigDecimal("1.25"), BigDecimal.ONE.negate(), date, "memo", "payee",
+                                ""));
+                    }
+                }
+
+                return result;
+            }));
+        }
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        for (final Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+
+        assertNotNull(e.getExchangeRate(e.getDefaultCurrency(), e.getCurrency("CAD")));
+
+        closeEngine();
+        e = EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD);
+        assertNotNull(e);
+
+        // every change committed by the DAO while the others were writing must be in the file
+        for (final Account account : accounts) {
+            assertEquals(count, e.getAccountByUuid(account.getUuid()).getTransactionCount());
+        }
+
+        assertEquals(threads * count / 2, e.getAccountByUuid(shared.getUuid()).getTransactionCount());
+    }
 }
@@ -215,6 +215,51 @@ class InvestmentHistoryExchangeTest {
 
      }
 
+     @Test
+     void testHistoryIndex() {
+
+         // add out of order to exercise the sorted insert
+         for (int day = 20; day > 0; day -= 2) {
+             final SecurityHistoryNode node = new SecurityHistoryNode();
+             node.setDate(LocalDate.of(2014, 5, day));
+             node.setPrice(new BigDecimal(day));
+             assertTrue(e.addSecurityHistory(securityNode, node));
+         }
+
+         assertFalse(securityNode.getClosestHistoryNode(LocalDate.of(2014, 5, 1)).isPresent());
+         assertFalse(securityNode.getHistoryNode(LocalDate.of(2014, 5, 3)).isPresent());
+
+         assertEquals(new BigDecimal("2"), securityNode.getClosestHistoryNode(LocalDate.of(2014, 5, 3)).get().getPrice());
+         assertEquals(new BigDecimal("10"), securityNode.getHistoryNode(LocalDate.of(2014, 5, 10)).get().getPrice());
+         assertEquals(new BigDecimal("20"), securityNode.getClosestHistoryNode(LocalDate.of(2014, 6, 1)).get().getPrice());
+
+         assertTrue(e.removeSecurityHistory(securityNode, LocalDate.of(2014, 5, 10)));
+
+         assertFalse(securityNode.getHistoryNode(LocalDate.of(2014, 5, 10)).isPresent());
+         assertEquals(new BigDecimal("8"), securityNode.getClosestHistoryNode(LocalDate.of(2014, 5, 11)).get().getPrice());
+
+         // the account price index must follow transaction changes
+         final Transaction it = generateBuyXTransaction(usdBankAccount, investAccount, securityNode,
+                 new BigDecimal("9.50"), new BigDecimal("10"), BigDecimal.ONE, LocalDate.of(2014, 5, 11), "Buy shares",
+                 new ArrayList<>());
+
+         assertEquals(new BigDecimal("8"), Engine.getMarketPrice(investAccount.getSecurityPriceIndex(), securityNode,
+                 usdCurrency, LocalDate.of(2014, 5, 11)));
+
+         assertTrue(e.addTransaction(it));
+
+         assertEquals(new BigDecimal("9.50"), Engine.getMarketPrice(investAccount.getSecurityPriceIndex(),
+                 securityNode, usdCurrency, LocalDate.of(2014, 5, 11)));
+         assertEquals(Engine.getMarketPrice(investAccount.getSortedTransactionList(), securityNode, usdCurrency,
+                 LocalDate.of(2014, 5, 13)), Engine.getMarketPrice(investAccount.getSecurityPriceIndex(),
+                 securityNode, usdCurrency, LocalDate.of(2014, 5, 13)));
+
+         assertTrue(e.removeTransaction(it));
+
+         assertEquals(new BigDecimal("8"), Engine.getMarketPrice(investAccount.getSecurityPriceIndex(), securityNode,
+                 usdCurrency, LocalDate.of(2014, 5, 11)));
+     }
+
      @BeforeEach
      void setUp() {
          try {
@@ -0,0 +1,70 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jgnash.engine.jpa.JpaH2DataStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * H2 Relational database engine test with account transactions loaded lazily.
+ *
+ * @author Craig Cavanaugh
+ */
+public class JpaH2LazyEngineTest extends EngineTest {
+
+    private static final String LAZY_TRANSACTIONS = "jgnash.jpa.lazy";
+
+    @BeforeAll
+    static void enableLazyTransactions() {
+        System.setProperty(LAZY_TRANSACTIONS, Boolean.TRUE.toString());
+    }
+
+    @AfterAll
+    static void disableLazyTransactions() {
+        System.clearProperty(LAZY_TRANSACTIONS);
+    }
+
+    @Override
+    public Engine createEngine() {
+        try {
+            testFile = Files.createTempFile("jpa-lazy-test", JpaH2DataStore.FILE_EXT).toString();
+        } catch (final IOException ex) {
+            Logger.getLogger(JpaH2LazyEngineTest.class.getName()).log(Level.SEVERE, ex.getLocalizedMessage(), ex);
+            fail();
+        }
+
+        assertTrue(EngineFactory.deleteDatabase(testFile));
+
+        try {
+            return EngineFactory.bootLocalEngine(testFile, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                    DataStoreType.H2_DATABASE);
+        } catch (final Exception e) {
+            fail(e.getMessage());
+            return null;
+        }
+    }
+}
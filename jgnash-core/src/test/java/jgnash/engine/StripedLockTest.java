@@ -0,0 +1,108 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import jgnash.engine.concurrent.LocalLockManager;
+import jgnash.engine.concurrent.StripedLock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test to validate the striped lock.
+ *
+ * @author Craig Cavanaugh
+ */
+class StripedLockTest {
+
+    @Test
+    void testSharedKeyExcludes() throws InterruptedException {
+        final StripedLock lock = new StripedLock(new LocalLockManager(), "test", 4);
+
+        final UUID key = UUID.randomUUID();
+        final AtomicBoolean acquired = new AtomicBoolean();
+
+        final boolean[] locked = lock.lock(Collections.singleton(key));
+
+        final Thread thread = new Thread(() -> {
+            final boolean[] other = lock.lock(Arrays.asList(UUID.randomUUID(), key));
+            acquired.set(true);
+            lock.unlock(other);
+        });
+
+        thread.start();
+        thread.join(250);
+
+        assertFalse(acquired.get());
+
+        lock.unlock(locked);
+        thread.join(5000);
+
+        assertTrue(acquired.get());
+    }
+
+    @Test
+    void testOverlappingGroupsDoNotDeadlock() throws InterruptedException {
+        final StripedLock lock = new StripedLock(new LocalLockManager(), "test", 8);
+
+        final List<UUID> keys = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++) {
+            keys.add(UUID.randomUUID());
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 8; i++) {
+            executorService.submit(() -> {
+                final Random random = new Random();
+
+                for (int j = 0; j < 2000; j++) {
+                    final List<UUID> group = new ArrayList<>(keys);
+                    Collections.shuffle(group, random);
+
+                    final boolean[] locked = lock.lock(group.subList(0, 1 + random.nextInt(4)));
+                    lock.unlock(locked);
+                }
+            });
+        }
+
+        executorService.shutdown();
+
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedLock(new LocalLockManager(), "test", 3));
+    }
+}
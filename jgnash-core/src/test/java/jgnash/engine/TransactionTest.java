@@ -9,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -112,4 +113,213 @@ class TransactionTest {
         }
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testRunningBalance(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("running-balance-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        try {
+            Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                    DataStoreType.XML);
+
+            CurrencyNode defaultCurrency = DefaultCurrencies.buildCustomNode("USD");
+
+            e.addCurrency(defaultCurrency);
+            e.setDefaultCurrency(defaultCurrency);
+
+            Account usdBankAccount = new Account(AccountType.BANK, defaultCurrency);
+            usdBankAccount.setName("USD Bank Account");
+            e.addAccount(e.getRootAccount(), usdBankAccount);
+
+            final LocalDate today = LocalDate.now();
+
+            // add out of order to force insertion ahead of computed running balances
+            Transaction t1 = TransactionFactory.generateSingleEntryTransaction(usdBankAccount, new BigDecimal("10.00"),
+                    today.minusDays(10), "t1", "payee", "");
+            Transaction t3 = TransactionFactory.generateSingleEntryTransaction(usdBankAccount, new BigDecimal("30.00"),
+                    today.minusDays(5), "t3", "payee", "");
+
+            assertTrue(e.addTransaction(t1));
+            assertTrue(e.addTransaction(t3));
+
+            assertEquals(new BigDecimal("40.00"), usdBankAccount.getBalanceAt(t3));
+
+            Transaction t2 = TransactionFactory.generateSingleEntryTransaction(usdBankAccount, new BigDecimal("20.00"),
+                    today.minusDays(7), "t2", "payee", "");
+
+            assertTrue(e.addTransaction(t2));
+
+            assertEquals(1, usdBankAccount.indexOf(t2));
+            assertEquals(new BigDecimal("10.00"), usdBankAccount.getBalanceAt(t1));
+            assertEquals(new BigDecimal("30.00"), usdBankAccount.getBalanceAt(t2));
+            assertEquals(new BigDecimal("60.00"), usdBankAccount.getBalanceAt(t3));
+            assertEquals(new BigDecimal("60.00"), usdBankAccount.getBalance());
+
+            assertEquals(new BigDecimal("50.00"), usdBankAccount.getBalance(today.minusDays(7), today));
+            assertEquals(new BigDecimal("30.00"), usdBankAccount.getBalance(today.minusDays(7)));
+            assertEquals(BigDecimal.ZERO, usdBankAccount.getBalance(today.minusDays(4), today));
+            assertEquals(2, usdBankAccount.getTransactions(today.minusDays(10), today.minusDays(6)).size());
+
+            assertTrue(e.removeTransaction(t2));
+
+            assertEquals(-1, usdBankAccount.indexOf(t2));
+            assertEquals(new BigDecimal("40.00"), usdBankAccount.getBalanceAt(t3));
+            assertEquals(new BigDecimal("40.00"), usdBankAccount.getBalance());
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        } catch (final Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testAddTransactions(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("bulk-add-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        try {
+            Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                    DataStoreType.XML);
+
+            CurrencyNode defaultCurrency = DefaultCurrencies.buildCustomNode("USD");
+
+            e.addCurrency(defaultCurrency);
+            e.setDefaultCurrency(defaultCurrency);
+
+            Account usdBankAccount = new Account(AccountType.BANK, defaultCurrency);
+            usdBankAccount.setName("USD Bank Account");
+            e.addAccount(e.getRootAccount(), usdBankAccount);
+
+            Account expenseAccount = new Account(AccountType.EXPENSE, defaultCurrency);
+            expenseAccount.setName("Expense Account");
+            e.addAccount(e.getRootAccount(), expenseAccount);
+
+            final LocalDate today = LocalDate.now();
+
+            Transaction existing = TransactionFactory.generateSingleEntryTransaction(usdBankAccount,
+                    new BigDecimal("100.00"), today.minusDays(5), "existing", "payee", "");
+
+            assertTrue(e.addTransaction(existing));
+
+            Transaction t1 = TransactionFactory.generateDoubleEntryTransaction(expenseAccount, usdBankAccount,
+                    new BigDecimal("10.00"), today, "t1", "payee", "");
+            Transaction t2 = TransactionFactory.generateDoubleEntryTransaction(expenseAccount, usdBankAccount,
+                    new BigDecimal("20.00"), today.minusDays(10), "t2", "payee", "");
+            Transaction t3 = TransactionFactory.generateSingleEntryTransaction(usdBankAccount,
+                    new BigDecimal("5.00"), today.minusDays(2), "t3", "payee", "");
+
+            // a duplicate in the collection must prevent all transactions from being added
+            assertFalse(e.addTransactions(Arrays.asList(t1, t2, t1)));
+            assertEquals(1, usdBankAccount.getTransactionCount());
+
+            assertTrue(e.addTransactions(Arrays.asList(t1, t2, t3)));
+
+            assertEquals(4, usdBankAccount.getTransactionCount());
+            assertEquals(2, expenseAccount.getTransactionCount());
+
+            assertEquals(0, usdBankAccount.indexOf(t2));
+            assertEquals(1, usdBankAccount.indexOf(existing));
+            assertEquals(2, usdBankAccount.indexOf(t3));
+            assertEquals(3, usdBankAccount.indexOf(t1));
+
+            assertEquals(new BigDecimal("75.00"), usdBankAccount.getBalance());
+            assertEquals(new BigDecimal("30.00"), expenseAccount.getBalance());
+            assertEquals(new BigDecimal("-20.00"), usdBankAccount.getBalanceAt(t2));
+            assertEquals(new BigDecimal("80.00"), usdBankAccount.getBalanceAt(existing));
+            assertEquals(new BigDecimal("85.00"), usdBankAccount.getBalanceAt(t3));
+
+            assertNotNull(e.getTransactionByUuid(t3.getUuid()));
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        } catch (final Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testTreeBalance(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("tree-balance-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        try {
+            Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                    DataStoreType.XML);
+
+            CurrencyNode usdCurrency = DefaultCurrencies.buildCustomNode("USD");
+            CurrencyNode cadCurrency = DefaultCurrencies.buildCustomNode("CAD");
+
+            e.addCurrency(usdCurrency);
+            e.addCurrency(cadCurrency);
+            e.setDefaultCurrency(usdCurrency);
+            e.setExchangeRate(cadCurrency, usdCurrency, new BigDecimal("0.5"));
+
+            Account bankAccount = new Account(AccountType.BANK, usdCurrency);
+            bankAccount.setName("Bank");
+            e.addAccount(e.getRootAccount(), bankAccount);
+
+            Account expenseAccount = new Account(AccountType.EXPENSE, usdCurrency);
+            expenseAccount.setName("Expense");
+            e.addAccount(e.getRootAccount(), expenseAccount);
+
+            Account foodAccount = new Account(AccountType.EXPENSE, usdCurrency);
+            foodAccount.setName("Food");
+            e.addAccount(expenseAccount, foodAccount);
+
+            Account travelAccount = new Account(AccountType.EXPENSE, cadCurrency);
+            travelAccount.setName("Travel");
+            e.addAccount(expenseAccount, travelAccount);
+
+            final LocalDate start = LocalDate.of(2018, 1, 1);
+
+            assertTrue(e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(foodAccount, bankAccount,
+                    new BigDecimal("10.00"), start, "t1", "payee", "")));
+            assertTrue(e.addTransaction(TransactionFactory.generateSingleEntryTransaction(travelAccount,
+                    new BigDecimal("40.00"), start.plusMonths(1), "t2", "payee", "")));
+
+            // builds the index
+            assertEquals(0, new BigDecimal("30.00").compareTo(expenseAccount.getTreeBalance(start,
+                    start.plusMonths(2), usdCurrency)));
+            assertEquals(0, new BigDecimal("10.00").compareTo(expenseAccount.getTreeBalance(start, start,
+                    usdCurrency)));
+
+            // maintained incrementally
+            Transaction t3 = TransactionFactory.generateDoubleEntryTransaction(foodAccount, bankAccount,
+                    new BigDecimal("5.00"), start.plusDays(1), "t3", "payee", "");
+            assertTrue(e.addTransaction(t3));
+
+            assertEquals(0, new BigDecimal("15.00").compareTo(expenseAccount.getTreeBalance(start,
+                    start.plusDays(1), usdCurrency)));
+            assertEquals(0, new BigDecimal("35.00").compareTo(expenseAccount.getTreeBalance(start.plusMonths(2),
+                    usdCurrency)));
+            assertEquals(0, new BigDecimal("70.00").compareTo(expenseAccount.getTreeBalance(start,
+                    start.plusMonths(2), cadCurrency)));
+            assertEquals(0, new BigDecimal("15.00").compareTo(expenseAccount.getTreeBalance(start,
+                    start.plusDays(20))));
+
+            assertTrue(e.removeTransaction(t3));
+
+            assertEquals(0, new BigDecimal("10.00").compareTo(expenseAccount.getTreeBalance(start,
+                    start.plusDays(1), usdCurrency)));
+
+            // moving an account changes the tree
+            assertTrue(e.moveAccount(travelAccount, e.getRootAccount()));
+
+            assertEquals(0, new BigDecimal("10.00").compareTo(expenseAccount.getTreeBalance(start,
+                    start.plusMonths(2), usdCurrency)));
+            assertEquals(0, new BigDecimal("20.00").compareTo(travelAccount.getTreeBalance(start,
+                    start.plusMonths(2), usdCurrency)));
+            assertEquals(0, BigDecimal.ZERO.compareTo(expenseAccount.getTreeBalance(start.plusDays(2),
+                    start.plusMonths(2), usdCurrency)));
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        } catch (final Exception e) {
+            fail(e.getMessage());
+        }
+    }
 }
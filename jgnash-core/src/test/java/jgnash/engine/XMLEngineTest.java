@@ -18,18 +18,30 @@
 package jgnash.engine;
 
 import jgnash.engine.xstream.UUIDConverter;
+import jgnash.engine.xstream.XMLDataStore;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JUnit test for XML storage with the Engine API.
@@ -73,4 +85,89 @@ public class XMLEngineTest extends EngineTest {
 
         assertNotNull(UUID.fromString(goodUUID));
     }
+
+    @Test
+    void testCompressedXML() throws IOException {
+        final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
+        assertNotNull(engine);
+
+        final Account account = new Account(AccountType.BANK, engine.getDefaultCurrency());
+        account.setName("Compressed Backup");
+        assertTrue(engine.addAccount(engine.getRootAccount(), account));
+
+        final Path zipFile = Files.createTempFile("test", ".zip");
+        final Path xmlFile = Files.createTempFile("test", DataStoreType.XML.getDataStore().getFileExt());
+
+        try {
+            assertTrue(XMLDataStore.saveAsCompressed(zipFile, "test.xml", engine.getStoredObjects()));
+
+            try (final ZipInputStream in = new ZipInputStream(Files.newInputStream(zipFile))) {
+                final ZipEntry entry = in.getNextEntry();
+
+                assertNotNull(entry);
+                assertEquals("test.xml", entry.getName());
+
+                Files.copy(in, xmlFile, StandardCopyOption.REPLACE_EXISTING);
+
+                assertNull(in.getNextEntry());
+            }
+
+            final String xml = new String(Files.readAllBytes(xmlFile), StandardCharsets.UTF_8);
+
+            assertTrue(xml.contains("Compressed Backup"));
+            assertTrue(xml.trim().endsWith("</object-stream>"));
+
+            assertEquals(Engine.CURRENT_VERSION, XMLDataStore.getFileVersion(xmlFile), .001f);
+        } finally {
+            Files.deleteIfExists(zipFile);
+            Files.deleteIfExists(xmlFile);
+        }
+    }
+
+    @Test
+    void testIncrementalBackup() throws IOException {
+        final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
+        assertNotNull(engine);
+
+        final Account removedAccount = new Account(AccountType.BANK, engine.getDefaultCurrency());
+        removedAccount.setName("Removed Account");
+        assertTrue(engine.addAccount(engine.getRootAccount(), removedAccount));
+
+        final Path directory = Files.createTempDirectory("backup");
+        final Path destination = directory.resolve("restored" + DataStoreType.XML.getDataStore().getFileExt());
+
+        try {
+            final Path backup = EngineFactory.exportCompressedXML(directory.resolve("server.xml").toString(),
+                    engine.getStoredObjects());
+            assertNotNull(backup);
+
+            final Account addedAccount = new Account(AccountType.BANK, engine.getDefaultCurrency());
+            addedAccount.setName("Added Account");
+            assertTrue(engine.addAccount(engine.getRootAccount(), addedAccount));
+            assertTrue(engine.removeAccount(removedAccount));
+
+            assertTrue(EngineFactory.exportIncrementalXML(backup, 1,
+                    Arrays.asList(addedAccount, engine.getRootAccount()),
+                    Collections.singletonList(removedAccount.getUuid())));
+
+            assertEquals(1, EngineFactory.getIncrementalXML(backup).size());
+
+            assertTrue(EngineFactory.restoreCompressedXML(backup, destination));
+
+            final String xml = new String(Files.readAllBytes(destination), StandardCharsets.UTF_8);
+
+            assertTrue(xml.contains("Added Account"));
+            assertFalse(xml.contains("Removed Account"));
+
+            assertEquals(Engine.CURRENT_VERSION, XMLDataStore.getFileVersion(destination), .001f);
+        } finally {
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (final Path path : stream) {
+                    Files.delete(path);
+                }
+            }
+
+            Files.delete(directory);
+        }
+    }
 }
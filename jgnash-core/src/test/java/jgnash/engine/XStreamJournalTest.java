@@ -0,0 +1,157 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Journal replay test for the XStream data stores.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class XStreamJournalTest {
+
+    private static final String ACCOUNT_NAME = "Journal Account";
+
+    @Test
+    void testBinaryReplay(final TemporaryFolder testFolder) throws IOException {
+        testReplay(testFolder, "journal-test.bxds", "journal-crash.bxds", DataStoreType.BINARY_XSTREAM);
+    }
+
+    @Test
+    void testColumnarReplay(final TemporaryFolder testFolder) throws IOException {
+        testReplay(testFolder, "journal-test.jgc", "journal-crash.jgc", DataStoreType.COLUMNAR);
+    }
+
+    @Test
+    void testXMLReplay(final TemporaryFolder testFolder) throws IOException {
+        testReplay(testFolder, "journal-test.xml", "journal-crash.xml", DataStoreType.XML);
+    }
+
+    private static void testReplay(final TemporaryFolder testFolder, final String fileName, final String crashFileName,
+                                   final DataStoreType type) throws IOException {
+
+        final Path database = testFolder.createFile(fileName).toPath();
+        final Path crashed = database.resolveSibling(crashFileName);
+
+        EngineFactory.deleteDatabase(database.toString());
+
+        Engine e = EngineFactory.bootLocalEngine(database.toString(), EngineFactory.DEFAULT,
+                EngineFactory.EMPTY_PASSWORD, type);
+
+        assertNotNull(e);
+        e.setCreateBackups(false);
+
+        CurrencyNode defaultCurrency = DefaultCurrencies.buildCustomNode("USD");
+
+        e.addCurrency(defaultCurrency);
+        e.setDefaultCurrency(defaultCurrency);
+
+        Account account = new Account(AccountType.BANK, defaultCurrency);
+        account.setName(ACCOUNT_NAME);
+        e.addAccount(e.getRootAccount(), account);
+
+        // a clean close writes the snapshot and leaves no journal behind
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        assertTrue(getJournalSegments(database).isEmpty());
+
+        e = EngineFactory.bootLocalEngine(database.toString(), EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                type);
+
+        assertNotNull(e);
+        e.setCreateBackups(false);
+
+        account = e.getAccountByName(ACCOUNT_NAME);
+
+        final LocalDate today = LocalDate.now();
+
+        final Transaction t1 = TransactionFactory.generateSingleEntryTransaction(account, new BigDecimal("10.00"),
+                today.minusDays(2), "t1", "payee", "");
+        final Transaction t2 = TransactionFactory.generateSingleEntryTransaction(account, new BigDecimal("20.00"),
+                today.minusDays(1), "t2", "payee", "");
+
+        assertTrue(e.addTransaction(t1));
+        assertTrue(e.addTransaction(t2));
+        assertTrue(e.removeTransaction(t1));
+
+        final Account template = new Account(AccountType.BANK, e.getDefaultCurrency());
+        template.setName(ACCOUNT_NAME + " Renamed");
+
+        assertTrue(e.modifyAccount(template, account));
+
+        assertFalse(getJournalSegments(database).isEmpty());
+
+        // copy the snapshot and journal while the engine is still running to simulate a crash
+        Files.copy(database, crashed);
+
+        for (final Path segment : getJournalSegments(database)) {
+            Files.copy(segment, crashed.resolveSibling(segment.getFileName().toString()
+                    .replace(database.getFileName().toString(), crashed.getFileName().toString())));
+        }
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        e = EngineFactory.bootLocalEngine(crashed.toString(), EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                type);
+
+        assertNotNull(e);
+        e.setCreateBackups(false);
+
+        account = e.getAccountByName(ACCOUNT_NAME + " Renamed");
+
+        assertNotNull(account);
+        assertEquals(1, account.getTransactionCount());
+        assertEquals(t2, account.getTransactionAt(0));
+        assertEquals(new BigDecimal("20.00"), account.getBalance());
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        assertTrue(getJournalSegments(crashed).isEmpty());
+    }
+
+    private static List<Path> getJournalSegments(final Path database) throws IOException {
+        final List<Path> segments = new ArrayList<>();
+        final String prefix = database.getFileName().toString() + ".journal.";
+
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(database.toAbsolutePath().getParent(),
+                p -> p.getFileName().toString().startsWith(prefix))) {
+            stream.forEach(segments::add);
+        }
+
+        return segments;
+    }
+}
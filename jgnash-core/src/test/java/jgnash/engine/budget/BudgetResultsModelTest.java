@@ -0,0 +1,227 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.budget;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jgnash.engine.Account;
+import jgnash.engine.AccountGroup;
+import jgnash.engine.AccountType;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.engine.Transaction;
+import jgnash.engine.TransactionFactory;
+import jgnash.time.Period;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit test class for {@code BudgetResultsModel} caching.
+ *
+ * @author Craig Cavanaugh
+ */
+class BudgetResultsModelTest {
+
+    @Test
+    void testTransactionUpdates() throws Exception {
+
+        final String file = Files.createTempFile("budget-",
+                DataStoreType.XML.getDataStore().getFileExt()).toString();
+
+        EngineFactory.deleteDatabase(file);
+
+        Engine e = EngineFactory.bootLocalEngine(file, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+        e.setCreateBackups(false);
+
+        CurrencyNode node = e.getDefaultCurrency();
+
+        Account bankAccount = new Account(AccountType.BANK, node);
+        bankAccount.setName("Bank");
+        e.addAccount(e.getRootAccount(), bankAccount);
+
+        Account foodAccount = new Account(AccountType.EXPENSE, node);
+        foodAccount.setName("Food");
+        e.addAccount(e.getRootAccount(), foodAccount);
+
+        Account groceryAccount = new Account(AccountType.EXPENSE, node);
+        groceryAccount.setName("Groceries");
+        e.addAccount(foodAccount, groceryAccount);
+
+        Budget budget = new Budget();
+        budget.setName("My Budget");
+        budget.setBudgetPeriod(Period.MONTHLY);
+
+        assertTrue(e.addBudget(budget));
+
+        final BudgetResultsModel model = new BudgetResultsModel(budget, 2018, node, false);
+        final BudgetResultsModel runningModel = new BudgetResultsModel(budget, 2018, node, true);
+
+        final List<BudgetPeriodDescriptor> descriptors = model.getDescriptorList();
+
+        final BudgetPeriodDescriptor january = descriptors.get(0);
+        final BudgetPeriodDescriptor march = descriptors.get(2);
+        final BudgetPeriodDescriptor december = descriptors.get(descriptors.size() - 1);
+
+        // cache the results
+        final BudgetPeriodResults januaryResults = model.getResults(january, foodAccount);
+
+        model.getResults(march, foodAccount);
+        model.getResults(march, AccountGroup.EXPENSE);
+        model.getResults(foodAccount);
+
+        for (final BudgetPeriodDescriptor descriptor : descriptors) {
+            runningModel.getResults(descriptor, foodAccount);
+        }
+
+        final Transaction transaction = TransactionFactory.generateDoubleEntryTransaction(groceryAccount,
+                bankAccount, new BigDecimal("25.00"), LocalDate.of(2018, 3, 10), "memo", "payee", "");
+
+        assertTrue(e.addTransaction(transaction));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() ->
+                model.getResults(march, foodAccount).getChange().compareTo(new BigDecimal("25.00")) == 0
+                        && runningModel.getResults(december, foodAccount).getChange()
+                        .compareTo(new BigDecimal("25.00")) == 0);
+
+        // periods that do not include the transaction are left alone
+        assertSame(januaryResults, model.getResults(january, foodAccount));
+
+        assertEquals(new BigDecimal("-25.00"), model.getResults(march, foodAccount).getRemaining());
+        assertEquals(new BigDecimal("25.00"), model.getResults(march, AccountGroup.EXPENSE).getChange());
+        assertEquals(new BigDecimal("25.00"), model.getResults(foodAccount).getChange());
+
+        // the adjusted results must match freshly built results
+        final BudgetResultsModel freshModel = new BudgetResultsModel(budget, 2018, node, true);
+
+        for (final BudgetPeriodDescriptor descriptor : descriptors) {
+            final BudgetPeriodResults expected = freshModel.getResults(descriptor, foodAccount);
+            final BudgetPeriodResults actual = runningModel.getResults(descriptor, foodAccount);
+
+            assertEquals(expected.getChange(), actual.getChange());
+            assertEquals(expected.getRemaining(), actual.getRemaining());
+        }
+
+        assertTrue(e.removeTransaction(transaction));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() ->
+                model.getResults(march, foodAccount).getChange().signum() == 0);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(model.getResults(march, AccountGroup.EXPENSE).getChange()));
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        Files.deleteIfExists(Paths.get(file));
+    }
+
+    @Test
+    void testLoadResults() throws Exception {
+
+        final String file = Files.createTempFile("budget-",
+                DataStoreType.XML.getDataStore().getFileExt()).toString();
+
+        EngineFactory.deleteDatabase(file);
+
+        Engine e = EngineFactory.bootLocalEngine(file, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+        e.setCreateBackups(false);
+
+        CurrencyNode node = e.getDefaultCurrency();
+
+        Account bankAccount = new Account(AccountType.BANK, node);
+        bankAccount.setName("Bank");
+        e.addAccount(e.getRootAccount(), bankAccount);
+
+        Account incomeAccount = new Account(AccountType.INCOME, node);
+        incomeAccount.setName("Salary");
+        e.addAccount(e.getRootAccount(), incomeAccount);
+
+        Account foodAccount = new Account(AccountType.EXPENSE, node);
+        foodAccount.setName("Food");
+        e.addAccount(e.getRootAccount(), foodAccount);
+
+        Account groceryAccount = new Account(AccountType.EXPENSE, node);
+        groceryAccount.setName("Groceries");
+        e.addAccount(foodAccount, groceryAccount);
+
+        Account diningAccount = new Account(AccountType.EXPENSE, node);
+        diningAccount.setName("Dining");
+        e.addAccount(foodAccount, diningAccount);
+
+        for (int month = 1; month <= 12; month++) {
+            assertTrue(e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(bankAccount, incomeAccount,
+                    new BigDecimal("1000.00"), LocalDate.of(2018, month, 1), "memo", "payee", "")));
+
+            assertTrue(e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(groceryAccount,
+                    bankAccount, new BigDecimal(month + ".25"), LocalDate.of(2018, month, 5), "memo", "payee", "")));
+
+            assertTrue(e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(diningAccount,
+                    bankAccount, new BigDecimal("12.50"), LocalDate.of(2018, month, 20), "memo", "payee", "")));
+        }
+
+        Budget budget = new Budget();
+        budget.setName("My Budget");
+        budget.setBudgetPeriod(Period.MONTHLY);
+
+        assertTrue(e.addBudget(budget));
+
+        for (final boolean runningTotals : new boolean[]{false, true}) {
+            final BudgetResultsModel loadedModel = new BudgetResultsModel(budget, 2018, node, runningTotals);
+            final BudgetResultsModel lazyModel = new BudgetResultsModel(budget, 2018, node, runningTotals);
+
+            loadedModel.loadResults();
+
+            for (final BudgetPeriodDescriptor descriptor : loadedModel.getDescriptorList()) {
+                for (final Account account : loadedModel.getAccounts()) {
+                    assertResultsEquals(lazyModel.getResults(descriptor, account),
+                            loadedModel.getResults(descriptor, account));
+                }
+
+                for (final AccountGroup group : loadedModel.getAccountGroupList()) {
+                    assertResultsEquals(lazyModel.getResults(descriptor, group),
+                            loadedModel.getResults(descriptor, group));
+                }
+            }
+
+            assertResultsEquals(lazyModel.getResults(foodAccount), loadedModel.getResults(foodAccount));
+            assertResultsEquals(lazyModel.getResults(AccountGroup.EXPENSE),
+                    loadedModel.getResults(AccountGroup.EXPENSE));
+        }
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        Files.deleteIfExists(Paths.get(file));
+    }
+
+    private static void assertResultsEquals(final BudgetPeriodResults expected, final BudgetPeriodResults actual) {
+        assertEquals(expected.getBudgeted(), actual.getBudgeted());
+        assertEquals(expected.getChange(), actual.getChange());
+        assertEquals(expected.getRemaining(), actual.getRemaining());
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.jpa;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import jgnash.engine.Account;
+import jgnash.engine.AccountType;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.engine.TransactionFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures transaction inserts per second and date range query latency of the relational data stores.
+ * <p>
+ * Inserts are measured with JDBC batching disabled and enabled, queries with and without the transaction date
+ * index.  Run with {@code -Djgnash.benchmark=true}.
+ *
+ * @author Craig Cavanaugh
+ */
+@EnabledIfSystemProperty(named = "jgnash.benchmark", matches = "true")
+class JpaWriteBenchmark {
+
+    private static final String BATCH_SIZE = "hibernate.jdbc.batch_size";
+
+    private static final int TRANSACTIONS = 2_000;
+
+    private static final int QUERIES = 200;
+
+    private static final LocalDate START_DATE = LocalDate.of(2010, 1, 1);
+
+    private static final String DATE_RANGE_QUERY = "SELECT T.UUID FROM TRANSACT T JOIN STOREDOBJECT S"
+            + " ON S.UUID = T.UUID WHERE T.\"DATE\" BETWEEN ? AND ? AND S.MARKEDFORREMOVAL = FALSE";
+
+    private static final Logger logger = Logger.getLogger(JpaWriteBenchmark.class.getName());
+
+    @Test
+    void h2() throws Exception {
+        benchmark(DataStoreType.H2_DATABASE);
+    }
+
+    @Test
+    void h2mv() throws Exception {
+        benchmark(DataStoreType.H2MV_DATABASE);
+    }
+
+    @Test
+    void hsql() throws Exception {
+        benchmark(DataStoreType.HSQL_DATABASE);
+    }
+
+    private static void benchmark(final DataStoreType dataStoreType) throws Exception {
+        final String unbatchedFile = createDatabase(dataStoreType, "1");
+        final String batchedFile = createDatabase(dataStoreType, "50");
+
+        try {
+            final Properties properties = JpaConfiguration.getLocalProperties(dataStoreType, batchedFile,
+                    EngineFactory.EMPTY_PASSWORD, false);
+
+            try (final Connection connection = DriverManager.getConnection(
+                    properties.getProperty(JpaConfiguration.JAVAX_PERSISTENCE_JDBC_URL))) {
+
+                final double indexed = queryLatency(connection);
+
+                try (final Statement statement = connection.createStatement()) {
+                    statement.execute("DROP INDEX TRANSACT_DATE_IDX");
+                }
+
+                final double unindexed = queryLatency(connection);
+
+                logger.info(String.format("%s: date range query %.3f ms indexed, %.3f ms without the index",
+                        dataStoreType, indexed, unindexed));
+
+                try (final Statement statement = connection.createStatement()) {
+                    statement.execute("SHUTDOWN");
+                }
+            }
+        } finally {
+            EngineFactory.deleteDatabase(unbatchedFile);
+            EngineFactory.deleteDatabase(batchedFile);
+        }
+    }
+
+    /**
+     * Creates a database of {@code TRANSACTIONS} transactions and logs the insert rate.
+     *
+     * @return the database file
+     */
+    private static String createDatabase(final DataStoreType dataStoreType, final String batchSize)
+            throws Exception {
+        final String file = Files.createTempFile("jpa-benchmark", dataStoreType.getDataStore().getFileExt())
+                .toString();
+
+        assertTrue(EngineFactory.deleteDatabase(file));
+
+        // the base JPA properties are the system properties, so this overrides persistence.xml
+        System.setProperty(BATCH_SIZE, batchSize);
+
+        try {
+            final Engine engine = EngineFactory.bootLocalEngine(file, EngineFactory.DEFAULT,
+                    EngineFactory.EMPTY_PASSWORD, dataStoreType);
+            assertNotNull(engine);
+
+            engine.setCreateBackups(false);
+
+            final Account bankAccount = new Account(AccountType.BANK, engine.getDefaultCurrency());
+            bankAccount.setName("Bank");
+            assertTrue(engine.addAccount(engine.getRootAccount(), bankAccount));
+
+            final Account expenseAccount = new Account(AccountType.EXPENSE, engine.getDefaultCurrency());
+            expenseAccount.setName("Expense");
+            assertTrue(engine.addAccount(engine.getRootAccount(), expenseAccount));
+
+            final long startTime = System.nanoTime();
+
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                assertTrue(engine.addTransaction(TransactionFactory.generateDoubleEntryTransaction(expenseAccount,
+                        bankAccount, BigDecimal.TEN, START_DATE.plusDays(i), "memo", "payee", "")));
+            }
+
+            final double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+            logger.info(String.format("%s: batch size %s, %.0f inserts/s", dataStoreType, batchSize,
+                    TRANSACTIONS / seconds));
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        } finally {
+            System.clearProperty(BATCH_SIZE);
+        }
+
+        return file;
+    }
+
+    /**
+     * Returns the average latency in milliseconds of a one month date range query.
+     */
+    private static double queryLatency(final Connection connection) throws SQLException {
+        long rows = 0;
+
+        final long startTime = System.nanoTime();
+
+        try (final PreparedStatement statement = connection.prepareStatement(DATE_RANGE_QUERY)) {
+            for (int i = 0; i < QUERIES; i++) {
+                final LocalDate start = START_DATE.plusDays(i * TRANSACTIONS / QUERIES);
+
+                statement.setDate(1, Date.valueOf(start));
+                statement.setDate(2, Date.valueOf(start.plusMonths(1)));
+
+                try (final ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows++;
+                    }
+                }
+            }
+        }
+
+        assertTrue(rows > 0);
+
+        return (System.nanoTime() - startTime) / 1_000_000.0 / QUERIES;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.message;
+
+import jgnash.engine.Account;
+import jgnash.engine.AccountType;
+import jgnash.engine.Config;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.Transaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test for coalesced message delivery.
+ *
+ * @author Craig Cavanaugh
+ */
+class MessageBusTest {
+
+    private static final String SOURCE = UUID.randomUUID().toString();
+
+    @Test
+    void testCoalescedDelivery() {
+        final MessageBus messageBus = MessageBus.getInstance("coalescing-" + SOURCE);
+
+        final List<List<Message>> batches = new CopyOnWriteArrayList<>();
+        final List<Message> messages = new CopyOnWriteArrayList<>();
+
+        final MessageListener listener = new MessageListener() {
+            @Override
+            public void messagePosted(final Message message) {
+                messages.add(message);
+            }
+
+            @Override
+            public void messagesPosted(final List<Message> messageList) {
+                batches.add(new ArrayList<>(messageList));
+            }
+        };
+
+        messageBus.registerListener(listener, MessageChannel.COMMODITY);
+        messageBus.registerCoalescingListener(listener, 200, MessageChannel.CONFIG);
+
+        final Config config = new Config();
+        final Config otherConfig = new Config();
+
+        final Message first = new Message(MessageChannel.CONFIG, ChannelEvent.CONFIG_MODIFY, SOURCE);
+        first.setObject(MessageProperty.CONFIG, config);
+
+        final Message duplicate = new Message(MessageChannel.CONFIG, ChannelEvent.CONFIG_MODIFY, SOURCE);
+        duplicate.setObject(MessageProperty.CONFIG, config);
+
+        final Message other = new Message(MessageChannel.CONFIG, ChannelEvent.CONFIG_MODIFY, SOURCE);
+        other.setObject(MessageProperty.CONFIG, otherConfig);
+
+        final Message commodity = new Message(MessageChannel.COMMODITY, ChannelEvent.CURRENCY_ADD, SOURCE);
+        commodity.setObject(MessageProperty.COMMODITY, new CurrencyNode());
+
+        messageBus.fireEvent(first);
+        messageBus.fireEvent(duplicate);
+        messageBus.fireEvent(commodity);
+        messageBus.fireEvent(other);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> batches.size() == 1);
+
+        // the duplicate is dropped and the order is kept
+        assertEquals(Arrays.asList(first, other), batches.get(0));
+
+        // channels that are not coalesced are delivered directly
+        assertEquals(Arrays.asList(commodity), messages);
+
+        assertEquals(3, messageBus.getDeliveredCount());
+        assertEquals(1, messageBus.getCoalescedCount());
+        assertEquals(0, messageBus.getQueueDepth());
+
+        // no longer coalesced after the listener is removed
+        messageBus.unregisterListener(listener, MessageChannel.CONFIG, MessageChannel.COMMODITY);
+        messageBus.fireEvent(first);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> messageBus.getQueueDepth() == 0);
+
+        assertEquals(1, batches.size());
+        assertEquals(1, messages.size());
+    }
+
+    @Test
+    void testCoalescedAccountTransactions() {
+        final MessageBus messageBus = MessageBus.getInstance("coalescing-account-" + SOURCE);
+
+        final List<List<Message>> batches = new CopyOnWriteArrayList<>();
+
+        final MessageListener listener = new MessageListener() {
+            @Override
+            public void messagePosted(final Message message) {
+            }
+
+            @Override
+            public void messagesPosted(final List<Message> messageList) {
+                batches.add(new ArrayList<>(messageList));
+            }
+        };
+
+        messageBus.registerCoalescingListener(listener, 250, MessageChannel.TRANSACTION);
+
+        final CurrencyNode currencyNode = new CurrencyNode();
+        final Account account = new Account(AccountType.BANK, currencyNode);
+        final Account otherAccount = new Account(AccountType.BANK, currencyNode);
+
+        final List<Message> accountMessages = new ArrayList<>();
+
+        // several transactions of one account within the window
+        for (int i = 0; i < 4; i++) {
+            final Message message = new Message(MessageChannel.TRANSACTION, ChannelEvent.TRANSACTION_ADD, SOURCE);
+            message.setObject(MessageProperty.ACCOUNT, account);
+            message.setObject(MessageProperty.TRANSACTION, new Transaction());
+
+            accountMessages.add(message);
+        }
+
+        final Message other = new Message(MessageChannel.TRANSACTION, ChannelEvent.TRANSACTION_ADD, SOURCE);
+        other.setObject(MessageProperty.ACCOUNT, otherAccount);
+        other.setObject(MessageProperty.TRANSACTION, new Transaction());
+
+        final Message remove = new Message(MessageChannel.TRANSACTION, ChannelEvent.TRANSACTION_REMOVE, SOURCE);
+        remove.setObject(MessageProperty.ACCOUNT, account);
+        remove.setObject(MessageProperty.TRANSACTION, new Transaction());
+
+        accountMessages.forEach(messageBus::fireEvent);
+        messageBus.fireEvent(other);
+        messageBus.fireEvent(remove);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> batches.size() == 1);
+
+        // one message per account and event
+        assertEquals(Arrays.asList(accountMessages.get(0), other, remove), batches.get(0));
+
+        assertEquals(3, messageBus.getDeliveredCount());
+        assertEquals(3, messageBus.getCoalescedCount());
+        assertEquals(0, messageBus.getQueueDepth());
+
+        messageBus.unregisterListener(listener, MessageChannel.TRANSACTION);
+    }
+}
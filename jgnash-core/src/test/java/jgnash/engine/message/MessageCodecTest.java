@@ -0,0 +1,135 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.message;
+
+import jgnash.engine.Config;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.StoredObject;
+import jgnash.util.EncryptionManager;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test for the binary message frame encoding.
+ *
+ * @author Craig Cavanaugh
+ */
+class MessageCodecTest {
+
+    private static final String SOURCE = UUID.randomUUID().toString();
+
+    @Test
+    void testRoundTrip() throws IOException {
+        final Config config = new Config();
+        final CurrencyNode node = new CurrencyNode();
+
+        final Map<UUID, StoredObject> objects = new HashMap<>();
+        objects.put(config.getUuid(), config);
+        objects.put(node.getUuid(), node);
+
+        final Message configMessage = new Message(MessageChannel.CONFIG, ChannelEvent.CONFIG_MODIFY, SOURCE);
+        configMessage.setObject(MessageProperty.CONFIG, config);
+
+        final Message commodityMessage = new Message(MessageChannel.COMMODITY, ChannelEvent.CURRENCY_ADD, SOURCE);
+        commodityMessage.setObject(MessageProperty.COMMODITY, node);
+
+        final byte[] frame = MessageCodec.encode(Arrays.asList(MessageBusServer.PATH_PREFIX + "/tmp/test",
+                configMessage, commodityMessage));
+
+        final List<Object> records = MessageCodec.decode(frame, (clazz, uuid) -> objects.get(uuid));
+
+        assertEquals(3, records.size());
+        assertEquals(MessageBusServer.PATH_PREFIX + "/tmp/test", records.get(0));
+
+        final Message decodedConfig = (Message) records.get(1);
+
+        assertEquals(MessageChannel.CONFIG, decodedConfig.getChannel());
+        assertEquals(ChannelEvent.CONFIG_MODIFY, decodedConfig.getEvent());
+        assertEquals(SOURCE, decodedConfig.getSource());
+        assertSame(config, decodedConfig.getObject(MessageProperty.CONFIG));
+
+        final Message decodedCommodity = (Message) records.get(2);
+
+        assertEquals(ChannelEvent.CURRENCY_ADD, decodedCommodity.getEvent());
+        assertSame(node, decodedCommodity.getObject(MessageProperty.COMMODITY));
+
+        // without a resolver the properties are skipped
+        final Message unresolved = (Message) MessageCodec.decode(frame, null).get(1);
+
+        assertEquals(ChannelEvent.CONFIG_MODIFY, unresolved.getEvent());
+        assertNull(unresolved.getObject(MessageProperty.CONFIG));
+    }
+
+    @Test
+    void testBatchIsCompact() throws IOException {
+        final List<Message> messages = new ArrayList<>();
+
+        for (int i = 0; i < MessageCodec.MAX_BATCH; i++) {
+            final Message message = new Message(MessageChannel.CONFIG, ChannelEvent.CONFIG_MODIFY, SOURCE);
+            message.setObject(MessageProperty.CONFIG, new Config());
+            messages.add(message);
+        }
+
+        final byte[] frame = MessageCodec.encode(messages);
+
+        // repeated names are written once, each message is its indexes and the property UUID
+        assertTrue(frame.length < MessageCodec.MAX_BATCH * 40);
+        assertEquals(MessageCodec.MAX_BATCH, MessageCodec.decode(frame, null).size());
+    }
+
+    @Test
+    void testEncryptedFrame() throws IOException {
+        final EncryptionManager encryptionManager = new EncryptionManager("password".toCharArray());
+
+        final byte[] frame = MessageCodec.encode(Arrays.asList("first", "second"));
+        final byte[] encrypted = encryptionManager.encrypt(frame);
+
+        assertNotNull(encrypted);
+        assertEquals(Arrays.asList("first", "second"), MessageCodec.decode(encryptionManager.decrypt(encrypted), null));
+    }
+
+    @Test
+    void testCorruptFrame() throws IOException {
+        final byte[] frame = MessageCodec.encode(Arrays.asList("first", "second"));
+
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decode(new byte[]{42}, null));
+
+        // string index out of range
+        frame[frame.length - 1] = 42;
+        assertThrows(StreamCorruptedException.class, () -> MessageCodec.decode(frame, null));
+
+        // truncated
+        assertThrows(IOException.class, () -> MessageCodec.decode(Arrays.copyOf(frame, frame.length - 2), null));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.xstream;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jgnash.engine.Account;
+import jgnash.engine.AccountType;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.DefaultCurrencies;
+import jgnash.engine.StoredObject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Snapshot writer tests for the XStream containers.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class AbstractXStreamContainerTest {
+
+    @Test
+    void testSetWhileSnapshotIsWritten(final TemporaryFolder testFolder) throws Exception {
+        final Path path = testFolder.createFile("snapshot-test.bxds").toPath();
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<StoredObject> written = new ArrayList<>();
+
+        final BinaryContainer container = new BinaryContainer(path) {
+            @Override
+            boolean writeSnapshot(final Collection<StoredObject> objects, final Path path) {
+                written.addAll(objects);
+                writing.countDown();
+
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.writeSnapshot(objects, path);
+            }
+        };
+
+        container.openJournal();
+
+        final CurrencyNode node = DefaultCurrencies.buildCustomNode("USD");
+
+        final Account first = new Account(AccountType.BANK, node);
+        first.setName("First");
+
+        final Account second = new Account(AccountType.BANK, node);
+        second.setName("Second");
+
+        assertTrue(container.set(node));
+        assertTrue(container.set(first));
+
+        container.commit();
+
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        try {
+            // the writer is blocked serializing the snapshot and must not hold the container lock
+            final Future<Boolean> future = executorService.submit(() -> container.set(second));
+
+            assertTrue(future.get(10, TimeUnit.SECONDS));
+            assertEquals(3, container.asList().size());
+        } finally {
+            release.countDown();
+            executorService.shutdown();
+        }
+
+        container.close();
+
+        assertTrue(Files.size(path) > 0);
+
+        // the captured copy holds the objects from before the commit and none of the live instances
+        assertEquals(2, written.size());
+
+        final Account copy = (Account) written.get(1);
+
+        assertEquals(first, copy);
+        assertNotSame(first, copy);
+        assertEquals("First", copy.getName());
+        assertNotSame(node, copy.getCurrencyNode());
+        assertEquals(node, copy.getCurrencyNode());
+    }
+}
@@ -19,6 +19,8 @@
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.net.Authenticator;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -30,6 +32,7 @@ import javax.swing.*;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import jgnash.engine.DataStoreType;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineFactory;
 import jgnash.engine.jpa.JpaNetworkServer;
@@ -131,6 +134,10 @@ public class jGnashFx extends Application {
                 System.exit(0);
             }
 
+            if (options.restoreFile != null) {
+                System.exit(restoreBackup(options.restoreFile.toPath()) ? 0 : 1);
+            }
+
             if (options.verbose) {
                 System.setProperty("javafx.verbose", "true");
             }
@@ -195,6 +202,24 @@ public class jGnashFx extends Application {
         }
     }
 
+    /**
+     * Restores a compressed server backup and its increments to an XML file in the same directory.
+     */
+    private static boolean restoreBackup(final Path backup) {
+        final Path destination = Paths.get(FileUtils.stripFileExtension(backup.toString()) + "-restored"
+                + DataStoreType.XML.getDataStore().getFileExt());
+
+        final boolean result = EngineFactory.restoreCompressedXML(backup, destination);
+
+        if (result) {
+            System.out.println("Restored " + backup + " to " + destination);
+        } else {
+            System.err.println("Unable to restore " + backup);
+        }
+
+        return result;
+    }
+
     private static void setupNetworking() {
         final Preferences auth = Preferences.userRoot().node(NetworkAuthenticator.NODEHTTP);
 
@@ -241,6 +266,7 @@ public class jGnashFx extends Application {
         private static final String PASSWORD_OPTION = "--password";
         private static final String SERVER_OPTION = "--server";
         private static final String SHUTDOWN_OPTION = "--shutdown";
+        private static final String RESTORE_OPTION = "--restore";
         //private static final String SSL_OPTION = "--ssl";
 
         @CommandLine.Parameters(index = "0", arity = "0")
@@ -273,6 +299,9 @@ public class jGnashFx extends Application {
         @Option(names = {SHUTDOWN_OPTION}, description = "Issues a shutdown request to a server")
         private boolean shutdown = false;
 
+        @Option(names = {RESTORE_OPTION}, paramLabel = "<File>", description = "Restores a compressed server backup and its increments")
+        private File restoreFile = null;
+
         @Option(names = {UNINSTALL_OPTION_SHORT, UNINSTALL_OPTION_LONG}, description = "Remove registry settings (uninstall)")
         private boolean uninstall = false;
 
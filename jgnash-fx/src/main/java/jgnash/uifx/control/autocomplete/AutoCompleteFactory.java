@@ -116,6 +116,7 @@ public class AutoCompleteFactory {
                     Transaction t = event.getObject(MessageProperty.TRANSACTION);
                     load(t);
                     return;
+                case TRANSACTION_BULK_ADD:
                 case FILE_LOAD_SUCCESS:
                     reload();
                     return;
@@ -209,6 +210,11 @@ public class AutoCompleteFactory {
                         load(t);
                     }
                     return;
+                case TRANSACTION_BULK_ADD:
+                    if (a.equals(account)) {
+                        reload();
+                    }
+                    return;
                 case FILE_LOAD_SUCCESS:
                     reload();
                     return;
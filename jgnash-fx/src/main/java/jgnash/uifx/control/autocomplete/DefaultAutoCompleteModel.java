@@ -19,8 +19,6 @@ package jgnash.uifx.control.autocomplete;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
 
 import javafx.beans.property.SimpleBooleanProperty;
 
@@ -36,7 +34,7 @@ import jgnash.util.Nullable;
  */
 abstract class DefaultAutoCompleteModel<E> implements AutoCompleteModel<E> {
 
-    private final List<String> list = new LinkedList<>();
+    private final PrefixTrie index = new PrefixTrie();
 
     private final SimpleBooleanProperty autoCompleteEnabled = new SimpleBooleanProperty(true);
 
@@ -62,7 +60,8 @@ abstract class DefaultAutoCompleteModel<E> implements AutoCompleteModel<E> {
     }
 
     /**
-     * Perform a brute force linear search top down for the best match.
+     * Searches the index for the best match.  The most recently used match is preferred when fuzzy matching is
+     * enabled, otherwise the most frequently used match.
      *
      * @param content content to search for
      * @param ignoreCase true is search is case insensitive
@@ -70,42 +69,14 @@ abstract class DefaultAutoCompleteModel<E> implements AutoCompleteModel<E> {
      */
     private @Nullable String doLookAhead(final String content, final boolean ignoreCase) {
         if (!content.isEmpty()) {
-            synchronized (list) {
-                for (final String s : list) {
-
-                    if (ignoreCase) {
-                        if (s.equalsIgnoreCase(content)) {
-                            break;
-                        }
-                    } else {
-                        if (s.equals(content)) {
-                            break;
-                        }
-                    }
-
-                    if (startsWith(s, content, ignoreCase)) {
-                        return s;
-                    }
-                }
-            }
+            return index.find(content, ignoreCase, fuzzyMatchEnabled.get());
         }
         return null;
     }
 
     void addString(final String content) {
         if (content != null && !content.isEmpty()) {
-            synchronized (list) {
-                if (fuzzyMatchEnabled.get()) {
-                    list.remove(content);       // remove old instance
-                    list.add(0, content); // push it to the top of the search list
-                } else {
-                    int index = Collections.binarySearch(list, content);
-
-                    if (index < 0) {
-                        list.add(-index - 1, content);
-                    }
-                }
-            }
+            index.add(content);
         }
     }
 
@@ -113,9 +84,7 @@ abstract class DefaultAutoCompleteModel<E> implements AutoCompleteModel<E> {
      * Removes all of the strings that have been remembered.
      */
     void purge() {
-        synchronized (list) {
-            list.clear();
-        }
+        index.clear();
     }
 
     /**
@@ -131,17 +100,4 @@ abstract class DefaultAutoCompleteModel<E> implements AutoCompleteModel<E> {
     public Collection<E> getAllExtraInfo(final String key) {
         return Collections.emptyList();
     }
-
-    /**
-     * Tests if the source string starts with the prefix string. Case is
-     * ignored.
-     * 
-     * @param source the source String.
-     * @param prefix the prefix String.
-     * @param ignoreCase true if case should be ignored
-     * @return true, if the source starts with the prefix string.
-     */
-    private static boolean startsWith(final String source, final String prefix, final boolean ignoreCase) {
-        return prefix.length() <= source.length() && source.regionMatches(ignoreCase, 0, prefix, 0, prefix.length());
-    }
 }
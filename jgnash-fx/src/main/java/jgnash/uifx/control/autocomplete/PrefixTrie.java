@@ -0,0 +1,252 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.control.autocomplete;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jgnash.util.Nullable;
+
+/**
+ * Thread safe prefix trie of strings ranked by use.
+ * <p>
+ * Strings are indexed twice, by their exact characters for case sensitive searches and by case folded characters for
+ * case insensitive searches.  The use counts of a string are shared by both.  Every node remembers the most
+ * frequently and the most recently used string below it, so the best completion for a prefix is found in time
+ * proportional to the length of the prefix no matter how many strings are stored.  Use counts only grow until the
+ * trie is cleared, which keeps the remembered strings correct as strings are added.
+ *
+ * @author Craig Cavanaugh
+ */
+final class PrefixTrie {
+
+    private static final char[] EMPTY_KEYS = new char[0];
+
+    private static final Node[] EMPTY_NODES = new Node[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Strings by their exact characters, the node a string ends at holds its entry.
+     */
+    private Node exactRoot = new Node();
+
+    /**
+     * Strings by their case folded characters.
+     */
+    private Node foldedRoot = new Node();
+
+    /**
+     * Incremented for every use to order the strings by recent use.
+     */
+    private long sequence;
+
+    /**
+     * Records a use of a string.
+     *
+     * @param value string to add
+     */
+    void add(final String value) {
+        lock.writeLock().lock();
+
+        try {
+            final Node[] exactPath = getOrCreatePath(exactRoot, value, false);
+            final Node[] foldedPath = getOrCreatePath(foldedRoot, value, true);
+
+            final Node node = exactPath[value.length()];
+
+            if (node.entry == null) {
+                node.entry = new Entry(value);
+            }
+
+            final Entry entry = node.entry;
+
+            entry.count++;
+            entry.lastUsed = ++sequence;
+
+            update(exactPath, entry);
+            update(foldedPath, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best completion for a prefix.  Nothing is returned when the best completion is the prefix itself.
+     *
+     * @param prefix     prefix to complete
+     * @param ignoreCase {@code true} if the case of the prefix should be ignored
+     * @param byRecency  {@code true} to prefer the most recently used string, otherwise the most frequently used
+     * @return the best completion, {@code null} if there is none
+     */
+    @Nullable
+    String find(final String prefix, final boolean ignoreCase, final boolean byRecency) {
+        lock.readLock().lock();
+
+        try {
+            Node node = ignoreCase ? foldedRoot : exactRoot;
+
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.getChild(ignoreCase ? fold(prefix.charAt(i)) : prefix.charAt(i));
+            }
+
+            if (node == null) {
+                return null;
+            }
+
+            final Entry best = byRecency ? node.mostRecent : node.mostFrequent;
+
+            if (best == null || best.value.length() == prefix.length()) {
+                return null;
+            }
+
+            return best.value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all strings.
+     */
+    void clear() {
+        lock.writeLock().lock();
+
+        try {
+            exactRoot = new Node();
+            foldedRoot = new Node();
+            sequence = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the nodes from the root to the end of a string, creating the missing nodes.
+     */
+    private static Node[] getOrCreatePath(final Node root, final String value, final boolean folded) {
+        final Node[] path = new Node[value.length() + 1];
+
+        Node node = root;
+        path[0] = node;
+
+        for (int i = 0; i < value.length(); i++) {
+            node = node.getOrCreateChild(folded ? fold(value.charAt(i)) : value.charAt(i));
+            path[i + 1] = node;
+        }
+
+        return path;
+    }
+
+    /**
+     * Remembers a string that has just been used in the nodes of a path.
+     */
+    private static void update(final Node[] path, final Entry entry) {
+        for (final Node node : path) {
+            if (node.mostFrequent == null || compareFrequency(entry, node.mostFrequent) > 0) {
+                node.mostFrequent = entry;
+            }
+
+            node.mostRecent = entry;
+        }
+    }
+
+    /**
+     * Orders by use count, then by the most recent use.
+     */
+    private static int compareFrequency(final Entry entry, final Entry other) {
+        final int result = Long.compare(entry.count, other.count);
+
+        return result != 0 ? result : Long.compare(entry.lastUsed, other.lastUsed);
+    }
+
+    /**
+     * Folds case the same way {@code String.regionMatches} ignores case.
+     */
+    private static char fold(final char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static final class Entry {
+
+        final String value;
+
+        long count;
+
+        long lastUsed;
+
+        Entry(final String value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Node {
+
+        /**
+         * Sorted keys of the children.
+         */
+        char[] keys = EMPTY_KEYS;
+
+        Node[] children = EMPTY_NODES;
+
+        /**
+         * String that ends at this node, only set in the exact trie.
+         */
+        Entry entry;
+
+        Entry mostFrequent;
+
+        Entry mostRecent;
+
+        @Nullable
+        Node getChild(final char key) {
+            final int index = Arrays.binarySearch(keys, key);
+
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node getOrCreateChild(final char key) {
+            int index = Arrays.binarySearch(keys, key);
+
+            if (index >= 0) {
+                return children[index];
+            }
+
+            index = -index - 1;
+
+            final char[] newKeys = new char[keys.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+
+            final Node child = new Node();
+
+            newKeys[index] = key;
+            newChildren[index] = child;
+
+            keys = newKeys;
+            children = newChildren;
+
+            return child;
+        }
+    }
+}
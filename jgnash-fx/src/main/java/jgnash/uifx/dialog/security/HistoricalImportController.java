@@ -186,16 +186,17 @@ public class HistoricalImportController {
                 long processedHistory = 0;
 
                 for (final Map.Entry<SecurityNode, List<SecurityHistoryNode>> entry : historyMap.entrySet()) {
-                    if (!requestCancel) {
-                        for (final SecurityHistoryNode historyNode : entry.getValue()) {
-                            if (!requestCancel) {
-                                engine.addSecurityHistory(entry.getKey(), historyNode);
-                                updateProgress(++processedHistory, historyCount);
-
-                                updateMessage(ResourceUtils.getString("Message.UpdatedPriceDate", entry.getKey().getSymbol(),
-                                        dateTimeFormatter.format(historyNode.getLocalDate())));
-                            }
-                        }
+                    if (!requestCancel && !entry.getValue().isEmpty()) {
+
+                        // the history of each security is added as a single update
+                        engine.addSecurityHistory(entry.getKey(), entry.getValue());
+
+                        processedHistory += entry.getValue().size();
+                        updateProgress(processedHistory, historyCount);
+
+                        updateMessage(ResourceUtils.getString("Message.UpdatedPriceDate", entry.getKey().getSymbol(),
+                                dateTimeFormatter.format(entry.getValue().get(entry.getValue().size() - 1)
+                                        .getLocalDate())));
                     }
                 }
 
@@ -18,6 +18,7 @@
 package jgnash.uifx.views.accounts;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
 import java.util.prefs.Preferences;
@@ -69,6 +70,11 @@ public class AccountsViewController implements MessageListener {
 
     private final static String COLUMN_VISIBILITY = "ColumnVisibility";
 
+    /**
+     * Coalescing window for transaction messages in milliseconds.
+     */
+    private static final long TRANSACTION_WINDOW = 250;
+
     private final Preferences preferences = Preferences.userNodeForPackage(AccountsViewController.class);
 
     private final AccountTypeFilter typeFilter = new AccountTypeFilter(preferences);
@@ -111,8 +117,10 @@ public class AccountsViewController implements MessageListener {
 
         JavaFXUtils.runLater(this::loadAccountTree);
 
-        MessageBus.getInstance().registerListener(this, MessageChannel.SYSTEM, MessageChannel.ACCOUNT,
-                MessageChannel.TRANSACTION);
+        MessageBus.getInstance().registerListener(this, MessageChannel.SYSTEM, MessageChannel.ACCOUNT);
+
+        // transaction changes only refresh the balances, a bulk change needs a single refresh
+        MessageBus.getInstance().registerCoalescingListener(this, TRANSACTION_WINDOW, MessageChannel.TRANSACTION);
 
         // Register invalidation listeners to force a reload
         typeFilter.addListener(observable -> reload());
@@ -375,6 +383,7 @@ public class AccountsViewController implements MessageListener {
                 reload();
                 break;
             case TRANSACTION_ADD:
+            case TRANSACTION_BULK_ADD:
             case TRANSACTION_REMOVE:
                 JavaFXUtils.runLater(() -> treeTableView.refresh());
                 break;
@@ -388,6 +397,11 @@ public class AccountsViewController implements MessageListener {
         }
     }
 
+    @Override
+    public void messagesPosted(final List<Message> messages) {
+        JavaFXUtils.runLater(() -> treeTableView.refresh());
+    }
+
     @FXML
     private void handleReconcileAction() {
         RegisterActions.reconcileAccountAction(selectedAccount.get());
@@ -427,6 +427,9 @@ public class BudgetTableController implements MessageListener {
                 budgetResultsModel = new BudgetResultsModel(budget.get(), yearSpinner.getValue(),
                         engine.getDefaultCurrency(), runningTotalsButton.isSelected());
 
+                // compute all results up front, the column width calculations use all of them
+                budgetResultsModel.loadResults();
+
                 // model has changed, calculate the minimum column width for the summary columns
                 minSummaryColumnWidth.set(calculateMinSummaryWidthColumnWidth());
 
@@ -1101,6 +1104,7 @@ public class BudgetTableController implements MessageListener {
                 }
                 break;
             case TRANSACTION_ADD:
+            case TRANSACTION_BULK_ADD:
             case TRANSACTION_REMOVE:
                 handleTransactionUpdate();
                 break;
@@ -87,6 +87,7 @@ class AccountPropertyWrapper implements MessageListener {
         switch (event.getEvent()) {
             case ACCOUNT_MODIFY:
             case TRANSACTION_ADD:
+            case TRANSACTION_BULK_ADD:
             case TRANSACTION_REMOVE:
                 if (event.getObject(MessageProperty.ACCOUNT).equals(account.get())) {
                     updateProperties();
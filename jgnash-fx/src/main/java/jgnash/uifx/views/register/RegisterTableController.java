@@ -619,6 +619,15 @@ abstract class RegisterTableController {
 						refreshTable();
 					});
 
+					break;
+				case TRANSACTION_BULK_ADD:
+					JavaFXUtils.runLater(() -> {
+						observableTransactions.setAll(acc.getSortedTransactionList());
+
+						// this will force the running balance to recalculate
+						refreshTable();
+					});
+
 					break;
 				default:
 				}
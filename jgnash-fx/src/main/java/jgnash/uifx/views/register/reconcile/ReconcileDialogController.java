@@ -54,6 +54,7 @@ import jgnash.engine.RecTransaction;
 import jgnash.engine.ReconcileManager;
 import jgnash.engine.ReconciledState;
 import jgnash.engine.Transaction;
+import jgnash.engine.message.ChannelEvent;
 import jgnash.engine.message.Message;
 import jgnash.engine.message.MessageBus;
 import jgnash.engine.message.MessageChannel;
@@ -457,6 +458,20 @@ public class ReconcileDialogController implements MessageListener {
                     default:
                         break;
                 }
+            } else if (message.getEvent() == ChannelEvent.TRANSACTION_BULK_ADD) {
+                readWriteLock.writeLock().lock();
+                try {
+                    // merge in the new transactions, existing reconciled states must be preserved
+                    for (final Transaction t : account.getSortedTransactionList()) {
+                        if (reconcilable(t) && findTransaction(t) == null) {
+                            transactions.add(new RecTransaction(t, t.getReconciled(account)));
+                        }
+                    }
+                    FXCollections.sort(transactions);
+                    updateCalculatedValues();
+                } finally {
+                    readWriteLock.writeLock().unlock();
+                }
             }
         }
     }
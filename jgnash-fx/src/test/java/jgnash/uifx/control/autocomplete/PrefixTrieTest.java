@@ -0,0 +1,70 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2018 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.control.autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * JUnit test for the auto complete {@code PrefixTrie}.
+ *
+ * @author Craig Cavanaugh
+ */
+class PrefixTrieTest {
+
+    @Test
+    void testFrequencyAndRecency() {
+        final PrefixTrie trie = new PrefixTrie();
+
+        trie.add("Grocery Store");
+        trie.add("Grocery Store");
+        trie.add("Gas Station");
+        trie.add("Garden Center");
+
+        assertEquals("Grocery Store", trie.find("G", false, false));
+        assertEquals("Garden Center", trie.find("G", false, true));
+        assertEquals("Gas Station", trie.find("Gas", false, false));
+
+        assertNull(trie.find("Gas Station", false, false));
+        assertNull(trie.find("Hardware", false, false));
+
+        trie.clear();
+
+        assertNull(trie.find("G", false, false));
+    }
+
+    @Test
+    void testCase() {
+        final PrefixTrie trie = new PrefixTrie();
+
+        trie.add("ABC Market");
+        trie.add("ABC Market");
+        trie.add("abc cafe");
+
+        assertEquals("ABC Market", trie.find("abc", true, false));
+        assertEquals("abc cafe", trie.find("abc", false, false));
+        assertEquals("ABC Market", trie.find("AB", false, false));
+        assertEquals("ABC Market", trie.find("AB", false, true));
+        assertEquals("abc cafe", trie.find("ab", true, true));
+        assertNull(trie.find("abc m", false, false));
+
+        assertNull(trie.find("abc market", true, false));
+    }
+}
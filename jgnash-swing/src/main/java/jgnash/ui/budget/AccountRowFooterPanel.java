@@ -322,6 +322,7 @@ public class AccountRowFooterPanel extends JPanel {
         public void messagePosted(final Message event) {
             switch (event.getEvent()) {
                 case TRANSACTION_ADD:
+                case TRANSACTION_BULK_ADD:
                 case TRANSACTION_REMOVE:
                     processTransactionEvent(event);
                     break;
@@ -363,8 +364,12 @@ public class AccountRowFooterPanel extends JPanel {
                 // build a list of accounts include ancestors that will be impacted by the transaction changes
                 final Set<Account> accounts = new HashSet<>();
 
-                for (Account account : transaction.getAccounts()) {
-                    accounts.addAll(account.getAncestors());
+                if (transaction != null) {
+                    for (Account account : transaction.getAccounts()) {
+                        accounts.addAll(account.getAncestors());
+                    }
+                } else {    // bulk add messages only identify the account
+                    accounts.addAll(message.<Account>getObject(MessageProperty.ACCOUNT).getAncestors());
                 }
 
                 for (Account account : accounts) {
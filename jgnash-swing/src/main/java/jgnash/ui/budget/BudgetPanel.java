@@ -337,6 +337,7 @@ public final class BudgetPanel extends JPanel implements ActionListener, Message
             final CurrencyNode baseCurrency = engine.getDefaultCurrency();
 
             resultsModel = new BudgetResultsModel(activeBudget, budgetYear, baseCurrency, false);
+            resultsModel.loadResults();
 
             tableModel = new ExpandingBudgetTableModel(resultsModel);
 
@@ -613,6 +614,7 @@ public final class BudgetPanel extends JPanel implements ActionListener, Message
             case ACCOUNT_REMOVE:
             case ACCOUNT_MODIFY:
             case TRANSACTION_ADD:
+            case TRANSACTION_BULK_ADD:
             case TRANSACTION_REMOVE:
             case BUDGET_GOAL_UPDATE:
                 overviewPanel.updateSparkLines();
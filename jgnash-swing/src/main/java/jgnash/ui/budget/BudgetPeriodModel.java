@@ -333,6 +333,9 @@ public final class BudgetPeriodModel implements TableModel, MessageListener {
                 case TRANSACTION_REMOVE:
                     processTransactionEvent(message);
                     break;
+                case TRANSACTION_BULK_ADD:
+                    fireUpdate(message.<Account>getObject(MessageProperty.ACCOUNT).getAncestors());
+                    break;
                 default:
                     break;
             }
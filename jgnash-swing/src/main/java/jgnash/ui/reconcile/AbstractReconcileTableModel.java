@@ -212,6 +212,19 @@ abstract class AbstractReconcileTableModel extends AbstractTableModel implements
                                 }
                             }
                             break;
+                        case TRANSACTION_BULK_ADD:
+                            // merge in the new transactions, existing reconciled states must be preserved
+                            for (final Transaction t : account.getSortedTransactionList()) {
+                                if (reconcilable(t) && findTransaction(t) == null) {
+                                    RecTransaction newTran = new RecTransaction(t, t.getReconciled(account));
+                                    int index = Collections.binarySearch(list, newTran);
+                                    if (index < 0) {
+                                        list.add(-index - 1, newTran);
+                                    }
+                                }
+                            }
+                            fireTableDataChanged();
+                            break;
                         default:
                             break;
                     }
@@ -447,6 +447,7 @@ public abstract class AbstractRegisterPanel extends JPanel implements MessageLis
                         updateAccountInfo();
                         break;
                     case TRANSACTION_REMOVE:
+                    case TRANSACTION_BULK_ADD:
                         updateAccountInfo();
                         break;
                     default:
@@ -20,12 +20,16 @@ package jgnash.ui.register.table;
 import java.awt.EventQueue;
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.ResourceBundle;
 
 import javax.swing.table.AbstractTableModel;
 
 import jgnash.engine.Account;
+import jgnash.engine.AccountGroup;
+import jgnash.engine.CommodityNode;
+import jgnash.engine.SecurityNode;
 import jgnash.engine.Transaction;
 import jgnash.engine.message.ChannelEvent;
 import jgnash.engine.message.Message;
@@ -254,7 +258,10 @@ public abstract class AbstractRegisterTableModel extends AbstractTableModel impl
     public void messagePosted(final Message event) {
 
         if (event.getEvent() == ChannelEvent.CURRENCY_MODIFY || event.getEvent() == ChannelEvent.SECURITY_MODIFY) {
-            EventQueue.invokeLater(AbstractRegisterTableModel.this::fireTableDataChanged);
+            if (isDisplayed(event.getObject(MessageProperty.COMMODITY))) {
+                EventQueue.invokeLater(this::fireAllRowsUpdated);
+            }
+            return;
         }
 
         if (account.equals(event.getObject(MessageProperty.ACCOUNT))) {
@@ -264,13 +271,13 @@ public abstract class AbstractRegisterTableModel extends AbstractTableModel impl
                         unregister();
                         return;
                     case TRANSACTION_ADD:
-                        Transaction t = event.getObject(MessageProperty.TRANSACTION);
-                        int index = account.indexOf(t);
-                        balanceCache.ensureCapacity(account.getTransactionCount());
-                        balanceCache.clear(index);
-                        fireTableRowsInserted(index, index);
+                        transactionAdded(event.getObject(MessageProperty.TRANSACTION));
                         break;
                     case TRANSACTION_REMOVE:
+                        transactionRemoved(event.getObject(MessageProperty.TRANSACTION));
+                        break;
+                    case TRANSACTION_BULK_ADD:
+                        balanceCache.ensureCapacity(account.getTransactionCount());
                         balanceCache.clear();
                         fireTableDataChanged();
                         break;
@@ -282,6 +289,59 @@ public abstract class AbstractRegisterTableModel extends AbstractTableModel impl
         }
     }
 
+    /**
+     * Returns {@code true} if the values of the commodity are displayed by this register.
+     *
+     * @param node the modified commodity
+     * @return {@code true} if the rows need to be repainted
+     */
+    private boolean isDisplayed(final CommodityNode node) {
+        if (node instanceof SecurityNode) {
+            return account.memberOf(AccountGroup.INVEST) && account.containsSecurity((SecurityNode) node);
+        }
+
+        // investment registers display security values in the currency of the security
+        return account.getCurrencyNode().equals(node) || account.memberOf(AccountGroup.INVEST);
+    }
+
+    /**
+     * Repaints every row without discarding the selection as {@code fireTableDataChanged()} would.
+     */
+    private void fireAllRowsUpdated() {
+        final int rowCount = getRowCount();
+
+        if (rowCount > 0) {
+            fireTableRowsUpdated(0, rowCount - 1);
+        }
+    }
+
+    private void transactionAdded(final Transaction transaction) {
+        final int index = account.indexOf(transaction);
+
+        balanceCache.ensureCapacity(account.getTransactionCount());
+
+        if (index >= 0) {   // balances before the new row are unchanged
+            balanceCache.clear(index);
+            fireTableRowsInserted(index, index);
+        }
+    }
+
+    private void transactionRemoved(final Transaction transaction) {
+
+        // the transaction is no longer in the account, the insertion point is the row it occupied
+        final int index = Collections.binarySearch(account.getSortedTransactionList(), transaction);
+
+        if (index < 0) {
+            final int row = -index - 1;
+
+            balanceCache.clear(row);
+            fireTableRowsDeleted(row, row);
+        } else {    // still held by the account, the row cannot be determined
+            balanceCache.clear();
+            fireTableDataChanged();
+        }
+    }
+
     void unregister() {
         MessageBus.getInstance().unregisterListener(this, MessageChannel.SYSTEM, MessageChannel.TRANSACTION);
 
@@ -18,6 +18,7 @@
 package jgnash.ui.register.table;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 
 /**
  * A list class to cache BigDecimals at specified indexes. BigDecimalCache operates under the assumption that it may
@@ -91,11 +92,8 @@ final class BigDecimalCache {
      * @param fromIndex index of first BigDecimal to be cleared.
      */
     public void clear(final int fromIndex) {
-        if (fromIndex >= 0 && fromIndex < cache.length - 1) {
-            int toIndex = cache.length;
-            for (int i = fromIndex; i < toIndex; i++) {
-                cache[i] = null;
-            }
+        if (fromIndex >= 0 && fromIndex < cache.length) {
+            Arrays.fill(cache, fromIndex, cache.length, null);
         } else {
             ensureCapacity(fromIndex + 1);
         }
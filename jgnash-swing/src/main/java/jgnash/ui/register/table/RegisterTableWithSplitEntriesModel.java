@@ -150,53 +150,37 @@ public class RegisterTableWithSplitEntriesModel extends RegisterTableModel {
         }
     }
 
-    private void updateData() {
-        updateData(0);
-    }
-
     /**
-     * Update the internal data from the specified index. Note that this index is not relative to the account
-     * transaction list but to the internal data.
-     *
-     * @param startIndex internal data index from which transactions need to updated.
+     * Rebuild the internal data. Cached balances are left alone, the caller clears them from the first changed row.
      */
-    private void updateData(final int startIndex) {
-        if (data == null) {
-            data = new ArrayList<>(0);
-        }
-        while (data.size() > startIndex) {
-            data.remove(startIndex);
-        }
+    private void updateData() {
+        data = new ArrayList<>(account.getTransactionCount());
 
         for (Transaction t : account.getSortedTransactionList()) {
-            if (data.size() >= startIndex) {
-                data.add(new TransactionWrapper(t));
-                if (t.getTransactionType() == TransactionType.SPLITENTRY && showSplitDetails) {
+            data.add(new TransactionWrapper(t));
+            if (t.getTransactionType() == TransactionType.SPLITENTRY && showSplitDetails) {
 
-                    /* Only detail split entries if 2 or more entries impact this account */
-                    int splitImpact = 0;
+                /* Only detail split entries if 2 or more entries impact this account */
+                int splitImpact = 0;
 
-                    // count the number of impacting entry(s)
-                    for (TransactionEntry e : t.getTransactionEntries()) {
-                        if (e.getAmount(account).signum() != 0) {
-                            splitImpact++;
-                        }
+                // count the number of impacting entry(s)
+                for (TransactionEntry e : t.getTransactionEntries()) {
+                    if (e.getAmount(account).signum() != 0) {
+                        splitImpact++;
                     }
+                }
 
-                    // load only the entries that impact this account
-                    if (splitImpact > 1) {
-                        data.addAll(t.getTransactionEntries().stream()
-                                .filter(e -> e.getAmount(account).signum() != 0)
-                                .map(e -> new TransactionWrapper(t, e))
-                                .collect(Collectors.toList()));
-                    }
+                // load only the entries that impact this account
+                if (splitImpact > 1) {
+                    data.addAll(t.getTransactionEntries().stream()
+                            .filter(e -> e.getAmount(account).signum() != 0)
+                            .map(e -> new TransactionWrapper(t, e))
+                            .collect(Collectors.toList()));
                 }
             }
         }
 
-        // updating the balance cache too
         balanceCache.ensureCapacity(data.size());
-        balanceCache.clear(startIndex);
     }
 
     /*
@@ -257,17 +241,36 @@ public class RegisterTableWithSplitEntriesModel extends RegisterTableModel {
                     case FILE_CLOSING:
                         unregister();
                         break;
-                    case TRANSACTION_ADD:
-                        Transaction t = event.getObject(MessageProperty.TRANSACTION);
+                    case TRANSACTION_ADD: {
+                        final Transaction t = event.getObject(MessageProperty.TRANSACTION);
                         updateData();
-                        int index = indexOfWrapper(t);
+                        final int index = indexOfWrapper(t);
 
                         if (index >= 0) {
-                            fireTableRowsInserted(index, index);
+                            balanceCache.clear(index);
+                            fireTableRowsInserted(index, index + getRowSpan(index) - 1);
                         }
                         break;
-                    case TRANSACTION_REMOVE:
+                    }
+                    case TRANSACTION_REMOVE: {
+                        final int index = indexOfWrapper(event.getObject(MessageProperty.TRANSACTION));
+
+                        if (index >= 0) {
+                            final int span = getRowSpan(index);
+
+                            updateData();
+                            balanceCache.clear(index);
+                            fireTableRowsDeleted(index, index + span - 1);
+                        } else {
+                            updateData();
+                            balanceCache.clear();
+                            fireTableDataChanged();
+                        }
+                        break;
+                    }
+                    case TRANSACTION_BULK_ADD:
                         updateData();
+                        balanceCache.clear();
                         fireTableDataChanged();
                         break;
                     default:
@@ -292,6 +295,24 @@ public class RegisterTableWithSplitEntriesModel extends RegisterTableModel {
         return index;
     }
 
+    /**
+     * Returns the number of rows used by the transaction at the index, the transaction and any split entries.
+     *
+     * @param index internal data index of the transaction
+     * @return number of rows
+     */
+    private int getRowSpan(final int index) {
+        final Transaction transaction = data.get(index).transaction;
+
+        int span = 1;
+
+        while (index + span < data.size() && data.get(index + span).transaction == transaction) {
+            span++;
+        }
+
+        return span;
+    }
+
     private static class TransactionWrapper {
 
         final Transaction transaction;
@@ -135,19 +135,19 @@ public class SortedInvestmentTableModel extends InvestmentRegisterTableModel imp
     @Override
     public void messagePosted(final Message event) {
         if (event.getObject(MessageProperty.ACCOUNT) == account) {
-            EventQueue.invokeLater(() -> {
-                switch (event.getEvent()) {
-                    case TRANSACTION_ADD:
-                    case TRANSACTION_REMOVE:
-                        getTransactions();
-                        break;
-                    default: // ignore any other messages that don't matter
-
-                        break;
-                }
-            });
+            switch (event.getEvent()) {
+                case TRANSACTION_ADD:
+                case TRANSACTION_REMOVE:
+                case TRANSACTION_BULK_ADD:
+                    // rows are not in account order, resort and fire the update here
+                    EventQueue.invokeLater(this::getTransactions);
+                    return;
+                default: // ignore any other messages that don't matter
+
+                    break;
+            }
         }
-        super.messagePosted(event); // this will fire the update
+        super.messagePosted(event);
 
     }
 
@@ -211,6 +211,14 @@ public class SortedTableModel extends RegisterTableModel implements SortableTabl
                 case TRANSACTION_REMOVE:
                     EventQueue.invokeLater(() -> removeTransaction(event.getObject(MessageProperty.TRANSACTION)));
                     return;
+                case TRANSACTION_BULK_ADD:
+                    EventQueue.invokeLater(() -> {
+                        getTransactions();
+                        balanceCache.ensureCapacity(account.getTransactionCount());
+                        balanceCache.clear();
+                        fireTableDataChanged();
+                    });
+                    return;
                 default: // ignore any other messages that don't belong to us
                     break;
             }
@@ -221,45 +229,81 @@ public class SortedTableModel extends RegisterTableModel implements SortableTabl
         lock.lock();
 
         try {
-            int index = Collections.binarySearch(transactions, t, comparator);
+            final int index = Collections.binarySearch(transactions, t, comparator);
 
-            if (index < 0) {
-                int i = -index - 1;
-
-                transactions.add(i, t);
-                if (i >= 1) {
-                    balanceCache.clear(i - 1);
-                } else {
-                    balanceCache.clear();
-                }
-                fireTableRowsInserted(i, i);
+            // the sort column may not be unique, the transaction may already be in the range of equal rows
+            if (index >= 0 && containsEqual(index, t)) {
+                return;
             }
+
+            // insert next to an equal transaction
+            final int i = index < 0 ? -index - 1 : index;
+
+            transactions.add(i, t);
+
+            final int row = toRow(i);
+
+            balanceCache.clear(row);    // balances of the rows above are unchanged
+            fireTableRowsInserted(row, row);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Searches the rows the comparator considers equal to the row at an index for a transaction.  The lock must be
+     * held by the caller.
+     *
+     * @param index index of a row equal to the transaction
+     * @param t     transaction to look for
+     * @return {@code true} if the transaction is already in the list
+     */
+    private boolean containsEqual(final int index, final Transaction t) {
+        for (int i = index; i >= 0 && comparator.compare(transactions.get(i), t) == 0; i--) {
+            if (transactions.get(i).equals(t)) {
+                return true;
+            }
+        }
+
+        for (int i = index + 1; i < transactions.size() && comparator.compare(transactions.get(i), t) == 0; i++) {
+            if (transactions.get(i).equals(t)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private void removeTransaction(final Transaction t) {
 
         lock.lock();
 
         try {
-            int i = transactions.indexOf(t);
+            final int i = transactions.indexOf(t);
 
             if (i >= 0) {
-                transactions.remove(t);
-                if (i >= 1) {
-                    balanceCache.clear(i - 1); // clear the previous index in the balance cache
-                } else {
-                    balanceCache.clear();
-                }
-                fireTableRowsDeleted(i, i);
+                final int row = toRow(i);
+
+                transactions.remove(i);
+
+                balanceCache.clear(row);    // balances of the rows above are unchanged
+                fireTableRowsDeleted(row, row);
             }
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Converts an index of the sorted transactions into a model row index.
+     *
+     * @param index index of the sorted transactions
+     * @return model row index
+     */
+    private int toRow(final int index) {
+        return ascending ? index : transactions.size() - index - 1;
+    }
+
     @Override
     public boolean isSortable(final int col) {
         return sortedColumnMap[col];